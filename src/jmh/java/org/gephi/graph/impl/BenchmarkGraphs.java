@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+
+/**
+ * Builds the graphs used by the benchmarks, on top of {@link GraphGenerator}.
+ */
+public class BenchmarkGraphs {
+
+    public static int nodeCount(int edgeCount) {
+        return Math.max((int) Math.ceil(Math.sqrt(edgeCount * 2)), (int) (edgeCount / 10.0));
+    }
+
+    public static GraphStore generateNodesOnly(int edgeCount) {
+        GraphStore graphStore = new GraphModelImpl().store;
+        NodeImpl[] nodes = GraphGenerator.generateNodeList(nodeCount(edgeCount), graphStore);
+        graphStore.addAllNodes(Arrays.asList(nodes));
+        return graphStore;
+    }
+
+    public static EdgeImpl[] generateEdges(GraphStore graphStore, int edgeCount) {
+        return GraphGenerator.generateEdgeList(graphStore.nodeStore, edgeCount, 0, true, true, false);
+    }
+
+    public static GraphStore generateGraph(int edgeCount) {
+        GraphStore graphStore = generateNodesOnly(edgeCount);
+        graphStore.addAllEdges(Arrays.asList(generateEdges(graphStore, edgeCount)));
+        return graphStore;
+    }
+}
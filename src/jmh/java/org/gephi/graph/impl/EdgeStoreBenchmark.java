@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mutation benchmarks, each measured iteration adds or removes all the edges
+ * once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class EdgeStoreBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int edgeCount;
+
+    private GraphStore graphStore;
+    private EdgeImpl[] edges;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        graphStore = BenchmarkGraphs.generateNodesOnly(edgeCount);
+        edges = BenchmarkGraphs.generateEdges(graphStore, edgeCount);
+    }
+
+    @Benchmark
+    public EdgeStore add() {
+        EdgeStore edgeStore = graphStore.edgeStore;
+        for (EdgeImpl edge : edges) {
+            edgeStore.add(edge);
+        }
+        return edgeStore;
+    }
+
+    @Benchmark
+    public EdgeStore bulkAdd() {
+        graphStore.graphModel.bulkLoader().addEdges(edges);
+        return graphStore.edgeStore;
+    }
+
+    @Benchmark
+    public EdgeStore addRemove() {
+        EdgeStore edgeStore = graphStore.edgeStore;
+        for (EdgeImpl edge : edges) {
+            edgeStore.add(edge);
+        }
+        for (EdgeImpl edge : edges) {
+            edgeStore.remove(edge);
+        }
+        return edgeStore;
+    }
+}
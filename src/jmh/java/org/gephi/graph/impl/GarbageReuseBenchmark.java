@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Churn benchmarks, each operation adds an element into a free slot and removes
+ * it again. Half of the store is garbage and the free slots are in the highest
+ * blocks, which is the worst case for finding a free slot. The time per
+ * operation should stay flat as the store grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GarbageReuseBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    public int elementCount;
+
+    private NodeStore nodeStore;
+    private EdgeStore edgeStore;
+    private NodeImpl[] freeNodes;
+    private EdgeImpl[] freeEdges;
+    private int nodeIndex;
+    private int edgeIndex;
+
+    @Setup
+    public void setup() {
+        nodeStore = new NodeStore();
+        NodeImpl[] nodes = GraphGenerator.generateNodeList(elementCount);
+        for (NodeImpl node : nodes) {
+            nodeStore.add(node);
+        }
+        freeNodes = new NodeImpl[elementCount / 2];
+        for (int i = 0; i < freeNodes.length; i++) {
+            // The last element is kept so the highest block isn't trimmed
+            freeNodes[i] = nodes[elementCount - 2 - i];
+            nodeStore.remove(freeNodes[i]);
+        }
+
+        edgeStore = new EdgeStore();
+        EdgeImpl[] edges = GraphGenerator.generateEdgeList(elementCount, 0, true, true, false);
+        for (EdgeImpl edge : edges) {
+            edgeStore.add(edge);
+        }
+        freeEdges = new EdgeImpl[elementCount / 2];
+        for (int i = 0; i < freeEdges.length; i++) {
+            freeEdges[i] = edges[elementCount - 2 - i];
+            edgeStore.remove(freeEdges[i]);
+        }
+    }
+
+    @Benchmark
+    public NodeStore nodeChurn() {
+        NodeImpl node = freeNodes[nodeIndex++ % freeNodes.length];
+        nodeStore.add(node);
+        nodeStore.remove(node);
+        return nodeStore;
+    }
+
+    @Benchmark
+    public EdgeStore edgeChurn() {
+        EdgeImpl edge = freeEdges[edgeIndex++ % freeEdges.length];
+        edgeStore.add(edge);
+        edgeStore.remove(edge);
+        return edgeStore;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.gephi.graph.api.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interval map benchmarks over random intervals of length up to 100 between 0
+ * and 1000000. The load benchmark puts all intervals and runs a first query,
+ * the query benchmarks count the intervals containing a point or overlapping
+ * an interval of length 100.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IntervalTreeBenchmark {
+
+    @Param({"1000000"})
+    public int intervalCount;
+
+    private static final int TIME_RANGE = 1000000;
+
+    private Interval[] intervals;
+    private Interval2IntTreeMap map;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        intervals = new Interval[intervalCount];
+        for (int i = 0; i < intervalCount; i++) {
+            double low = random.nextInt(TIME_RANGE);
+            intervals[i] = new Interval(low, low + random.nextInt(100));
+        }
+        map = load();
+    }
+
+    private Interval2IntTreeMap load() {
+        Interval2IntTreeMap m = new Interval2IntTreeMap();
+        for (int i = 0; i < intervals.length; i++) {
+            m.put(intervals[i], i);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public int bulkLoad() {
+        return load().values(Interval.INFINITY_INTERVAL).size();
+    }
+
+    @Benchmark
+    public int stabbingQuery() {
+        int count = 0;
+        for (Integer value : map.values((frame++ * 7919) % TIME_RANGE)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int overlapQuery() {
+        double low = (frame++ * 7919) % TIME_RANGE;
+        return map.values(new Interval(low, low + 100)).size();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.StoreOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Traversal benchmarks before and after renumbering the store ids, each
+ * invocation walks the out edges of every node in store order. The
+ * <code>INSERTION</code> order leaves the generated graph as is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ReorderBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    public int edgeCount;
+
+    @Param({"INSERTION", "BFS", "DEGREE", "COMMUNITY"})
+    public String order;
+
+    private GraphStore graphStore;
+    private NodeImpl[] nodes;
+    private EdgeCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graphStore = BenchmarkGraphs.generateGraph(edgeCount);
+        if (!order.equals("INSERTION")) {
+            graphStore.reorder(StoreOrder.valueOf(order));
+        }
+        nodes = graphStore.nodeStore.toArray();
+        cursor = graphStore.getOutEdgeCursor();
+    }
+
+    @Benchmark
+    public void edgeOutIterator(Blackhole blackhole) {
+        EdgeStore edgeStore = graphStore.edgeStore;
+        for (NodeImpl node : nodes) {
+            Iterator<Edge> itr = edgeStore.edgeOutIterator(node);
+            while (itr.hasNext()) {
+                blackhole.consume(itr.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public long successorCursor() {
+        long sum = 0;
+        for (NodeImpl node : nodes) {
+            cursor.reset(node);
+            while (cursor.nextStoreId() != -1) {
+                sum += cursor.edge().getTarget().getStoreId();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.TimeIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time index query benchmarks over edges with timestamps between 0 and 1000,
+ * each operation iterates the elements of a timestamp or of an interval of the
+ * given width.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TimeIndexBenchmark {
+
+    @Param({"1000000"})
+    public int edgeCount;
+
+    @Param({"10", "500"})
+    public int width;
+
+    private static final int TIME_RANGE = 1000;
+
+    private TimeIndex<Edge> index;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GraphStore graphStore = BenchmarkGraphs.generateGraph(edgeCount);
+        Random random = new Random(42);
+        for (Edge edge : graphStore.getEdges().toArray()) {
+            edge.addTimestamp(random.nextInt(TIME_RANGE));
+        }
+        index = graphStore.timeStore.edgeIndexStore.getIndex(graphStore);
+    }
+
+    @Benchmark
+    public int getTimestamp() {
+        int count = 0;
+        for (Element element : index.get(frame++ % TIME_RANGE)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int getInterval() {
+        int low = frame++ % (TIME_RANGE - width);
+        int count = 0;
+        for (Element element : index.get(new Interval(low, low + width))) {
+            count++;
+        }
+        return count;
+    }
+}
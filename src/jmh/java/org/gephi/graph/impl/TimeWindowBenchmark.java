@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.TimeIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Timeline playback benchmarks, each operation moves a window of 100 time units
+ * by one unit over elements with timestamps between 0 and 1000. The time window
+ * view only updates the elements entering or leaving the window, the rebuild
+ * benchmark fills a view from the time indexes for every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TimeWindowBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int edgeCount;
+
+    private static final int TIME_RANGE = 1000;
+    private static final int WINDOW = 100;
+
+    private GraphStore graphStore;
+    private GraphViewImpl windowView;
+    private GraphViewImpl view;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graphStore = BenchmarkGraphs.generateGraph(edgeCount);
+        Random random = new Random(42);
+        for (Node node : graphStore.getNodes().toArray()) {
+            node.addTimestamp(random.nextInt(TIME_RANGE));
+        }
+        for (Edge edge : graphStore.getEdges().toArray()) {
+            edge.addTimestamp(random.nextInt(TIME_RANGE));
+        }
+        windowView = graphStore.viewStore.createTimeWindowView(nextWindow());
+        view = graphStore.viewStore.createView();
+    }
+
+    private Interval nextWindow() {
+        int low = frame++ % (TIME_RANGE - WINDOW);
+        return new Interval(low, low + WINDOW);
+    }
+
+    @Benchmark
+    public GraphViewImpl slideTimeWindow() {
+        graphStore.viewStore.setTimeInterval(windowView, nextWindow());
+        return windowView;
+    }
+
+    @Benchmark
+    public GraphViewImpl rebuildFromTimeIndex() {
+        Interval window = nextWindow();
+        TimeIndex<Node> nodeIndex = graphStore.timeStore.nodeIndexStore.getIndex(graphStore);
+        TimeIndex<Edge> edgeIndex = graphStore.timeStore.edgeIndexStore.getIndex(graphStore);
+        view.clear();
+        for (Element node : nodeIndex.get(window)) {
+            view.addNode((Node) node);
+        }
+        for (Element edge : edgeIndex.get(window)) {
+            Edge e = (Edge) edge;
+            if (view.containsNode((NodeImpl) e.getSource()) && view.containsNode((NodeImpl) e.getTarget())) {
+                view.addEdge(e);
+            }
+        }
+        return view;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Store churn benchmarks with many live views, each operation adds an element
+ * to the store and removes it again. Every view holds a small slice of the
+ * nodes, so most views are not affected by a given element. The time per
+ * operation should grow slowly with the number of views.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ViewMaintenanceBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int viewCount;
+
+    @Param({"true", "false"})
+    public boolean edges;
+
+    private static final int EDGE_COUNT = 100000;
+
+    private GraphStore graphStore;
+    private NodeImpl[] freeNodes;
+    private EdgeImpl[] freeEdges;
+    private int nodeIndex;
+    private int edgeIndex;
+
+    @Setup
+    public void setup() {
+        graphStore = BenchmarkGraphs.generateGraph(EDGE_COUNT);
+        NodeImpl[] nodes = graphStore.nodeStore.toArray();
+        for (int i = 0; i < viewCount; i++) {
+            GraphViewImpl view = graphStore.viewStore.createView(true, edges);
+            for (int j = i % 100; j < nodes.length; j += 100) {
+                view.addNode(nodes[j]);
+            }
+        }
+
+        freeNodes = new NodeImpl[1000];
+        for (int i = 0; i < freeNodes.length; i++) {
+            freeNodes[i] = (NodeImpl) graphStore.factory.newNode("free" + i);
+        }
+        freeEdges = new EdgeImpl[1000];
+        for (int i = 0, j = 0; j < freeEdges.length; i++) {
+            NodeImpl source = nodes[i];
+            NodeImpl target = nodes[nodes.length - 1 - i];
+            if (graphStore.edgeStore.get(source, target, 0, false) == null) {
+                freeEdges[j++] = (EdgeImpl) graphStore.factory.newEdge("free" + j, source, target, 0, 1.0, true);
+            }
+        }
+    }
+
+    @Benchmark
+    public GraphStore nodeChurn() {
+        NodeImpl node = freeNodes[nodeIndex++ % freeNodes.length];
+        graphStore.addNode(node);
+        graphStore.removeNode(node);
+        return graphStore;
+    }
+
+    @Benchmark
+    public GraphStore edgeChurn() {
+        EdgeImpl edge = freeEdges[edgeIndex++ % freeEdges.length];
+        graphStore.addEdge(edge);
+        graphStore.removeEdge(edge);
+        return graphStore;
+    }
+}
@@ -93,6 +93,57 @@ public interface ColumnIndex<K, T extends Element> extends Iterable<Map.Entry<K,
      */
     Number getMaxValue();
 
+    /**
+     * Gets the elements with a value between <em>from</em> and <em>to</em>, in
+     * ascending order of value.
+     * <p>
+     * A null bound leaves that side of the range open. Elements with a null value
+     * are never included. Only applies for sortable indices.
+     *
+     * @param from the lower bound, or null
+     * @param to the upper bound, or null
+     * @param inclusive true to include the elements equal to the bounds
+     * @return an iterable over the elements in the range
+     */
+    Iterable<T> getRange(K from, K to, boolean inclusive);
+
+    /**
+     * Counts the elements with a value between <em>from</em> and <em>to</em>.
+     * <p>
+     * A null bound leaves that side of the range open. Elements with a null value
+     * are never counted. Only applies for sortable indices.
+     *
+     * @param from the lower bound, or null
+     * @param to the upper bound, or null
+     * @param inclusive true to count the elements equal to the bounds
+     * @return the number of elements in the range
+     */
+    int countRange(K from, K to, boolean inclusive);
+
+    /**
+     * Gets the <em>k</em> elements with the largest or smallest values.
+     * <p>
+     * Elements with a null value are never included. The order among elements with
+     * the same value is undefined. Only applies for sortable indices.
+     *
+     * @param k the maximum number of elements to return
+     * @param descending true to return the largest values first, false for the
+     *        smallest values first
+     * @return an iterable over at most <em>k</em> elements, sorted by value
+     */
+    Iterable<T> topK(int k, boolean descending);
+
+    /**
+     * Gets all the elements sorted by value.
+     * <p>
+     * Elements with a null value are never included. Only applies for sortable
+     * indices.
+     *
+     * @param descending true to sort by descending value, false for ascending
+     * @return an iterable over the elements, sorted by value
+     */
+    Iterable<T> getSorted(boolean descending);
+
     /**
      * Returns the column for which this column index belongs to.
      *
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+/**
+ * Adjacency of a graph stored in compressed sparse row (CSR) format.
+ * <p>
+ * Rows are indexed by node store id (see {@link Node#getStoreId()}). The
+ * neighbors of the node with store id <code>i</code> are the store ids found in
+ * <code>getTargets()</code> from <code>getOffsets()[i]</code> (inclusive) to
+ * <code>getOffsets()[i + 1]</code> (exclusive). If weights were requested,
+ * <code>getWeights()</code> holds the edge weights at the same positions.
+ * <p>
+ * Directed edges appear in the row of their source. Undirected edges, and all
+ * edges of an undirected graph, appear in the rows of both endpoints, except
+ * self-loops that appear once. Store ids that aren't in the graph have empty
+ * rows.
+ * <p>
+ * The arrays aren't updated when the graph changes, call {@link #refresh()} to
+ * rebuild them. Changes to edge weights alone aren't detected.
+ */
+public interface CompressedSparseRow {
+
+    /**
+     * Returns the row offsets, of length <code>getRowCount() + 1</code>.
+     *
+     * @return row offsets
+     */
+    public int[] getOffsets();
+
+    /**
+     * Returns the target node store ids, of length <code>getEntryCount()</code>.
+     *
+     * @return target node store ids
+     */
+    public int[] getTargets();
+
+    /**
+     * Returns the weights, or null if weights weren't requested.
+     *
+     * @return weights or null
+     */
+    public double[] getWeights();
+
+    /**
+     * Returns the number of rows, which is the maximum node store id.
+     *
+     * @return number of rows
+     */
+    public int getRowCount();
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of entries
+     */
+    public int getEntryCount();
+
+    /**
+     * Rebuilds the arrays if the graph changed since they were built.
+     * <p>
+     * Changes are detected with the graph version so the arrays are always rebuilt
+     * if observers are disabled in the configuration. Arrays are reused when their
+     * size doesn't change.
+     *
+     * @return true if the arrays were rebuilt, false otherwise
+     */
+    public boolean refresh();
+}
@@ -454,6 +454,55 @@ public class Configuration {
             return this;
         }
 
+        /**
+         * Sets whether to store primitive attribute values in columns.
+         * <p>
+         * If enabled, the values of non-dynamic <code>Double</code>,
+         * <code>Float</code>, <code>Integer</code>, <code>Long</code> and
+         * <code>Boolean</code> columns are kept in per-column primitive arrays instead
+         * of on each element. This reduces memory usage on graphs with many numeric
+         * columns but values are boxed when read.
+         * <p>
+         * Default is <code>false</code>.
+         *
+         * @param enableColumnarAttributes enable columnar attribute storage
+         * @return this builder
+         */
+        public Builder enableColumnarAttributes(final boolean enableColumnarAttributes) {
+            this.configuration = new ConfigurationImpl(new Configuration(this.configuration) {
+                @Override
+                public boolean isEnableColumnarAttributes() {
+                    return enableColumnarAttributes;
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Sets whether to use optimistic reads for point queries.
+         * <p>
+         * If enabled, the graph lock is also backed by a stamped lock and short queries
+         * such as <code>getNode()</code>, <code>getEdge()</code> or
+         * <code>contains()</code> first run without acquiring the read lock. The result
+         * is validated against concurrent writes and the query is retried under the
+         * read lock if a write happened in the meantime. This only applies when auto
+         * locking is enabled.
+         * <p>
+         * Default is <code>false</code>.
+         *
+         * @param enableOptimisticReads enable optimistic reads
+         * @return this builder
+         */
+        public Builder enableOptimisticReads(final boolean enableOptimisticReads) {
+            this.configuration = new ConfigurationImpl(new Configuration(this.configuration) {
+                @Override
+                public boolean isEnableOptimisticReads() {
+                    return enableOptimisticReads;
+                }
+            });
+            return this;
+        }
+
         private static void checkSimpleType(Class type) {
             if (!AttributeUtils.isSimpleType(type)) {
                 throw new IllegalArgumentException("Unsupported type " + type.getCanonicalName());
@@ -636,6 +685,14 @@ public class Configuration {
         return delegate.isEnableParallelEdgesSameType();
     }
 
+    public boolean isEnableOptimisticReads() {
+        return delegate.isEnableOptimisticReads();
+    }
+
+    public boolean isEnableColumnarAttributes() {
+        return delegate.isEnableColumnarAttributes();
+    }
+
     /**
      * Copy this configuration.
      *
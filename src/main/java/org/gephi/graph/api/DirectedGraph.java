@@ -142,6 +142,38 @@ public interface DirectedGraph extends Graph {
      */
     public EdgeIterable getOutEdges(Node node, int type);
 
+    /**
+     * Creates a reusable cursor over the outgoing edges of a node.
+     *
+     * @return a new edge cursor
+     * @see Graph#getEdgeCursor()
+     */
+    public EdgeCursor getOutEdgeCursor();
+
+    /**
+     * Creates a reusable cursor over the incoming edges of a node.
+     *
+     * @return a new edge cursor
+     * @see Graph#getEdgeCursor()
+     */
+    public EdgeCursor getInEdgeCursor();
+
+    /**
+     * Creates a reusable cursor over the successors of a node.
+     *
+     * @return a new neighbor cursor
+     * @see Graph#getNeighborCursor()
+     */
+    public NeighborCursor getSuccessorCursor();
+
+    /**
+     * Creates a reusable cursor over the predecessors of a node.
+     *
+     * @return a new neighbor cursor
+     * @see Graph#getNeighborCursor()
+     */
+    public NeighborCursor getPredecessorCursor();
+
     /**
      * Gets the edge in the other direction of the given edge.
      * <p>
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+/**
+ * Reusable cursor over the edges of a node.
+ * <p>
+ * Unlike iterables, a cursor is created once and then positioned on a node with
+ * {@link #reset(Node)}, so traversing the adjacency of many nodes doesn't
+ * allocate an iterator per node. Edges are returned as store ids (see
+ * {@link Edge#getStoreId()}) and the current edge is available with
+ * {@link #edge()}.
+ * <p>
+ * Cursors don't acquire the graph lock. If the graph can be modified
+ * concurrently, the traversal should happen between {@link Graph#readLock()}
+ * and {@link Graph#readUnlock()}. The graph shouldn't be modified while a
+ * cursor is traversing it.
+ * <p>
+ * A cursor isn't thread-safe and should be used by a single thread.
+ */
+public interface EdgeCursor {
+
+    /**
+     * Positions the cursor before the first edge of the given node.
+     *
+     * @param node node to traverse
+     * @throws IllegalArgumentException if the node doesn't belong to the graph
+     */
+    public void reset(Node node);
+
+    /**
+     * Advances the cursor and returns the store id of the next edge, or -1 when all
+     * edges have been returned.
+     *
+     * @return next edge store id, or -1
+     */
+    public int nextStoreId();
+
+    /**
+     * Returns the current edge, or null if the cursor isn't positioned on an edge.
+     *
+     * @return current edge or null
+     */
+    public Edge edge();
+}
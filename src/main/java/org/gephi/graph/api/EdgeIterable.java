@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * An edge iterable.
@@ -103,6 +104,11 @@ public interface EdgeIterable extends ElementIterable<Edge> {
             return Collections.EMPTY_SET;
         }
 
+        @Override
+        public Stream<Edge> parallelStream() {
+            return Stream.empty();
+        }
+
         @Override
         public void doBreak() {
         }
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Element iterable.
@@ -67,6 +68,21 @@ public interface ElementIterable<T extends Element> extends Iterable<T> {
      */
     public void doBreak();
 
+    /**
+     * Returns a parallel stream over the elements.
+     * <p>
+     * The read lock taken by this iterable (if any) is released before the stream
+     * is returned. Over the graph's nodes and edges, the stream splits the
+     * underlying store in ranges and each thread holds the read lock while it
+     * traverses a range, so stream operations can read the graph but must not
+     * modify it. Other iterables are first copied under the read lock. The stream
+     * can be used while holding the read lock, but not while holding the write
+     * lock, which worker threads would wait for.
+     *
+     * @return parallel element stream
+     */
+    public Stream<T> parallelStream();
+
     /**
      * Empty element iterable.
      */
@@ -107,6 +123,11 @@ public interface ElementIterable<T extends Element> extends Iterable<T> {
             return Collections.EMPTY_SET;
         }
 
+        @Override
+        public Stream<Element> parallelStream() {
+            return Stream.empty();
+        }
+
         @Override
         public void doBreak() {
         }
@@ -17,6 +17,7 @@ package org.gephi.graph.api;
 
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 /**
  * Graph interface.
@@ -280,6 +281,37 @@ public interface Graph {
      */
     public EdgeIterable getEdges(Node node, int type);
 
+    /**
+     * Creates a reusable cursor over the edges incident to a node.
+     * <p>
+     * The cursor returns the same edges as {@link #getEdges(Node)} without
+     * allocating per node. It doesn't acquire the graph lock.
+     *
+     * @return a new edge cursor
+     */
+    public EdgeCursor getEdgeCursor();
+
+    /**
+     * Creates a reusable cursor over the neighbors of a node.
+     * <p>
+     * The cursor returns the same neighbors as {@link #getNeighbors(Node)} without
+     * allocating per node. It doesn't acquire the graph lock.
+     *
+     * @return a new neighbor cursor
+     */
+    public NeighborCursor getNeighborCursor();
+
+    /**
+     * Calls the consumer with the store id of each neighbor of the given node.
+     * <p>
+     * Neighbors are the same as {@link #getNeighbors(Node)}. The traversal happens
+     * under the read lock.
+     *
+     * @param node the node to get neighbors
+     * @param consumer consumer called with each neighbor store id
+     */
+    public void forEachNeighbor(Node node, IntConsumer consumer);
+
     /**
      * Gets the number of nodes in the graph.
      *
@@ -564,4 +596,30 @@ public interface Graph {
      * @return spatial index
      */
     SpatialIndex getSpatialIndex();
+
+    /**
+     * Returns the adjacency of this graph as compressed sparse row arrays, without
+     * weights.
+     *
+     * @return compressed sparse row adjacency
+     */
+    public CompressedSparseRow toCSR();
+
+    /**
+     * Returns the adjacency of this graph as compressed sparse row arrays.
+     *
+     * @param weights true to include edge weights
+     * @return compressed sparse row adjacency
+     */
+    public CompressedSparseRow toCSR(boolean weights);
+
+    /**
+     * Returns the adjacency of this graph as compressed sparse row arrays,
+     * restricted to edges of the given type.
+     *
+     * @param type edge type
+     * @param weights true to include edge weights
+     * @return compressed sparse row adjacency
+     */
+    public CompressedSparseRow toCSR(int type, boolean weights);
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+import java.util.stream.Stream;
+
+/**
+ * Loader optimized to add a large number of nodes and edges at once.
+ * <p>
+ * Compared to {@link Graph#addAllNodes(java.util.Collection)} and
+ * {@link Graph#addAllEdges(java.util.Collection)}, elements are appended to the
+ * store in a single pass. Dictionaries are sized up front, the graph version is
+ * incremented once and the attribute indexes are updated at the end of each
+ * call.
+ * <p>
+ * Elements should be created with this graph's factory and nodes should be
+ * loaded before the edges connecting them. As with the regular methods, nodes
+ * or edges already in the graph are ignored and so are parallel edges if they
+ * aren't enabled in the configuration.
+ */
+public interface GraphBulkLoader {
+
+    /**
+     * Adds the given nodes to the graph.
+     *
+     * @param nodes nodes to add
+     * @return number of nodes added
+     * @throws IllegalArgumentException if a node id already exists or if a node
+     *         belongs to another graph
+     */
+    public int addNodes(Node[] nodes);
+
+    /**
+     * Adds the nodes in the given stream to the graph.
+     *
+     * @param nodes stream of nodes to add
+     * @return number of nodes added
+     * @throws IllegalArgumentException if a node id already exists or if a node
+     *         belongs to another graph
+     */
+    public int addNodes(Stream<? extends Node> nodes);
+
+    /**
+     * Adds the given edges to the graph.
+     *
+     * @param edges edges to add
+     * @return number of edges added
+     * @throws IllegalArgumentException if an edge id already exists or if an edge
+     *         belongs to another graph
+     */
+    public int addEdges(Edge[] edges);
+
+    /**
+     * Adds the edges in the given stream to the graph.
+     *
+     * @param edges stream of edges to add
+     * @return number of edges added
+     * @throws IllegalArgumentException if an edge id already exists or if an edge
+     *         belongs to another graph
+     */
+    public int addEdges(Stream<? extends Edge> edges);
+}
@@ -18,8 +18,10 @@ package org.gephi.graph.api;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.ZoneId;
 import org.gephi.graph.impl.GraphModelImpl;
+import org.gephi.graph.impl.MappedSerialization;
 
 /**
  * Graph API's entry point.
@@ -193,6 +195,39 @@ public interface GraphModel {
             org.gephi.graph.impl.Serialization s = new org.gephi.graph.impl.Serialization();
             s.serializeGraphModel(output, (GraphModelImpl) graphModel);
         }
+
+        /**
+         * Write <code>graphModel</code> to <code>file</code> in a sectioned format
+         * suited to memory-mapped reading with {@link #readMapped(Path)}.
+         *
+         * @param file file to write to
+         * @param graphModel graph model to write
+         * @throws IOException if an io error occurs
+         */
+        public static void writeMapped(Path file, GraphModel graphModel) throws IOException {
+            MappedSerialization s = new MappedSerialization();
+            s.write(file, (GraphModelImpl) graphModel);
+        }
+
+        /**
+         * Read the <code>file</code> written by {@link #writeMapped(Path, GraphModel)}
+         * and return the read graph model.
+         * <p>
+         * The file is memory-mapped. Nodes, edges and views are available immediately
+         * while attribute columns are read the first time they are accessed.
+         *
+         * @param file file to read from
+         * @return new graph model
+         * @throws IOException if an io error occurs
+         */
+        public static GraphModel readMapped(Path file) throws IOException {
+            try {
+                MappedSerialization s = new MappedSerialization();
+                return s.read(file);
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        }
     }
 
     /**
@@ -302,6 +337,26 @@ public interface GraphModel {
      */
     public GraphBridge bridge();
 
+    /**
+     * Returns the bulk loader, optimized to add a large number of elements at once.
+     *
+     * @return graph bulk loader
+     */
+    public GraphBulkLoader bulkLoader();
+
+    /**
+     * Returns a read-only snapshot of the full graph at its current version.
+     * <p>
+     * The snapshot is created under the read lock and can then be read without any
+     * lock, even while the graph is modified. Its nodes, edges and adjacency stay
+     * as they were at creation but attribute values are read from the elements and
+     * aren't frozen. All write operations throw an
+     * <code>UnsupportedOperationException</code>.
+     *
+     * @return read-only graph snapshot
+     */
+    public Graph snapshot();
+
     /**
      * Gets the full graph.
      *
@@ -486,6 +541,47 @@ public interface GraphModel {
      */
     public boolean isMultiGraph();
 
+    /**
+     * Creates a new query selecting nodes and edges into a new view.
+     *
+     * @return new graph query
+     */
+    public GraphQuery query();
+
+    /**
+     * Compacts the node and edge stores after elements were removed.
+     * <p>
+     * Removed elements leave free store ids that are reused by later additions, but
+     * the stores and the structures indexed by store id (views, indexes, columnar
+     * attributes) stay sized to the highest store id. This method moves the
+     * remaining nodes and edges to the lowest store ids, keeping their order, and
+     * releases the trailing memory.
+     * <p>
+     * Store ids change, so store ids kept outside of the graph, for instance in
+     * {@link CompressedSparseRow} arrays, are invalid afterwards. The graph version
+     * is incremented when anything moved.
+     *
+     * @return true if store ids changed, false if the stores were already compact
+     */
+    public boolean compact();
+
+    /**
+     * Renumbers the node and edge store ids in the given order.
+     * <p>
+     * Nodes are moved to the lowest store ids in the order given by the strategy
+     * and edges are grouped by source, following the new node order. Traversals
+     * such as iterating over the edges or neighbors of each node then access memory
+     * mostly sequentially. As with {@link #compact()}, removed elements' store ids
+     * are released.
+     * <p>
+     * This is an offline operation, it takes the write lock and costs about the
+     * size of the graph. Store ids kept outside of the graph are invalid afterwards
+     * and the graph version is incremented.
+     *
+     * @param order node order
+     */
+    public void reorder(StoreOrder order);
+
     /**
      * Creates a new graph view.
      *
@@ -505,6 +601,26 @@ public interface GraphModel {
      */
     public GraphView createView(boolean node, boolean edge);
 
+    /**
+     * Creates a new graph view whose nodes and edges are the elements with a time
+     * overlapping the given interval.
+     * <p>
+     * The view follows its time interval: when it's changed with
+     * {@link #setTimeInterval(org.gephi.graph.api.GraphView, org.gephi.graph.api.Interval)}
+     * only the elements entering or leaving the window are added or removed, and
+     * graph observers on the view see these changes in their diff. Elements without
+     * time are not in the view and edges are only in the view when their source and
+     * target are. Changes made to the graph in between are picked up the next time
+     * the interval is set.
+     * <p>
+     * This requires the time index to be enabled in the configuration.
+     *
+     * @param interval the initial time interval, or null for an infinite interval
+     * @return newly created graph view
+     * @throws UnsupportedOperationException if the time index is disabled
+     */
+    public GraphView createTimeWindowView(Interval interval);
+
     /**
      * Creates a new graph view based on an existing view.
      *
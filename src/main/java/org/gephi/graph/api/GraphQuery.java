@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+/**
+ * Query selecting the nodes and edges matching a set of predicates into a new
+ * graph view.
+ * <p>
+ * Predicates are combined with AND and apply to the table of their column. Node
+ * predicates select the nodes of the view. Edge predicates select its edges,
+ * otherwise all edges between the selected nodes are kept. Edges whose source
+ * or target isn't selected are never part of the view.
+ * <p>
+ * Predicates on indexed columns, degrees and time are answered from the
+ * indexes, starting with the most selective. The others are evaluated on the
+ * remaining candidates only.
+ * <p>
+ * Queries are obtained from {@link GraphModel#query()} and evaluated against
+ * the main view. The view returned by {@link #execute()} should be destroyed
+ * with {@link GraphModel#destroyView(GraphView)} when no longer used.
+ */
+public interface GraphQuery {
+
+    /**
+     * Selects the elements whose value for the column equals the given value.
+     *
+     * @param column column
+     * @param value value, can be null
+     * @return this query
+     * @throws IllegalArgumentException if the column isn't a node or edge column
+     */
+    public GraphQuery equal(Column column, Object value);
+
+    /**
+     * Selects the elements whose value for the number column is in the given range.
+     * <p>
+     * A null bound leaves the range open on that side. The index is only used if
+     * the bounds have the column's type, other bounds are compared as doubles.
+     *
+     * @param column number column
+     * @param from lower bound, or null
+     * @param to upper bound, or null
+     * @param inclusive true if the bounds are included
+     * @return this query
+     * @throws IllegalArgumentException if the column isn't a node or edge number
+     *         column
+     */
+    public GraphQuery range(Column column, Number from, Number to, boolean inclusive);
+
+    /**
+     * Selects the nodes whose degree is between the given bounds (included).
+     *
+     * @param min minimum degree
+     * @param max maximum degree
+     * @return this query
+     */
+    public GraphQuery degree(int min, int max);
+
+    /**
+     * Selects the nodes whose in-degree is between the given bounds (included).
+     *
+     * @param min minimum in-degree
+     * @param max maximum in-degree
+     * @return this query
+     */
+    public GraphQuery inDegree(int min, int max);
+
+    /**
+     * Selects the nodes whose out-degree is between the given bounds (included).
+     *
+     * @param min minimum out-degree
+     * @param max maximum out-degree
+     * @return this query
+     */
+    public GraphQuery outDegree(int min, int max);
+
+    /**
+     * Selects the edges of the given type.
+     *
+     * @param type edge type label
+     * @return this query
+     */
+    public GraphQuery edgeType(Object type);
+
+    /**
+     * Selects the nodes and edges existing in the given interval (bounds included).
+     *
+     * @param interval interval
+     * @return this query
+     * @throws UnsupportedOperationException if the time index is disabled
+     */
+    public GraphQuery time(Interval interval);
+
+    /**
+     * Evaluates the query and returns a new view with the matching elements.
+     *
+     * @return newly created graph view
+     */
+    public GraphView execute();
+}
@@ -103,6 +103,63 @@ public interface Index<T extends Element> {
      */
     public Number getMaxValue(Column column);
 
+    /**
+     * Gets the elements with a value between <em>from</em> and <em>to</em> in the
+     * given <em>column</em>, in ascending order of value.
+     * <p>
+     * A null bound leaves that side of the range open. Elements with a null value
+     * are never included. Only applies for numerical columns.
+     *
+     * @param column the column
+     * @param from the lower bound, or null
+     * @param to the upper bound, or null
+     * @param inclusive true to include the elements equal to the bounds
+     * @return an iterable over the elements in the range
+     */
+    public Iterable<T> getRange(Column column, Object from, Object to, boolean inclusive);
+
+    /**
+     * Counts the elements with a value between <em>from</em> and <em>to</em> in the
+     * given <em>column</em>.
+     * <p>
+     * A null bound leaves that side of the range open. Elements with a null value
+     * are never counted. Only applies for numerical columns.
+     *
+     * @param column the column
+     * @param from the lower bound, or null
+     * @param to the upper bound, or null
+     * @param inclusive true to count the elements equal to the bounds
+     * @return the number of elements in the range
+     */
+    public int countRange(Column column, Object from, Object to, boolean inclusive);
+
+    /**
+     * Gets the <em>k</em> elements with the largest or smallest values in the given
+     * <em>column</em>.
+     * <p>
+     * Elements with a null value are never included. Only applies for numerical
+     * columns.
+     *
+     * @param column the column
+     * @param k the maximum number of elements to return
+     * @param descending true to return the largest values first, false for the
+     *        smallest values first
+     * @return an iterable over at most <em>k</em> elements, sorted by value
+     */
+    public Iterable<T> topK(Column column, int k, boolean descending);
+
+    /**
+     * Gets all the elements sorted by their value in the given <em>column</em>.
+     * <p>
+     * Elements with a null value are never included. Only applies for numerical
+     * columns.
+     *
+     * @param column the column
+     * @param descending true to sort by descending value, false for ascending
+     * @return an iterable over the elements, sorted by value
+     */
+    public Iterable<T> getSorted(Column column, boolean descending);
+
     /**
      * Returns the element type of this index.
      *
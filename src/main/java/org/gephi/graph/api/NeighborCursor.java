@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+/**
+ * Reusable cursor over the neighbors of a node.
+ * <p>
+ * Neighbors are returned as store ids (see {@link Node#getStoreId()}) and the
+ * current neighbor is available with {@link #node()}. A neighbor connected by
+ * several edges is returned once per edge, like
+ * {@link Graph#getNeighbors(Node)}.
+ * <p>
+ * Same as {@link EdgeCursor}, cursors don't acquire the graph lock and should
+ * be used by a single thread.
+ */
+public interface NeighborCursor {
+
+    /**
+     * Positions the cursor before the first neighbor of the given node.
+     *
+     * @param node node to traverse
+     * @throws IllegalArgumentException if the node doesn't belong to the graph
+     */
+    public void reset(Node node);
+
+    /**
+     * Advances the cursor and returns the store id of the next neighbor, or -1 when
+     * all neighbors have been returned.
+     *
+     * @return next neighbor store id, or -1
+     */
+    public int nextStoreId();
+
+    /**
+     * Returns the current neighbor, or null if the cursor isn't positioned on a
+     * neighbor.
+     *
+     * @return current neighbor or null
+     */
+    public Node node();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.api;
+
+/**
+ * Node orders used to renumber the store ids.
+ * <p>
+ * Store ids follow the insertion order by default, so the neighbors of a node
+ * and its edges are spread across the stores. Reordering places nodes that are
+ * traversed together next to each other and groups edges by source, which makes
+ * iterations more cache friendly.
+ *
+ * @see GraphModel#reorder(StoreOrder)
+ */
+public enum StoreOrder {
+    /**
+     * Breadth-first order.
+     * <p>
+     * Each connected component is traversed from its first node, following edges in
+     * both directions.
+     */
+    BFS,
+    /**
+     * Degree order.
+     * <p>
+     * Nodes are sorted by decreasing degree, ties keep the current order.
+     */
+    DEGREE,
+    /**
+     * Community order.
+     * <p>
+     * Communities are detected with a few rounds of label propagation. Nodes of the
+     * same community are placed together, in breadth-first order.
+     */
+    COMMUNITY;
+}
@@ -43,6 +43,8 @@ public class ColumnImpl implements Column {
     protected final List<ColumnObserverImpl> observers;
     // Store Id
     protected int storeId = ColumnStore.NULL_ID;
+    // Pending values, when lazily read from a mapped file
+    protected volatile MappedSerialization.ColumnLoader loader;
 
     public ColumnImpl(TableImpl table, String id, Class typeClass, String title, Object defaultValue, Origin origin, boolean indexed, boolean readOnly) {
         if (id == null || id.isEmpty()) {
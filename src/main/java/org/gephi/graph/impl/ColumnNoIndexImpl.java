@@ -17,8 +17,12 @@
 package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -183,6 +187,100 @@ public class ColumnNoIndexImpl<K, T extends Element> implements ColumnIndexImpl<
         }
     }
 
+    @Override
+    public Iterable<T> getRange(K from, K to, boolean inclusive) {
+        checkSortable();
+        return getSortedElements(from, to, inclusive, false, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int countRange(K from, K to, boolean inclusive) {
+        checkSortable();
+        lock();
+        try {
+            Iterator<T> elementIterator = getElementIterator();
+            int count = 0;
+            if (elementIterator != null) {
+                while (elementIterator.hasNext()) {
+                    ElementImpl element = (ElementImpl) elementIterator.next();
+                    Number num = (Number) element.getAttribute(column, graph.getView());
+                    if (num != null && isInRange(num, from, to, inclusive)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public Iterable<T> topK(int k, boolean descending) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative");
+        }
+        checkSortable();
+        return getSortedElements(null, null, true, descending, k);
+    }
+
+    @Override
+    public Iterable<T> getSorted(boolean descending) {
+        checkSortable();
+        return getSortedElements(null, null, true, descending, Integer.MAX_VALUE);
+    }
+
+    // Scans the elements in the range and sorts them by value
+    private List<T> getSortedElements(K from, K to, boolean inclusive, boolean descending, int limit) {
+        List<Map.Entry<Number, T>> entries = new ArrayList<>();
+        lock();
+        try {
+            Iterator<T> elementIterator = getElementIterator();
+            if (elementIterator != null) {
+                while (elementIterator.hasNext()) {
+                    T element = elementIterator.next();
+                    Number num = (Number) ((ElementImpl) element).getAttribute(column, graph.getView());
+                    if (num != null && isInRange(num, from, to, inclusive)) {
+                        entries.add(new AbstractMap.SimpleImmutableEntry<>(num, element));
+                    }
+                }
+            }
+        } finally {
+            unlock();
+        }
+        Comparator<Map.Entry<Number, T>> comparator = Comparator.comparingDouble(e -> e.getKey().doubleValue());
+        entries.sort(descending ? comparator.reversed() : comparator);
+
+        List<T> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            result.add(entries.get(i).getValue());
+        }
+        return result;
+    }
+
+    private boolean isInRange(Number num, K from, K to, boolean inclusive) {
+        double value = num.doubleValue();
+        if (from != null) {
+            double f = ((Number) from).doubleValue();
+            if (value < f || (value == f && !inclusive)) {
+                return false;
+            }
+        }
+        if (to != null) {
+            double t = ((Number) to).doubleValue();
+            if (value > t || (value == t && !inclusive)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkSortable() {
+        if (!isSortable()) {
+            throw new UnsupportedOperationException("Only supported for sortable columns");
+        }
+    }
+
     @Override
     public Column getColumn() {
         return column;
@@ -131,6 +131,20 @@ public class ColumnObserverImpl implements ColumnObserver {
         bitVector.clear();
     }
 
+    // Moves the touched elements' bits to their new store ids
+    protected void compact(int[] storeIdMap, int size) {
+        if (bitVector != null) {
+            BitVector remapped = new BitVector(size);
+            int length = Math.min(bitVector.size(), storeIdMap.length);
+            for (int i = 0; i < length; i++) {
+                if (bitVector.getQuick(i) && storeIdMap[i] != ColumnStore.NULL_ID) {
+                    remapped.putQuick(storeIdMap[i], true);
+                }
+            }
+            bitVector = remapped;
+        }
+    }
+
     protected void setElement(ElementImpl element) {
         int storeId = element.getStoreId();
         ensureVectorSize(element);
@@ -26,6 +26,7 @@ import it.unimi.dsi.fastutil.doubles.DoubleArrays;
 import it.unimi.dsi.fastutil.floats.Float2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.floats.FloatArrays;
 import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.longs.LongArrays;
@@ -36,19 +37,31 @@ import it.unimi.dsi.fastutil.objects.ObjectArrays;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.shorts.ShortArrays;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
 
 public abstract class ColumnStandardIndexImpl<K, T extends Element> implements ColumnIndexImpl<K, T> {
 
+    // Const
+    protected static final int NULL_ID = -1;
     // Lock (optional)
     protected final TableLockImpl lock;
+    // Store the indexed elements are resolved from (optional)
+    protected final GraphStore graphStore;
+    protected final boolean nodeIndex;
     // Data
     protected final ColumnImpl column;
     protected final ValueSet<K, T> nullSet;
@@ -60,7 +73,9 @@ public abstract class ColumnStandardIndexImpl<K, T extends Element> implements C
 
     protected ColumnStandardIndexImpl(ColumnImpl column) {
         this.column = column;
-        this.nullSet = new ValueSet<>(null);
+        this.graphStore = column.table != null ? column.table.store.graphStore : null;
+        this.nodeIndex = column.table != null && column.table.store.elementType == Node.class;
+        this.nullSet = new ValueSet<>(this, null);
         this.lock = column.table != null && column.table.configuration.isEnableAutoLocking() ? new TableLockImpl()
                 : null;
     }
@@ -206,6 +221,133 @@ public abstract class ColumnStandardIndexImpl<K, T extends Element> implements C
         }
     }
 
+    @Override
+    public Iterable<T> getRange(K from, K to, boolean inclusive) {
+        checkSortable();
+        lock();
+        try {
+            List<T> result = new ArrayList<>();
+            for (ValueSet<K, T> valueSet : getRangeValueSets(from, to, inclusive)) {
+                result.addAll(valueSet);
+            }
+            return result;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int countRange(K from, K to, boolean inclusive) {
+        checkSortable();
+        lock();
+        try {
+            int count = 0;
+            for (ValueSet<K, T> valueSet : getRangeValueSets(from, to, inclusive)) {
+                count += valueSet.size();
+            }
+            return count;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public Iterable<T> topK(int k, boolean descending) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative");
+        }
+        checkSortable();
+        lock();
+        try {
+            return getSortedElements(k, descending);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public Iterable<T> getSorted(boolean descending) {
+        checkSortable();
+        lock();
+        try {
+            return getSortedElements(Integer.MAX_VALUE, descending);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns the value sets between from and to in ascending order, walking the
+    // tail map from the lower bound until the upper bound is passed
+    private List<ValueSet<K, T>> getRangeValueSets(K from, K to, boolean inclusive) {
+        SortedMap<K, ValueSet<K, T>> sortedMap = (SortedMap<K, ValueSet<K, T>>) map;
+        if (from != null) {
+            sortedMap = sortedMap.tailMap(from);
+        }
+        List<ValueSet<K, T>> valueSets = new ArrayList<>();
+        for (ValueSet<K, T> valueSet : sortedMap.values()) {
+            if (to != null) {
+                int c = compare(valueSet.value, to);
+                if (c > 0 || (c == 0 && !inclusive)) {
+                    break;
+                }
+            }
+            if (inclusive || from == null || compare(valueSet.value, from) != 0) {
+                valueSets.add(valueSet);
+            }
+        }
+        return valueSets;
+    }
+
+    // Returns at most limit elements sorted by value, descending order walks
+    // backwards through successive head maps
+    private List<T> getSortedElements(int limit, boolean descending) {
+        List<T> result = new ArrayList<>(Math.min(limit, elements));
+        SortedMap<K, ValueSet<K, T>> sortedMap = (SortedMap<K, ValueSet<K, T>>) map;
+        if (descending) {
+            while (result.size() < limit && !sortedMap.isEmpty()) {
+                K value = sortedMap.lastKey();
+                addElements(result, map.get(value), limit);
+                sortedMap = sortedMap.headMap(value);
+            }
+        } else {
+            for (ValueSet<K, T> valueSet : sortedMap.values()) {
+                if (!addElements(result, valueSet, limit)) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean addElements(List<T> result, ValueSet<K, T> valueSet, int limit) {
+        if (result.size() + valueSet.size() <= limit) {
+            result.addAll(valueSet);
+        } else {
+            for (T element : valueSet) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(element);
+            }
+        }
+        return result.size() < limit;
+    }
+
+    private int compare(K a, K b) {
+        Comparator<? super K> comparator = ((SortedMap<K, ValueSet<K, T>>) map).comparator();
+        if (comparator != null) {
+            return comparator.compare(a, b);
+        }
+        return ((Comparable<K>) a).compareTo(b);
+    }
+
+    private void checkSortable() {
+        if (!isSortable()) {
+            throw new UnsupportedOperationException("'" + column.getId() + "' is not a sortable column (" + column
+                    .getTypeClass().getSimpleName() + ").");
+        }
+    }
+
     @Override
     public void destroy() {
         lock();
@@ -236,9 +378,10 @@ public abstract class ColumnStandardIndexImpl<K, T extends Element> implements C
         lock();
         ValueSet<K, T> valueSet = getValueSet(value);
         if (valueSet == null) {
+            unlock();
             return ValueSet.EMPTY;
         }
-        return new LockableIterable<>(valueSet.set);
+        return new LockableIterable<>(valueSet);
     }
 
     protected ValueSet<K, T> getValueSet(K value) {
@@ -253,11 +396,74 @@ public abstract class ColumnStandardIndexImpl<K, T extends Element> implements C
     }
 
     protected ValueSet<K, T> addValue(K value) {
-        ValueSet<K, T> valueSet = new ValueSet<>(value);
+        ValueSet<K, T> valueSet = new ValueSet<>(this, value);
         map.put(value, valueSet);
         return valueSet;
     }
 
+    // Returns the store ids of the elements with the value, copied so they can
+    // be combined with other bitmaps
+    protected ChunkedBitmap getBitmap(K value) {
+        lock();
+        try {
+            ValueSet<K, T> valueSet = getValueSet(value);
+            return valueSet != null ? valueSet.bitmap.copy() : new ChunkedBitmap();
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns the store ids of the elements with a value in the range
+    protected ChunkedBitmap getRangeBitmap(K from, K to, boolean inclusive) {
+        checkSortable();
+        lock();
+        try {
+            ChunkedBitmap bitmap = new ChunkedBitmap();
+            for (ValueSet<K, T> valueSet : getRangeValueSets(from, to, inclusive)) {
+                bitmap.addAll(valueSet.bitmap);
+            }
+            return bitmap;
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns the elements with the given store ids
+    protected Iterable<T> getElements(ChunkedBitmap bitmap) {
+        return () -> new Iterator<T>() {
+            private final IntIterator itr = bitmap.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return itr.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return getElement(itr.nextInt());
+            }
+        };
+    }
+
+    // Returns the element with the given store id, or null
+    protected T getElement(int storeId) {
+        if (graphStore == null) {
+            return null;
+        }
+        return (T) (nodeIndex ? graphStore.nodeStore.getForGetByStoreId(storeId)
+                : graphStore.edgeStore.getForGetByStoreId(storeId));
+    }
+
+    // Returns the store id of the element if it belongs to the store, NULL_ID
+    // otherwise
+    protected int getStoreId(T element) {
+        int storeId = ((ElementImpl) element).getStoreId();
+        if (storeId != NULL_ID && getElement(storeId) == element) {
+            return storeId;
+        }
+        return NULL_ID;
+    }
+
     @Override
     public boolean isSortable() {
         return Number.class.isAssignableFrom(column.getTypeClass()) && map instanceof SortedMap;
@@ -456,90 +662,117 @@ public abstract class ColumnStandardIndexImpl<K, T extends Element> implements C
         }
     }
 
-    protected static final class ValueSet<K, T> implements Set<T> {
+    // Elements are stored as a compressed bitmap of store ids, elements without
+    // a store id are kept apart
+    protected static final class ValueSet<K, T extends Element> extends AbstractSet<T> {
 
-        protected static ValueSet EMPTY = new ValueSet(null);
+        protected static ValueSet EMPTY = new ValueSet(null, null);
         protected final K value;
-        private final Set<T> set;
+        protected final ChunkedBitmap bitmap;
+        private final ColumnStandardIndexImpl<K, T> index;
+        private Set<T> detached;
+        private int size;
 
-        public ValueSet(K value) {
+        public ValueSet(ColumnStandardIndexImpl<K, T> index, K value) {
+            this.index = index;
             this.value = value;
-            this.set = new ObjectOpenHashSet<>();
+            this.bitmap = new ChunkedBitmap();
         }
 
         @Override
         public int size() {
-            return set.size();
+            return size;
         }
 
         @Override
         public boolean isEmpty() {
-            return set.isEmpty();
+            return size == 0;
         }
 
         @Override
         public boolean contains(Object o) {
-            return set.contains(o);
+            if (size == 0 || !(o instanceof ElementImpl)) {
+                return false;
+            }
+            int storeId = index.getStoreId((T) o);
+            if (storeId != NULL_ID) {
+                return bitmap.contains(storeId);
+            }
+            return detached != null && detached.contains(o);
         }
 
         @Override
         public Iterator<T> iterator() {
-            return set.iterator();
-        }
-
-        @Override
-        public Object[] toArray() {
-            return set.toArray();
-        }
-
-        @Override
-        public <T> T[] toArray(T[] ts) {
-            return set.toArray(ts);
+            return new ValueSetIterator();
         }
 
         @Override
         public boolean add(T e) {
-            return set.add(e);
+            int storeId = index.getStoreId(e);
+            boolean added;
+            if (storeId != NULL_ID) {
+                added = bitmap.add(storeId);
+            } else {
+                if (detached == null) {
+                    detached = new ObjectOpenHashSet<>();
+                }
+                added = detached.add(e);
+            }
+            if (added) {
+                size++;
+            }
+            return added;
         }
 
         @Override
         public boolean remove(Object o) {
-            return set.remove(o);
-        }
-
-        @Override
-        public boolean containsAll(Collection<?> clctn) {
-            return set.containsAll(clctn);
-        }
-
-        @Override
-        public boolean addAll(Collection<? extends T> clctn) {
-            throw new UnsupportedOperationException("Not supported operation.");
+            if (size == 0 || !(o instanceof ElementImpl)) {
+                return false;
+            }
+            int storeId = index.getStoreId((T) o);
+            boolean removed = storeId != NULL_ID && bitmap.remove(storeId);
+            if (!removed && detached != null) {
+                removed = detached.remove(o);
+            }
+            if (removed) {
+                size--;
+            }
+            return removed;
         }
 
         @Override
-        public boolean retainAll(Collection<?> clctn) {
-            throw new UnsupportedOperationException("Not supported operation.");
+        public void clear() {
+            bitmap.clear();
+            detached = null;
+            size = 0;
         }
 
-        @Override
-        public boolean removeAll(Collection<?> clctn) {
-            throw new UnsupportedOperationException("Not supported operation.");
-        }
+        private final class ValueSetIterator implements Iterator<T> {
 
-        @Override
-        public void clear() {
-            set.clear();
-        }
+            private final IntIterator bitmapIterator = bitmap.iterator();
+            private Iterator<T> detachedIterator;
 
-        @Override
-        public boolean equals(Object o) {
-            return set.equals(o);
-        }
+            @Override
+            public boolean hasNext() {
+                if (bitmapIterator.hasNext()) {
+                    return true;
+                }
+                if (detachedIterator == null) {
+                    detachedIterator = detached != null ? detached.iterator() : Collections.emptyIterator();
+                }
+                return detachedIterator.hasNext();
+            }
 
-        @Override
-        public int hashCode() {
-            return set.hashCode();
+            @Override
+            public T next() {
+                if (bitmapIterator.hasNext()) {
+                    return index.getElement(bitmapIterator.nextInt());
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return detachedIterator.next();
+            }
         }
     }
 
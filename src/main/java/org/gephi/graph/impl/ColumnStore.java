@@ -48,12 +48,16 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
     protected final ShortSortedSet garbageQueue;
     // Index
     protected final IndexStore<T> indexStore;
+    // Columnar attributes (optional)
+    protected final ColumnarAttributeStore columnarStore;
     // Version
     protected final List<TableObserverImpl> observers;
     // Locking (optional)
     protected final TableLockImpl lock;
     // Variables
     protected int length;
+    // Set while some columns are lazily read from a mapped file
+    protected volatile boolean pendingColumns;
 
     public ColumnStore(Class<T> elementType, boolean indexed) {
         this(null, elementType);
@@ -76,6 +80,8 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
         this.columns = new ColumnImpl[MAX_SIZE];
         this.elementType = elementType;
         this.indexStore = new IndexStore<>(this);
+        this.columnarStore = graphStore != null && configuration.isEnableColumnarAttributes()
+                ? new ColumnarAttributeStore() : null;
         idMap.defaultReturnValue(NULL_SHORT);
         this.observers = new ArrayList<>();
     }
@@ -106,6 +112,9 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
                 if (indexStore != null) {
                     indexStore.addColumn(columnImpl);
                 }
+                if (columnarStore != null) {
+                    columnarStore.addColumn(columnImpl);
+                }
 
                 // Index attributes
                 if (graphStore != null && columnImpl.table != null) {
@@ -131,7 +140,7 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
             // Clean attributes
             if (graphStore != null && columnImpl.table != null) {
                 for (Element e : graphStore.getElements(columnImpl.table)) {
-                    ((ElementImpl) e).attributes.setAttribute(column, null);
+                    ((ElementImpl) e).setAttributeValue(column, null);
                 }
             }
 
@@ -146,7 +155,11 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
             if (indexStore != null) {
                 indexStore.removeColumn((ColumnImpl) column);
             }
+            if (columnarStore != null) {
+                columnarStore.removeColumn(columnImpl);
+            }
             columnImpl.setStoreId(NULL_ID);
+            columnImpl.loader = null;
         } finally {
             unlock();
         }
@@ -177,6 +190,20 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
         return a;
     }
 
+    // Materializes all columns still pending from a mapped file
+    protected void loadColumns() {
+        if (pendingColumns) {
+            for (int i = 0; i < length; i++) {
+                ColumnImpl column = columns[i];
+                MappedSerialization.ColumnLoader loader = column != null ? column.loader : null;
+                if (loader != null) {
+                    loader.load();
+                }
+            }
+            pendingColumns = false;
+        }
+    }
+
     public ColumnImpl getColumn(final String key) {
         checkNonNullObject(key);
         short id = idMap.getShort(key.toLowerCase());
@@ -266,6 +293,30 @@ public class ColumnStore<T extends Element> implements ColumnIterable {
         }
     }
 
+    // Moves the attributes and the observed changes to the new store ids after
+    // the element store was compacted, and rebuilds the indexes
+    protected void compact(int[] storeIdMap, ElementImpl[] elements) {
+        lock();
+        try {
+            if (columnarStore != null) {
+                columnarStore.compact(storeIdMap, elements.length);
+            }
+            for (int i = 0; i < length; i++) {
+                ColumnImpl column = columns[i];
+                if (column != null && column.observers != null) {
+                    synchronized (column.observers) {
+                        for (ColumnObserverImpl observer : column.observers) {
+                            observer.compact(storeIdMap, elements.length);
+                        }
+                    }
+                }
+            }
+        } finally {
+            unlock();
+        }
+        indexStore.rebuild(elements);
+    }
+
     protected TableObserverImpl createTableObserver(TableImpl table, boolean withDiff) {
         if (observers != null) {
             lock();
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+import org.gephi.graph.api.Column;
+
+/**
+ * Stores the values of primitive columns in per-column arrays indexed by the
+ * element's store id.
+ * <p>
+ * Only elements that belong to the store have their values here, other elements
+ * keep their values in {@link AttributesImpl}. Values are moved in and out when
+ * elements are added and removed. Writes are synchronized on the column array,
+ * reads are not.
+ */
+public class ColumnarAttributeStore {
+
+    // Default capacity
+    protected static final int DEFAULT_CAPACITY = 16;
+    // Arrays, indexed by column store id
+    protected ColumnArray[] arrays;
+    // Element capacity
+    protected int capacity;
+
+    public ColumnarAttributeStore() {
+        this.arrays = new ColumnArray[0];
+        this.capacity = DEFAULT_CAPACITY;
+    }
+
+    protected static boolean isSupportedType(Column column) {
+        if (column.isProperty()) {
+            return false;
+        }
+        Class type = column.getTypeClass();
+        return type.equals(Double.class) || type.equals(Float.class) || type.equals(Integer.class) || type
+                .equals(Long.class) || type.equals(Boolean.class);
+    }
+
+    protected void addColumn(ColumnImpl column) {
+        if (isSupportedType(column)) {
+            int id = column.storeId;
+            if (id >= arrays.length) {
+                arrays = Arrays.copyOf(arrays, id + 1);
+            }
+            arrays[id] = createArray(column.getTypeClass(), capacity);
+        }
+    }
+
+    protected void removeColumn(ColumnImpl column) {
+        int id = column.storeId;
+        if (id >= 0 && id < arrays.length) {
+            arrays[id] = null;
+        }
+    }
+
+    protected ColumnArray getArray(Column column) {
+        int id = column.getIndex();
+        if (id >= 0 && id < arrays.length) {
+            return arrays[id];
+        }
+        return null;
+    }
+
+    protected boolean isEmpty() {
+        for (ColumnArray array : arrays) {
+            if (array != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Moves the element's values from its attributes to the column arrays
+    protected void attach(ElementImpl element) {
+        int storeId = element.getStoreId();
+        ensureCapacity(storeId + 1);
+
+        AttributesImpl attributes = element.attributes;
+        for (int i = 0; i < arrays.length; i++) {
+            ColumnArray array = arrays[i];
+            if (array != null) {
+                array.set(storeId, attributes.getAttribute(i));
+                attributes.setAttribute(i, null);
+            }
+        }
+    }
+
+    // Moves the element's values back to its attributes
+    protected void detach(ElementImpl element) {
+        int storeId = element.getStoreId();
+
+        AttributesImpl attributes = element.attributes;
+        for (int i = 0; i < arrays.length; i++) {
+            ColumnArray array = arrays[i];
+            if (array != null) {
+                attributes.setAttribute(i, array.set(storeId, null));
+            }
+        }
+    }
+
+    // Fills the element's columnar values in a copy of its attributes
+    protected Object[] toArray(ElementImpl element, Object[] attributes) {
+        int storeId = element.getStoreId();
+
+        Object[] res = Arrays.copyOf(attributes, Math.max(attributes.length, arrays.length));
+        for (int i = 0; i < arrays.length; i++) {
+            ColumnArray array = arrays[i];
+            if (array != null) {
+                res[i] = array.get(storeId);
+            }
+        }
+        return res;
+    }
+
+    // Moves the values to the new store ids and shrinks the arrays to the new size
+    protected void compact(int[] storeIdMap, int size) {
+        capacity = Math.max(size, DEFAULT_CAPACITY);
+        for (int i = 0; i < arrays.length; i++) {
+            ColumnArray array = arrays[i];
+            if (array != null) {
+                arrays[i] = array.remap(storeIdMap, capacity);
+            }
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > capacity) {
+            capacity = Math.max(size, capacity + (capacity >> 1));
+            for (ColumnArray array : arrays) {
+                if (array != null) {
+                    array.ensureCapacity(capacity);
+                }
+            }
+        }
+    }
+
+    private static ColumnArray createArray(Class type, int capacity) {
+        if (type.equals(Double.class)) {
+            return new DoubleColumnArray(capacity);
+        } else if (type.equals(Float.class)) {
+            return new FloatColumnArray(capacity);
+        } else if (type.equals(Integer.class)) {
+            return new IntColumnArray(capacity);
+        } else if (type.equals(Long.class)) {
+            return new LongColumnArray(capacity);
+        } else if (type.equals(Boolean.class)) {
+            return new BooleanColumnArray(capacity);
+        }
+        throw new IllegalArgumentException("Unsupported type " + type.getCanonicalName());
+    }
+
+    protected abstract static class ColumnArray {
+
+        // Bits set for non-null values. Reads don't lock, so grown arrays are
+        // published through volatile fields and read once into locals. The values
+        // are grown before the bits, so a set bit always has a value slot.
+        protected volatile long[] present;
+
+        protected ColumnArray(int capacity) {
+            this.present = new long[words(capacity)];
+        }
+
+        protected abstract int length();
+
+        protected abstract void grow(int capacity);
+
+        protected abstract Object getValue(int index);
+
+        protected abstract void setValue(int index, Object value);
+
+        protected abstract ColumnArray newArray(int capacity);
+
+        protected abstract void copyValue(ColumnArray from, int fromIndex, int toIndex);
+
+        public boolean isNull(int index) {
+            long[] bits = present;
+            int word = index >>> 6;
+            return word >= bits.length || (bits[word] & (1L << index)) == 0;
+        }
+
+        public Object get(int index) {
+            if (isNull(index)) {
+                return null;
+            }
+            return getValue(index);
+        }
+
+        public synchronized Object set(int index, Object value) {
+            ensureCapacity(index + 1);
+
+            Object oldValue = get(index);
+            if (value == null) {
+                present[index >>> 6] &= ~(1L << index);
+            } else {
+                setValue(index, value);
+                present[index >>> 6] |= 1L << index;
+            }
+            return oldValue;
+        }
+
+        protected synchronized void ensureCapacity(int capacity) {
+            if (capacity > length()) {
+                grow(capacity);
+                if (words(capacity) > present.length) {
+                    present = Arrays.copyOf(present, words(capacity));
+                }
+            }
+        }
+
+        // Returns a copy with the values moved to the new store ids
+        protected synchronized ColumnArray remap(int[] storeIdMap, int capacity) {
+            ColumnArray array = newArray(capacity);
+            int length = Math.min(storeIdMap.length, length());
+            for (int i = 0; i < length; i++) {
+                int id = storeIdMap[i];
+                if (id >= 0 && !isNull(i)) {
+                    array.copyValue(this, i, id);
+                    array.present[id >>> 6] |= 1L << id;
+                }
+            }
+            return array;
+        }
+
+        private static int words(int capacity) {
+            return (capacity + 63) >>> 6;
+        }
+    }
+
+    protected static class DoubleColumnArray extends ColumnArray {
+
+        protected volatile double[] values;
+
+        public DoubleColumnArray(int capacity) {
+            super(capacity);
+            this.values = new double[capacity];
+        }
+
+        public double getDouble(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected int length() {
+            return values.length;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected void setValue(int index, Object value) {
+            values[index] = (Double) value;
+        }
+
+        @Override
+        protected ColumnArray newArray(int capacity) {
+            return new DoubleColumnArray(capacity);
+        }
+
+        @Override
+        protected void copyValue(ColumnArray from, int fromIndex, int toIndex) {
+            values[toIndex] = ((DoubleColumnArray) from).values[fromIndex];
+        }
+    }
+
+    protected static class FloatColumnArray extends ColumnArray {
+
+        protected volatile float[] values;
+
+        public FloatColumnArray(int capacity) {
+            super(capacity);
+            this.values = new float[capacity];
+        }
+
+        public float getFloat(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected int length() {
+            return values.length;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected void setValue(int index, Object value) {
+            values[index] = (Float) value;
+        }
+
+        @Override
+        protected ColumnArray newArray(int capacity) {
+            return new FloatColumnArray(capacity);
+        }
+
+        @Override
+        protected void copyValue(ColumnArray from, int fromIndex, int toIndex) {
+            values[toIndex] = ((FloatColumnArray) from).values[fromIndex];
+        }
+    }
+
+    protected static class IntColumnArray extends ColumnArray {
+
+        protected volatile int[] values;
+
+        public IntColumnArray(int capacity) {
+            super(capacity);
+            this.values = new int[capacity];
+        }
+
+        public int getInt(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected int length() {
+            return values.length;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected void setValue(int index, Object value) {
+            values[index] = (Integer) value;
+        }
+
+        @Override
+        protected ColumnArray newArray(int capacity) {
+            return new IntColumnArray(capacity);
+        }
+
+        @Override
+        protected void copyValue(ColumnArray from, int fromIndex, int toIndex) {
+            values[toIndex] = ((IntColumnArray) from).values[fromIndex];
+        }
+    }
+
+    protected static class LongColumnArray extends ColumnArray {
+
+        protected volatile long[] values;
+
+        public LongColumnArray(int capacity) {
+            super(capacity);
+            this.values = new long[capacity];
+        }
+
+        public long getLong(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected int length() {
+            return values.length;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected Object getValue(int index) {
+            return values[index];
+        }
+
+        @Override
+        protected void setValue(int index, Object value) {
+            values[index] = (Long) value;
+        }
+
+        @Override
+        protected ColumnArray newArray(int capacity) {
+            return new LongColumnArray(capacity);
+        }
+
+        @Override
+        protected void copyValue(ColumnArray from, int fromIndex, int toIndex) {
+            values[toIndex] = ((LongColumnArray) from).values[fromIndex];
+        }
+    }
+
+    protected static class BooleanColumnArray extends ColumnArray {
+
+        // Value bits
+        protected volatile long[] values;
+        protected int length;
+
+        public BooleanColumnArray(int capacity) {
+            super(capacity);
+            this.values = new long[present.length];
+            this.length = capacity;
+        }
+
+        public boolean getBoolean(int index) {
+            return (values[index >>> 6] & (1L << index)) != 0;
+        }
+
+        @Override
+        protected int length() {
+            return length;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            values = Arrays.copyOf(values, (capacity + 63) >>> 6);
+            length = capacity;
+        }
+
+        @Override
+        protected Object getValue(int index) {
+            return getBoolean(index);
+        }
+
+        @Override
+        protected void setValue(int index, Object value) {
+            if ((Boolean) value) {
+                values[index >>> 6] |= 1L << index;
+            } else {
+                values[index >>> 6] &= ~(1L << index);
+            }
+        }
+
+        @Override
+        protected ColumnArray newArray(int capacity) {
+            return new BooleanColumnArray(capacity);
+        }
+
+        @Override
+        protected void copyValue(ColumnArray from, int fromIndex, int toIndex) {
+            if (((BooleanColumnArray) from).getBoolean(fromIndex)) {
+                values[toIndex >>> 6] |= 1L << toIndex;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.CompressedSparseRow;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphView;
+
+public class CompressedSparseRowImpl implements CompressedSparseRow {
+
+    // Any type
+    protected static final int ANY_TYPE = -1;
+    // Source
+    protected final GraphStore graphStore;
+    protected final Graph graph;
+    protected final GraphVersion version;
+    protected final boolean undirected;
+    protected final int type;
+    protected final boolean withWeights;
+    // Arrays
+    protected int[] offsets;
+    protected int[] targets;
+    protected double[] weights;
+    // Version at build
+    protected int nodeVersion;
+    protected int edgeVersion;
+
+    public CompressedSparseRowImpl(GraphStore graphStore, Graph graph, GraphVersion version, boolean undirected, int type, boolean withWeights) {
+        this.graphStore = graphStore;
+        this.graph = graph;
+        this.version = version;
+        this.undirected = undirected;
+        this.type = type;
+        this.withWeights = withWeights;
+        build();
+    }
+
+    // Static arrays, never refreshed
+    protected CompressedSparseRowImpl(int[] offsets, int[] targets, double[] weights) {
+        this.graphStore = null;
+        this.graph = null;
+        this.version = null;
+        this.undirected = false;
+        this.type = ANY_TYPE;
+        this.withWeights = weights != null;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    @Override
+    public int[] getTargets() {
+        return targets;
+    }
+
+    @Override
+    public double[] getWeights() {
+        return weights;
+    }
+
+    @Override
+    public int getRowCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return targets.length;
+    }
+
+    @Override
+    public boolean refresh() {
+        if (graph == null) {
+            return false;
+        }
+        if (version != null && version.nodeVersion == nodeVersion && version.edgeVersion == edgeVersion) {
+            return false;
+        }
+        build();
+        return true;
+    }
+
+    protected void build() {
+        graphStore.autoReadLock();
+        try {
+            if (version != null) {
+                nodeVersion = version.nodeVersion;
+                edgeVersion = version.edgeVersion;
+            }
+
+            final int rows = graphStore.nodeStore.maxStoreId();
+            if (offsets == null || offsets.length != rows + 1) {
+                offsets = new int[rows + 1];
+            } else {
+                Arrays.fill(offsets, 0);
+            }
+            for (Edge e : graph.getEdges()) {
+                EdgeImpl edge = (EdgeImpl) e;
+                if (type == ANY_TYPE || edge.type == type) {
+                    offsets[edge.source.storeId + 1]++;
+                    if (isSymmetric(edge)) {
+                        offsets[edge.target.storeId + 1]++;
+                    }
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            final int entries = offsets[rows];
+            if (targets == null || targets.length != entries) {
+                targets = new int[entries];
+            }
+            if (withWeights && (weights == null || weights.length != entries)) {
+                weights = new double[entries];
+            }
+
+            final Column weightColumn = graphStore.edgeTable.store
+                    .getColumnByIndex(GraphStoreConfiguration.EDGE_WEIGHT_INDEX);
+            final boolean dynamicWeight = weightColumn.isDynamicAttribute();
+            final GraphView view = graph.getView();
+            final int[] cursors = Arrays.copyOf(offsets, rows);
+            for (Edge e : graph.getEdges()) {
+                EdgeImpl edge = (EdgeImpl) e;
+                if (type == ANY_TYPE || edge.type == type) {
+                    int source = edge.source.storeId;
+                    int target = edge.target.storeId;
+                    int index = cursors[source]++;
+                    targets[index] = target;
+                    double weight = 0.0;
+                    if (withWeights) {
+                        weight = dynamicWeight ? edge.getWeight(view) : edge.getWeight();
+                        weights[index] = weight;
+                    }
+                    if (isSymmetric(edge)) {
+                        index = cursors[target]++;
+                        targets[index] = source;
+                        if (withWeights) {
+                            weights[index] = weight;
+                        }
+                    }
+                }
+            }
+        } finally {
+            graphStore.autoReadUnlock();
+        }
+    }
+
+    private boolean isSymmetric(EdgeImpl edge) {
+        return (undirected || !edge.isDirected()) && !edge.isSelfLoop();
+    }
+}
@@ -38,6 +38,10 @@ public class ConfigurationImpl {
     private final boolean enableSpatialIndex;
     // Enable parallel edges of the same type (default True)
     private final boolean enableParallelEdgesSameType;
+    // Optimistic reads
+    private final boolean enableOptimisticReads;
+    // Store primitive attributes in columns (default False)
+    private final boolean enableColumnarAttributes;
 
     public ConfigurationImpl() {
         nodeIdType = GraphStoreConfiguration.DEFAULT_NODE_ID_TYPE;
@@ -56,6 +60,8 @@ public class ConfigurationImpl {
         enableEdgeProperties = GraphStoreConfiguration.DEFAULT_ENABLE_EDGE_PROPERTIES;
         enableSpatialIndex = GraphStoreConfiguration.DEFAULT_ENABLE_SPATIAL_INDEX;
         enableParallelEdgesSameType = GraphStoreConfiguration.DEFAULT_ENABLE_PARALLEL_EDGES_SAME_TYPE;
+        enableOptimisticReads = GraphStoreConfiguration.DEFAULT_ENABLE_OPTIMISTIC_READS;
+        enableColumnarAttributes = GraphStoreConfiguration.DEFAULT_ENABLE_COLUMNAR_ATTRIBUTES;
     }
 
     public ConfigurationImpl(Configuration configuration) {
@@ -75,6 +81,8 @@ public class ConfigurationImpl {
         enableEdgeProperties = configuration.isEnableEdgeProperties();
         enableSpatialIndex = configuration.isEnableSpatialIndex();
         enableParallelEdgesSameType = configuration.isEnableParallelEdgesSameType();
+        enableOptimisticReads = configuration.isEnableOptimisticReads();
+        enableColumnarAttributes = configuration.isEnableColumnarAttributes();
     }
 
     public Configuration toConfiguration() {
@@ -145,6 +153,14 @@ public class ConfigurationImpl {
         return enableParallelEdgesSameType;
     }
 
+    public boolean isEnableOptimisticReads() {
+        return enableOptimisticReads;
+    }
+
+    public boolean isEnableColumnarAttributes() {
+        return enableColumnarAttributes;
+    }
+
     // Used to return a Configuration instance
     private static class ConfigurationProxy extends Configuration {
 
@@ -197,6 +213,12 @@ public class ConfigurationImpl {
         if (isEnableParallelEdgesSameType() != that.isEnableParallelEdgesSameType()) {
             return false;
         }
+        if (isEnableOptimisticReads() != that.isEnableOptimisticReads()) {
+            return false;
+        }
+        if (isEnableColumnarAttributes() != that.isEnableColumnarAttributes()) {
+            return false;
+        }
         if (!getNodeIdType().equals(that.getNodeIdType())) {
             return false;
         }
@@ -230,12 +252,14 @@ public class ConfigurationImpl {
         result = 31 * result + (isEnableEdgeProperties() ? 1 : 0);
         result = 31 * result + (isEnableSpatialIndex() ? 1 : 0);
         result = 31 * result + (isEnableParallelEdgesSameType() ? 1 : 0);
+        result = 31 * result + (isEnableOptimisticReads() ? 1 : 0);
+        result = 31 * result + (isEnableColumnarAttributes() ? 1 : 0);
         return result;
     }
 
     @Override
     public String toString() {
-        return "ConfigurationImpl{" + "nodeIdType:" + nodeIdType + ", edgeIdType:" + edgeIdType + ", edgeLabelType:" + edgeLabelType + ", edgeWeightType:" + edgeWeightType + ", timeRepresentation:" + timeRepresentation + ", edgeWeightColumn:" + edgeWeightColumn + ", enableAutoLocking:" + enableAutoLocking + ", enableAutoEdgeTypeRegistration:" + enableAutoEdgeTypeRegistration + ", enableIndexNodes:" + enableIndexNodes + ", enableIndexEdges:" + enableIndexEdges + ", enableIndexTime:" + enableIndexTime + ", enableObservers:" + enableObservers + ", enableNodeProperties:" + enableNodeProperties + ", enableEdgeProperties:" + enableEdgeProperties + ", enableSpatialIndex:" + enableSpatialIndex + ", enableParallelEdgesSameType:" + enableParallelEdgesSameType + '}';
+        return "ConfigurationImpl{" + "nodeIdType:" + nodeIdType + ", edgeIdType:" + edgeIdType + ", edgeLabelType:" + edgeLabelType + ", edgeWeightType:" + edgeWeightType + ", timeRepresentation:" + timeRepresentation + ", edgeWeightColumn:" + edgeWeightColumn + ", enableAutoLocking:" + enableAutoLocking + ", enableAutoEdgeTypeRegistration:" + enableAutoEdgeTypeRegistration + ", enableIndexNodes:" + enableIndexNodes + ", enableIndexEdges:" + enableIndexEdges + ", enableIndexTime:" + enableIndexTime + ", enableObservers:" + enableObservers + ", enableNodeProperties:" + enableNodeProperties + ", enableEdgeProperties:" + enableEdgeProperties + ", enableSpatialIndex:" + enableSpatialIndex + ", enableParallelEdgesSameType:" + enableParallelEdgesSameType + ", enableOptimisticReads:" + enableOptimisticReads + ", enableColumnarAttributes:" + enableColumnarAttributes + '}';
     }
 
     public String diffAsString(ConfigurationImpl other) {
@@ -305,6 +329,14 @@ public class ConfigurationImpl {
             sb.append("enableParallelEdgesSameType: ").append(isEnableParallelEdgesSameType()).append(" != ")
                     .append(otherImpl.isEnableParallelEdgesSameType()).append("\n");
         }
+        if (isEnableOptimisticReads() != otherImpl.isEnableOptimisticReads()) {
+            sb.append("enableOptimisticReads: ").append(isEnableOptimisticReads()).append(" != ")
+                    .append(otherImpl.isEnableOptimisticReads()).append("\n");
+        }
+        if (isEnableColumnarAttributes() != otherImpl.isEnableColumnarAttributes()) {
+            sb.append("enableColumnarAttributes: ").append(isEnableColumnarAttributes()).append(" != ")
+                    .append(otherImpl.isEnableColumnarAttributes()).append("\n");
+        }
         // Remove last /n
         if (sb.length() > 0) {
             sb.setLength(sb.length() - 1);
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.gephi.graph.api.DirectedGraph;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
+
+/**
+ * Index of the node degrees of a graph.
+ * <p>
+ * The index is built on first use by scanning the nodes, then updated
+ * incrementally when nodes and edges are added to or removed from the graph.
+ * Bulk changes invalidate the index, which is then rebuilt on the next query.
+ */
+public class DegreeIndexImpl extends ColumnStandardIndexImpl.IntegerStandardIndex<Node> {
+
+    public enum DegreeType {
+        DEGREE, IN_DEGREE, OUT_DEGREE
+    }
+
+    // Degree of the nodes not in the index
+    protected static final int NULL_DEGREE = -1;
+    // Type
+    protected final DegreeType degreeType;
+    // Graph
+    protected final Graph graph;
+    // Indexed degree of each node, by store id
+    protected int[] degrees;
+    protected volatile boolean built;
+
+    protected DegreeIndexImpl(Graph graph, DegreeType degreeType) {
+        super(getColumn(graph, degreeType));
+        this.graph = graph;
+        this.degreeType = degreeType;
+        this.degrees = new int[0];
+    }
+
+    private static ColumnImpl getColumn(Graph graph, DegreeType degreeType) {
+        GraphStore graphStore = graph instanceof GraphViewDecorator ? ((GraphViewDecorator) graph).graphStore
+                : (GraphStore) graph;
+        DefaultColumnsImpl defaultColumns = graphStore.defaultColumns;
+        switch (degreeType) {
+            case IN_DEGREE:
+                return defaultColumns.inDegreeColumn;
+            case OUT_DEGREE:
+                return defaultColumns.outDegreeColumn;
+            default:
+                return defaultColumns.degreeColumn;
+        }
+    }
+
+    @Override
+    public int count(Integer value) {
+        checkNull(value);
+        ensureBuilt();
+        return super.count(value);
+    }
+
+    @Override
+    public Iterable<Node> get(Integer value) {
+        checkNull(value);
+        ensureBuilt();
+        return super.get(value);
+    }
+
+    @Override
+    public Collection<Integer> values() {
+        ensureBuilt();
+        return super.values();
+    }
+
+    @Override
+    public int countValues() {
+        ensureBuilt();
+        return super.countValues();
+    }
+
+    @Override
+    public int countElements() {
+        ensureBuilt();
+        return super.countElements();
+    }
+
+    @Override
+    public Number getMinValue() {
+        ensureBuilt();
+        return super.getMinValue();
+    }
+
+    @Override
+    public Number getMaxValue() {
+        ensureBuilt();
+        return super.getMaxValue();
+    }
+
+    @Override
+    public Iterable<Node> getRange(Integer from, Integer to, boolean inclusive) {
+        ensureBuilt();
+        return super.getRange(from, to, inclusive);
+    }
+
+    @Override
+    public int countRange(Integer from, Integer to, boolean inclusive) {
+        ensureBuilt();
+        return super.countRange(from, to, inclusive);
+    }
+
+    @Override
+    public Iterable<Node> topK(int k, boolean descending) {
+        ensureBuilt();
+        return super.topK(k, descending);
+    }
+
+    @Override
+    public Iterable<Node> getSorted(boolean descending) {
+        ensureBuilt();
+        return super.getSorted(descending);
+    }
+
+    @Override
+    protected ChunkedBitmap getBitmap(Integer value) {
+        ensureBuilt();
+        return super.getBitmap(value);
+    }
+
+    @Override
+    protected ChunkedBitmap getRangeBitmap(Integer from, Integer to, boolean inclusive) {
+        ensureBuilt();
+        return super.getRangeBitmap(from, to, inclusive);
+    }
+
+    @Override
+    public Iterator<Map.Entry<Integer, ? extends Set<Node>>> iterator() {
+        ensureBuilt();
+        return super.iterator();
+    }
+
+    @Override
+    public int getVersion() {
+        ensureBuilt();
+        return super.getVersion();
+    }
+
+    // Refreshes the degree of the node, or removes it if no longer in the graph
+    protected void update(NodeImpl node) {
+        if (built) {
+            synchronized (this) {
+                set(node, graph.contains(node) ? getDegree(node) : NULL_DEGREE);
+            }
+        }
+    }
+
+    // Removes the node, called before it leaves the store
+    protected void remove(NodeImpl node) {
+        if (built) {
+            synchronized (this) {
+                set(node, NULL_DEGREE);
+            }
+        }
+    }
+
+    protected void invalidate() {
+        built = false;
+    }
+
+    protected void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    clear();
+                    degrees = new int[0];
+                    for (Node node : graph.getNodes().toArray()) {
+                        set((NodeImpl) node, getDegree(node));
+                    }
+                    built = true;
+                }
+            }
+        }
+    }
+
+    private void set(NodeImpl node, int degree) {
+        int id = node.storeId;
+        if (id >= degrees.length) {
+            if (degree == NULL_DEGREE) {
+                return;
+            }
+            int length = degrees.length;
+            degrees = Arrays.copyOf(degrees, Math.max(id + 1, length + (length >> 1)));
+            Arrays.fill(degrees, length, degrees.length, NULL_DEGREE);
+        }
+        int oldDegree = degrees[id];
+        if (oldDegree != degree) {
+            if (oldDegree != NULL_DEGREE) {
+                removeValue(node, oldDegree);
+            }
+            if (degree != NULL_DEGREE) {
+                putValue(node, degree);
+            }
+            degrees[id] = degree;
+        }
+    }
+
+    private int getDegree(Node node) {
+        switch (degreeType) {
+            case DEGREE:
+                return graph.getDegree(node);
+            case IN_DEGREE:
+                return ((DirectedGraph) graph).getInDegree(node);
+            case OUT_DEGREE:
+                return ((DirectedGraph) graph).getOutDegree(node);
+        }
+        throw new RuntimeException();
+    }
+
+    private void checkNull(Integer value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gephi.graph.impl;
 
+import cern.colt.bitvector.BitVector;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenCustomHashMap;
 import it.unimi.dsi.fastutil.longs.LongHash;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -23,14 +24,21 @@ import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
 import org.gephi.graph.api.EdgeIterable;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
 
 public class EdgeStore implements Collection<Edge>, EdgeIterable {
@@ -54,6 +62,8 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
     // Data
     protected int size;
     protected int garbageSize;
+    // Blocks with free slots, the lowest one is reused first
+    protected BitSet garbageBlocks;
     protected int blocksCount;
     protected int currentBlockIndex;
     protected EdgeBlock blocks[];
@@ -100,7 +110,18 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
 
     private void initStore() {
         this.size = 0;
+        initBlocks();
+        this.longDictionary = new Long2ObjectOpenCustomHashMap[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
+        this.longDictionary[0] = new Long2ObjectOpenCustomHashMap(
+                GraphStoreConfiguration.EDGESTORE_DEFAULT_DICTIONARY_SIZE,
+                GraphStoreConfiguration.EDGESTORE_DICTIONARY_LOAD_FACTOR, new DictionaryHashStrategy());
+        this.mutualEdgesTypeSize = new int[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
+        this.typeSize = new int[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
+    }
+
+    private void initBlocks() {
         this.garbageSize = 0;
+        this.garbageBlocks = new BitSet(GraphStoreConfiguration.EDGESTORE_DEFAULT_BLOCKS);
         this.blocksCount = 1;
         this.currentBlockIndex = 0;
         this.blocks = new EdgeBlock[GraphStoreConfiguration.EDGESTORE_DEFAULT_BLOCKS];
@@ -108,12 +129,6 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         this.currentBlock = blocks[currentBlockIndex];
         this.dictionary = new Object2IntOpenHashMap(GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE);
         this.dictionary.defaultReturnValue(NULL_ID);
-        this.longDictionary = new Long2ObjectOpenCustomHashMap[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
-        this.longDictionary[0] = new Long2ObjectOpenCustomHashMap(
-                GraphStoreConfiguration.EDGESTORE_DEFAULT_DICTIONARY_SIZE,
-                GraphStoreConfiguration.EDGESTORE_DICTIONARY_LOAD_FACTOR, new DictionaryHashStrategy());
-        this.mutualEdgesTypeSize = new int[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
-        this.typeSize = new int[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
     }
 
     private void ensureCapacity(final int capacity) {
@@ -309,12 +324,25 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
 
         for (EdgeStoreIterator itr = new EdgeStoreIterator(); itr.hasNext();) {
             EdgeImpl edge = itr.next();
+            edge.detachColumnarAttributes();
             edge.setStoreId(EdgeStore.NULL_ID);
+            journalRemoved(edge);
+            clearNodeEdges(edge.source);
+            clearNodeEdges(edge.target);
         }
 
         initStore();
     }
 
+    // Resets the degrees and edge list heads of a node whose edges are cleared
+    private void clearNodeEdges(NodeImpl node) {
+        Arrays.fill(node.headOut, null);
+        Arrays.fill(node.headIn, null);
+        node.inDegree = 0;
+        node.outDegree = 0;
+        node.mutualDegree = 0;
+    }
+
     @Override
     public int size() {
         return size;
@@ -348,6 +376,32 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         return new EdgeStoreIterator();
     }
 
+    // Iterates over the edges whose bit is set, for views
+    public EdgeStoreBitVectorIterator iterator(BitVector bitVector) {
+        return new EdgeStoreBitVectorIterator(bitVector);
+    }
+
+    @Override
+    public Spliterator<Edge> spliterator() {
+        return spliterator(null, false);
+    }
+
+    @Override
+    public Stream<Edge> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // Returns a spliterator over the edges, restricted to the view if not null
+    // and skipping the second edge of mutual pairs if undirected
+    protected EdgeStoreSpliterator spliterator(GraphViewImpl view, boolean undirected) {
+        readLock();
+        try {
+            return new EdgeStoreSpliterator(view, undirected, 0, maxStoreId());
+        } finally {
+            readUnlock();
+        }
+    }
+
     public EdgeStoreIterator iteratorUndirected() {
         return new UndirectedEdgeStoreIterator();
     }
@@ -430,6 +484,28 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         return new NeighborsUndirectedIterator((NodeImpl) node, new EdgeTypeInOutIterator((NodeImpl) node, type));
     }
 
+    public EdgeCursorImpl edgeCursor(boolean out, boolean in, boolean undirected, GraphViewImpl view) {
+        return new EdgeCursorImpl(out, in, undirected, view);
+    }
+
+    public NeighborCursorImpl neighborCursor(boolean out, boolean in, boolean undirected, GraphViewImpl view) {
+        return new NeighborCursorImpl(new EdgeCursorImpl(out, in, undirected, view));
+    }
+
+    public void forEachNeighbor(final Node node, boolean undirected, GraphViewImpl view, IntConsumer consumer) {
+        checkNonNullObject(consumer);
+        readLock();
+        try {
+            NeighborCursorImpl cursor = neighborCursor(true, true, undirected, view);
+            cursor.reset(node);
+            for (int id = cursor.nextStoreId(); id != NULL_ID; id = cursor.nextStoreId()) {
+                consumer.accept(id);
+            }
+        } finally {
+            readUnlock();
+        }
+    }
+
     public Iterator<Edge> edgesUndirectedIterator(final Node node1, final Node node2) {
         checkValidNodeObject(node1);
         checkValidNodeObject(node2);
@@ -448,7 +524,8 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         return blocks[id / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE].get(id);
     }
 
-    // Only used for Graph.getEdgeByStoreId
+    // Returns null for invalid ids, used for Graph.getEdgeByStoreId and the column
+    // indexes
     public EdgeImpl getForGetByStoreId(int id) {
         if (id < 0 || !isValidIndex(id)) {
             return null;
@@ -596,8 +673,9 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             }
 
             edgeTypeStore.registerEdgeType(type);
-            boolean wasMutual = edge.isMutual();
-            removeFromDico(edge, edge.storeId);
+            GraphViewImpl[] pairViews = viewStore != null ? viewStore.beforeSetEdgeType(edge, type) : null;
+            boolean wasUndirectedToIgnore = isUndirectedToIgnore(edge);
+            journalReverse(removeFromDico(edge, edge.storeId));
             typeSize[oldType]--;
 
             removeOutEdge(edge);
@@ -606,11 +684,14 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             insertOutEdge(edge);
             insertInEdge(edge);
 
-            addToDico(newDico, newDicoValue, edge, longId);
+            journalReverse(addToDico(newDico, newDicoValue, edge, longId));
             typeSize[type]++;
+            if (version != null && wasUndirectedToIgnore != isUndirectedToIgnore(edge)) {
+                version.journal.undirectedChanged(edge, wasUndirectedToIgnore);
+            }
 
             if (viewStore != null) {
-                viewStore.setEdgeType(edge, oldType, wasMutual);
+                viewStore.setEdgeType(edge, oldType, pairViews);
             }
 
             incrementVersion();
@@ -621,7 +702,10 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         return true;
     }
 
-    private void removeFromDico(EdgeImpl edge, int id) {
+    // Returns the edge whose pairing changed with the removal, which is the
+    // reverse edge that was paired with the edge or a parallel edge paired with
+    // that reverse edge instead, if any
+    private EdgeImpl removeFromDico(EdgeImpl edge, int id) {
         int type = edge.type;
         NodeImpl source = edge.source;
         NodeImpl target = edge.target;
@@ -644,27 +728,41 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             dico.put(longId, newDicoValue);
         }
 
-        if (directed && !edge.isSelfLoop()) {
+        if (directed && !edge.isSelfLoop() && edge.isMutual()) {
+            edge.setMutual(false);
+
+            // A parallel edge left unpaired takes over the reverse edge
+            int[] parallel = dico.get(longId);
+            if (parallel != null) {
+                for (int i = 0; i < parallel.length; i++) {
+                    EdgeImpl other = get(parallel[i]);
+                    if (!other.isMutual()) {
+                        other.setMutual(true);
+                        return other;
+                    }
+                }
+            }
+
             int[] index = longDictionary[type].get(getLongId(edge.target, edge.source, true));
             if (index != null) {
                 for (int i = 0; i < index.length; i++) {
                     EdgeImpl mutual = get(index[i]);
                     if (mutual.isMutual()) {
-                        edge.setMutual(false);
-
                         mutual.setMutual(false);
                         source.mutualDegree--;
                         target.mutualDegree--;
                         mutualEdgesSize--;
                         mutualEdgesTypeSize[type]--;
-                        break;
+                        return mutual;
                     }
                 }
             }
         }
+        return null;
     }
 
-    private void addToDico(Long2ObjectOpenCustomHashMap<int[]> dico, int[] dicoValue, EdgeImpl edge, long longId) {
+    // Returns the reverse edge the edge has been paired with, if any
+    private EdgeImpl addToDico(Long2ObjectOpenCustomHashMap<int[]> dico, int[] dicoValue, EdgeImpl edge, long longId) {
         if (dicoValue == null) {
             dicoValue = new int[] { edge.storeId };
         } else {
@@ -686,11 +784,12 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
                         edge.target.mutualDegree++;
                         mutualEdgesSize++;
                         mutualEdgesTypeSize[type]++;
-                        break;
+                        return mutual;
                     }
                 }
             }
         }
+        return null;
     }
 
     @Override
@@ -722,15 +821,14 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             incrementVersion();
 
             if (garbageSize > 0) {
-                for (int i = 0; i < blocksCount; i++) {
-                    EdgeBlock edgeBlock = blocks[i];
-                    if (edgeBlock.hasGarbage()) {
-                        edgeBlock.set(edge);
-                        garbageSize--;
-                        dictionary.put(edge.getId(), edge.storeId);
-                        break;
-                    }
+                int i = garbageBlocks.nextSetBit(0);
+                EdgeBlock edgeBlock = blocks[i];
+                edgeBlock.set(edge);
+                if (!edgeBlock.hasGarbage()) {
+                    garbageBlocks.clear(i);
                 }
+                garbageSize--;
+                dictionary.put(edge.getId(), edge.storeId);
             } else {
                 ensureCapacity(1);
                 currentBlock.add(edge);
@@ -743,7 +841,7 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             source.outDegree++;
             target.inDegree++;
 
-            addToDico(dico, dicoValue, edge, longId);
+            journalReverse(addToDico(dico, dicoValue, edge, longId));
 
             if (viewStore != null) {
                 viewStore.addEdge(edge);
@@ -756,6 +854,8 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
 
             size++;
             typeSize[type]++;
+            journalAdded(edge);
+            updateDegrees(edge);
             return true;
         } else if (isValidIndex(edge.storeId) && get(edge.storeId) == edge) {
             return false;
@@ -764,6 +864,117 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         }
     }
 
+    // Appends the edges without reusing garbage slots and defers the view, version
+    // and index updates to a single pass at the end
+    protected int bulkAdd(final EdgeImpl[] edges) {
+        int maxType = 0;
+        for (EdgeImpl edge : edges) {
+            checkNonNullEdgeObject(edge);
+            maxType = Math.max(maxType, edge.type);
+        }
+
+        // Register types and size dictionaries up front
+        ensureLongDictionaryCapacity(maxType);
+        int[] typeCounts = new int[maxType + 1];
+        for (EdgeImpl edge : edges) {
+            typeCounts[edge.type]++;
+        }
+        for (int type = 0; type <= maxType; type++) {
+            if (typeCounts[type] > 0) {
+                if (edgeTypeStore != null) {
+                    edgeTypeStore.registerEdgeType(type);
+                }
+                longDictionary[type].ensureCapacity(longDictionary[type].size() + typeCounts[type]);
+            }
+        }
+        ensureBlocksLength(edges.length);
+        dictionary.ensureCapacity(size + edges.length);
+
+        final boolean parallelEdges = configuration.isEnableParallelEdgesSameType();
+        final int firstStoreId = maxStoreId();
+        final EdgeImpl[] added = new EdgeImpl[edges.length];
+        int count = 0;
+        try {
+            for (EdgeImpl edge : edges) {
+                if (edge.storeId != EdgeStore.NULL_ID) {
+                    if (isValidIndex(edge.storeId) && get(edge.storeId) == edge) {
+                        continue;
+                    }
+                    throw new IllegalArgumentException("The edge already belongs to another store");
+                }
+                checkSourceTargets(edge);
+                checkUndirectedNotExist(edge);
+
+                int type = edge.type;
+                boolean directed = edge.isDirected();
+                NodeImpl source = edge.source;
+                NodeImpl target = edge.target;
+
+                Long2ObjectOpenCustomHashMap<int[]> dico = longDictionary[type];
+                long longId = getLongId(source, target, directed);
+                int[] dicoValue = dico.get(longId);
+                if (dicoValue != null && !parallelEdges) {
+                    continue;
+                }
+
+                if (currentBlock.getCapacity() == 0) {
+                    ensureCapacity(1);
+                }
+                Object id = edge.getId();
+                int previous = dictionary.put(id, currentBlock.offset + currentBlock.nodeLength);
+                if (previous != NULL_ID) {
+                    dictionary.put(id, previous);
+                    throw new IllegalArgumentException("The edge id already exist");
+                }
+                currentBlock.add(edge);
+
+                insertOutEdge(edge);
+                insertInEdge(edge);
+
+                source.outDegree++;
+                target.inDegree++;
+
+                EdgeImpl reverse = addToDico(dico, dicoValue, edge, longId);
+                if (reverse != null && reverse.storeId < firstStoreId) {
+                    // Edges added here are journaled once paired
+                    journalReverse(reverse);
+                }
+
+                if (!directed) {
+                    undirectedSize++;
+                }
+
+                size++;
+                typeSize[type]++;
+                added[count++] = edge;
+            }
+        } finally {
+            if (count > 0) {
+                incrementVersion();
+
+                if (viewStore != null) {
+                    viewStore.addEdges(added, count);
+                }
+                ElementImpl.indexAttributes(added, count);
+
+                for (int i = 0; i < count; i++) {
+                    journalAdded(added[i]);
+                    updateDegrees(added[i]);
+                }
+            }
+        }
+        return count;
+    }
+
+    private void ensureBlocksLength(final int capacity) {
+        int blocksNeeded = blocksCount + capacity / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE + 1;
+        if (blocksNeeded > blocks.length) {
+            EdgeBlock[] newBlocks = new EdgeBlock[blocksNeeded];
+            System.arraycopy(blocks, 0, newBlocks, 0, blocks.length);
+            blocks = newBlocks;
+        }
+    }
+
     @Override
     public boolean remove(final Object o) {
         checkNonNullEdgeObject(o);
@@ -774,16 +985,16 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
             checkEdgeExists(edge);
 
             incrementVersion();
+            journalRemoved(edge);
 
-            if (viewStore != null) {
-                viewStore.removeEdge(edge);
-            }
+            GraphViewImpl[] pairViews = viewStore != null ? viewStore.removeEdge(edge) : null;
 
             edge.destroyAttributes();
 
             int storeIndex = id / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE;
             EdgeBlock block = blocks[storeIndex];
             block.remove(edge);
+            garbageBlocks.set(storeIndex);
 
             removeOutEdge(edge);
             removeInEdge(edge);
@@ -803,6 +1014,7 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
 
             for (int i = storeIndex; i == (blocksCount - 1) && block.garbageLength == block.nodeLength && i >= 0;) {
                 if (i != 0) {
+                    garbageBlocks.clear(i);
                     blocks[i] = null;
                     blocksCount--;
                     garbageSize -= block.nodeLength;
@@ -811,12 +1023,16 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
                     currentBlockIndex--;
                 } else {
                     currentBlock.clear();
+                    garbageBlocks.clear();
                     garbageSize = 0;
                     break;
                 }
             }
 
-            removeFromDico(edge, id);
+            journalReverse(removeFromDico(edge, id));
+            if (viewStore != null) {
+                viewStore.afterRemoveEdge(edge, pairViews);
+            }
 
             if (!directed) {
                 undirectedSize--;
@@ -826,6 +1042,7 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
                 // TODO - if type count is zero, do smthing
             }
 
+            updateDegrees(edge);
             return true;
         }
         return false;
@@ -1238,6 +1455,37 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         }
     }
 
+    private void journalAdded(EdgeImpl edge) {
+        if (version != null) {
+            version.journal.added(edge, isUndirectedToIgnore(edge));
+        }
+    }
+
+    private void journalRemoved(EdgeImpl edge) {
+        if (version != null) {
+            version.journal.removed(edge, isUndirectedToIgnore(edge));
+        }
+    }
+
+    // Records the reverse edge of a mutual pair that was just formed or broken,
+    // which undirected graphs hide or reveal depending on its direction
+    private void journalReverse(EdgeImpl reverse) {
+        if (version != null && reverse != null && reverse.source.storeId < reverse.target.storeId) {
+            version.journal.undirectedChanged(reverse, !reverse.isMutual());
+        }
+    }
+
+    // Refreshes the degree indexes of the edge's nodes
+    private void updateDegrees(EdgeImpl edge) {
+        ColumnStore columnStore = edge.source.getColumnStore();
+        if (columnStore != null) {
+            columnStore.indexStore.updateDegree(edge.source);
+            if (edge.source != edge.target) {
+                columnStore.indexStore.updateDegree(edge.target);
+            }
+        }
+    }
+
     boolean isUndirectedToIgnore(EdgeImpl edge) {
         return edge.isMutual() && edge.source.storeId < edge.target.storeId;
     }
@@ -1246,6 +1494,123 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         return currentBlock.offset + currentBlock.nodeLength;
     }
 
+    // Copies the elements into an array indexed by store id, free ids are null
+    EdgeImpl[] toStoreIdArray() {
+        EdgeImpl[] array = new EdgeImpl[maxStoreId()];
+        for (int i = 0; i < blocksCount; i++) {
+            EdgeBlock block = blocks[i];
+            System.arraycopy(block.backingArray, 0, array, block.offset, block.nodeLength);
+        }
+        return array;
+    }
+
+    // Moves the edges to the lowest store ids, in the same order, and releases the
+    // trailing blocks. The dictionaries are rebuilt if edges or nodes moved.
+    // Returns the new store id of each old store id, or null if there was no
+    // garbage
+    protected int[] compact(boolean nodesMoved) {
+        int[] storeIdMap = null;
+        if (garbageSize > 0) {
+            storeIdMap = reorder(toArray());
+        } else if (nodesMoved) {
+            rebuildLongDictionaries(null);
+        }
+        return storeIdMap;
+    }
+
+    // Moves the edges to the lowest store ids, in the given order, and releases the
+    // trailing blocks. The order must contain all the edges once. Returns the new
+    // store id of each old store id
+    protected int[] reorder(EdgeImpl[] order) {
+        int[] storeIdMap = new int[maxStoreId()];
+        Arrays.fill(storeIdMap, NULL_ID);
+
+        initBlocks();
+        if (size > 0) {
+            ensureBlocksLength(size);
+            ensureCapacity(size);
+        }
+        for (EdgeImpl edge : order) {
+            int oldStoreId = edge.storeId;
+            if (currentBlock.getCapacity() == 0) {
+                currentBlock = blocks[++currentBlockIndex];
+            }
+            currentBlock.add(edge);
+            dictionary.put(edge.getId(), edge.storeId);
+            storeIdMap[oldStoreId] = edge.storeId;
+        }
+
+        // Adjacency lists link edges by store id
+        for (EdgeImpl edge : order) {
+            edge.nextOutEdge = remapStoreId(storeIdMap, edge.nextOutEdge);
+            edge.nextInEdge = remapStoreId(storeIdMap, edge.nextInEdge);
+            edge.previousOutEdge = remapStoreId(storeIdMap, edge.previousOutEdge);
+            edge.previousInEdge = remapStoreId(storeIdMap, edge.previousInEdge);
+        }
+        rebuildLongDictionaries(storeIdMap);
+        return storeIdMap;
+    }
+
+    // Returns the edges grouped by source, following the given node order and
+    // each node's outgoing adjacency lists
+    protected EdgeImpl[] toSourceOrder(NodeImpl[] nodes) {
+        EdgeImpl[] order = new EdgeImpl[size];
+        int index = 0;
+        for (NodeImpl node : nodes) {
+            for (EdgeImpl head : node.headOut) {
+                for (EdgeImpl edge = head; edge != null;) {
+                    order[index++] = edge;
+                    edge = edge.nextOutEdge != NULL_ID ? get(edge.nextOutEdge) : null;
+                }
+            }
+        }
+        return order;
+    }
+
+    // Keys are made of node store ids, the order of parallel edges is kept
+    private void rebuildLongDictionaries(int[] storeIdMap) {
+        for (int type = 0; type < longDictionary.length; type++) {
+            Long2ObjectOpenCustomHashMap<int[]> dico = longDictionary[type];
+            if (dico != null) {
+                Long2ObjectOpenCustomHashMap<int[]> newDico = new Long2ObjectOpenCustomHashMap<>(
+                        Math.max(dico.size(), GraphStoreConfiguration.EDGESTORE_DEFAULT_DICTIONARY_SIZE),
+                        GraphStoreConfiguration.EDGESTORE_DICTIONARY_LOAD_FACTOR, new DictionaryHashStrategy());
+                for (int[] ids : dico.values()) {
+                    if (storeIdMap != null) {
+                        for (int k = 0; k < ids.length; k++) {
+                            ids[k] = storeIdMap[ids[k]];
+                        }
+                    }
+                    EdgeImpl edge = get(ids[0]);
+                    newDico.put(getLongId(edge.source, edge.target, edge.isDirected()), ids);
+                }
+                longDictionary[type] = newDico;
+            }
+        }
+    }
+
+    private static int remapStoreId(int[] storeIdMap, int id) {
+        return id == NULL_ID ? NULL_ID : storeIdMap[id];
+    }
+
+    // Clears the bits of free store ids and of ids above the max store id
+    protected void clearFreeStoreIds(BitVector bitVector) {
+        int size = bitVector.size();
+        for (int i = 0; i < blocksCount; i++) {
+            EdgeBlock block = blocks[i];
+            for (int j = 0; j < block.garbageLength; j++) {
+                int id = block.offset + block.garbageArray[j] - Short.MIN_VALUE;
+                if (id < size) {
+                    bitVector.putQuick(id, false);
+                }
+            }
+        }
+        int max = maxStoreId();
+        if (max < size) {
+            bitVector.replaceFromToWith(max, size - 1, false);
+        }
+    }
+
     protected static class EdgeBlock {
 
         protected final int offset;
@@ -1313,6 +1678,43 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         }
     }
 
+    protected final class EdgeStoreSpliterator extends ElementStoreSpliterator<Edge> {
+
+        private final GraphViewImpl view;
+        private final boolean undirected;
+
+        public EdgeStoreSpliterator(GraphViewImpl view, boolean undirected, int origin, int fence) {
+            super(EdgeStore.this.lock, origin, fence);
+            this.view = view;
+            this.undirected = undirected;
+        }
+
+        @Override
+        protected int maxStoreId() {
+            return EdgeStore.this.maxStoreId();
+        }
+
+        @Override
+        protected EdgeImpl get(int id) {
+            return blocks[id / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE].get(id);
+        }
+
+        @Override
+        protected BitVector getBitVector() {
+            return view != null ? view.edgeBitVector : null;
+        }
+
+        @Override
+        protected boolean accept(ElementImpl element) {
+            return !undirected || !isUndirectedToIgnore((EdgeImpl) element);
+        }
+
+        @Override
+        protected EdgeStoreSpliterator create(int origin, int fence) {
+            return new EdgeStoreSpliterator(view, undirected, origin, fence);
+        }
+    }
+
     protected class EdgeStoreIterator implements Iterator<Edge> {
 
         protected int blockIndex;
@@ -1360,6 +1762,51 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         }
     }
 
+    // Walks the set bits word by word, so empty words are skipped and the cost
+    // depends on the number of set bits rather than the size of the store
+    protected final class EdgeStoreBitVectorIterator implements Iterator<Edge> {
+
+        protected final long[] words;
+        protected final int wordsLength;
+        protected final int maxStoreId;
+        protected int wordIndex;
+        protected long word;
+        protected EdgeImpl pointer;
+
+        public EdgeStoreBitVectorIterator(BitVector bitVector) {
+            readLock();
+            this.maxStoreId = maxStoreId();
+            this.words = bitVector.elements();
+            this.wordsLength = Math.min(words.length, (maxStoreId + 63) >>> 6);
+            this.word = wordsLength > 0 ? words[0] : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            pointer = null;
+            while (pointer == null) {
+                while (word == 0) {
+                    if (++wordIndex >= wordsLength) {
+                        readUnlock();
+                        return false;
+                    }
+                    word = words[wordIndex];
+                }
+                int id = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (id < maxStoreId) {
+                    pointer = blocks[id / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE].get(id);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public EdgeImpl next() {
+            return pointer;
+        }
+    }
+
     protected final class UndirectedEdgeStoreIterator extends EdgeStoreIterator {
 
         public UndirectedEdgeStoreIterator() {
@@ -1919,6 +2366,131 @@ public class EdgeStore implements Collection<Edge>, EdgeIterable {
         }
     }
 
+    // Walks the out edges and then the in edges of a node without locking or
+    // allocating, self-loops are returned once
+    protected final class EdgeCursorImpl implements EdgeCursor {
+
+        private static final byte OUT = 0;
+        private static final byte IN = 1;
+        private static final byte DONE = 2;
+
+        protected final boolean out;
+        protected final boolean in;
+        protected final boolean undirected;
+        protected final GraphViewImpl view;
+        protected NodeImpl node;
+        protected byte phase = DONE;
+        protected int typeIndex;
+        protected EdgeImpl pointer;
+        protected EdgeImpl current;
+
+        public EdgeCursorImpl(boolean out, boolean in, boolean undirected, GraphViewImpl view) {
+            this.out = out;
+            this.in = in;
+            this.undirected = undirected;
+            this.view = view;
+        }
+
+        @Override
+        public void reset(Node node) {
+            checkValidNodeObject(node);
+            if (view != null && !view.containsNode((NodeImpl) node)) {
+                throw new IllegalArgumentException("Node doesn't belong to this view");
+            }
+            this.node = (NodeImpl) node;
+            this.phase = out ? OUT : (in ? IN : DONE);
+            this.typeIndex = 0;
+            this.pointer = null;
+            this.current = null;
+        }
+
+        @Override
+        public int nextStoreId() {
+            for (EdgeImpl edge = advance(); edge != null; edge = advance()) {
+                if (accept(edge)) {
+                    current = edge;
+                    return edge.storeId;
+                }
+            }
+            current = null;
+            return NULL_ID;
+        }
+
+        @Override
+        public EdgeImpl edge() {
+            return current;
+        }
+
+        private EdgeImpl advance() {
+            while (pointer == null) {
+                if (phase == OUT) {
+                    if (typeIndex < node.headOut.length) {
+                        pointer = node.headOut[typeIndex++];
+                    } else {
+                        phase = in ? IN : DONE;
+                        typeIndex = 0;
+                    }
+                } else if (phase == IN) {
+                    if (typeIndex < node.headIn.length) {
+                        pointer = node.headIn[typeIndex++];
+                    } else {
+                        phase = DONE;
+                    }
+                } else {
+                    return null;
+                }
+            }
+            EdgeImpl edge = pointer;
+            int id = phase == OUT ? edge.nextOutEdge : edge.nextInEdge;
+            pointer = id != NULL_ID ? blocks[id / GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE].get(id) : null;
+            return edge;
+        }
+
+        private boolean accept(EdgeImpl edge) {
+            if (phase == IN && out && edge.isSelfLoop()) {
+                return false;
+            }
+            if (view != null && !view.containsEdge(edge)) {
+                return false;
+            }
+            // In a view, the mutual edge is only ignored if it's visible
+            return !(undirected && isUndirectedToIgnore(edge) && (view == null || view
+                    .containsEdge(get(edge.target, edge.source, edge.type, false))));
+        }
+    }
+
+    protected final class NeighborCursorImpl implements NeighborCursor {
+
+        protected final EdgeCursorImpl edgeCursor;
+        protected NodeImpl current;
+
+        public NeighborCursorImpl(EdgeCursorImpl edgeCursor) {
+            this.edgeCursor = edgeCursor;
+        }
+
+        @Override
+        public void reset(Node node) {
+            edgeCursor.reset(node);
+            current = null;
+        }
+
+        @Override
+        public int nextStoreId() {
+            if (edgeCursor.nextStoreId() == NULL_ID) {
+                current = null;
+                return NULL_ID;
+            }
+            EdgeImpl edge = edgeCursor.current;
+            current = edge.source == edgeCursor.node ? edge.target : edge.source;
+            return current.storeId;
+        }
+
+        @Override
+        public NodeImpl node() {
+            return current;
+        }
+    }
+
     protected final class UndirectedIterator implements Iterator<Edge> {
 
         protected final Iterator<Edge> itr;
@@ -58,6 +58,26 @@ public class EdgeTypeNoIndexImpl implements ColumnIndexImpl<Object, Edge> {
         throw new UnsupportedOperationException("Edge type index is not sortable");
     }
 
+    @Override
+    public Iterable<Edge> getRange(Object from, Object to, boolean inclusive) {
+        throw new UnsupportedOperationException("Edge type index is not sortable");
+    }
+
+    @Override
+    public int countRange(Object from, Object to, boolean inclusive) {
+        throw new UnsupportedOperationException("Edge type index is not sortable");
+    }
+
+    @Override
+    public Iterable<Edge> topK(int k, boolean descending) {
+        throw new UnsupportedOperationException("Edge type index is not sortable");
+    }
+
+    @Override
+    public Iterable<Edge> getSorted(boolean descending) {
+        throw new UnsupportedOperationException("Edge type index is not sortable");
+    }
+
     @Override
     public Column getColumn() {
         return graph.getModel().defaultColumns().edgeType();
@@ -100,7 +100,7 @@ public abstract class ElementImpl implements Element {
     public Object getAttribute(Column column) {
         checkColumn(column);
 
-        return attributes.getAttribute(column);
+        return getAttributeValue(column);
     }
 
     @Override
@@ -155,6 +155,15 @@ public abstract class ElementImpl implements Element {
 
     @Override
     public Object[] getAttributes() {
+        ColumnStore columnStore = getColumnStore();
+        if (columnStore != null) {
+            columnStore.loadColumns();
+        }
+        if (columnStore != null && columnStore.columnarStore != null && isValid()) {
+            synchronized (attributes) {
+                return columnStore.columnarStore.toArray(this, attributes.getBackingArray());
+            }
+        }
         return attributes.getBackingArray();
     }
 
@@ -178,7 +187,7 @@ public abstract class ElementImpl implements Element {
         checkColumn(column);
         checkReadOnlyColumn(column);
 
-        Object oldValue = attributes.setAttribute(column, column.getDefaultValue());
+        Object oldValue = setAttributeValue(column, column.getDefaultValue());
         updateIndex(column, oldValue, column.getDefaultValue());
 
         return oldValue;
@@ -238,7 +247,7 @@ public abstract class ElementImpl implements Element {
         value = AttributeUtils.standardizeValue(value);
         checkType(column, value);
 
-        Object oldValue = attributes.setAttribute(column, value);
+        Object oldValue = setAttributeValue(column, value);
         updateIndex(column, oldValue, value);
     }
 
@@ -419,10 +428,58 @@ public abstract class ElementImpl implements Element {
         return attributes.getAttributes(column);
     }
 
+    protected ColumnarAttributeStore.ColumnArray getColumnArray(Column column) {
+        ColumnStore columnStore = getColumnStore();
+        if (columnStore != null && columnStore.columnarStore != null && isValid()) {
+            return columnStore.columnarStore.getArray(column);
+        }
+        return null;
+    }
+
+    protected Object getAttributeValue(Column column) {
+        ColumnarAttributeStore.ColumnArray array = getColumnArray(column);
+        if (array != null) {
+            return array.get(getStoreId());
+        }
+        return attributes.getAttribute(column);
+    }
+
+    protected Object setAttributeValue(Column column, Object value) {
+        ColumnarAttributeStore.ColumnArray array = getColumnArray(column);
+        if (array != null) {
+            return array.set(getStoreId(), value);
+        }
+        return attributes.setAttribute(column, value);
+    }
+
+    // Sets a value read from a lazily loaded column
+    protected void loadAttributeValue(Column column, Object value) {
+        Object oldValue = setAttributeValue(column, value);
+        updateIndex(column, oldValue, value);
+    }
+
+    // Moves the primitive values to the columnar store, if enabled
+    protected void attachColumnarAttributes() {
+        ColumnStore columnStore = getColumnStore();
+        if (columnStore != null && columnStore.columnarStore != null) {
+            columnStore.columnarStore.attach(this);
+        }
+    }
+
+    // Moves the primitive values back from the columnar store, if enabled
+    protected void detachColumnarAttributes() {
+        ColumnStore columnStore = getColumnStore();
+        if (columnStore != null && columnStore.columnarStore != null) {
+            columnStore.columnarStore.detach(this);
+        }
+    }
+
     // Called when elements are added
     // TODO
     protected void indexAttributes() {
         synchronized (this) {
+            attachColumnarAttributes();
+
             ColumnStore columnStore = getColumnStore();
             if (columnStore != null) {
                 columnStore.indexStore.index(this);
@@ -435,6 +492,28 @@ public abstract class ElementImpl implements Element {
         }
     }
 
+    // Elements should all belong to the same graph store
+    protected static void indexAttributes(ElementImpl[] elements, int length) {
+        if (length > 0) {
+            ColumnStore columnStore = elements[0].getColumnStore();
+            if (columnStore != null && columnStore.columnarStore != null) {
+                for (int i = 0; i < length; i++) {
+                    synchronized (elements[i]) {
+                        columnStore.columnarStore.attach(elements[i]);
+                    }
+                }
+            }
+            if (columnStore != null) {
+                columnStore.indexStore.index(elements, length);
+            }
+
+            TimeIndexStore timeIndexStore = elements[0].getTimeIndexStore();
+            if (timeIndexStore != null) {
+                timeIndexStore.index(elements, length);
+            }
+        }
+    }
+
     @Override
     public void clearAttributes() {
         synchronized (this) {
@@ -463,6 +542,8 @@ public abstract class ElementImpl implements Element {
             if (timeIndexStore != null) {
                 timeIndexStore.clear(this);
             }
+
+            detachColumnarAttributes();
         }
     }
 
@@ -538,6 +619,10 @@ public abstract class ElementImpl implements Element {
         if (columnStore != null && columnStore.getColumnByIndex(column.getIndex()) != column) {
             throw new IllegalArgumentException("The column does not belong to the right column store");
         }
+        MappedSerialization.ColumnLoader loader = ((ColumnImpl) column).loader;
+        if (loader != null) {
+            loader.load();
+        }
     }
 
     void checkReadOnlyColumn(Column column) {
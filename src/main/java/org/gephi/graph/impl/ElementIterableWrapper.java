@@ -21,6 +21,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.ElementIterable;
 
@@ -28,14 +32,21 @@ public abstract class ElementIterableWrapper<T extends Element> implements Eleme
 
     protected final Iterator<T> iterator;
     protected final GraphLockImpl lock;
+    // Splittable source for parallel streams, null to copy the iterator
+    protected final Supplier<? extends Spliterator<T>> spliterator;
 
     public ElementIterableWrapper(Iterator<T> iterator) {
         this(iterator, null);
     }
 
     public ElementIterableWrapper(Iterator<T> iterator, GraphLockImpl lock) {
+        this(iterator, lock, null);
+    }
+
+    public ElementIterableWrapper(Iterator<T> iterator, GraphLockImpl lock, Supplier<? extends Spliterator<T>> spliterator) {
         this.iterator = iterator;
         this.lock = lock;
+        this.spliterator = spliterator;
     }
 
     @Override
@@ -72,4 +83,13 @@ public abstract class ElementIterableWrapper<T extends Element> implements Eleme
             lock.readUnlock();
         }
     }
+
+    @Override
+    public Stream<T> parallelStream() {
+        if (spliterator != null) {
+            doBreak();
+            return StreamSupport.stream(spliterator.get(), true);
+        }
+        return toCollection().parallelStream();
+    }
 }
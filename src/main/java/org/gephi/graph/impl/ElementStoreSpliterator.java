@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import cern.colt.bitvector.BitVector;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.gephi.graph.api.Element;
+
+/**
+ * Spliterator over a range of store ids of the node or edge store, optionally
+ * filtered by the bit vector of a view.
+ * <p>
+ * Ranges are split on multiples of 64 so each half covers whole words of the
+ * view's bit vector. Garbage slots are skipped.
+ * <p>
+ * The read lock isn't held between traversals. Each traversal acquires it on
+ * the thread it runs on and calls the action while holding it, so the action
+ * can read the graph but not modify it. Elements added or removed between
+ * traversals may or may not be seen.
+ * <p>
+ * Traversals acquire the read lock ahead of queued writers when no writer holds
+ * it. Otherwise a stream run by a thread already holding the read lock would
+ * deadlock: its workers would wait behind a queued writer, which itself waits
+ * for the calling thread to release the read lock.
+ *
+ * @param <T> element type
+ */
+public abstract class ElementStoreSpliterator<T extends Element> implements Spliterator<T> {
+
+    // Minimum number of store ids of a split range
+    protected static final int MIN_SPLIT_SIZE = 1024;
+    protected final GraphLockImpl lock;
+    protected int index;
+    protected final int fence;
+
+    protected ElementStoreSpliterator(GraphLockImpl lock, int origin, int fence) {
+        this.lock = lock;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    // Returns the number of store ids in use
+    protected abstract int maxStoreId();
+
+    // Returns the element with the given store id, or null for garbage slots
+    protected abstract ElementImpl get(int id);
+
+    // Returns the bit vector of the view, or null if all elements are kept
+    protected abstract BitVector getBitVector();
+
+    // Returns false if the element should be skipped
+    protected abstract boolean accept(ElementImpl element);
+
+    protected abstract ElementStoreSpliterator<T> create(int origin, int fence);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        readLock();
+        try {
+            final int max = Math.min(fence, maxStoreId());
+            final BitVector bitVector = getBitVector();
+            while (index < max) {
+                int id = index++;
+                if (bitVector != null && (id >= bitVector.size() || !bitVector.getQuick(id))) {
+                    continue;
+                }
+                ElementImpl element = get(id);
+                if (element != null && accept(element)) {
+                    action.accept((T) element);
+                    return true;
+                }
+            }
+            index = fence;
+            return false;
+        } finally {
+            readUnlock();
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        readLock();
+        try {
+            final int max = Math.min(fence, maxStoreId());
+            final BitVector bitVector = getBitVector();
+            final int from = index;
+            index = fence;
+            if (bitVector == null) {
+                for (int id = from; id < max; id++) {
+                    ElementImpl element = get(id);
+                    if (element != null && accept(element)) {
+                        action.accept((T) element);
+                    }
+                }
+                return;
+            }
+
+            // Only visit the store ids set in the view
+            final long[] words = bitVector.elements();
+            final int end = Math.min(max, bitVector.size());
+            for (int w = from >>> 6; w < words.length && (w << 6) < end; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (id < from) {
+                        continue;
+                    }
+                    if (id >= end) {
+                        break;
+                    }
+                    ElementImpl element = get(id);
+                    if (element != null && accept(element)) {
+                        action.accept((T) element);
+                    }
+                }
+            }
+        } finally {
+            readUnlock();
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int mid = ((index + fence) >>> 1) & ~63;
+        if (mid - index < MIN_SPLIT_SIZE || fence - mid < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        ElementStoreSpliterator<T> prefix = create(index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, fence - index);
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    private void readLock() {
+        // tryLock() isn't blocked by queued writers
+        if (lock != null && !lock.readLock.tryLock()) {
+            lock.readLock();
+        }
+    }
+
+    private void readUnlock() {
+        if (lock != null) {
+            lock.readUnlock();
+        }
+    }
+}
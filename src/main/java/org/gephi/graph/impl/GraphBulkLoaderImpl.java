@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.stream.Stream;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphBulkLoader;
+import org.gephi.graph.api.Node;
+
+public class GraphBulkLoaderImpl implements GraphBulkLoader {
+
+    private final GraphStore store;
+
+    public GraphBulkLoaderImpl(GraphStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int addNodes(Node[] nodes) {
+        NodeImpl[] nodeImpls = new NodeImpl[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodeImpls[i] = verifyNode(nodes[i]);
+        }
+
+        store.autoWriteLock();
+        try {
+            return store.nodeStore.bulkAdd(nodeImpls);
+        } finally {
+            store.autoWriteUnlock();
+        }
+    }
+
+    @Override
+    public int addNodes(Stream<? extends Node> nodes) {
+        return addNodes(nodes.toArray(Node[]::new));
+    }
+
+    @Override
+    public int addEdges(Edge[] edges) {
+        EdgeImpl[] edgeImpls = new EdgeImpl[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            edgeImpls[i] = verifyEdge(edges[i]);
+        }
+
+        store.autoWriteLock();
+        try {
+            return store.edgeStore.bulkAdd(edgeImpls);
+        } finally {
+            store.autoWriteUnlock();
+        }
+    }
+
+    @Override
+    public int addEdges(Stream<? extends Edge> edges) {
+        return addEdges(edges.toArray(Edge[]::new));
+    }
+
+    private NodeImpl verifyNode(Node node) {
+        store.nodeStore.checkNonNullNodeObject(node);
+        NodeImpl nodeImpl = (NodeImpl) node;
+        if (nodeImpl.graphStore != store) {
+            throw new IllegalArgumentException("The node doesn't belong to this graph");
+        }
+        return nodeImpl;
+    }
+
+    private EdgeImpl verifyEdge(Edge edge) {
+        store.edgeStore.checkNonNullEdgeObject(edge);
+        EdgeImpl edgeImpl = (EdgeImpl) edge;
+        if (edgeImpl.graphStore != store) {
+            throw new IllegalArgumentException("The edge doesn't belong to this graph");
+        }
+        return edgeImpl;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ByteLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ByteMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only log of the nodes and edges added to or removed from a graph.
+ * <p>
+ * Entries are only recorded while at least one observer computing diffs is
+ * registered. Each observer keeps its position in the journal and reads the
+ * entries appended since then, so computing a diff costs the number of changes
+ * instead of the size of the graph. Entries read by all observers are trimmed
+ * when the journal grows.
+ * <p>
+ * The journal doesn't grow past the number of elements in the graph. When
+ * observers lag behind, their pending changes are folded in a map of the
+ * elements they touched and the entries are dropped. The map holds at most the
+ * elements present at the observer's last poll or now, so an observer that
+ * never polls doesn't pin every entry.
+ * <p>
+ * Each entry also records the change seen by undirected graphs, which only
+ * return one edge of each mutual pair. Adding or removing an edge can hide or
+ * reveal its reverse edge there, which is recorded as a separate entry.
+ * <p>
+ * Writes happen under the graph write lock, reads under the read lock.
+ */
+public class GraphChangeJournal {
+
+    // Entry types, the change seen by undirected graphs is shifted left
+    protected static final byte ADDED = 1;
+    protected static final byte REMOVED = 2;
+    protected static final int UNDIRECTED_SHIFT = 2;
+    // Default capacity
+    protected static final int DEFAULT_CAPACITY = 64;
+    // Observers
+    protected final List<GraphObserverImpl> observers;
+    // Entries
+    protected ElementImpl[] elements;
+    protected byte[] types;
+    protected int size;
+    // Position of the first entry
+    protected long offset;
+
+    public GraphChangeJournal() {
+        this.observers = new ArrayList<>();
+        this.elements = new ElementImpl[DEFAULT_CAPACITY];
+        this.types = new byte[DEFAULT_CAPACITY];
+    }
+
+    protected synchronized void register(GraphObserverImpl observer) {
+        observers.add(observer);
+        observer.journalPosition = position();
+    }
+
+    protected synchronized void unregister(GraphObserverImpl observer) {
+        observers.remove(observer);
+        if (observers.isEmpty()) {
+            offset = position();
+            Arrays.fill(elements, 0, size, null);
+            size = 0;
+        }
+    }
+
+    protected boolean isEnabled() {
+        return !observers.isEmpty();
+    }
+
+    protected long position() {
+        return offset + size;
+    }
+
+    protected void added(ElementImpl element) {
+        if (!observers.isEmpty()) {
+            append(element, (byte) (ADDED | ADDED << UNDIRECTED_SHIFT));
+        }
+    }
+
+    protected void removed(ElementImpl element) {
+        if (!observers.isEmpty()) {
+            append(element, (byte) (REMOVED | REMOVED << UNDIRECTED_SHIFT));
+        }
+    }
+
+    // Records an edge added to the graph, which undirected graphs ignore if it is
+    // the hidden edge of a mutual pair
+    protected void added(EdgeImpl edge, boolean undirectedIgnored) {
+        if (!observers.isEmpty()) {
+            append(edge, (byte) (undirectedIgnored ? ADDED : ADDED | ADDED << UNDIRECTED_SHIFT));
+        }
+    }
+
+    // Records an edge removed from the graph, which undirected graphs ignore if
+    // it was the hidden edge of a mutual pair
+    protected void removed(EdgeImpl edge, boolean undirectedIgnored) {
+        if (!observers.isEmpty()) {
+            append(edge, (byte) (undirectedIgnored ? REMOVED : REMOVED | REMOVED << UNDIRECTED_SHIFT));
+        }
+    }
+
+    // Records an edge that stays in the graph but is revealed or hidden in
+    // undirected graphs because its reverse edge changed
+    protected void undirectedChanged(EdgeImpl edge, boolean visible) {
+        if (!observers.isEmpty()) {
+            append(edge, (byte) ((visible ? ADDED : REMOVED) << UNDIRECTED_SHIFT));
+        }
+    }
+
+    // Returns the net changes since the given position, in order, mapped to
+    // ADDED or REMOVED
+    protected Reference2ByteMap<ElementImpl> getChanges(long position) {
+        return getChanges(position, false);
+    }
+
+    // Returns the net changes since the given position as seen by directed or
+    // undirected graphs, in order, mapped to ADDED or REMOVED
+    protected Reference2ByteMap<ElementImpl> getChanges(long position, boolean undirected) {
+        return toChanges(fold(position, undirected, new Reference2ByteLinkedOpenHashMap<>()));
+    }
+
+    // Returns the net changes the observer hasn't read yet, including the ones
+    // folded when it overflowed, and moves it to the end of the journal
+    protected Reference2ByteMap<ElementImpl> getChanges(GraphObserverImpl observer) {
+        Reference2ByteLinkedOpenHashMap<ElementImpl> states = observer.journalOverflow != null
+                ? observer.journalOverflow : new Reference2ByteLinkedOpenHashMap<>();
+        fold(observer.journalPosition, observer.undirected, states);
+        observer.journalOverflow = null;
+        observer.journalPosition = position();
+        return toChanges(states);
+    }
+
+    // Folds the entries since the given position in the states of the elements,
+    // bit 0 is set if the element was present before, bit 1 if it is now
+    private Reference2ByteLinkedOpenHashMap<ElementImpl> fold(long position, boolean undirected, Reference2ByteLinkedOpenHashMap<ElementImpl> states) {
+        final int shift = undirected ? UNDIRECTED_SHIFT : 0;
+        for (int i = (int) (position - offset); i < size; i++) {
+            int type = (types[i] >>> shift) & 3;
+            if (type == 0) {
+                continue;
+            }
+            ElementImpl element = elements[i];
+            byte present = type == ADDED ? (byte) 2 : 0;
+            if (states.containsKey(element)) {
+                states.put(element, (byte) ((states.getByte(element) & 1) | present));
+            } else {
+                states.put(element, (byte) ((type == REMOVED ? 1 : 0) | present));
+            }
+        }
+        return states;
+    }
+
+    // Maps the states to ADDED or REMOVED and drops the unchanged elements
+    private static Reference2ByteMap<ElementImpl> toChanges(Reference2ByteLinkedOpenHashMap<ElementImpl> states) {
+        ObjectIterator<Reference2ByteMap.Entry<ElementImpl>> itr = states.reference2ByteEntrySet().fastIterator();
+        while (itr.hasNext()) {
+            Reference2ByteMap.Entry<ElementImpl> entry = itr.next();
+            byte state = entry.getByteValue();
+            if (state == 1) {
+                entry.setValue(REMOVED);
+            } else if (state == 2) {
+                entry.setValue(ADDED);
+            } else {
+                itr.remove();
+            }
+        }
+        return states;
+    }
+
+    // Drops the unchanged elements from the states
+    private static void pruneStates(Reference2ByteLinkedOpenHashMap<ElementImpl> states) {
+        ObjectIterator<Reference2ByteMap.Entry<ElementImpl>> itr = states.reference2ByteEntrySet().fastIterator();
+        while (itr.hasNext()) {
+            byte state = itr.next().getByteValue();
+            if (state == 0 || state == 3) {
+                itr.remove();
+            }
+        }
+    }
+
+    private void append(ElementImpl element, byte type) {
+        if (size == elements.length) {
+            trim();
+            if (size == elements.length && size >= maxSize()) {
+                overflow();
+            }
+            if (size == elements.length) {
+                int capacity = elements.length + (elements.length >> 1);
+                elements = Arrays.copyOf(elements, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+        }
+        elements[size] = element;
+        types[size++] = type;
+    }
+
+    // Drops the entries all observers have read
+    private synchronized void trim() {
+        long min = position();
+        for (GraphObserverImpl observer : observers) {
+            min = Math.min(min, observer.journalPosition);
+        }
+        int drop = (int) (min - offset);
+        if (drop > 0) {
+            System.arraycopy(elements, drop, elements, 0, size - drop);
+            System.arraycopy(types, drop, types, 0, size - drop);
+            Arrays.fill(elements, size - drop, size, null);
+            size -= drop;
+            offset = min;
+        }
+    }
+
+    // Folds the pending changes of all observers and drops every entry
+    private synchronized void overflow() {
+        for (GraphObserverImpl observer : observers) {
+            if (observer.journalPosition < position()) {
+                if (observer.journalOverflow == null) {
+                    observer.journalOverflow = new Reference2ByteLinkedOpenHashMap<>();
+                }
+                fold(observer.journalPosition, observer.undirected, observer.journalOverflow);
+                pruneStates(observer.journalOverflow);
+                observer.journalPosition = position();
+            }
+        }
+        trim();
+    }
+
+    // Returns the number of entries kept before observers overflow
+    private int maxSize() {
+        GraphStore store = observers.get(0).graphStore;
+        return Math.max(DEFAULT_CAPACITY, store.nodeStore.size() + store.edgeStore.size());
+    }
+}
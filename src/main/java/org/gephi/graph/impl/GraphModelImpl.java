@@ -24,14 +24,17 @@ import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphBridge;
+import org.gephi.graph.api.GraphBulkLoader;
 import org.gephi.graph.api.GraphFactory;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.GraphObserver;
+import org.gephi.graph.api.GraphQuery;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Index;
 import org.gephi.graph.api.Interval;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.SpatialIndex;
+import org.gephi.graph.api.StoreOrder;
 import org.gephi.graph.api.Subgraph;
 import org.gephi.graph.api.Table;
 import org.gephi.graph.api.TimeFormat;
@@ -46,6 +49,7 @@ public class GraphModelImpl implements GraphModel {
     protected final ConfigurationImpl configuration;
     protected final GraphStore store;
     protected final GraphBridgeImpl graphBridge;
+    protected final GraphBulkLoaderImpl graphBulkLoader;
 
     public GraphModelImpl() {
         this(Configuration.builder().build());
@@ -57,6 +61,7 @@ public class GraphModelImpl implements GraphModel {
         configuration = new ConfigurationImpl(config);
         store = new GraphStore(this);
         graphBridge = new GraphBridgeImpl(store);
+        graphBulkLoader = new GraphBulkLoaderImpl(store);
     }
 
     @Override
@@ -69,6 +74,16 @@ public class GraphModelImpl implements GraphModel {
         return graphBridge;
     }
 
+    @Override
+    public GraphBulkLoader bulkLoader() {
+        return graphBulkLoader;
+    }
+
+    @Override
+    public Graph snapshot() {
+        return new GraphSnapshotImpl(store);
+    }
+
     @Override
     public Graph getGraph() {
         return store;
@@ -246,6 +261,21 @@ public class GraphModelImpl implements GraphModel {
         return store.isMixed();
     }
 
+    @Override
+    public GraphQuery query() {
+        return new GraphQueryImpl(store);
+    }
+
+    @Override
+    public boolean compact() {
+        return store.compact();
+    }
+
+    @Override
+    public void reorder(StoreOrder order) {
+        store.reorder(order);
+    }
+
     @Override
     public GraphView createView() {
         return store.viewStore.createView();
@@ -256,6 +286,11 @@ public class GraphModelImpl implements GraphModel {
         return store.viewStore.createView(node, edge);
     }
 
+    @Override
+    public GraphView createTimeWindowView(Interval interval) {
+        return store.viewStore.createTimeWindowView(interval);
+    }
+
     @Override
     public GraphView copyView(GraphView view) {
         return store.viewStore.createView(view);
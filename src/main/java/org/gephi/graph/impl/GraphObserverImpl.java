@@ -17,6 +17,8 @@ package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.Reference2ByteLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ByteMap;
 import java.util.Collections;
 import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.EdgeIterable;
@@ -39,19 +41,22 @@ public class GraphObserverImpl implements GraphObserver {
     protected int edgeVersion = Integer.MIN_VALUE;
     protected boolean destroyed;
     protected boolean newObserver = true;
-    // Cache
+    protected final boolean undirected;
+    // Diff
     protected GraphDiffImpl graphDiff;
-    protected NodeImpl[] nodeCache;
-    protected EdgeImpl[] edgeCache;
+    protected long journalPosition;
+    // Changes folded when the journal overflowed, null otherwise
+    protected Reference2ByteLinkedOpenHashMap<ElementImpl> journalOverflow;
 
     public GraphObserverImpl(GraphStore store, GraphVersion graphVersion, Graph graph, boolean withDiff) {
         this.graphStore = store;
         this.graphVersion = graphVersion;
         this.graph = graph;
         this.withDiff = withDiff;
+        this.undirected = graph instanceof UndirectedDecorator || (graph instanceof GraphViewDecorator && ((GraphViewDecorator) graph).undirected);
         if (withDiff) {
             readLock();
-            initCache();
+            graphVersion.journal.register(this);
             readUnlock();
         }
         this.nodeVersion = graphVersion.nodeVersion;
@@ -98,77 +103,26 @@ public class GraphObserverImpl implements GraphObserver {
         return graph;
     }
 
-    private void initCache() {
-        int maxNodeStoreId = graphStore.nodeStore.maxStoreId();
-        nodeCache = new NodeImpl[maxNodeStoreId];
-        for (Node n : graph.getNodes()) {
-            NodeImpl nImpl = (NodeImpl) n;
-            nodeCache[nImpl.storeId] = nImpl;
-        }
-        int maxEdgeStoreId = graphStore.edgeStore.maxStoreId();
-        edgeCache = new EdgeImpl[maxEdgeStoreId];
-        for (Edge e : graph.getEdges()) {
-            EdgeImpl eImpl = (EdgeImpl) e;
-            edgeCache[eImpl.storeId] = eImpl;
-        }
-    }
-
     protected void refreshDiff() {
         graphDiff = new GraphDiffImpl();
 
-        if (nodeVersion < graphVersion.nodeVersion) {
-            int maxStoreId = graphStore.nodeStore.maxStoreId();
+        Reference2ByteMap<ElementImpl> changes = graphVersion.journal.getChanges(this);
 
-            for (Node n : nodeCache) {
-                NodeImpl nImpl = (NodeImpl) n;
-                if (nImpl != null && !graph.contains(nImpl)) {
-                    graphDiff.removedNodes.add(nImpl);
-                }
-            }
-            if (maxStoreId > nodeCache.length || maxStoreId < nodeCache.length) {
-                NodeImpl[] newCache = new NodeImpl[maxStoreId];
-                System.arraycopy(nodeCache, 0, newCache, 0, maxStoreId > nodeCache.length ? nodeCache.length
-                        : maxStoreId);
-                nodeCache = newCache;
-            }
-            for (Node n : graph.getNodes()) {
-                NodeImpl nImpl = (NodeImpl) n;
-                int storeId = nImpl.storeId;
-                NodeImpl cachedNode = nodeCache[storeId];
-                if (cachedNode == null || cachedNode != nImpl) {
-                    graphDiff.addedNodes.add(nImpl);
-                    nodeCache[storeId] = nImpl;
+        for (Reference2ByteMap.Entry<ElementImpl> entry : changes.reference2ByteEntrySet()) {
+            ElementImpl element = entry.getKey();
+            boolean added = entry.getByteValue() == GraphChangeJournal.ADDED;
+            if (element instanceof NodeImpl) {
+                if (added) {
+                    graphDiff.addedNodes.add((NodeImpl) element);
+                } else {
+                    graphDiff.removedNodes.add((NodeImpl) element);
                 }
+            } else if (added) {
+                graphDiff.addedEdges.add((EdgeImpl) element);
+            } else {
+                graphDiff.removedEdges.add((EdgeImpl) element);
             }
         }
-
-        if (edgeVersion < graphVersion.edgeVersion) {
-            int maxStoreId = graphStore.edgeStore.maxStoreId();
-
-            for (Edge e : edgeCache) {
-                EdgeImpl eImpl = (EdgeImpl) e;
-                if (eImpl != null && !graph.contains(eImpl)) {
-                    graphDiff.removedEdges.add(eImpl);
-                }
-            }
-            if (maxStoreId > edgeCache.length || maxStoreId < edgeCache.length) {
-                EdgeImpl[] newCache = new EdgeImpl[maxStoreId];
-                System.arraycopy(edgeCache, 0, newCache, 0, maxStoreId > edgeCache.length ? edgeCache.length
-                        : maxStoreId);
-                edgeCache = newCache;
-            }
-            for (Edge e : graph.getEdges()) {
-                EdgeImpl eImpl = (EdgeImpl) e;
-                int storeId = eImpl.storeId;
-                EdgeImpl cachedEdge = edgeCache[storeId];
-                if (cachedEdge == null || cachedEdge != eImpl) {
-                    graphDiff.addedEdges.add(eImpl);
-                    edgeCache[storeId] = eImpl;
-                }
-
-            }
-        }
-
     }
 
     protected void resetNodeVersion() {
@@ -246,8 +200,9 @@ public class GraphObserverImpl implements GraphObserver {
     public void destroyObserver() {
         checkNotDestroyed();
 
-        nodeCache = null;
-        edgeCache = null;
+        if (withDiff) {
+            graphVersion.journal.unregister(this);
+        }
         destroyed = true;
     }
 
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import cern.colt.bitvector.BitVector;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.GraphQuery;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
+
+public class GraphQueryImpl implements GraphQuery {
+
+    protected final GraphStore graphStore;
+    protected final List<Predicate> nodePredicates;
+    protected final List<Predicate> edgePredicates;
+
+    public GraphQueryImpl(GraphStore graphStore) {
+        this.graphStore = graphStore;
+        this.nodePredicates = new ArrayList<>();
+        this.edgePredicates = new ArrayList<>();
+    }
+
+    @Override
+    public GraphQuery equal(Column column, Object value) {
+        ColumnImpl columnImpl = checkColumn(column);
+        getPredicates(columnImpl).add(new ValuePredicate(columnImpl, value));
+        return this;
+    }
+
+    @Override
+    public GraphQuery range(Column column, Number from, Number to, boolean inclusive) {
+        ColumnImpl columnImpl = checkColumn(column);
+        if (!columnImpl.isNumber()) {
+            throw new IllegalArgumentException("The column must be a number column");
+        }
+        getPredicates(columnImpl).add(new RangePredicate(columnImpl, from, to, inclusive));
+        return this;
+    }
+
+    @Override
+    public GraphQuery degree(int min, int max) {
+        nodePredicates.add(new RangePredicate(graphStore.defaultColumns.degreeColumn, min, max, true));
+        return this;
+    }
+
+    @Override
+    public GraphQuery inDegree(int min, int max) {
+        nodePredicates.add(new RangePredicate(graphStore.defaultColumns.inDegreeColumn, min, max, true));
+        return this;
+    }
+
+    @Override
+    public GraphQuery outDegree(int min, int max) {
+        nodePredicates.add(new RangePredicate(graphStore.defaultColumns.outDegreeColumn, min, max, true));
+        return this;
+    }
+
+    @Override
+    public GraphQuery edgeType(Object type) {
+        edgePredicates.add(new EdgeTypePredicate(type));
+        return this;
+    }
+
+    @Override
+    public GraphQuery time(Interval interval) {
+        checkNonNullObject(interval);
+        TimeIndexStore nodeIndexStore = graphStore.timeStore.nodeIndexStore;
+        TimeIndexStore edgeIndexStore = graphStore.timeStore.edgeIndexStore;
+        if (nodeIndexStore == null || edgeIndexStore == null || !nodeIndexStore.hasIndex() || !edgeIndexStore
+                .hasIndex()) {
+            throw new UnsupportedOperationException("The time index is disabled");
+        }
+        nodePredicates.add(new TimePredicate(nodeIndexStore, interval, true));
+        edgePredicates.add(new TimePredicate(edgeIndexStore, interval, false));
+        return this;
+    }
+
+    @Override
+    public GraphView execute() {
+        graphStore.autoWriteLock();
+        try {
+            BitVector nodes = select(nodePredicates, true);
+            BitVector edges = select(edgePredicates, false);
+
+            // Without edge predicates, edges follow the nodes added to the view
+            GraphViewImpl view = graphStore.viewStore.createView(true, !edgePredicates.isEmpty());
+            view.setElements(nodes, edges);
+            return view;
+        } finally {
+            graphStore.autoWriteUnlock();
+        }
+    }
+
+    // Intersects the index bitmaps of the indexed predicates, most selective
+    // first, then evaluates the others on the remaining candidates
+    private BitVector select(List<Predicate> predicates, boolean nodes) {
+        for (Predicate predicate : predicates) {
+            predicate.plan();
+        }
+        List<Predicate> sortedPredicates = new ArrayList<>(predicates);
+        sortedPredicates.sort(Comparator.comparingInt(p -> p.estimate));
+
+        final int size = nodes ? graphStore.nodeStore.maxStoreId() : graphStore.edgeStore.maxStoreId();
+        ChunkedBitmap candidates = null;
+        BitVector bitVector = null;
+        for (Predicate predicate : sortedPredicates) {
+            if (predicate.isIndexed()) {
+                ChunkedBitmap bitmap = predicate.getBitmap();
+                candidates = candidates == null ? bitmap : candidates.and(bitmap);
+                if (candidates.isEmpty()) {
+                    return new BitVector(size);
+                }
+            } else {
+                if (bitVector == null) {
+                    bitVector = toBitVector(candidates, size, nodes);
+                }
+                predicate.scan(bitVector.elements(), nodes);
+            }
+        }
+        return bitVector != null ? bitVector : toBitVector(candidates, size, nodes);
+    }
+
+    // Returns the candidates as a bit vector, or all elements if null
+    private BitVector toBitVector(ChunkedBitmap candidates, int size, boolean nodes) {
+        BitVector bitVector = new BitVector(size);
+        if (candidates != null) {
+            IntIterator itr = candidates.iterator();
+            while (itr.hasNext()) {
+                int id = itr.nextInt();
+                if (id < size) {
+                    bitVector.putQuick(id, true);
+                }
+            }
+        } else if (size > 0) {
+            bitVector.replaceFromToWith(0, size - 1, true);
+            if (nodes) {
+                graphStore.nodeStore.clearFreeStoreIds(bitVector);
+            } else {
+                graphStore.edgeStore.clearFreeStoreIds(bitVector);
+            }
+        }
+        return bitVector;
+    }
+
+    private List<Predicate> getPredicates(ColumnImpl column) {
+        return column.table == graphStore.nodeTable ? nodePredicates : edgePredicates;
+    }
+
+    private ColumnImpl checkColumn(Column column) {
+        checkNonNullObject(column);
+        if (!(column instanceof ColumnImpl) || (((ColumnImpl) column).table != graphStore.nodeTable && ((ColumnImpl) column).table != graphStore.edgeTable)) {
+            throw new IllegalArgumentException("The column must belong to the node or edge table");
+        }
+        return (ColumnImpl) column;
+    }
+
+    private void checkNonNullObject(final Object o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    protected abstract class Predicate {
+
+        // Estimated number of matching elements, only known for indexed
+        // predicates
+        protected int estimate = Integer.MAX_VALUE;
+
+        // Looks up the indexes and sets the estimate if the predicate is indexed
+        protected abstract void plan();
+
+        protected abstract boolean isIndexed();
+
+        // Returns the store ids of the matching elements, if indexed
+        protected ChunkedBitmap getBitmap() {
+            throw new UnsupportedOperationException();
+        }
+
+        protected abstract boolean test(ElementImpl element);
+
+        // Clears the bits of the elements not matching the predicate
+        protected void scan(long[] words, boolean nodes) {
+            retainMatching(words, id -> test(nodes ? graphStore.nodeStore.get(id) : graphStore.edgeStore.get(id)));
+        }
+    }
+
+    protected abstract class ColumnPredicate extends Predicate {
+
+        protected final ColumnImpl column;
+        protected ColumnIndexImpl index;
+        protected ColumnarAttributeStore.ColumnArray array;
+
+        protected ColumnPredicate(ColumnImpl column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void plan() {
+            ColumnStore columnStore = column.table.store;
+            index = columnStore.indexStore.mainIndex.getIndex(column);
+            array = columnStore.columnarStore != null ? columnStore.columnarStore.getArray(column) : null;
+        }
+
+        @Override
+        protected boolean isIndexed() {
+            return estimate != Integer.MAX_VALUE;
+        }
+
+        protected ColumnStandardIndexImpl getStandardIndex() {
+            return index instanceof ColumnStandardIndexImpl ? (ColumnStandardIndexImpl) index : null;
+        }
+
+        protected boolean hasColumnType(Object value) {
+            return value == null || column.getTypeClass().isInstance(value);
+        }
+
+        @Override
+        protected void scan(long[] words, boolean nodes) {
+            if (array != null && scanArray(words)) {
+                return;
+            }
+            super.scan(words, nodes);
+        }
+
+        // Scans the column array directly, returns false if not supported
+        protected abstract boolean scanArray(long[] words);
+    }
+
+    protected final class ValuePredicate extends ColumnPredicate {
+
+        private final Object value;
+
+        public ValuePredicate(ColumnImpl column, Object value) {
+            super(column);
+            this.value = value;
+        }
+
+        @Override
+        protected void plan() {
+            super.plan();
+            ColumnStandardIndexImpl standardIndex = getStandardIndex();
+            if (standardIndex != null && hasColumnType(value)) {
+                estimate = standardIndex.count(value);
+            }
+        }
+
+        @Override
+        protected ChunkedBitmap getBitmap() {
+            return getStandardIndex().getBitmap(value);
+        }
+
+        @Override
+        protected boolean test(ElementImpl element) {
+            return Objects.deepEquals(element.getAttributeValue(column), value);
+        }
+
+        @Override
+        protected boolean scanArray(long[] words) {
+            if (value == null || !hasColumnType(value)) {
+                return false;
+            }
+            if (array instanceof ColumnarAttributeStore.BooleanColumnArray) {
+                long[] values = ((ColumnarAttributeStore.BooleanColumnArray) array).values;
+                boolean b = (Boolean) value;
+                for (int i = 0; i < words.length; i++) {
+                    long word = i < values.length ? (b ? values[i] : ~values[i]) : 0L;
+                    words[i] &= word;
+                }
+                retainPresent(words, array);
+                return true;
+            }
+            retainPresent(words, array);
+            if (array instanceof ColumnarAttributeStore.DoubleColumnArray) {
+                double[] values = ((ColumnarAttributeStore.DoubleColumnArray) array).values;
+                long bits = Double.doubleToLongBits((Double) value);
+                retainMatching(words, id -> Double.doubleToLongBits(values[id]) == bits);
+            } else if (array instanceof ColumnarAttributeStore.FloatColumnArray) {
+                float[] values = ((ColumnarAttributeStore.FloatColumnArray) array).values;
+                int bits = Float.floatToIntBits((Float) value);
+                retainMatching(words, id -> Float.floatToIntBits(values[id]) == bits);
+            } else if (array instanceof ColumnarAttributeStore.IntColumnArray) {
+                int[] values = ((ColumnarAttributeStore.IntColumnArray) array).values;
+                int v = (Integer) value;
+                retainMatching(words, id -> values[id] == v);
+            } else {
+                long[] values = ((ColumnarAttributeStore.LongColumnArray) array).values;
+                long v = (Long) value;
+                retainMatching(words, id -> values[id] == v);
+            }
+            return true;
+        }
+    }
+
+    protected final class RangePredicate extends ColumnPredicate {
+
+        private final Number from;
+        private final Number to;
+        private final boolean inclusive;
+
+        public RangePredicate(ColumnImpl column, Number from, Number to, boolean inclusive) {
+            super(column);
+            this.from = from;
+            this.to = to;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        protected void plan() {
+            super.plan();
+            ColumnStandardIndexImpl standardIndex = getStandardIndex();
+            if (standardIndex != null && standardIndex.isSortable() && hasColumnType(from) && hasColumnType(to)) {
+                estimate = standardIndex.countRange(from, to, inclusive);
+            }
+        }
+
+        @Override
+        protected ChunkedBitmap getBitmap() {
+            return getStandardIndex().getRangeBitmap(from, to, inclusive);
+        }
+
+        @Override
+        protected boolean test(ElementImpl element) {
+            Object value = element.getAttributeValue(column);
+            return value instanceof Number && inRange(((Number) value).doubleValue());
+        }
+
+        private boolean inRange(double value) {
+            if (from != null) {
+                double f = from.doubleValue();
+                if (value < f || (value == f && !inclusive)) {
+                    return false;
+                }
+            }
+            if (to != null) {
+                double t = to.doubleValue();
+                if (value > t || (value == t && !inclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean scanArray(long[] words) {
+            if (array instanceof ColumnarAttributeStore.BooleanColumnArray) {
+                return false;
+            }
+            retainPresent(words, array);
+            if (array instanceof ColumnarAttributeStore.DoubleColumnArray) {
+                double[] values = ((ColumnarAttributeStore.DoubleColumnArray) array).values;
+                retainMatching(words, id -> inRange(values[id]));
+            } else if (array instanceof ColumnarAttributeStore.FloatColumnArray) {
+                float[] values = ((ColumnarAttributeStore.FloatColumnArray) array).values;
+                retainMatching(words, id -> inRange(values[id]));
+            } else if (array instanceof ColumnarAttributeStore.IntColumnArray) {
+                int[] values = ((ColumnarAttributeStore.IntColumnArray) array).values;
+                retainMatching(words, id -> inRange(values[id]));
+            } else {
+                long[] values = ((ColumnarAttributeStore.LongColumnArray) array).values;
+                retainMatching(words, id -> inRange(values[id]));
+            }
+            return true;
+        }
+    }
+
+    protected final class EdgeTypePredicate extends Predicate {
+
+        private final Object type;
+        private int typeId;
+
+        public EdgeTypePredicate(Object type) {
+            this.type = type;
+        }
+
+        @Override
+        protected void plan() {
+            typeId = graphStore.edgeTypeStore.getId(type);
+        }
+
+        @Override
+        protected boolean isIndexed() {
+            return false;
+        }
+
+        @Override
+        protected boolean test(ElementImpl element) {
+            return ((EdgeImpl) element).type == typeId;
+        }
+    }
+
+    protected final class TimePredicate extends Predicate {
+
+        private final TimeIndexStore timeIndexStore;
+        private final Interval interval;
+        private final boolean nodes;
+        private ChunkedBitmap bitmap;
+
+        public TimePredicate(TimeIndexStore timeIndexStore, Interval interval, boolean nodes) {
+            this.timeIndexStore = timeIndexStore;
+            this.interval = interval;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void plan() {
+            bitmap = timeIndexStore.getStoreIds(interval);
+            estimate = bitmap.cardinality();
+        }
+
+        @Override
+        protected boolean isIndexed() {
+            return true;
+        }
+
+        @Override
+        protected ChunkedBitmap getBitmap() {
+            return bitmap;
+        }
+
+        @Override
+        protected boolean test(ElementImpl element) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Clears the bits of the elements without a value in the column array
+    private static void retainPresent(long[] words, ColumnarAttributeStore.ColumnArray array) {
+        long[] present = array.present;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= i < present.length ? present[i] : 0L;
+        }
+    }
+
+    // Clears the bits of the store ids not matching the test
+    private static void retainMatching(long[] words, IntPredicate test) {
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            long result = word;
+            while (word != 0) {
+                long bit = word & -word;
+                word ^= bit;
+                if (!test.test((w << 6) + Long.numberOfTrailingZeros(bit))) {
+                    result ^= bit;
+                }
+            }
+            words[w] = result;
+        }
+    }
+}
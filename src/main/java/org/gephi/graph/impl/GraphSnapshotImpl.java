@@ -0,0 +1,1118 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import cern.colt.bitvector.BitVector;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import org.gephi.graph.api.CompressedSparseRow;
+import org.gephi.graph.api.DirectedGraph;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.EdgeIterable;
+import org.gephi.graph.api.GraphLock;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.NeighborCursor;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.NodeIterable;
+import org.gephi.graph.api.SpatialIndex;
+
+/**
+ * Read-only copy of the graph topology at a given version.
+ * <p>
+ * The snapshot keeps the node and edge references indexed by store id as well
+ * as the adjacency of each node in flat arrays. It's created under the read
+ * lock in a single pass over the stores, and can then be read without any lock
+ * while the graph is modified. Attribute values aren't copied and are read from
+ * the elements.
+ */
+public class GraphSnapshotImpl implements DirectedGraph {
+
+    // Any type
+    protected static final int ANY_TYPE = -1;
+    // Lock
+    protected static final GraphLock LOCK = new SnapshotLock();
+    // Store
+    protected final GraphStore graphStore;
+    protected final int version;
+    // Elements, indexed by store id at the time of the snapshot
+    protected final NodeImpl[] nodes;
+    protected final EdgeImpl[] edges;
+    protected final int[] edgeTypes;
+    // Counts
+    protected final int nodeCount;
+    protected final int edgeCount;
+    protected final int undirectedCount;
+    protected final int[] typeCounts;
+    // Mutual edges returned only once when iterating neighbors
+    protected final BitVector undirectedIgnored;
+    // Edge store ids grouped by source and by target
+    protected final int[] outOffsets;
+    protected final int[] outEdges;
+    protected final int[] inOffsets;
+    protected final int[] inEdges;
+    // Lookups, built on first use and read without locking
+    private volatile Object2IntOpenHashMap<Object> nodeIds;
+    private volatile Object2IntOpenHashMap<Object> edgeIds;
+    private volatile Reference2IntOpenHashMap<NodeImpl> nodeIndex;
+    private volatile Reference2IntOpenHashMap<EdgeImpl> edgeIndex;
+
+    public GraphSnapshotImpl(GraphStore graphStore) {
+        this.graphStore = graphStore;
+        graphStore.autoReadLock();
+        try {
+            version = graphStore.version != null ? graphStore.getVersion() : 0;
+            nodes = graphStore.nodeStore.toStoreIdArray();
+            edges = graphStore.edgeStore.toStoreIdArray();
+
+            int nodeLength = nodes.length;
+            int edgeLength = edges.length;
+            int nodeTotal = 0;
+            for (int i = 0; i < nodeLength; i++) {
+                if (nodes[i] != null) {
+                    nodeTotal++;
+                }
+            }
+            nodeCount = nodeTotal;
+
+            int edgeTotal = 0;
+            int undirected = 0;
+            int[] types = new int[GraphStoreConfiguration.EDGESTORE_DEFAULT_TYPE_COUNT];
+            edgeTypes = new int[edgeLength];
+            undirectedIgnored = new BitVector(edgeLength);
+            outOffsets = new int[nodeLength + 1];
+            inOffsets = new int[nodeLength + 1];
+            for (int i = 0; i < edgeLength; i++) {
+                EdgeImpl edge = edges[i];
+                if (edge != null) {
+                    edgeTotal++;
+                    int type = edge.type;
+                    if (type >= types.length) {
+                        types = Arrays.copyOf(types, type + 1);
+                    }
+                    types[type]++;
+                    edgeTypes[i] = type;
+                    if (!edge.isDirected()) {
+                        undirected++;
+                    }
+                    if (graphStore.edgeStore.isUndirectedToIgnore(edge)) {
+                        undirectedIgnored.putQuick(i, true);
+                    }
+                    outOffsets[edge.source.storeId + 1]++;
+                    inOffsets[edge.target.storeId + 1]++;
+                }
+            }
+            edgeCount = edgeTotal;
+            undirectedCount = undirected;
+            typeCounts = types;
+
+            for (int i = 0; i < nodeLength; i++) {
+                outOffsets[i + 1] += outOffsets[i];
+                inOffsets[i + 1] += inOffsets[i];
+            }
+            outEdges = new int[edgeTotal];
+            inEdges = new int[edgeTotal];
+            int[] outCursors = Arrays.copyOf(outOffsets, nodeLength);
+            int[] inCursors = Arrays.copyOf(inOffsets, nodeLength);
+            for (int i = 0; i < edgeLength; i++) {
+                EdgeImpl edge = edges[i];
+                if (edge != null) {
+                    outEdges[outCursors[edge.source.storeId]++] = i;
+                    inEdges[inCursors[edge.target.storeId]++] = i;
+                }
+            }
+        } finally {
+            graphStore.autoReadUnlock();
+        }
+    }
+
+    @Override
+    public boolean addEdge(Edge edge) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addNode(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAllEdges(Collection<? extends Edge> edges) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAllNodes(Collection<? extends Node> nodes) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeEdge(Edge edge) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeNode(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAllEdges(Collection<? extends Edge> edges) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAllNodes(Collection<? extends Node> nodes) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainNodes(Collection<? extends Node> nodes) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainEdges(Collection<? extends Edge> edges) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        checkNonNullNodeObject(node);
+        return indexOf((NodeImpl) node) != NodeStore.NULL_ID;
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        checkNonNullEdgeObject(edge);
+        return indexOf((EdgeImpl) edge) != EdgeStore.NULL_ID;
+    }
+
+    @Override
+    public Node getNode(Object id) {
+        Object2IntOpenHashMap<Object> ids = nodeIds;
+        if (ids == null) {
+            ids = buildNodeIds();
+        }
+        int index = ids.getInt(id);
+        return index != NodeStore.NULL_ID ? nodes[index] : null;
+    }
+
+    @Override
+    public Node getNodeByStoreId(int storeId) {
+        if (storeId < 0 || storeId >= nodes.length) {
+            return null;
+        }
+        return nodes[storeId];
+    }
+
+    @Override
+    public boolean hasNode(Object id) {
+        return getNode(id) != null;
+    }
+
+    @Override
+    public Edge getEdge(Object id) {
+        Object2IntOpenHashMap<Object> ids = edgeIds;
+        if (ids == null) {
+            ids = buildEdgeIds();
+        }
+        int index = ids.getInt(id);
+        return index != EdgeStore.NULL_ID ? edges[index] : null;
+    }
+
+    @Override
+    public Edge getEdgeByStoreId(int storeId) {
+        if (storeId < 0 || storeId >= edges.length) {
+            return null;
+        }
+        return edges[storeId];
+    }
+
+    @Override
+    public boolean hasEdge(Object id) {
+        return getEdge(id) != null;
+    }
+
+    @Override
+    public Edge getEdge(Node node1, Node node2) {
+        return getEdge(node1, node2, ANY_TYPE);
+    }
+
+    @Override
+    public EdgeIterable getEdges(Node node1, Node node2) {
+        return getEdges(node1, node2, ANY_TYPE);
+    }
+
+    @Override
+    public Edge getEdge(Node node1, Node node2, int type) {
+        int source = checkNode(node1);
+        int target = checkNode(node2);
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+            int id = outEdges[i];
+            if (edges[id].target == nodes[target] && (type == ANY_TYPE || edgeTypes[id] == type)) {
+                return edges[id];
+            }
+        }
+        for (int i = inOffsets[source]; i < inOffsets[source + 1]; i++) {
+            int id = inEdges[i];
+            EdgeImpl edge = edges[id];
+            if (edge.source == nodes[target] && !edge.isDirected() && (type == ANY_TYPE || edgeTypes[id] == type)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public EdgeIterable getEdges(Node node1, Node node2, int type) {
+        int source = checkNode(node1);
+        int target = checkNode(node2);
+        List<Edge> list = new ArrayList<>();
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+            int id = outEdges[i];
+            if (edges[id].target == nodes[target] && (type == ANY_TYPE || edgeTypes[id] == type)) {
+                list.add(edges[id]);
+            }
+        }
+        for (int i = inOffsets[source]; i < inOffsets[source + 1]; i++) {
+            int id = inEdges[i];
+            EdgeImpl edge = edges[id];
+            if (edge.source == nodes[target] && !edge.isDirected() && !edge
+                    .isSelfLoop() && (type == ANY_TYPE || edgeTypes[id] == type)) {
+                list.add(edge);
+            }
+        }
+        return list.isEmpty() ? EdgeIterable.EMPTY : new EdgeIterableWrapper(list.iterator());
+    }
+
+    @Override
+    public NodeIterable getNodes() {
+        return new NodeIterableWrapper(new NodeArrayIterator());
+    }
+
+    @Override
+    public EdgeIterable getEdges() {
+        return new EdgeIterableWrapper(new EdgeArrayIterator(ANY_TYPE, false));
+    }
+
+    @Override
+    public EdgeIterable getEdges(int type) {
+        return new EdgeIterableWrapper(new EdgeArrayIterator(type, false));
+    }
+
+    @Override
+    public EdgeIterable getSelfLoops() {
+        return new EdgeIterableWrapper(new EdgeArrayIterator(ANY_TYPE, true));
+    }
+
+    @Override
+    public NodeIterable getNeighbors(Node node) {
+        return getNeighbors(node, ANY_TYPE);
+    }
+
+    @Override
+    public NodeIterable getNeighbors(Node node, int type) {
+        int index = checkNode(node);
+        return new NodeIterableWrapper(
+                new NeighborIterator(nodes[index], new AdjacencyIterator(index, true, true, type, true)));
+    }
+
+    @Override
+    public EdgeIterable getEdges(Node node) {
+        return getEdges(node, ANY_TYPE);
+    }
+
+    @Override
+    public EdgeIterable getEdges(Node node, int type) {
+        int index = checkNode(node);
+        return new EdgeIterableWrapper(new AdjacencyIterator(index, true, true, type, false));
+    }
+
+    @Override
+    public EdgeCursor getEdgeCursor() {
+        return new AdjacencyCursor(true, true, false);
+    }
+
+    @Override
+    public NeighborCursor getNeighborCursor() {
+        return new NeighborAdjacencyCursor(new AdjacencyCursor(true, true, true));
+    }
+
+    @Override
+    public void forEachNeighbor(Node node, IntConsumer consumer) {
+        if (consumer == null) {
+            throw new NullPointerException();
+        }
+        NeighborCursor cursor = getNeighborCursor();
+        cursor.reset(node);
+        for (int id = cursor.nextStoreId(); id != NodeStore.NULL_ID; id = cursor.nextStoreId()) {
+            consumer.accept(id);
+        }
+    }
+
+    @Override
+    public NodeIterable getPredecessors(Node node) {
+        return getPredecessors(node, ANY_TYPE);
+    }
+
+    @Override
+    public NodeIterable getPredecessors(Node node, int type) {
+        int index = checkNode(node);
+        return new NodeIterableWrapper(
+                new NeighborIterator(nodes[index], new AdjacencyIterator(index, false, true, type, false)));
+    }
+
+    @Override
+    public NodeIterable getSuccessors(Node node) {
+        return getSuccessors(node, ANY_TYPE);
+    }
+
+    @Override
+    public NodeIterable getSuccessors(Node node, int type) {
+        int index = checkNode(node);
+        return new NodeIterableWrapper(
+                new NeighborIterator(nodes[index], new AdjacencyIterator(index, true, false, type, false)));
+    }
+
+    @Override
+    public EdgeIterable getInEdges(Node node) {
+        return getInEdges(node, ANY_TYPE);
+    }
+
+    @Override
+    public EdgeIterable getInEdges(Node node, int type) {
+        int index = checkNode(node);
+        return new EdgeIterableWrapper(new AdjacencyIterator(index, false, true, type, false));
+    }
+
+    @Override
+    public EdgeIterable getOutEdges(Node node) {
+        return getOutEdges(node, ANY_TYPE);
+    }
+
+    @Override
+    public EdgeIterable getOutEdges(Node node, int type) {
+        int index = checkNode(node);
+        return new EdgeIterableWrapper(new AdjacencyIterator(index, true, false, type, false));
+    }
+
+    @Override
+    public EdgeCursor getOutEdgeCursor() {
+        return new AdjacencyCursor(true, false, false);
+    }
+
+    @Override
+    public EdgeCursor getInEdgeCursor() {
+        return new AdjacencyCursor(false, true, false);
+    }
+
+    @Override
+    public NeighborCursor getSuccessorCursor() {
+        return new NeighborAdjacencyCursor(new AdjacencyCursor(true, false, false));
+    }
+
+    @Override
+    public NeighborCursor getPredecessorCursor() {
+        return new NeighborAdjacencyCursor(new AdjacencyCursor(false, true, false));
+    }
+
+    @Override
+    public Edge getMutualEdge(Edge edge) {
+        EdgeImpl edgeImpl = checkEdge(edge);
+        int source = indexOf(edgeImpl.target);
+        int target = indexOf(edgeImpl.source);
+        int type = edgeTypes[indexOf(edgeImpl)];
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+            int id = outEdges[i];
+            if (edges[id].target == nodes[target] && edgeTypes[id] == type) {
+                return edges[id];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int getEdgeCount(int type) {
+        if (type >= 0 && type < typeCounts.length) {
+            return typeCounts[type];
+        }
+        return 0;
+    }
+
+    @Override
+    public Node getOpposite(Node node, Edge edge) {
+        checkNonNullNodeObject(node);
+        checkNonNullEdgeObject(edge);
+        return edge.getSource() == node ? edge.getTarget() : edge.getSource();
+    }
+
+    @Override
+    public int getDegree(Node node) {
+        int index = checkNode(node);
+        return outOffsets[index + 1] - outOffsets[index] + inOffsets[index + 1] - inOffsets[index];
+    }
+
+    @Override
+    public int getInDegree(Node node) {
+        int index = checkNode(node);
+        return inOffsets[index + 1] - inOffsets[index];
+    }
+
+    @Override
+    public int getOutDegree(Node node) {
+        int index = checkNode(node);
+        return outOffsets[index + 1] - outOffsets[index];
+    }
+
+    @Override
+    public boolean isSelfLoop(Edge edge) {
+        return edge.isSelfLoop();
+    }
+
+    @Override
+    public boolean isDirected(Edge edge) {
+        return edge.isDirected();
+    }
+
+    @Override
+    public boolean isAdjacent(Node node1, Node node2) {
+        return getEdge(node1, node2, ANY_TYPE) != null;
+    }
+
+    @Override
+    public boolean isAdjacent(Node node1, Node node2, int type) {
+        return getEdge(node1, node2, type) != null;
+    }
+
+    @Override
+    public boolean isIncident(Edge edge1, Edge edge2) {
+        checkNonNullEdgeObject(edge1);
+        checkNonNullEdgeObject(edge2);
+        return graphStore.edgeStore.isIncident((EdgeImpl) edge1, (EdgeImpl) edge2);
+    }
+
+    @Override
+    public boolean isIncident(Node node, Edge edge) {
+        checkNonNullNodeObject(node);
+        checkNonNullEdgeObject(edge);
+        return graphStore.edgeStore.isIncident((NodeImpl) node, (EdgeImpl) edge);
+    }
+
+    @Override
+    public void clearEdges(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clearEdges(Node node, int type) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public void clearEdges() {
+        throw readOnly();
+    }
+
+    @Override
+    public GraphView getView() {
+        return graphStore.mainGraphView;
+    }
+
+    @Override
+    public Object getAttribute(String key) {
+        return graphStore.getAttribute(key);
+    }
+
+    @Override
+    public Object getAttribute(String key, double timestamp) {
+        return graphStore.getAttribute(key, timestamp);
+    }
+
+    @Override
+    public Object getAttribute(String key, Interval interval) {
+        return graphStore.getAttribute(key, interval);
+    }
+
+    @Override
+    public void setAttribute(String key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttribute(String key) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAttribute(String key, Object value, double timestamp) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAttribute(String key, Object value, Interval interval) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttribute(String key, double timestamp) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttribute(String key, Interval interval) {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<String> getAttributeKeys() {
+        return graphStore.getAttributeKeys();
+    }
+
+    @Override
+    public GraphModel getModel() {
+        return graphStore.graphModel;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return undirectedCount == 0;
+    }
+
+    @Override
+    public boolean isUndirected() {
+        return edgeCount > 0 && undirectedCount == edgeCount;
+    }
+
+    @Override
+    public boolean isMixed() {
+        return undirectedCount > 0 && undirectedCount != edgeCount;
+    }
+
+    @Override
+    public void readLock() {
+    }
+
+    @Override
+    public void readUnlock() {
+    }
+
+    @Override
+    public void readUnlockAll() {
+    }
+
+    @Override
+    public void writeLock() {
+        throw readOnly();
+    }
+
+    @Override
+    public void writeUnlock() {
+        throw readOnly();
+    }
+
+    @Override
+    public GraphLock getLock() {
+        return LOCK;
+    }
+
+    @Override
+    public SpatialIndex getSpatialIndex() {
+        throw new UnsupportedOperationException("Spatial index is not supported on snapshots");
+    }
+
+    @Override
+    public CompressedSparseRow toCSR() {
+        return toCSR(false);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(boolean weights) {
+        return toCSR(ANY_TYPE, weights);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(int type, boolean weights) {
+        final int rows = nodes.length;
+        final int[] offsets = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int count = 0;
+            for (int j = outOffsets[i]; j < outOffsets[i + 1]; j++) {
+                if (type == ANY_TYPE || edgeTypes[outEdges[j]] == type) {
+                    count++;
+                }
+            }
+            for (int j = inOffsets[i]; j < inOffsets[i + 1]; j++) {
+                if (isReverseEntry(inEdges[j], type)) {
+                    count++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + count;
+        }
+
+        final int[] targets = new int[offsets[rows]];
+        final double[] weightArray = weights ? new double[offsets[rows]] : null;
+        final boolean dynamicWeight = weights && graphStore.edgeTable.store
+                .getColumnByIndex(GraphStoreConfiguration.EDGE_WEIGHT_INDEX).isDynamicAttribute();
+        int cursor = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = outOffsets[i]; j < outOffsets[i + 1]; j++) {
+                int id = outEdges[j];
+                if (type == ANY_TYPE || edgeTypes[id] == type) {
+                    if (weights) {
+                        weightArray[cursor] = getWeight(edges[id], dynamicWeight);
+                    }
+                    targets[cursor++] = indexOf(edges[id].target);
+                }
+            }
+            for (int j = inOffsets[i]; j < inOffsets[i + 1]; j++) {
+                int id = inEdges[j];
+                if (isReverseEntry(id, type)) {
+                    if (weights) {
+                        weightArray[cursor] = getWeight(edges[id], dynamicWeight);
+                    }
+                    targets[cursor++] = indexOf(edges[id].source);
+                }
+            }
+        }
+        return new CompressedSparseRowImpl(offsets, targets, weightArray);
+    }
+
+    // Returns the index of the node in this snapshot, or NULL_ID
+    protected int indexOf(NodeImpl node) {
+        int id = node.storeId;
+        if (id >= 0 && id < nodes.length && nodes[id] == node) {
+            return id;
+        }
+        // The node may have been removed or moved since
+        Reference2IntOpenHashMap<NodeImpl> index = nodeIndex;
+        if (index == null) {
+            index = buildNodeIndex();
+        }
+        return index.getInt(node);
+    }
+
+    // Returns the index of the edge in this snapshot, or NULL_ID
+    protected int indexOf(EdgeImpl edge) {
+        int id = edge.storeId;
+        if (id >= 0 && id < edges.length && edges[id] == edge) {
+            return id;
+        }
+        // The edge may have been removed or moved since
+        Reference2IntOpenHashMap<EdgeImpl> index = edgeIndex;
+        if (index == null) {
+            index = buildEdgeIndex();
+        }
+        return index.getInt(edge);
+    }
+
+    // Undirected edges also appear in the row of their target
+    private boolean isReverseEntry(int id, int type) {
+        EdgeImpl edge = edges[id];
+        return !edge.isDirected() && !edge.isSelfLoop() && (type == ANY_TYPE || edgeTypes[id] == type);
+    }
+
+    private double getWeight(EdgeImpl edge, boolean dynamicWeight) {
+        return dynamicWeight ? edge.getWeight(graphStore.mainGraphView) : edge.getWeight();
+    }
+
+    private synchronized Object2IntOpenHashMap<Object> buildNodeIds() {
+        if (nodeIds == null) {
+            Object2IntOpenHashMap<Object> ids = new Object2IntOpenHashMap<>(nodeCount);
+            ids.defaultReturnValue(NodeStore.NULL_ID);
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] != null) {
+                    ids.put(nodes[i].getId(), i);
+                }
+            }
+            nodeIds = ids;
+        }
+        return nodeIds;
+    }
+
+    private synchronized Object2IntOpenHashMap<Object> buildEdgeIds() {
+        if (edgeIds == null) {
+            Object2IntOpenHashMap<Object> ids = new Object2IntOpenHashMap<>(edgeCount);
+            ids.defaultReturnValue(EdgeStore.NULL_ID);
+            for (int i = 0; i < edges.length; i++) {
+                if (edges[i] != null) {
+                    ids.put(edges[i].getId(), i);
+                }
+            }
+            edgeIds = ids;
+        }
+        return edgeIds;
+    }
+
+    private synchronized Reference2IntOpenHashMap<NodeImpl> buildNodeIndex() {
+        if (nodeIndex == null) {
+            Reference2IntOpenHashMap<NodeImpl> index = new Reference2IntOpenHashMap<>(nodeCount);
+            index.defaultReturnValue(NodeStore.NULL_ID);
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] != null) {
+                    index.put(nodes[i], i);
+                }
+            }
+            nodeIndex = index;
+        }
+        return nodeIndex;
+    }
+
+    private synchronized Reference2IntOpenHashMap<EdgeImpl> buildEdgeIndex() {
+        if (edgeIndex == null) {
+            Reference2IntOpenHashMap<EdgeImpl> index = new Reference2IntOpenHashMap<>(edgeCount);
+            index.defaultReturnValue(EdgeStore.NULL_ID);
+            for (int i = 0; i < edges.length; i++) {
+                if (edges[i] != null) {
+                    index.put(edges[i], i);
+                }
+            }
+            edgeIndex = index;
+        }
+        return edgeIndex;
+    }
+
+    private int checkNode(Node node) {
+        checkNonNullNodeObject(node);
+        int index = indexOf((NodeImpl) node);
+        if (index == NodeStore.NULL_ID) {
+            throw new IllegalArgumentException("Node doesn't belong to the snapshot");
+        }
+        return index;
+    }
+
+    private EdgeImpl checkEdge(Edge edge) {
+        checkNonNullEdgeObject(edge);
+        if (indexOf((EdgeImpl) edge) == EdgeStore.NULL_ID) {
+            throw new IllegalArgumentException("Edge doesn't belong to the snapshot");
+        }
+        return (EdgeImpl) edge;
+    }
+
+    private static void checkNonNullNodeObject(Object o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (!(o instanceof NodeImpl)) {
+            throw new ClassCastException("Object must be a NodeImpl object");
+        }
+    }
+
+    private static void checkNonNullEdgeObject(Object o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (!(o instanceof EdgeImpl)) {
+            throw new ClassCastException("Object must be a EdgeImpl object");
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    protected final class NodeArrayIterator implements Iterator<Node> {
+
+        protected int cursor;
+        protected NodeImpl pointer;
+
+        @Override
+        public boolean hasNext() {
+            while (pointer == null && cursor < nodes.length) {
+                pointer = nodes[cursor++];
+            }
+            return pointer != null;
+        }
+
+        @Override
+        public Node next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            NodeImpl node = pointer;
+            pointer = null;
+            return node;
+        }
+    }
+
+    protected final class EdgeArrayIterator implements Iterator<Edge> {
+
+        protected final int type;
+        protected final boolean selfLoops;
+        protected int cursor;
+        protected EdgeImpl pointer;
+
+        public EdgeArrayIterator(int type, boolean selfLoops) {
+            this.type = type;
+            this.selfLoops = selfLoops;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pointer == null && cursor < edges.length) {
+                int id = cursor++;
+                EdgeImpl edge = edges[id];
+                if (edge != null && (type == ANY_TYPE || edgeTypes[id] == type) && (!selfLoops || edge.isSelfLoop())) {
+                    pointer = edge;
+                }
+            }
+            return pointer != null;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EdgeImpl edge = pointer;
+            pointer = null;
+            return edge;
+        }
+    }
+
+    // Iterates over the out and/or in edges of a node, self-loops are returned
+    // once
+    protected final class AdjacencyIterator implements Iterator<Edge> {
+
+        protected final boolean inOut;
+        protected final int type;
+        protected final boolean undirected;
+        protected int outCursor;
+        protected final int outEnd;
+        protected int inCursor;
+        protected final int inEnd;
+        protected EdgeImpl pointer;
+
+        public AdjacencyIterator(int node, boolean out, boolean in, int type, boolean undirected) {
+            this.inOut = out && in;
+            this.type = type;
+            this.undirected = undirected;
+            this.outCursor = out ? outOffsets[node] : 0;
+            this.outEnd = out ? outOffsets[node + 1] : 0;
+            this.inCursor = in ? inOffsets[node] : 0;
+            this.inEnd = in ? inOffsets[node + 1] : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pointer == null) {
+                int id;
+                if (outCursor < outEnd) {
+                    id = outEdges[outCursor++];
+                } else if (inCursor < inEnd) {
+                    id = inEdges[inCursor++];
+                    if (inOut && edges[id].isSelfLoop()) {
+                        continue;
+                    }
+                } else {
+                    return false;
+                }
+                if ((type == ANY_TYPE || edgeTypes[id] == type) && !(undirected && undirectedIgnored.getQuick(id))) {
+                    pointer = edges[id];
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EdgeImpl edge = pointer;
+            pointer = null;
+            return edge;
+        }
+    }
+
+    // Cursor equivalent of AdjacencyIterator, returns snapshot indices
+    protected final class AdjacencyCursor implements EdgeCursor {
+
+        protected final boolean out;
+        protected final boolean in;
+        protected final boolean undirected;
+        protected NodeImpl node;
+        protected int outCursor;
+        protected int outEnd;
+        protected int inCursor;
+        protected int inEnd;
+        protected EdgeImpl current;
+
+        public AdjacencyCursor(boolean out, boolean in, boolean undirected) {
+            this.out = out;
+            this.in = in;
+            this.undirected = undirected;
+        }
+
+        @Override
+        public void reset(Node node) {
+            int index = checkNode(node);
+            this.node = nodes[index];
+            this.outCursor = out ? outOffsets[index] : 0;
+            this.outEnd = out ? outOffsets[index + 1] : 0;
+            this.inCursor = in ? inOffsets[index] : 0;
+            this.inEnd = in ? inOffsets[index + 1] : 0;
+            this.current = null;
+        }
+
+        @Override
+        public int nextStoreId() {
+            while (true) {
+                int id;
+                if (outCursor < outEnd) {
+                    id = outEdges[outCursor++];
+                } else if (inCursor < inEnd) {
+                    id = inEdges[inCursor++];
+                    if (out && edges[id].isSelfLoop()) {
+                        continue;
+                    }
+                } else {
+                    current = null;
+                    return EdgeStore.NULL_ID;
+                }
+                if (!(undirected && undirectedIgnored.getQuick(id))) {
+                    current = edges[id];
+                    return id;
+                }
+            }
+        }
+
+        @Override
+        public Edge edge() {
+            return current;
+        }
+    }
+
+    protected final class NeighborAdjacencyCursor implements NeighborCursor {
+
+        protected final AdjacencyCursor edgeCursor;
+        protected NodeImpl current;
+
+        public NeighborAdjacencyCursor(AdjacencyCursor edgeCursor) {
+            this.edgeCursor = edgeCursor;
+        }
+
+        @Override
+        public void reset(Node node) {
+            edgeCursor.reset(node);
+            current = null;
+        }
+
+        @Override
+        public int nextStoreId() {
+            if (edgeCursor.nextStoreId() == EdgeStore.NULL_ID) {
+                current = null;
+                return NodeStore.NULL_ID;
+            }
+            EdgeImpl edge = edgeCursor.current;
+            current = edge.source == edgeCursor.node ? edge.target : edge.source;
+            return indexOf(current);
+        }
+
+        @Override
+        public Node node() {
+            return current;
+        }
+    }
+
+    protected static final class NeighborIterator implements Iterator<Node> {
+
+        protected final NodeImpl node;
+        protected final Iterator<Edge> itr;
+
+        public NeighborIterator(NodeImpl node, Iterator<Edge> itr) {
+            this.node = node;
+            this.itr = itr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return itr.hasNext();
+        }
+
+        @Override
+        public Node next() {
+            Edge e = itr.next();
+            return e.getSource() == node ? e.getTarget() : e.getSource();
+        }
+    }
+
+    // Snapshots are never locked
+    protected static final class SnapshotLock implements GraphLock {
+
+        @Override
+        public void readLock() {
+        }
+
+        @Override
+        public void readUnlock() {
+        }
+
+        @Override
+        public void readUnlockAll() {
+        }
+
+        @Override
+        public void writeLock() {
+            throw readOnly();
+        }
+
+        @Override
+        public void writeUnlock() {
+            throw readOnly();
+        }
+
+        @Override
+        public int getReadHoldCount() {
+            return 0;
+        }
+
+        @Override
+        public int getWriteHoldCount() {
+            return 0;
+        }
+    }
+}
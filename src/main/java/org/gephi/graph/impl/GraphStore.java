@@ -23,8 +23,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 import org.gephi.graph.api.*;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.types.IntervalSet;
 import org.gephi.graph.api.types.TimestampSet;
 
@@ -45,6 +50,8 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
     protected final GraphFactoryImpl factory;
     // Lock
     protected final GraphLockImpl lock;
+    // Lock used for optimistic reads, null if disabled
+    protected final StampedGraphLockImpl optimisticLock;
     // Version
     protected final GraphVersion version;
     protected final List<GraphObserverImpl> observers;
@@ -76,7 +83,9 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
     protected GraphStore(GraphModelImpl model, ConfigurationImpl config) {
         configuration = config;
         graphModel = model;
-        lock = new GraphLockImpl();
+        lock = configuration.isEnableOptimisticReads() ? new StampedGraphLockImpl() : new GraphLockImpl();
+        optimisticLock = configuration.isEnableOptimisticReads() && configuration.isEnableAutoLocking()
+                ? (StampedGraphLockImpl) lock : null;
 
         edgeTypeStore = new EdgeTypeStore();
         mainGraphView = new MainGraphView();
@@ -174,22 +183,12 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public NodeImpl getNode(final Object id) {
-        autoReadLock();
-        try {
-            return nodeStore.get(id);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> nodeStore.get(id));
     }
 
     @Override
     public NodeImpl getNodeByStoreId(final int id) {
-        autoReadLock();
-        try {
-            return nodeStore.getForGetByStoreId(id);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> nodeStore.getForGetByStoreId(id));
     }
 
     @Override
@@ -199,22 +198,12 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public EdgeImpl getEdge(final Object id) {
-        autoReadLock();
-        try {
-            return edgeStore.get(id);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.get(id));
     }
 
     @Override
     public EdgeImpl getEdgeByStoreId(final int id) {
-        autoReadLock();
-        try {
-            return edgeStore.getForGetByStoreId(id);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.getForGetByStoreId(id));
     }
 
     @Override
@@ -224,12 +213,7 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public Edge getMutualEdge(Edge edge) {
-        autoReadLock();
-        try {
-            return edgeStore.getMutualEdge(edge);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.getMutualEdge(edge));
     }
 
     @Override
@@ -340,32 +324,17 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public boolean contains(final Node node) {
-        autoReadLock();
-        try {
-            return nodeStore.contains(node);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> nodeStore.contains(node));
     }
 
     @Override
     public boolean contains(final Edge edge) {
-        autoReadLock();
-        try {
-            return edgeStore.contains(edge);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.contains(edge));
     }
 
     @Override
     public Edge getEdge(final Node node1, final Node node2, final int type) {
-        autoReadLock();
-        try {
-            return edgeStore.get(node1, node2, type, false);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.get(node1, node2, type, false));
     }
 
     @Override
@@ -379,12 +348,7 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public Edge getEdge(final Node node1, final Node node2) {
-        autoReadLock();
-        try {
-            return edgeStore.get(node1, node2, false);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.get(node1, node2, false));
     }
 
     @Override
@@ -431,6 +395,21 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         return new EdgeIterableWrapper(edgeStore.edgeIterator(node));
     }
 
+    @Override
+    public EdgeCursor getEdgeCursor() {
+        return edgeStore.edgeCursor(true, true, false, null);
+    }
+
+    @Override
+    public NeighborCursor getNeighborCursor() {
+        return edgeStore.neighborCursor(true, true, true, null);
+    }
+
+    @Override
+    public void forEachNeighbor(final Node node, final IntConsumer consumer) {
+        edgeStore.forEachNeighbor(node, true, null, consumer);
+    }
+
     @Override
     public EdgeIterable getEdges(final Node node, final int type) {
         return new EdgeIterableWrapper(edgeStore.edgeIterator(node, type));
@@ -451,6 +430,26 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         return new EdgeIterableWrapper(edgeStore.edgeOutIterator(node));
     }
 
+    @Override
+    public EdgeCursor getOutEdgeCursor() {
+        return edgeStore.edgeCursor(true, false, false, null);
+    }
+
+    @Override
+    public EdgeCursor getInEdgeCursor() {
+        return edgeStore.edgeCursor(false, true, false, null);
+    }
+
+    @Override
+    public NeighborCursor getSuccessorCursor() {
+        return edgeStore.neighborCursor(true, false, false, null);
+    }
+
+    @Override
+    public NeighborCursor getPredecessorCursor() {
+        return edgeStore.neighborCursor(false, true, false, null);
+    }
+
     @Override
     public EdgeIterable getOutEdges(final Node node, final int type) {
         return new EdgeIterableWrapper(edgeStore.edgeOutIterator(node, type));
@@ -468,15 +467,7 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public int getEdgeCount(final int type) {
-        autoReadLock();
-        try {
-            if (edgeTypeStore.contains(type)) {
-                return edgeStore.size(type);
-            }
-            return 0;
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeTypeStore.contains(type) ? edgeStore.size(type) : 0);
     }
 
     @Override
@@ -521,22 +512,12 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public boolean isAdjacent(final Node node1, final Node node2) {
-        autoReadLock();
-        try {
-            return edgeStore.isAdjacent(node1, node2);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.isAdjacent(node1, node2));
     }
 
     @Override
     public boolean isAdjacent(final Node node1, final Node node2, final int type) {
-        autoReadLock();
-        try {
-            return edgeStore.isAdjacent(node1, node2, type);
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.isAdjacent(node1, node2, type));
     }
 
     @Override
@@ -608,6 +589,55 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         }
     }
 
+    public boolean compact() {
+        autoWriteLock();
+        try {
+            int[] nodeStoreIdMap = nodeStore.compact();
+            int[] edgeStoreIdMap = edgeStore.compact(nodeStoreIdMap != null);
+            if (nodeStoreIdMap == null && edgeStoreIdMap == null) {
+                return false;
+            }
+            storeIdsChanged(nodeStoreIdMap, edgeStoreIdMap);
+            return true;
+        } finally {
+            autoWriteUnlock();
+        }
+    }
+
+    public void reorder(StoreOrder order) {
+        if (order == null) {
+            throw new NullPointerException();
+        }
+
+        autoWriteLock();
+        try {
+            NodeImpl[] nodes = NodeOrders.order(this, order);
+            EdgeImpl[] edges = edgeStore.toSourceOrder(nodes);
+            int[] nodeStoreIdMap = nodeStore.reorder(nodes);
+            int[] edgeStoreIdMap = edgeStore.reorder(edges);
+            storeIdsChanged(nodeStoreIdMap, edgeStoreIdMap);
+        } finally {
+            autoWriteUnlock();
+        }
+    }
+
+    // Remaps the structures indexed by store id, maps are null for the stores
+    // that didn't change
+    private void storeIdsChanged(int[] nodeStoreIdMap, int[] edgeStoreIdMap) {
+        if (version != null) {
+            version.incrementAndGetNodeVersion();
+            version.incrementAndGetEdgeVersion();
+        }
+        viewStore.compact(nodeStoreIdMap, edgeStoreIdMap);
+        if (nodeStoreIdMap != null) {
+            nodeTable.store.compact(nodeStoreIdMap, nodeStore.toStoreIdArray());
+        }
+        if (edgeStoreIdMap != null) {
+            edgeTable.store.compact(edgeStoreIdMap, edgeStore.toStoreIdArray());
+        }
+        timeStore.compact(nodeStoreIdMap, edgeStoreIdMap);
+    }
+
     @Override
     public void clearEdges() {
         autoWriteLock();
@@ -615,6 +645,7 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
             edgeStore.clear();
             edgeTypeStore.clear();
             edgeTable.store.indexStore.clear();
+            nodeTable.store.indexStore.invalidateDegrees();
             timeStore.clearEdges();
         } finally {
             autoWriteUnlock();
@@ -714,6 +745,21 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         return spatialIndex;
     }
 
+    @Override
+    public CompressedSparseRow toCSR() {
+        return toCSR(false);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(boolean weights) {
+        return toCSR(CompressedSparseRowImpl.ANY_TYPE, weights);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(int type, boolean weights) {
+        return new CompressedSparseRowImpl(this, this, version, false, type, weights);
+    }
+
     protected void autoReadLock() {
         if (configuration.isEnableAutoLocking()) {
             readLock();
@@ -726,6 +772,33 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         }
     }
 
+    // Runs the read without locking and validates it afterwards, falls back to
+    // the read lock if a write happened in the meantime. Boolean and int reads
+    // are boxed, the boxes are cached or don't escape
+    protected <T> T optimisticRead(final Supplier<T> read) {
+        if (optimisticLock != null) {
+            final long stamp = optimisticLock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    T res = read.get();
+                    if (optimisticLock.validate(stamp)) {
+                        return res;
+                    }
+                } catch (RuntimeException e) {
+                    if (optimisticLock.validate(stamp)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        autoReadLock();
+        try {
+            return read.get();
+        } finally {
+            autoReadUnlock();
+        }
+    }
+
     protected void autoReadUnlockAll() {
         if (configuration.isEnableAutoLocking()) {
             readUnlockAll();
@@ -751,32 +824,17 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
 
     @Override
     public boolean isDirected() {
-        autoReadLock();
-        try {
-            return edgeStore.isDirectedGraph();
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.isDirectedGraph());
     }
 
     @Override
     public boolean isUndirected() {
-        autoReadLock();
-        try {
-            return edgeStore.isUndirectedGraph();
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.isUndirectedGraph());
     }
 
     @Override
     public boolean isMixed() {
-        autoReadLock();
-        try {
-            return edgeStore.isMixedGraph();
-        } finally {
-            autoReadUnlock();
-        }
+        return optimisticRead(() -> edgeStore.isMixedGraph());
     }
 
     @Override
@@ -849,6 +907,14 @@ public class GraphStore implements DirectedGraph, DirectedSubgraph {
         return new NodeIterableWrapper(nodeIterator, (blocking && configuration.isEnableAutoLocking()) ? lock : null);
     }
 
+    protected EdgeIterableWrapper getEdgeIterableWrapper(Iterator<Edge> edgeIterator, Supplier<? extends Spliterator<Edge>> spliterator) {
+        return new EdgeIterableWrapper(edgeIterator, configuration.isEnableAutoLocking() ? lock : null, spliterator);
+    }
+
+    protected NodeIterableWrapper getNodeIterableWrapper(Iterator<Node> nodeIterator, Supplier<? extends Spliterator<Node>> spliterator) {
+        return new NodeIterableWrapper(nodeIterator, configuration.isEnableAutoLocking() ? lock : null, spliterator);
+    }
+
     public int deepHashCode() {
         int hash = 3;
         hash = 29 * hash + (this.nodeStore != null ? this.nodeStore.deepHashCode() : 0);
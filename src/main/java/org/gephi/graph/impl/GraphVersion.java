@@ -20,11 +20,13 @@ import org.gephi.graph.api.Graph;
 public class GraphVersion {
 
     protected final Graph graph;
+    protected final GraphChangeJournal journal;
     protected int nodeVersion = Integer.MIN_VALUE + 1;
     protected int edgeVersion = Integer.MIN_VALUE + 1;
 
     public GraphVersion(Graph graph) {
         this.graph = graph;
+        this.journal = new GraphChangeJournal();
     }
 
     public int incrementAndGetNodeVersion() {
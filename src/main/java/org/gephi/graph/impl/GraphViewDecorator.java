@@ -18,13 +18,17 @@ package org.gephi.graph.impl;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.IntConsumer;
+import org.gephi.graph.api.CompressedSparseRow;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
 import org.gephi.graph.api.EdgeIterable;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.NodeIterable;
 import org.gephi.graph.api.Rect2D;
@@ -144,6 +148,26 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
         return graphStore.getEdgeIterableWrapper(new EdgeViewIterator(graphStore.edgeStore.edgeOutIterator(node)));
     }
 
+    @Override
+    public EdgeCursor getOutEdgeCursor() {
+        return graphStore.edgeStore.edgeCursor(true, false, false, view);
+    }
+
+    @Override
+    public EdgeCursor getInEdgeCursor() {
+        return graphStore.edgeStore.edgeCursor(false, true, false, view);
+    }
+
+    @Override
+    public NeighborCursor getSuccessorCursor() {
+        return graphStore.edgeStore.neighborCursor(true, false, false, view);
+    }
+
+    @Override
+    public NeighborCursor getPredecessorCursor() {
+        return graphStore.edgeStore.neighborCursor(false, true, false, view);
+    }
+
     @Override
     public EdgeIterable getOutEdges(Node node, int type) {
         checkValidInViewNodeObject(node);
@@ -372,22 +396,33 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
 
     @Override
     public NodeIterable getNodes() {
-        return graphStore.getNodeIterableWrapper(new NodeViewIterator(graphStore.nodeStore.iterator()));
+        Iterator<Node> itr = view.nodeView ? graphStore.nodeStore.iterator(view.nodeBitVector)
+                : graphStore.nodeStore.iterator();
+        return graphStore
+                .getNodeIterableWrapper(new NodeViewIterator(itr), () -> graphStore.nodeStore.spliterator(view));
     }
 
     @Override
     public EdgeIterable getEdges() {
+        Iterator<Edge> itr = graphStore.edgeStore.iterator(view.edgeBitVector);
         if (undirected) {
-            return graphStore.getEdgeIterableWrapper(new UndirectedEdgeViewIterator(graphStore.edgeStore.iterator()));
+            return graphStore.getEdgeIterableWrapper(new UndirectedEdgeViewIterator(
+                    itr), () -> graphStore.edgeStore.spliterator(view, true));
         } else {
-            return graphStore.getEdgeIterableWrapper(new EdgeViewIterator(graphStore.edgeStore.iterator()));
+            return graphStore.getEdgeIterableWrapper(new EdgeViewIterator(
+                    itr), () -> graphStore.edgeStore.spliterator(view, false));
         }
     }
 
     @Override
     public EdgeIterable getEdges(int type) {
-        return graphStore.getEdgeIterableWrapper(new UndirectedEdgeViewIterator(
-                graphStore.edgeStore.iteratorType(type, undirected)));
+        // Mutual pairs are filtered by the view, the reverse edge may not be in it
+        Iterator<Edge> itr = graphStore.edgeStore.iteratorType(type, false);
+        if (undirected) {
+            return graphStore.getEdgeIterableWrapper(new UndirectedEdgeViewIterator(itr));
+        } else {
+            return graphStore.getEdgeIterableWrapper(new EdgeViewIterator(itr));
+        }
     }
 
     @Override
@@ -420,6 +455,21 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
         }
     }
 
+    @Override
+    public EdgeCursor getEdgeCursor() {
+        return graphStore.edgeStore.edgeCursor(true, true, undirected, view);
+    }
+
+    @Override
+    public NeighborCursor getNeighborCursor() {
+        return graphStore.edgeStore.neighborCursor(true, true, true, view);
+    }
+
+    @Override
+    public void forEachNeighbor(Node node, IntConsumer consumer) {
+        graphStore.edgeStore.forEachNeighbor(node, true, view, consumer);
+    }
+
     @Override
     public EdgeIterable getEdges(Node node, int type) {
         checkValidInViewNodeObject(node);
@@ -467,56 +517,19 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
     @Override
     public int getDegree(Node node) {
         if (undirected) {
-            int count = 0;
-            EdgeStore.EdgeInOutIterator itr = graphStore.edgeStore.edgeIterator(node);
-            while (itr.hasNext()) {
-                EdgeImpl edge = itr.next();
-                if (view.containsEdge(edge) && !isUndirectedToIgnore(edge)) {
-                    count++;
-                    if (edge.isSelfLoop()) {
-                        count++;
-                    }
-                }
-            }
-            return count;
-        } else {
-            int count = 0;
-            EdgeStore.EdgeInOutIterator itr = graphStore.edgeStore.edgeIterator(node);
-            while (itr.hasNext()) {
-                EdgeImpl edge = itr.next();
-                if (view.containsEdge(edge)) {
-                    count++;
-                    if (edge.isSelfLoop()) {
-                        count++;
-                    }
-                }
-            }
-            return count;
+            return view.getUndirectedDegree((NodeImpl) node);
         }
+        return view.getDegree((NodeImpl) node);
     }
 
     @Override
     public int getInDegree(Node node) {
-        int count = 0;
-        EdgeStore.EdgeInIterator itr = graphStore.edgeStore.edgeInIterator(node);
-        while (itr.hasNext()) {
-            if (view.containsEdge(itr.next())) {
-                count++;
-            }
-        }
-        return count;
+        return view.getInDegree((NodeImpl) node);
     }
 
     @Override
     public int getOutDegree(Node node) {
-        int count = 0;
-        EdgeStore.EdgeOutIterator itr = graphStore.edgeStore.edgeOutIterator(node);
-        while (itr.hasNext()) {
-            if (view.containsEdge(itr.next())) {
-                count++;
-            }
-        }
-        return count;
+        return view.getOutDegree((NodeImpl) node);
     }
 
     @Override
@@ -760,6 +773,21 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
         return this;
     }
 
+    @Override
+    public CompressedSparseRow toCSR() {
+        return toCSR(false);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(boolean weights) {
+        return toCSR(CompressedSparseRowImpl.ANY_TYPE, weights);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(int type, boolean weights) {
+        return new CompressedSparseRowImpl(graphStore, this, view.version, undirected, type, weights);
+    }
+
     void checkWriteLock() {
         if (graphStore.lock != null) {
             graphStore.lock.checkHoldWriteLock();
@@ -819,12 +847,7 @@ public class GraphViewDecorator implements DirectedSubgraph, UndirectedSubgraph,
     }
 
     boolean isUndirectedToIgnore(final EdgeImpl edge) {
-        if (edge.isMutual() && edge.source.storeId < edge.target.storeId) {
-            if (view.containsEdge(graphStore.edgeStore.get(edge.target, edge.source, edge.type, false))) {
-                return true;
-            }
-        }
-        return false;
+        return view.isUndirectedToIgnore(edge);
     }
 
     @Override
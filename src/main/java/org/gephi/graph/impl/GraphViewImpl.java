@@ -24,8 +24,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Interval;
@@ -55,8 +57,15 @@ public class GraphViewImpl implements GraphView {
     protected int[] typeCounts;
     protected int[] mutualEdgeTypeCounts;
     protected int mutualEdgesCount;
+    // Node degrees in the view, created on first use
+    protected volatile Degrees degrees;
     // Dynamic
     protected Interval interval;
+    // Time window, the elements follow the interval when enabled
+    protected boolean timeWindow;
+    protected Interval windowInterval;
+    protected int nodeTimeVersion;
+    protected int edgeTimeVersion;
 
     public GraphViewImpl(final GraphStore store, boolean nodes, boolean edges) {
         this.graphStore = store;
@@ -118,15 +127,18 @@ public class GraphViewImpl implements GraphView {
         graphStore.nodeStore.checkNodeExists(nodeImpl);
 
         int id = nodeImpl.storeId;
-        boolean isSet = nodeBitVector.get(id);
+        boolean isSet = isSet(nodeBitVector, id);
         if (!isSet) {
+            ensureNodeVectorSize(nodeImpl);
             nodeBitVector.set(id);
             nodeCount++;
             incrementNodeVersion();
+            journalAdded(nodeImpl);
 
             IndexStore<Node> indexStore = graphStore.nodeTable.store.indexStore;
             if (indexStore != null) {
                 indexStore.indexInView(nodeImpl, this);
+                indexStore.updateDegree(nodeImpl, this);
             }
             TimeIndexStore timeIndexStore = graphStore.timeStore.nodeIndexStore;
             if (timeIndexStore != null) {
@@ -139,10 +151,10 @@ public class GraphViewImpl implements GraphView {
                 while (itr.hasNext()) {
                     EdgeImpl edge = itr.next();
                     NodeImpl opposite = edge.source == nodeImpl ? edge.target : edge.source;
-                    if (nodeBitVector.get(opposite.getStoreId())) {
+                    if (isSet(nodeBitVector, opposite.getStoreId())) {
                         // Add edge
                         int edgeid = edge.storeId;
-                        boolean edgeisSet = edgeBitVector.get(edgeid);
+                        boolean edgeisSet = isSet(edgeBitVector, edgeid);
                         if (!edgeisSet) {
 
                             incrementEdgeVersion();
@@ -183,7 +195,7 @@ public class GraphViewImpl implements GraphView {
         graphStore.edgeStore.checkEdgeExists(edgeImpl);
 
         int id = edgeImpl.storeId;
-        boolean isSet = edgeBitVector.get(id);
+        boolean isSet = isSet(edgeBitVector, id);
         if (!isSet) {
             checkIncidentNodesExists(edgeImpl);
 
@@ -218,11 +230,12 @@ public class GraphViewImpl implements GraphView {
         graphStore.nodeStore.checkNodeExists(nodeImpl);
 
         int id = nodeImpl.storeId;
-        boolean isSet = nodeBitVector.get(id);
+        boolean isSet = isSet(nodeBitVector, id);
         if (isSet) {
             nodeBitVector.clear(id);
             nodeCount--;
             incrementNodeVersion();
+            journalRemoved(nodeImpl);
 
             IndexStore<Node> indexStore = graphStore.nodeTable.store.indexStore;
             if (indexStore != null) {
@@ -239,11 +252,14 @@ public class GraphViewImpl implements GraphView {
                 EdgeImpl edgeImpl = itr.next();
 
                 int edgeId = edgeImpl.storeId;
-                boolean edgeSet = edgeBitVector.get(edgeId);
+                boolean edgeSet = isSet(edgeBitVector, edgeId);
                 if (edgeSet) {
                     removeEdge(edgeImpl);
                 }
             }
+            if (indexStore != null) {
+                indexStore.updateDegree(nodeImpl, this);
+            }
             return true;
         }
         return false;
@@ -327,7 +343,7 @@ public class GraphViewImpl implements GraphView {
         graphStore.edgeStore.checkEdgeExists(edgeImpl);
 
         int id = edgeImpl.storeId;
-        boolean isSet = edgeBitVector.get(id);
+        boolean isSet = isSet(edgeBitVector, id);
         if (isSet) {
             removeEdge(edgeImpl);
 
@@ -361,6 +377,12 @@ public class GraphViewImpl implements GraphView {
         if (edgeCount > 0) {
             incrementEdgeVersion();
         }
+        if (isJournalEnabled()) {
+            if (nodeView) {
+                journalChanges(nodeBitVector.elements(), null, true);
+            }
+            journalChanges(edgeBitVector.elements(), null, false);
+        }
         if (nodeView) {
             nodeBitVector.clear();
         }
@@ -371,6 +393,7 @@ public class GraphViewImpl implements GraphView {
         mutualEdgeTypeCounts = new int[GraphStoreConfiguration.VIEW_DEFAULT_TYPE_COUNT];
         mutualEdgesCount = 0;
 
+        invalidateDegrees();
         if (nodeView) {
             IndexStore<Node> nodeIndexStore = graphStore.nodeTable.store.indexStore;
             if (nodeIndexStore != null) {
@@ -395,12 +418,16 @@ public class GraphViewImpl implements GraphView {
         if (edgeCount > 0) {
             incrementEdgeVersion();
         }
+        if (isJournalEnabled()) {
+            journalChanges(edgeBitVector.elements(), null, false);
+        }
         edgeBitVector.clear();
         edgeCount = 0;
         typeCounts = new int[GraphStoreConfiguration.VIEW_DEFAULT_TYPE_COUNT];
         mutualEdgeTypeCounts = new int[GraphStoreConfiguration.VIEW_DEFAULT_TYPE_COUNT];
         mutualEdgesCount = 0;
 
+        invalidateDegrees();
         IndexStore<Edge> edgeIndexStore = graphStore.edgeTable.store.indexStore;
         if (edgeIndexStore != null) {
             edgeIndexStore.clear(this);
@@ -412,17 +439,23 @@ public class GraphViewImpl implements GraphView {
     }
 
     public void fill() {
+        final long[] oldNodeWords = isJournalEnabled() && nodeView ? nodeBitVector.elements().clone() : null;
+        final long[] oldEdgeWords = isJournalEnabled() ? edgeBitVector.elements().clone() : null;
         if (nodeView) {
             if (nodeCount > 0) {
                 nodeBitVector = new BitVector(graphStore.nodeStore.maxStoreId());
             }
+            ensureNodeVectorSize(graphStore.nodeStore.maxStoreId());
             nodeBitVector.not();
+            clearTrailingBits(nodeBitVector);
             this.nodeCount = graphStore.nodeStore.size();
         }
         if (edgeCount > 0) {
             edgeBitVector = new BitVector(graphStore.edgeStore.maxStoreId());
         }
+        ensureEdgeVectorSize(graphStore.edgeStore.maxStoreId());
         edgeBitVector.not();
+        clearTrailingBits(edgeBitVector);
 
         this.edgeCount = graphStore.edgeStore.size();
         int typeLength = graphStore.edgeStore.longDictionary.length;
@@ -441,7 +474,14 @@ public class GraphViewImpl implements GraphView {
         if (nodeCount > 0) {
             incrementNodeVersion();
         }
+        if (oldNodeWords != null) {
+            journalChanges(oldNodeWords, nodeBitVector, true);
+        }
+        if (oldEdgeWords != null) {
+            journalChanges(oldEdgeWords, edgeBitVector, false);
+        }
 
+        invalidateDegrees();
         if (nodeView) {
             IndexStore<Node> nodeIndexStore = graphStore.nodeTable.store.indexStore;
             if (nodeIndexStore != null) {
@@ -466,99 +506,166 @@ public class GraphViewImpl implements GraphView {
         if (!nodeView) {
             return true;
         }
-        return nodeBitVector.get(node.storeId);
+        return isSet(nodeBitVector, node.storeId);
     }
 
     public boolean containsEdge(final EdgeImpl edge) {
-        return edgeBitVector.get(edge.storeId);
+        return isSet(edgeBitVector, edge.storeId);
     }
 
     public void intersection(final GraphViewImpl otherView) {
-        BitVector nodeOtherBitVector = otherView.nodeBitVector;
-        BitVector edgeOtherBitVector = otherView.edgeBitVector;
+        final long[] oldNodeWords = journalSnapshot(nodeBitVector);
+        final long[] oldEdgeWords = journalSnapshot(edgeBitVector);
 
-        if (nodeView) {
-            int nodeSize = nodeBitVector.size();
-            for (int i = 0; i < nodeSize; i++) {
-                boolean t = nodeBitVector.get(i);
-                boolean o = nodeOtherBitVector.get(i);
-                if (t && !o) {
-                    removeNode(getNode(i));
-                }
-            }
+        boolean nodeChanged = false;
+        if (nodeView && otherView.nodeView) {
+            nodeChanged = and(nodeBitVector, otherView.nodeBitVector);
         }
 
+        boolean edgeChanged = false;
         if (edgeView) {
-            int edgeSize = edgeBitVector.size();
-            for (int i = 0; i < edgeSize; i++) {
-                boolean t = edgeBitVector.get(i);
-                boolean o = edgeOtherBitVector.get(i);
-                if (t && !o) {
-                    removeEdge(getEdge(i));
-                }
-            }
+            edgeChanged = and(edgeBitVector, otherView.edgeBitVector);
+        }
+        if (nodeChanged || edgeChanged) {
+            refreshView(nodeChanged, edgeChanged, oldNodeWords, oldEdgeWords);
         }
     }
 
     public void union(final GraphViewImpl otherView) {
-        BitVector nodeOtherBitVector = otherView.nodeBitVector;
-        BitVector edgeOtherBitVector = otherView.edgeBitVector;
+        final long[] oldNodeWords = journalSnapshot(nodeBitVector);
+        final long[] oldEdgeWords = journalSnapshot(edgeBitVector);
 
+        boolean nodeChanged = false;
         if (nodeView) {
-            int nodeSize = nodeBitVector.size();
-            for (int i = 0; i < nodeSize; i++) {
-                boolean t = nodeBitVector.get(i);
-                boolean o = nodeOtherBitVector.get(i);
-                if (!t && o) {
-                    addNode(getNode(i));
-                }
+            if (otherView.nodeView) {
+                ensureNodeVectorSize(otherView.nodeBitVector.size());
+                nodeChanged = or(nodeBitVector, otherView.nodeBitVector);
+            } else {
+                nodeChanged = nodeCount != graphStore.nodeStore.size();
+                ensureNodeVectorSize(graphStore.nodeStore.maxStoreId());
+                nodeBitVector.replaceFromToWith(0, nodeBitVector.size() - 1, true);
+                graphStore.nodeStore.clearFreeStoreIds(nodeBitVector);
             }
         }
 
+        boolean edgeChanged = false;
         if (edgeView) {
-            int edgeSize = edgeBitVector.size();
-            for (int i = 0; i < edgeSize; i++) {
-                boolean t = edgeBitVector.get(i);
-                boolean o = edgeOtherBitVector.get(i);
-                if (!t && o) {
-                    addEdge(getEdge(i));
+            ensureEdgeVectorSize(otherView.edgeBitVector.size());
+            edgeChanged = or(edgeBitVector, otherView.edgeBitVector);
+        } else if (nodeChanged) {
+            // Add the edges induced by the new nodes
+            ensureEdgeVectorSize(graphStore.edgeStore.maxStoreId());
+            for (Edge e : graphStore.edgeStore) {
+                int id = e.getStoreId();
+                if (!edgeBitVector.getQuick(id) && isSet(nodeBitVector, e.getSource()
+                        .getStoreId()) && isSet(nodeBitVector, e.getTarget().getStoreId())) {
+                    edgeBitVector.putQuick(id, true);
+                    edgeChanged = true;
                 }
             }
         }
+        if (nodeChanged || edgeChanged) {
+            refreshView(nodeChanged, edgeChanged, oldNodeWords, oldEdgeWords);
+        }
     }
 
     public void not() {
+        final long[] oldNodeWords = journalSnapshot(nodeBitVector);
+        final long[] oldEdgeWords = journalSnapshot(edgeBitVector);
+
         if (nodeView) {
+            ensureNodeVectorSize(graphStore.nodeStore.maxStoreId());
             nodeBitVector.not();
-            this.nodeCount = graphStore.nodeStore.size() - this.nodeCount;
         }
+        ensureEdgeVectorSize(graphStore.edgeStore.maxStoreId());
         edgeBitVector.not();
 
-        this.edgeCount = graphStore.edgeStore.size() - this.edgeCount;
-        for (int i = 0; i < typeCounts.length; i++) {
-            this.typeCounts[i] = graphStore.edgeStore.longDictionary[i].size() - this.typeCounts[i];
-        }
-        for (int i = 0; i < mutualEdgeTypeCounts.length; i++) {
-            this.mutualEdgeTypeCounts[i] = graphStore.edgeStore.mutualEdgesTypeSize[i] - this.mutualEdgeTypeCounts[i];
-        }
-        this.mutualEdgesCount = graphStore.edgeStore.mutualEdgesSize - this.mutualEdgesCount;
+        refreshView(nodeView, true, oldNodeWords, oldEdgeWords);
+    }
+
+    // Replaces the view's elements by the bits set in the given vectors, edges
+    // whose source or target isn't in the view are dropped
+    protected void setElements(BitVector nodes, BitVector edges) {
+        final long[] oldNodeWords = journalSnapshot(nodeBitVector);
+        final long[] oldEdgeWords = journalSnapshot(edgeBitVector);
 
         if (nodeView) {
-            incrementNodeVersion();
+            nodeBitVector = nodes;
         }
-        incrementEdgeVersion();
+        edgeBitVector = edges;
+
+        refreshView(nodeView, true, oldNodeWords, oldEdgeWords);
+    }
 
+    // Recomputes counts from the bit vectors, removes the edges whose source or
+    // target isn't in the view and reindexes the view
+    private void refreshView(boolean nodeChanged, boolean edgeChanged, long[] oldNodeWords, long[] oldEdgeWords) {
+        // Bits of free store ids may have been set by not() or fill()
         if (nodeView) {
-            for (Edge e : graphStore.edgeStore) {
-                boolean t = edgeBitVector.get(e.getStoreId());
-                if (t && (!nodeBitVector.get(e.getSource().getStoreId()) || !nodeBitVector
-                        .get(e.getTarget().getStoreId()))) {
-                    removeEdge((EdgeImpl) e);
+            clearTrailingBits(nodeBitVector);
+            graphStore.nodeStore.clearFreeStoreIds(nodeBitVector);
+            nodeCount = cardinality(nodeBitVector);
+        }
+        clearTrailingBits(edgeBitVector);
+        graphStore.edgeStore.clearFreeStoreIds(edgeBitVector);
+
+        int[] newTypeCounts = new int[typeCounts.length];
+        int[] newMutualEdgeTypeCounts = new int[mutualEdgeTypeCounts.length];
+        int newEdgeCount = 0;
+        int newMutualEdgesCount = 0;
+
+        final EdgeStore edgeStore = graphStore.edgeStore;
+        final long[] words = edgeBitVector.elements();
+        final int length = wordCount(edgeBitVector);
+        for (int w = 0; w < length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+
+                EdgeImpl edge = edgeStore.get(id);
+                if (nodeView && (!isSet(nodeBitVector, edge.source.storeId) || !isSet(nodeBitVector, edge.target.storeId))) {
+                    edgeBitVector.putQuick(id, false);
+                    edgeChanged = true;
+                    continue;
+                }
+                newEdgeCount++;
+                if (edge.type >= newTypeCounts.length) {
+                    newTypeCounts = Arrays.copyOf(newTypeCounts, edge.type + 1);
+                    newMutualEdgeTypeCounts = Arrays.copyOf(newMutualEdgeTypeCounts, edge.type + 1);
+                }
+                newTypeCounts[edge.type]++;
+
+                // Mutual pairs are counted once, on the edge undirected graphs skip
+                if (isUndirectedToIgnore(edge)) {
+                    newMutualEdgeTypeCounts[edge.type]++;
+                    newMutualEdgesCount++;
                 }
             }
         }
 
-        if (nodeView) {
+        edgeCount = newEdgeCount;
+        typeCounts = newTypeCounts;
+        mutualEdgeTypeCounts = newMutualEdgeTypeCounts;
+        mutualEdgesCount = newMutualEdgesCount;
+
+        if (nodeChanged) {
+            incrementNodeVersion();
+        }
+        if (edgeChanged) {
+            incrementEdgeVersion();
+        }
+        if (oldNodeWords != null) {
+            journalChanges(oldNodeWords, nodeBitVector, true);
+        }
+        if (oldEdgeWords != null) {
+            journalChanges(oldEdgeWords, edgeBitVector, false);
+        }
+
+        if (nodeChanged || edgeChanged) {
+            invalidateDegrees();
+        }
+        if (nodeView && nodeChanged) {
             IndexStore<Node> nodeIndexStore = graphStore.nodeTable.store.indexStore;
             if (nodeIndexStore != null) {
                 nodeIndexStore.clear(directedDecorator.view);
@@ -570,20 +677,22 @@ public class GraphViewImpl implements GraphView {
                 nodeTimeIndexStore.indexView(directedDecorator);
             }
         }
-        IndexStore<Edge> edgeIndexStore = graphStore.edgeTable.store.indexStore;
-        if (edgeIndexStore != null) {
-            edgeIndexStore.clear(directedDecorator.view);
-            edgeIndexStore.indexView(directedDecorator);
-        }
-        TimeIndexStore edgeTimeIndexStore = graphStore.timeStore.edgeIndexStore;
-        if (edgeTimeIndexStore != null) {
-            edgeTimeIndexStore.clear(directedDecorator.view);
-            edgeTimeIndexStore.indexView(directedDecorator);
+        if (edgeChanged) {
+            IndexStore<Edge> edgeIndexStore = graphStore.edgeTable.store.indexStore;
+            if (edgeIndexStore != null) {
+                edgeIndexStore.clear(directedDecorator.view);
+                edgeIndexStore.indexView(directedDecorator);
+            }
+            TimeIndexStore edgeTimeIndexStore = graphStore.timeStore.edgeIndexStore;
+            if (edgeTimeIndexStore != null) {
+                edgeTimeIndexStore.clear(directedDecorator.view);
+                edgeTimeIndexStore.indexView(directedDecorator);
+            }
         }
     }
 
     public void addEdgeInNodeView(EdgeImpl edge) {
-        if (nodeBitVector.get(edge.source.getStoreId()) && nodeBitVector.get(edge.target.getStoreId())) {
+        if (isSet(nodeBitVector, edge.source.getStoreId()) && isSet(nodeBitVector, edge.target.getStoreId())) {
             incrementEdgeVersion();
 
             addEdge(edge);
@@ -619,6 +728,121 @@ public class GraphViewImpl implements GraphView {
         return typeCounts[type] - mutualEdgeTypeCounts[type];
     }
 
+    public int getDegree(NodeImpl node) {
+        Degrees d = getDegrees();
+        return d.get(d.inDegrees, node) + d.get(d.outDegrees, node);
+    }
+
+    public int getUndirectedDegree(NodeImpl node) {
+        Degrees d = getDegrees();
+        return d.get(d.inDegrees, node) + d.get(d.outDegrees, node) - d.get(d.mutualDegrees, node);
+    }
+
+    public int getInDegree(NodeImpl node) {
+        Degrees d = getDegrees();
+        return d.get(d.inDegrees, node);
+    }
+
+    public int getOutDegree(NodeImpl node) {
+        Degrees d = getDegrees();
+        return d.get(d.outDegrees, node);
+    }
+
+    // Degrees are computed from the view's edges on first use and then kept up
+    // to date as edges are added and removed, bulk changes drop them
+    private Degrees getDegrees() {
+        Degrees d = degrees;
+        if (d == null) {
+            synchronized (this) {
+                d = degrees;
+                if (d == null) {
+                    d = new Degrees(graphStore.nodeStore.maxStoreId());
+                    final EdgeStore edgeStore = graphStore.edgeStore;
+                    final long[] words = edgeBitVector.elements();
+                    final int length = wordCount(edgeBitVector);
+                    for (int w = 0; w < length; w++) {
+                        long word = words[w] & lastWordMask(edgeBitVector, w);
+                        while (word != 0) {
+                            int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                            word &= word - 1;
+
+                            EdgeImpl edge = edgeStore.get(id);
+                            d.addEdge(edge);
+                            // Mutual pairs are counted once, on the edge
+                            // undirected graphs skip
+                            if (isUndirectedToIgnore(edge)) {
+                                d.addMutual(edge);
+                            }
+                        }
+                    }
+                    degrees = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    // Returns true if undirected graphs of this view skip the edge, which is the
+    // edge of a mutual pair with the lowest source id when its reverse edge is
+    // in the view, see EdgeStore.isUndirectedToIgnore()
+    protected boolean isUndirectedToIgnore(EdgeImpl edge) {
+        return edge.isMutual() && edge.source.storeId < edge.target.storeId && containsEdge(graphStore.edgeStore
+                .get(edge.target, edge.source, edge.type, false));
+    }
+
+    // Mutual pairs are counted once, on the edge undirected graphs skip. With
+    // parallel edges a change can move that edge within the pair's edges, so
+    // their counts are removed before the change and added back after it
+    private void updateMutualCounts(NodeImpl source, NodeImpl target, int type, boolean add) {
+        if (source != target) {
+            EdgeStore edgeStore = graphStore.edgeStore;
+            updateMutualCounts(edgeStore.getAll(source, target, type, false), add);
+            updateMutualCounts(edgeStore.getAll(target, source, type, false), add);
+        }
+    }
+
+    private void updateMutualCounts(Iterator<Edge> itr, boolean add) {
+        while (itr.hasNext()) {
+            updateMutualCount((EdgeImpl) itr.next(), add);
+        }
+    }
+
+    // Same as above, with the edges between the two nodes given by the view store
+    protected void updateMutualCounts(EdgeImpl[] pairEdges, boolean add) {
+        for (EdgeImpl edge : pairEdges) {
+            updateMutualCount(edge, add);
+        }
+    }
+
+    private void updateMutualCount(EdgeImpl edge, boolean add) {
+        if (containsEdge(edge) && isUndirectedToIgnore(edge)) {
+            Degrees d = degrees;
+            if (add) {
+                mutualEdgeTypeCounts[edge.type]++;
+                mutualEdgesCount++;
+                if (d != null) {
+                    d.addMutual(edge);
+                }
+            } else {
+                mutualEdgeTypeCounts[edge.type]--;
+                mutualEdgesCount--;
+                if (d != null) {
+                    d.removeMutual(edge);
+                }
+            }
+        }
+    }
+
+    // Returns true if the view contains one of the edges
+    protected boolean containsAnyEdge(EdgeImpl[] edges) {
+        for (EdgeImpl edge : edges) {
+            if (containsEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public GraphModelImpl getGraphModel() {
         return graphStore.graphModel;
@@ -651,6 +875,88 @@ public class GraphViewImpl implements GraphView {
         return interval;
     }
 
+    // Sets the view's elements to the nodes and edges with a time overlapping
+    // the interval. When the time indexes didn't change since the last call,
+    // only the elements with a time where the old and new windows differ are
+    // checked, otherwise the elements are collected again.
+    protected void setTimeWindow(Interval interval) {
+        TimeIndexStore nodeTimeIndexStore = graphStore.timeStore.nodeIndexStore;
+        TimeIndexStore edgeTimeIndexStore = graphStore.timeStore.edgeIndexStore;
+        if (windowInterval == null || nodeTimeVersion != nodeTimeIndexStore.version || edgeTimeVersion != edgeTimeIndexStore.version) {
+            BitVector nodes = new BitVector(graphStore.nodeStore.maxStoreId());
+            for (Object node : nodeTimeIndexStore.getElements(interval)) {
+                nodes.set(((NodeImpl) node).storeId);
+            }
+            BitVector edges = new BitVector(graphStore.edgeStore.maxStoreId());
+            for (Object edge : edgeTimeIndexStore.getElements(interval)) {
+                edges.set(((EdgeImpl) edge).storeId);
+            }
+            setElements(nodes, edges);
+        } else if (!interval.equals(windowInterval)) {
+            slideTimeWindow(interval, windowDifference(windowInterval, interval));
+        }
+        windowInterval = interval;
+        nodeTimeVersion = nodeTimeIndexStore.version;
+        edgeTimeVersion = edgeTimeIndexStore.version;
+    }
+
+    private void slideTimeWindow(Interval interval, Interval[] ranges) {
+        TimeIndexStore nodeTimeIndexStore = graphStore.timeStore.nodeIndexStore;
+        TimeIndexStore edgeTimeIndexStore = graphStore.timeStore.edgeIndexStore;
+        Set<Element> nodes = nodeTimeIndexStore.getElements(ranges);
+        Set<Element> edges = edgeTimeIndexStore.getElements(ranges);
+
+        // Leaving elements, the edges of the removed nodes are removed as well
+        for (Element e : edges) {
+            EdgeImpl edge = (EdgeImpl) e;
+            if (containsEdge(edge) && !edgeTimeIndexStore.overlaps(edge, interval)) {
+                removeEdge(edge);
+            }
+        }
+        for (Element n : nodes) {
+            NodeImpl node = (NodeImpl) n;
+            if (containsNode(node) && !nodeTimeIndexStore.overlaps(node, interval)) {
+                removeNode(node);
+            }
+        }
+
+        // Entering elements, edges already in the window are added with the
+        // nodes
+        for (Element n : nodes) {
+            NodeImpl node = (NodeImpl) n;
+            if (!containsNode(node) && nodeTimeIndexStore.overlaps(node, interval)) {
+                addNode(node);
+
+                EdgeInOutIterator itr = graphStore.edgeStore.edgeIterator(node);
+                while (itr.hasNext()) {
+                    EdgeImpl edge = itr.next();
+                    NodeImpl opposite = edge.source == node ? edge.target : edge.source;
+                    if (!containsEdge(edge) && containsNode(opposite) && edgeTimeIndexStore.overlaps(edge, interval)) {
+                        addEdge(edge);
+                    }
+                }
+            }
+        }
+        for (Element e : edges) {
+            EdgeImpl edge = (EdgeImpl) e;
+            if (!containsEdge(edge) && containsNode(edge.source) && containsNode(edge.target) && edgeTimeIndexStore
+                    .overlaps(edge, interval)) {
+                addEdge(edge);
+            }
+        }
+    }
+
+    // Returns intervals covering the times in one window but not in the other
+    private static Interval[] windowDifference(Interval oldInterval, Interval newInterval) {
+        if (oldInterval.compareTo(newInterval) != 0) {
+            return new Interval[] { oldInterval, newInterval };
+        }
+        return new Interval[] { new Interval(Math.min(oldInterval.getLow(), newInterval.getLow()),
+                Math.max(oldInterval.getLow(), newInterval.getLow())), new Interval(
+                        Math.min(oldInterval.getHigh(), newInterval.getHigh()),
+                        Math.max(oldInterval.getHigh(), newInterval.getHigh())) };
+    }
+
     @Override
     public boolean isDestroyed() {
         return storeId == GraphViewStore.NULL_VIEW;
@@ -716,41 +1022,43 @@ public class GraphViewImpl implements GraphView {
         }
     }
 
-    protected void setEdgeType(EdgeImpl edgeImpl, int oldType, boolean wasMutual) {
-        ensureTypeCountArrayCapacity(edgeImpl.type);
-        typeCounts[oldType]--;
-        typeCounts[edgeImpl.type]++;
-
-        if (!edgeImpl.isSelfLoop()) {
-            if (wasMutual && containsEdge(graphStore.edgeStore.get(edgeImpl.target, edgeImpl.source, oldType, false))) {
-                mutualEdgeTypeCounts[oldType]--;
-                mutualEdgesCount--;
-            }
+    // Called by the view store before the edge's type is changed to the given
+    // type, with the edges between its nodes of both types
+    protected void beforeSetEdgeType(int type, EdgeImpl[] pairEdges) {
+        ensureTypeCountArrayCapacity(type);
+        updateMutualCounts(pairEdges, false);
+    }
 
-            if (edgeImpl.isMutual() && containsEdge(graphStore.edgeStore
-                    .get(edgeImpl.target, edgeImpl.source, edgeImpl.type, false))) {
-                mutualEdgeTypeCounts[edgeImpl.type]++;
-                mutualEdgesCount++;
-            }
+    protected void setEdgeType(EdgeImpl edgeImpl, int oldType, EdgeImpl[] pairEdges) {
+        if (containsEdge(edgeImpl)) {
+            typeCounts[oldType]--;
+            typeCounts[edgeImpl.type]++;
         }
+        updateMutualCounts(pairEdges, true);
+        updateDegrees(edgeImpl);
     }
 
     private void addEdge(EdgeImpl edgeImpl) {
         incrementEdgeVersion();
 
-        edgeBitVector.set(edgeImpl.storeId);
-        edgeCount++;
-
         int type = edgeImpl.type;
         ensureTypeCountArrayCapacity(type);
+        updateMutualCounts(edgeImpl.source, edgeImpl.target, type, false);
+
+        ensureEdgeVectorSize(edgeImpl);
+        edgeBitVector.set(edgeImpl.storeId);
+        edgeCount++;
+        if (isJournalEnabled()) {
+            journalEdge(edgeImpl, null, edgeBitVector);
+        }
 
         typeCounts[type]++;
 
-        if (edgeImpl.isMutual() && !edgeImpl.isSelfLoop() && containsEdge(graphStore.edgeStore
-                .get(edgeImpl.target, edgeImpl.source, edgeImpl.type, false))) {
-            mutualEdgeTypeCounts[type]++;
-            mutualEdgesCount++;
+        Degrees d = degrees;
+        if (d != null) {
+            d.addEdge(edgeImpl);
         }
+        updateMutualCounts(edgeImpl.source, edgeImpl.target, type, true);
 
         IndexStore<Edge> indexStore = graphStore.edgeTable.store.indexStore;
         if (indexStore != null) {
@@ -760,19 +1068,47 @@ public class GraphViewImpl implements GraphView {
         if (timeIndexStore != null) {
             timeIndexStore.indexInView(edgeImpl, this);
         }
+        updateDegrees(edgeImpl);
+    }
+
+    // Called by the view store before the edge is removed from the graph, with
+    // the edges between its nodes. The view may not have edges enabled
+    protected void beforeRemoveEdgeFromStore(EdgeImpl edgeImpl, EdgeImpl[] pairEdges) {
+        updateMutualCounts(pairEdges, false);
+        if (isSet(edgeBitVector, edgeImpl.storeId)) {
+            clearEdge(edgeImpl);
+        }
+    }
+
+    // Called by the view store once the edge is removed from the graph, with the
+    // remaining edges between its nodes
+    protected void removeEdgeFromStore(EdgeImpl edgeImpl, EdgeImpl[] pairEdges) {
+        updateMutualCounts(pairEdges, true);
+        updateDegrees(edgeImpl);
     }
 
     private void removeEdge(EdgeImpl edgeImpl) {
+        updateMutualCounts(edgeImpl.source, edgeImpl.target, edgeImpl.type, false);
+        clearEdge(edgeImpl);
+        updateMutualCounts(edgeImpl.source, edgeImpl.target, edgeImpl.type, true);
+        updateDegrees(edgeImpl);
+    }
+
+    // Removes the edge from the view, except from the mutual counts and degree
+    // indexes
+    private void clearEdge(EdgeImpl edgeImpl) {
         incrementEdgeVersion();
 
         edgeBitVector.clear(edgeImpl.storeId);
         edgeCount--;
+        if (isJournalEnabled()) {
+            journalEdge(edgeImpl, null, edgeBitVector);
+        }
         typeCounts[edgeImpl.type]--;
 
-        if (edgeImpl.isMutual() && !edgeImpl.isSelfLoop() && containsEdge(graphStore.edgeStore
-                .get(edgeImpl.target, edgeImpl.source, edgeImpl.type, false))) {
-            mutualEdgeTypeCounts[edgeImpl.type]--;
-            mutualEdgesCount--;
+        Degrees d = degrees;
+        if (d != null) {
+            d.removeEdge(edgeImpl);
         }
 
         IndexStore<Edge> indexStore = graphStore.edgeTable.store.indexStore;
@@ -781,6 +1117,120 @@ public class GraphViewImpl implements GraphView {
         }
     }
 
+    // Refreshes the view's degree indexes of the edge's nodes
+    private void updateDegrees(EdgeImpl edgeImpl) {
+        IndexStore<Node> nodeIndexStore = graphStore.nodeTable.store.indexStore;
+        if (nodeIndexStore != null) {
+            nodeIndexStore.updateDegree(edgeImpl.source, this);
+            if (edgeImpl.source != edgeImpl.target) {
+                nodeIndexStore.updateDegree(edgeImpl.target, this);
+            }
+        }
+    }
+
+    // Drops the view's degrees and invalidates its degree indexes after a bulk
+    // change
+    private void invalidateDegrees() {
+        degrees = null;
+        IndexStore<Node> nodeIndexStore = graphStore.nodeTable.store.indexStore;
+        if (nodeIndexStore != null) {
+            nodeIndexStore.invalidateDegrees(this);
+        }
+    }
+
+    // Intersects bitVector with other, returns true if bitVector changed
+    private static boolean and(BitVector bitVector, BitVector other) {
+        final long[] words = bitVector.elements();
+        final long[] otherWords = other.elements();
+        final int otherLength = wordCount(other);
+        long changed = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            long newWord = i < otherLength ? word & otherWords[i] & lastWordMask(other, i) : 0L;
+            changed |= word ^ newWord;
+            words[i] = newWord;
+        }
+        return changed != 0;
+    }
+
+    // Unites bitVector with other, which can't be larger, returns true if
+    // bitVector changed
+    private static boolean or(BitVector bitVector, BitVector other) {
+        final long[] words = bitVector.elements();
+        final long[] otherWords = other.elements();
+        final int otherLength = wordCount(other);
+        long changed = 0;
+        for (int i = 0; i < otherLength; i++) {
+            long word = words[i];
+            long newWord = word | (otherWords[i] & lastWordMask(other, i));
+            changed |= word ^ newWord;
+            words[i] = newWord;
+        }
+        return changed != 0;
+    }
+
+    private static int cardinality(BitVector bitVector) {
+        final long[] words = bitVector.elements();
+        final int length = wordCount(bitVector);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & lastWordMask(bitVector, i));
+        }
+        return count;
+    }
+
+    private static void clearTrailingBits(BitVector bitVector) {
+        int length = wordCount(bitVector);
+        if (length > 0) {
+            bitVector.elements()[length - 1] &= lastWordMask(bitVector, length - 1);
+        }
+    }
+
+    // Bit vectors only grow when a bit is set, ids above their size are unset
+    private static boolean isSet(BitVector bitVector, int id) {
+        return bitVector != null && id < bitVector.size() && bitVector.get(id);
+    }
+
+    private static int wordCount(BitVector bitVector) {
+        return (bitVector.size() + 63) >>> 6;
+    }
+
+    // Masks the bits above the vector's size in its last word
+    private static long lastWordMask(BitVector bitVector, int word) {
+        int size = bitVector.size();
+        if (word == (size >>> 6) && (size & 63) != 0) {
+            return (1L << (size & 63)) - 1;
+        }
+        return -1L;
+    }
+
+    // Moves the bits to the new store ids after the stores were compacted, maps
+    // are null for the stores that didn't change
+    protected void compact(int[] nodeStoreIdMap, int[] edgeStoreIdMap) {
+        if (nodeStoreIdMap != null) {
+            if (nodeBitVector != null) {
+                nodeBitVector = remapBitVector(nodeBitVector, nodeStoreIdMap, graphStore.nodeStore.maxStoreId());
+            }
+            degrees = null;
+            incrementNodeVersion();
+        }
+        if (edgeStoreIdMap != null) {
+            edgeBitVector = remapBitVector(edgeBitVector, edgeStoreIdMap, graphStore.edgeStore.maxStoreId());
+        }
+        incrementEdgeVersion();
+    }
+
+    private static BitVector remapBitVector(BitVector bitVector, int[] storeIdMap, int size) {
+        BitVector remapped = new BitVector(size);
+        int length = Math.min(bitVector.size(), storeIdMap.length);
+        for (int i = 0; i < length; i++) {
+            if (bitVector.getQuick(i) && storeIdMap[i] != NodeStore.NULL_ID) {
+                remapped.putQuick(storeIdMap[i], true);
+            }
+        }
+        return remapped;
+    }
+
     private BitVector growBitVector(BitVector bitVector, int size) {
         long[] elements = bitVector.elements();
         long[] newElements = QuickBitVector.makeBitVector(size, 1);
@@ -862,6 +1312,111 @@ public class GraphViewImpl implements GraphView {
         return true;
     }
 
+    protected boolean isJournalEnabled() {
+        return version != null && version.journal.isEnabled();
+    }
+
+    protected void journalAdded(ElementImpl element) {
+        if (version != null) {
+            version.journal.added(element);
+        }
+    }
+
+    protected void journalRemoved(ElementImpl element) {
+        if (version != null) {
+            version.journal.removed(element);
+        }
+    }
+
+    private long[] journalSnapshot(BitVector bitVector) {
+        if (bitVector != null && isJournalEnabled()) {
+            return bitVector.elements().clone();
+        }
+        return null;
+    }
+
+    // Records the elements whose bit differs between the old words and the bit
+    // vector, which is empty if null
+    private void journalChanges(long[] oldWords, BitVector bitVector, boolean nodes) {
+        final long[] newWords = bitVector != null ? bitVector.elements() : null;
+        final int newLength = bitVector != null ? wordCount(bitVector) : 0;
+        final int length = Math.max(oldWords.length, newLength);
+        for (int w = 0; w < length; w++) {
+            long oldWord = w < oldWords.length ? oldWords[w] : 0L;
+            long newWord = w < newLength ? newWords[w] & lastWordMask(bitVector, w) : 0L;
+            long diff = oldWord ^ newWord;
+            while (diff != 0) {
+                long bit = diff & -diff;
+                diff ^= bit;
+
+                int id = (w << 6) + Long.numberOfTrailingZeros(bit);
+                if (!nodes) {
+                    EdgeImpl edge = graphStore.edgeStore.isValidIndex(id) ? graphStore.edgeStore.get(id) : null;
+                    if (edge != null) {
+                        journalEdge(edge, oldWords, bitVector);
+                    }
+                } else if (graphStore.nodeStore.isValidIndex(id)) {
+                    NodeImpl node = graphStore.nodeStore.get(id);
+                    if (node != null) {
+                        if ((newWord & bit) != 0) {
+                            version.journal.added(node);
+                        } else {
+                            version.journal.removed(node);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Records an edge whose bit differs between the old words and the bit vector,
+    // which is empty if null. Null old words mean only this edge's bit changed.
+    // Undirected graphs skip the edge of a mutual pair with the lowest source id
+    // when both are in the view, see GraphViewDecorator, so the reverse edges
+    // the change hides or reveals there are recorded too.
+    private void journalEdge(EdgeImpl edge, long[] oldWords, BitVector bitVector) {
+        final boolean present = isSet(bitVector, edge.storeId);
+        if (edge.isSelfLoop()) {
+            if (present) {
+                version.journal.added(edge);
+            } else {
+                version.journal.removed(edge);
+            }
+            return;
+        }
+
+        final EdgeStore edgeStore = graphStore.edgeStore;
+        boolean ignored = false;
+        if (edge.isMutual() && edge.source.storeId < edge.target.storeId) {
+            int reverseId = edgeStore.get(edge.target, edge.source, edge.type, false).storeId;
+            ignored = present ? isSet(bitVector, reverseId) : wasSet(oldWords, bitVector, edge, reverseId);
+        }
+        if (present) {
+            version.journal.added(edge, ignored);
+        } else {
+            version.journal.removed(edge, ignored);
+        }
+
+        // Reverse edges left in the view are checked against the first edge of
+        // this direction
+        if (edgeStore.get(edge.source, edge.target, edge.type, false) == edge) {
+            for (Iterator<Edge> itr = edgeStore.getAll(edge.target, edge.source, edge.type, false); itr.hasNext();) {
+                EdgeImpl other = (EdgeImpl) itr.next();
+                if (other
+                        .isMutual() && other.source.storeId < other.target.storeId && isSet(bitVector, other.storeId) && wasSet(oldWords, bitVector, edge, other.storeId)) {
+                    version.journal.undirectedChanged(other, !present);
+                }
+            }
+        }
+    }
+
+    private static boolean wasSet(long[] oldWords, BitVector bitVector, EdgeImpl changed, int id) {
+        if (oldWords == null) {
+            return id == changed.storeId ? !isSet(bitVector, id) : isSet(bitVector, id);
+        }
+        return (id >>> 6) < oldWords.length && (oldWords[id >>> 6] & (1L << id)) != 0;
+    }
+
     private int incrementNodeVersion() {
         if (version != null) {
             return version.incrementAndGetNodeVersion();
@@ -890,7 +1445,7 @@ public class GraphViewImpl implements GraphView {
 
     private void checkIncidentNodesExists(final EdgeImpl e) {
         if (nodeView) {
-            if (!nodeBitVector.get(e.source.storeId) || !nodeBitVector.get(e.target.storeId)) {
+            if (!isSet(nodeBitVector, e.source.storeId) || !isSet(nodeBitVector, e.target.storeId)) {
                 throw new RuntimeException("Both source and target nodes need to be in the view");
             }
         }
@@ -919,4 +1474,56 @@ public class GraphViewImpl implements GraphView {
             throw new IllegalArgumentException("Node should belong to a store");
         }
     }
+
+    // In, out and mutual degrees of the nodes, indexed by node store id
+    protected static final class Degrees {
+
+        protected int[] inDegrees;
+        protected int[] outDegrees;
+        protected int[] mutualDegrees;
+
+        protected Degrees(int size) {
+            inDegrees = new int[size];
+            outDegrees = new int[size];
+            mutualDegrees = new int[size];
+        }
+
+        protected int get(int[] array, NodeImpl node) {
+            int id = node.storeId;
+            return id >= 0 && id < array.length ? array[id] : 0;
+        }
+
+        protected void addEdge(EdgeImpl edge) {
+            ensureCapacity(edge);
+            outDegrees[edge.source.storeId]++;
+            inDegrees[edge.target.storeId]++;
+        }
+
+        protected void removeEdge(EdgeImpl edge) {
+            outDegrees[edge.source.storeId]--;
+            inDegrees[edge.target.storeId]--;
+        }
+
+        protected void addMutual(EdgeImpl edge) {
+            ensureCapacity(edge);
+            mutualDegrees[edge.source.storeId]++;
+            mutualDegrees[edge.target.storeId]++;
+        }
+
+        protected void removeMutual(EdgeImpl edge) {
+            mutualDegrees[edge.source.storeId]--;
+            mutualDegrees[edge.target.storeId]--;
+        }
+
+        private void ensureCapacity(EdgeImpl edge) {
+            int sid = Math.max(edge.source.storeId, edge.target.storeId);
+            if (sid >= inDegrees.length) {
+                int newSize = Math.min(Math
+                        .max(sid + 1, (int) (sid * GraphStoreConfiguration.VIEW_GROWING_FACTOR)), Integer.MAX_VALUE);
+                inDegrees = Arrays.copyOf(inDegrees, newSize);
+                outDegrees = Arrays.copyOf(outDegrees, newSize);
+                mutualDegrees = Arrays.copyOf(mutualDegrees, newSize);
+            }
+        }
+    }
 }
@@ -17,6 +17,9 @@ package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Graph;
@@ -37,6 +40,9 @@ public class GraphViewStore {
     protected final GraphStore graphStore;
     protected GraphViewImpl[] views;
     protected int length;
+    // Views with nodes but not edges enabled, and views with edges only
+    protected GraphViewImpl[] nodeOnlyViews;
+    protected GraphViewImpl[] edgeOnlyViews;
     // Visible view
     protected GraphView visibleView;
 
@@ -46,6 +52,8 @@ public class GraphViewStore {
         }
         this.graphStore = graphStore;
         this.views = new GraphViewImpl[DEFAULT_VIEWS];
+        this.nodeOnlyViews = new GraphViewImpl[0];
+        this.edgeOnlyViews = new GraphViewImpl[0];
         this.garbageQueue = new IntRBTreeSet();
         this.visibleView = graphStore.mainGraphView;
     }
@@ -65,6 +73,23 @@ public class GraphViewStore {
         }
     }
 
+    public GraphViewImpl createTimeWindowView(Interval interval) {
+        if (!graphStore.timeStore.nodeIndexStore.hasIndex()) {
+            throw new UnsupportedOperationException("Time index is disabled (from Configuration)");
+        }
+        graphStore.autoWriteLock();
+        try {
+            GraphViewImpl graphView = new GraphViewImpl(graphStore, true, true);
+            graphView.timeWindow = true;
+            addView(graphView);
+            graphView.setTimeInterval(interval);
+            graphView.setTimeWindow(graphView.interval);
+            return graphView;
+        } finally {
+            graphStore.autoWriteUnlock();
+        }
+    }
+
     public GraphViewImpl createView(GraphView view) {
         return createView(view, true, true);
     }
@@ -134,6 +159,9 @@ public class GraphViewStore {
         try {
             GraphViewImpl graphView = (GraphViewImpl) view;
             graphView.setTimeInterval(interval);
+            if (graphView.timeWindow) {
+                graphView.setTimeWindow(graphView.interval);
+            }
         } finally {
             graphStore.autoWriteUnlock();
         }
@@ -224,12 +252,27 @@ public class GraphViewStore {
         graphViewImpl.destroyGraphObserver(graphObserver);
     }
 
+    protected void compact(int[] nodeStoreIdMap, int[] edgeStoreIdMap) {
+        for (GraphViewImpl view : views) {
+            if (view != null) {
+                view.compact(nodeStoreIdMap, edgeStoreIdMap);
+            }
+        }
+    }
+
+    // View bit vectors grow lazily when a bit is set, so additions only notify the
+    // views that react to them
+
     protected void addNode(NodeImpl node) {
-        if (views.length > 0) {
-            for (GraphViewImpl view : views) {
-                if (view != null) {
-                    view.ensureNodeVectorSize(node);
-                }
+        for (GraphViewImpl view : edgeOnlyViews) {
+            view.journalAdded(node);
+        }
+    }
+
+    protected void addNodes(NodeImpl[] nodes, int length) {
+        for (GraphViewImpl view : edgeOnlyViews) {
+            for (int i = 0; i < length; i++) {
+                view.journalAdded(nodes[i]);
             }
         }
     }
@@ -238,46 +281,110 @@ public class GraphViewStore {
         if (views.length > 0) {
             for (GraphViewImpl view : views) {
                 if (view != null) {
-                    view.removeNode(node);
+                    if (!view.nodeView) {
+                        view.journalRemoved(node);
+                    } else if (view.containsNode(node)) {
+                        view.removeNode(node);
+                    }
                 }
             }
         }
     }
 
     protected void addEdge(EdgeImpl edge) {
-        if (views.length > 0) {
-            for (GraphViewImpl view : views) {
-                if (view != null) {
-                    view.ensureEdgeVectorSize(edge);
+        for (GraphViewImpl view : nodeOnlyViews) {
+            view.addEdgeInNodeView(edge);
+        }
+    }
 
-                    if (view.nodeView && !view.edgeView) {
-                        view.addEdgeInNodeView(edge);
-                    }
-                }
+    protected void addEdges(EdgeImpl[] edges, int length) {
+        for (GraphViewImpl view : nodeOnlyViews) {
+            for (int i = 0; i < length; i++) {
+                view.addEdgeInNodeView(edges[i]);
             }
         }
     }
 
-    protected void setEdgeType(EdgeImpl edge, int oldType, boolean wasMutual) {
+    // Called before the edge's type is changed to the given type, returns the
+    // views containing an edge between its nodes, whose mutual pairs may change
+    protected GraphViewImpl[] beforeSetEdgeType(EdgeImpl edge, int type) {
         if (views.length > 0) {
-            for (GraphViewImpl view : views) {
-                if (view != null) {
-                    if ((view.nodeView && !view.edgeView) || (view.edgeView && view.containsEdge(edge))) {
-                        view.setEdgeType(edge, oldType, wasMutual);
-                    }
-                }
+            EdgeImpl[] pairEdges = getPairEdges(edge, edge.type, type);
+            GraphViewImpl[] pairViews = getViews(pairEdges);
+            for (GraphViewImpl view : pairViews) {
+                view.beforeSetEdgeType(type, pairEdges);
+            }
+            return pairViews;
+        }
+        return new GraphViewImpl[0];
+    }
+
+    protected void setEdgeType(EdgeImpl edge, int oldType, GraphViewImpl[] pairViews) {
+        if (pairViews.length > 0) {
+            EdgeImpl[] pairEdges = getPairEdges(edge, oldType, edge.type);
+            for (GraphViewImpl view : pairViews) {
+                view.setEdgeType(edge, oldType, pairEdges);
             }
         }
     }
 
-    protected void removeEdge(EdgeImpl edge) {
+    // Called before the edge is removed from the graph, returns the views
+    // containing an edge between its nodes, whose mutual pairs may change
+    protected GraphViewImpl[] removeEdge(EdgeImpl edge) {
         if (views.length > 0) {
-            for (GraphViewImpl view : views) {
-                if (view != null) {
-                    view.removeEdge(edge);
-                }
+            EdgeImpl[] pairEdges = getPairEdges(edge, edge.type, edge.type);
+            GraphViewImpl[] pairViews = getViews(pairEdges);
+            for (GraphViewImpl view : pairViews) {
+                view.beforeRemoveEdgeFromStore(edge, pairEdges);
+            }
+            return pairViews;
+        }
+        return new GraphViewImpl[0];
+    }
+
+    protected void afterRemoveEdge(EdgeImpl edge, GraphViewImpl[] pairViews) {
+        if (pairViews.length > 0) {
+            EdgeImpl[] pairEdges = getPairEdges(edge, edge.type, edge.type);
+            for (GraphViewImpl view : pairViews) {
+                view.removeEdgeFromStore(edge, pairEdges);
+            }
+        }
+    }
+
+    // Returns the edges of the given types between the edge's nodes, in both
+    // directions
+    private EdgeImpl[] getPairEdges(EdgeImpl edge, int type, int otherType) {
+        List<EdgeImpl> pairEdges = new ArrayList<>();
+        addPairEdges(pairEdges, edge, type);
+        if (otherType != type) {
+            addPairEdges(pairEdges, edge, otherType);
+        }
+        return pairEdges.toArray(new EdgeImpl[0]);
+    }
+
+    private void addPairEdges(List<EdgeImpl> list, EdgeImpl edge, int type) {
+        EdgeStore edgeStore = graphStore.edgeStore;
+        addAll(list, edgeStore.getAll(edge.source, edge.target, type, false));
+        if (edge.source != edge.target) {
+            addAll(list, edgeStore.getAll(edge.target, edge.source, type, false));
+        }
+    }
+
+    private static void addAll(List<EdgeImpl> list, Iterator<Edge> itr) {
+        while (itr.hasNext()) {
+            list.add((EdgeImpl) itr.next());
+        }
+    }
+
+    // Returns the views containing one of the edges
+    private GraphViewImpl[] getViews(EdgeImpl[] edges) {
+        List<GraphViewImpl> list = new ArrayList<>();
+        for (GraphViewImpl view : views) {
+            if (view != null && view.containsAnyEdge(edges)) {
+                list.add(view);
             }
         }
+        return list.toArray(new GraphViewImpl[0]);
     }
 
     protected int addView(final GraphViewImpl view) {
@@ -293,6 +400,7 @@ public class GraphViewStore {
         }
         views[id] = view;
         view.storeId = id;
+        refreshViewKinds();
         return id;
     }
 
@@ -303,6 +411,7 @@ public class GraphViewStore {
         views[id] = null;
         garbageQueue.add(id);
         view.storeId = NULL_VIEW;
+        refreshViewKinds();
 
         view.destroyAllObservers();
 
@@ -312,6 +421,22 @@ public class GraphViewStore {
         }
     }
 
+    protected void refreshViewKinds() {
+        List<GraphViewImpl> nodeOnly = new ArrayList<>();
+        List<GraphViewImpl> edgeOnly = new ArrayList<>();
+        for (GraphViewImpl view : views) {
+            if (view != null) {
+                if (!view.nodeView) {
+                    edgeOnly.add(view);
+                } else if (!view.edgeView) {
+                    nodeOnly.add(view);
+                }
+            }
+        }
+        nodeOnlyViews = nodeOnly.toArray(new GraphViewImpl[0]);
+        edgeOnlyViews = edgeOnly.toArray(new GraphViewImpl[0]);
+    }
+
     private void ensureArraySize(int index) {
         if (index >= views.length) {
             GraphViewImpl[] newArray = new GraphViewImpl[index + 1];
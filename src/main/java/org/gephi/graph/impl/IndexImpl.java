@@ -32,6 +32,8 @@ public class IndexImpl<T extends Element> implements Index<T> {
     protected final Graph graph;
     protected ColumnIndexImpl[] columns;
     protected int columnsCount;
+    // Degree indexes, created on first use
+    protected final DegreeIndexImpl[] degreeIndexes = new DegreeIndexImpl[DegreeIndexImpl.DegreeType.values().length];
 
     public IndexImpl(ColumnStore<T> columnStore) {
         this(columnStore, columnStore.graphStore);
@@ -125,6 +127,50 @@ public class IndexImpl<T extends Element> implements Index<T> {
         return null;
     }
 
+    @Override
+    public Iterable<T> getRange(Column column, Object from, Object to, boolean inclusive) {
+        checkNonNullColumnObject(column);
+
+        ColumnIndexImpl index = getIndex(column);
+        if (index != null) {
+            return index.getRange(from, to, inclusive);
+        }
+        return Collections.EMPTY_LIST;
+    }
+
+    @Override
+    public int countRange(Column column, Object from, Object to, boolean inclusive) {
+        checkNonNullColumnObject(column);
+
+        ColumnIndexImpl index = getIndex(column);
+        if (index != null) {
+            return index.countRange(from, to, inclusive);
+        }
+        return 0;
+    }
+
+    @Override
+    public Iterable<T> topK(Column column, int k, boolean descending) {
+        checkNonNullColumnObject(column);
+
+        ColumnIndexImpl index = getIndex(column);
+        if (index != null) {
+            return index.topK(k, descending);
+        }
+        return Collections.EMPTY_LIST;
+    }
+
+    @Override
+    public Iterable<T> getSorted(Column column, boolean descending) {
+        checkNonNullColumnObject(column);
+
+        ColumnIndexImpl index = getIndex(column);
+        if (index != null) {
+            return index.getSorted(descending);
+        }
+        return Collections.EMPTY_LIST;
+    }
+
     public Iterable<Map.Entry<Object, Set<T>>> get(Column column) {
         checkNonNullColumnObject(column);
 
@@ -204,6 +250,7 @@ public class IndexImpl<T extends Element> implements Index<T> {
                 ai.clear();
             }
         }
+        invalidateDegrees();
     }
 
     protected void addColumn(ColumnImpl col) {
@@ -235,6 +282,10 @@ public class IndexImpl<T extends Element> implements Index<T> {
     }
 
     protected ColumnIndexImpl getIndex(Column col) {
+        MappedSerialization.ColumnLoader loader = col instanceof ColumnImpl ? ((ColumnImpl) col).loader : null;
+        if (loader != null) {
+            loader.load();
+        }
         int id = col.getIndex();
         if (id != ColumnStore.NULL_ID && columns.length > id) {
             ColumnIndexImpl index = columns[id];
@@ -247,11 +298,11 @@ public class IndexImpl<T extends Element> implements Index<T> {
         if (col.isProperty()) {
             DefaultColumnsImpl defaultColumns = columnStore.graphStore.defaultColumns;
             if (col == defaultColumns.degreeColumn) {
-                return new DegreeNoIndexImpl(graph, DegreeNoIndexImpl.DegreeType.DEGREE);
+                return getDegreeIndex(DegreeIndexImpl.DegreeType.DEGREE);
             } else if (col == defaultColumns.inDegreeColumn) {
-                return new DegreeNoIndexImpl(graph, DegreeNoIndexImpl.DegreeType.IN_DEGREE);
+                return getDegreeIndex(DegreeIndexImpl.DegreeType.IN_DEGREE);
             } else if (col == defaultColumns.outDegreeColumn) {
-                return new DegreeNoIndexImpl(graph, DegreeNoIndexImpl.DegreeType.OUT_DEGREE);
+                return getDegreeIndex(DegreeIndexImpl.DegreeType.OUT_DEGREE);
             } else if (col == defaultColumns.typeColumn) {
                 return new EdgeTypeNoIndexImpl(graph);
             }
@@ -271,6 +322,42 @@ public class IndexImpl<T extends Element> implements Index<T> {
         }
         columns = new ColumnIndexImpl[0];
         columnsCount = 0;
+        invalidateDegrees();
+    }
+
+    protected DegreeIndexImpl getDegreeIndex(DegreeIndexImpl.DegreeType degreeType) {
+        synchronized (degreeIndexes) {
+            DegreeIndexImpl index = degreeIndexes[degreeType.ordinal()];
+            if (index == null) {
+                index = new DegreeIndexImpl(graph, degreeType);
+                degreeIndexes[degreeType.ordinal()] = index;
+            }
+            return index;
+        }
+    }
+
+    protected void updateDegree(NodeImpl node) {
+        for (DegreeIndexImpl index : degreeIndexes) {
+            if (index != null) {
+                index.update(node);
+            }
+        }
+    }
+
+    protected void removeDegree(NodeImpl node) {
+        for (DegreeIndexImpl index : degreeIndexes) {
+            if (index != null) {
+                index.remove(node);
+            }
+        }
+    }
+
+    protected void invalidateDegrees() {
+        for (DegreeIndexImpl index : degreeIndexes) {
+            if (index != null) {
+                index.invalidate();
+            }
+        }
     }
 
     protected int size() {
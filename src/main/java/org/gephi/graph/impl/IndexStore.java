@@ -21,7 +21,6 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import org.gephi.graph.api.Column;
-import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
@@ -114,27 +113,39 @@ public class IndexStore<T extends Element> {
         value = mainIndex.set(column, oldValue, value, element);
 
         if (!viewIndexes.isEmpty()) {
-            synchronized (viewIndexes) {
-                for (Entry<GraphView, IndexImpl<T>> entry : viewIndexes.entrySet()) {
-                    GraphViewImpl graphView = (GraphViewImpl) entry.getKey();
-                    DirectedSubgraph graph = graphView.getDirectedGraph();
-                    boolean inView = element instanceof Node ? graph.contains((Node) element)
-                            : graph.contains((Edge) element);
-                    if (inView) {
-                        entry.getValue().set(column, oldValue, value, element);
+            GraphStore graphStore = columnStore.graphStore;
+            graphStore.autoReadLock();
+            try {
+                synchronized (viewIndexes) {
+                    for (Entry<GraphView, IndexImpl<T>> entry : viewIndexes.entrySet()) {
+                        if (isInView((GraphViewImpl) entry.getKey(), element)) {
+                            entry.getValue().set(column, oldValue, value, element);
+                        }
                     }
                 }
+            } finally {
+                graphStore.autoReadUnlock();
             }
         }
 
         return value;
     }
 
+    // Reads the view's bit vectors directly, the graph is read locked once for
+    // all the views
+    private static boolean isInView(GraphViewImpl view, Element element) {
+        return element instanceof NodeImpl ? view.containsNode((NodeImpl) element)
+                : view.containsEdge((EdgeImpl) element);
+    }
+
     public void clear(T element) {
         ElementImpl elementImpl = (ElementImpl) element;
 
         lock();
         try {
+            if (element instanceof NodeImpl) {
+                mainIndex.removeDegree((NodeImpl) element);
+            }
             final int length = columnStore.length;
             final ColumnImpl[] cols = columnStore.columns;
             for (int i = 0; i < length; i++) {
@@ -145,11 +156,7 @@ public class IndexStore<T extends Element> {
                     if (!viewIndexes.isEmpty()) {
                         synchronized (viewIndexes) {
                             for (Entry<GraphView, IndexImpl<T>> entry : viewIndexes.entrySet()) {
-                                GraphViewImpl graphView = (GraphViewImpl) entry.getKey();
-                                DirectedSubgraph graph = graphView.getDirectedGraph();
-                                boolean inView = element instanceof Node ? graph.contains((Node) element)
-                                        : graph.contains((Edge) element);
-                                if (inView) {
+                                if (isInView((GraphViewImpl) entry.getKey(), element)) {
                                     entry.getValue().remove(c, value, element);
                                 }
                             }
@@ -174,7 +181,44 @@ public class IndexStore<T extends Element> {
                 if (c != null && c.isIndexed()) {
                     Object value = elementImpl.getAttribute(c);
                     value = mainIndex.put(c, value, element);
-                    elementImpl.attributes.setAttribute(c, value);
+                    elementImpl.setAttributeValue(c, value);
+                }
+            }
+            if (element instanceof NodeImpl) {
+                mainIndex.updateDegree((NodeImpl) element);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    public void index(ElementImpl[] elements, int length) {
+        lock();
+        try {
+            final int columnsLength = columnStore.length;
+            final ColumnImpl[] cols = columnStore.columns;
+            final ColumnImpl[] indexedColumns = new ColumnImpl[columnsLength];
+            final ColumnIndexImpl[] indexes = new ColumnIndexImpl[columnsLength];
+            int indexedCount = 0;
+            for (int i = 0; i < columnsLength; i++) {
+                ColumnImpl c = cols[i];
+                if (c != null && c.isIndexed()) {
+                    indexedColumns[indexedCount] = c;
+                    indexes[indexedCount++] = mainIndex.getIndex(c);
+                }
+            }
+
+            for (int i = 0; i < length; i++) {
+                ElementImpl element = elements[i];
+                synchronized (element) {
+                    for (int j = 0; j < indexedCount; j++) {
+                        ColumnImpl c = indexedColumns[j];
+                        Object value = indexes[j].putValue(element, element.getAttribute(c));
+                        element.setAttributeValue(c, value);
+                    }
+                }
+                if (element instanceof NodeImpl) {
+                    mainIndex.updateDegree((NodeImpl) element);
                 }
             }
         } finally {
@@ -185,6 +229,7 @@ public class IndexStore<T extends Element> {
     public void indexView(Graph graph) {
         final IndexImpl viewIndex = viewIndexes.get(graph.getView());
         if (viewIndex != null) {
+            viewIndex.invalidateDegrees();
             graph.readLock();
             try {
                 Iterator<T> iterator = null;
@@ -257,6 +302,54 @@ public class IndexStore<T extends Element> {
         }
     }
 
+    // Updates the degree of the node in the main view's degree indexes
+    public void updateDegree(NodeImpl node) {
+        lock();
+        try {
+            mainIndex.updateDegree(node);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Updates the degree of the node in the view's degree indexes
+    public void updateDegree(NodeImpl node, GraphView view) {
+        lock();
+        try {
+            IndexImpl<T> index = viewIndexes.get(view);
+            if (index != null) {
+                index.updateDegree(node);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // Invalidates the degree indexes of all views
+    public void invalidateDegrees() {
+        lock();
+        try {
+            mainIndex.invalidateDegrees();
+            for (IndexImpl<T> index : viewIndexes.values()) {
+                index.invalidateDegrees();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    public void invalidateDegrees(GraphView view) {
+        lock();
+        try {
+            IndexImpl<T> index = viewIndexes.get(view);
+            if (index != null) {
+                index.invalidateDegrees();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
     public void clear(GraphView view) {
         lock();
         try {
@@ -269,6 +362,21 @@ public class IndexStore<T extends Element> {
         }
     }
 
+    // Rebuilds the indexes from the given elements after their store ids changed
+    public void rebuild(ElementImpl[] elements) {
+        lock();
+        try {
+            mainIndex.clear();
+            index(elements, elements.length);
+            for (Entry<GraphView, IndexImpl<T>> entry : viewIndexes.entrySet()) {
+                entry.getValue().clear();
+                indexView(columnStore.graphStore.viewStore.getGraph(entry.getKey()));
+            }
+        } finally {
+            unlock();
+        }
+    }
+
     public void clear() {
         lock();
         try {
@@ -15,41 +15,60 @@
  */
 package org.gephi.graph.impl;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import org.gephi.graph.api.Interval;
 
+/**
+ * Map from intervals to integers with stabbing and overlap queries.
+ * <p>
+ * Intervals are kept in arrays sorted by low and then high bound. The arrays
+ * form an implicit balanced tree, the middle of each range being the root of
+ * the range, and the maximum high bound of each range is stored at its root so
+ * queries skip the ranges ending before the query. New intervals are buffered
+ * in a hash map and merged into the arrays in a single sort once a query finds
+ * the buffer too large, so loading a batch of intervals costs O(n log n).
+ * Removed intervals stay in the arrays until the next merge.
+ */
 public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     // Constant so the min/max returns the lowest/highest non-infinite value
     private static final boolean EXCLUDE_INFINITE = true;
+    // Minimum buffer size before merging
+    private static final int MIN_BUFFER_SIZE = 64;
+    // Order by low and then high bound
+    private static final Comparator<Interval> COMPARATOR = (a, b) -> compare(a.getLow(), a.getHigh(), b.getLow(), b
+            .getHigh());
     //
-    private Node nil; // the sentinel node
-    private Node root; // the root of this interval tree
-    private int size = 0;
+    private volatile SortedIntervals sorted; // the merged intervals
+    private final Object2IntOpenHashMap<Interval> buffer; // the intervals added since the last merge
 
     /**
      * Constructs an empty map.
      */
     public Interval2IntTreeMap() {
-        nil = new Node();
-        nil.left = nil.right = nil.p = nil;
-        root = nil;
+        sorted = new SortedIntervals(0);
+        buffer = new Object2IntOpenHashMap<>();
     }
 
-    private boolean compareLow(Interval a, Interval b) {
-        if (a.getLow() == b.getLow()) {
-            if (a.getHigh() <= b.getHigh()) {
-                return true;
-            }
-        } else if (a.getLow() < b.getLow()) {
-            return true;
+    private static int compare(double low1, double high1, double low2, double high2) {
+        if (low1 != low2) {
+            return low1 < low2 ? -1 : 1;
         }
-        return false;
+        if (high1 != high2) {
+            return high1 < high2 ? -1 : 1;
+        }
+        return 0;
     }
 
     @Override
@@ -61,319 +80,43 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
             throw new NullPointerException("Value cannot be null.");
         }
 
-        Node n = findNode(root.left, interval);
-        if (n != null) {
-            remove(interval);
-            insert(new Node(interval, value));
-            return n.v;
-        }
-
-        insert(new Node(interval, value));
-
-        return null;
-    }
-
-    private void insert(Node z) {
-        z.left = z.right = nil;
-
-        Node y = root;
-        Node x = root.left;
-        while (x != nil) {
-            y = x;
-            if (compareLow(z.i, y.i)) {
-                x = x.left;
-            } else {
-                x = x.right;
-            }
-
-            y.max = Math.max(z.max, y.max);
-            if (y.p == root) {
-                root.max = y.max;
-            }
-        }
-        z.p = y;
-        if (y == root) {
-            root.max = z.max;
-        }
-        if (y == root || compareLow(z.i, y.i)) {
-            y.left = z;
-        } else {
-            y.right = z;
-        }
-        insertFixup(z);
-        size++;
-    }
-
-    private void insertFixup(Node z) {
-        Node y;
-
-        z.color = RED;
-        while (z.p.color == RED) {
-            if (z.p == z.p.p.left) {
-                y = z.p.p.right;
-                if (y.color == RED) {
-                    z.p.color = BLACK;
-                    y.color = BLACK;
-                    z.p.p.color = RED;
-                    z = z.p.p;
-                } else {
-                    if (z == z.p.right) {
-                        z = z.p;
-                        leftRotate(z);
-                    }
-                    z.p.color = BLACK;
-                    z.p.p.color = RED;
-                    rightRotate(z.p.p);
-                }
-            } else {
-                y = z.p.p.left;
-                if (y.color == RED) {
-                    z.p.color = BLACK;
-                    y.color = BLACK;
-                    z.p.p.color = RED;
-                    z = z.p.p;
-                } else {
-                    if (z == z.p.left) {
-                        z = z.p;
-                        rightRotate(z);
-                    }
-                    z.p.color = BLACK;
-                    z.p.p.color = RED;
-                    leftRotate(z.p.p);
-                }
-            }
+        int index = sorted.indexOf(interval);
+        if (index >= 0) {
+            return sorted.replace(index, interval, value);
         }
-        root.left.color = BLACK;
+        int size = buffer.size();
+        int oldValue = buffer.put(interval, value.intValue());
+        return buffer.size() == size ? oldValue : null;
     }
 
     @Override
     public Integer remove(Object interval) {
-        Node n = findNode(root.left, (Interval) interval);
-        if (n != null) {
-            delete(n);
-            return n.v;
+        int index = sorted.indexOf((Interval) interval);
+        if (index >= 0 && sorted.keys[index] != null) {
+            return sorted.remove(index);
+        }
+        if (buffer.containsKey(interval)) {
+            return buffer.removeInt(interval);
         }
         return null;
     }
 
     @Override
     public Integer get(Object interval) {
-        Node n = findNode(root.left, (Interval) interval);
-        return n != null ? n.v : null;
-    }
-
-    @Override
-    public boolean containsKey(Object interval) {
-        return findNode(root.left, (Interval) interval) != null;
-    }
-
-    private Node findNode(Node z, Interval i) {
-        if (z != null) {
-            if (z.i != null && z.i.equals(i)) {
-                return z;
-            } else if (z.i == null) {
-                return null;
-            }
-            boolean cmp = compareLow(i, z.i);
-            if (z.left != null && cmp && i.getHigh() <= z.left.max) {
-                Node r = findNode(z.left, i);
-                if (r != null) {
-                    return r;
-                }
-            }
-            if (z.right != null && !cmp && i.getHigh() <= z.right.max) {
-                Node r = findNode(z.right, i);
-                if (r != null) {
-                    return r;
-                }
-            }
-        }
-        return null;
-    }
-
-    private void delete(Node z) {
-        z.max = Double.NEGATIVE_INFINITY;
-
-        Node y;
-        Node x;
-
-        if (z.left == nil || z.right == nil) {
-            y = z;
-        } else {
-            y = succesor(z);
-        }
-        if (y.left == nil) {
-            x = y.right;
-        } else {
-            x = y.left;
+        int index = sorted.indexOf((Interval) interval);
+        if (index >= 0 && sorted.keys[index] != null) {
+            return sorted.values[index];
         }
-        x.p = y.p;
-        if (root == x.p) {
-            root.left = x;
-        } else if (y == y.p.left) {
-            y.p.left = x;
-        } else {
-            y.p.right = x;
-        }
-        if (y != z) {
-            if (y.color == BLACK) {
-                deleteFixup(x);
-            }
-
-            y.left = z.left;
-            y.right = z.right;
-            y.p = z.p;
-            y.color = z.color;
-            z.left.p = z.right.p = y;
-            if (z == z.p.left) {
-                z.p.left = y;
-            } else {
-                z.p.right = y;
-            }
-        } else if (y.color == BLACK) {
-            deleteFixup(x);
-        }
-
-        computeMax(y);
-        for (Node i = y.p; i != root; i = i.p) {
-            computeMax(i);
-            if (i.p == root) {
-                root.max = i.max;
-            }
-        }
-        size--;
-    }
-
-    private void deleteFixup(Node x) {
-        while (x != root.left && x.color == BLACK) {
-            if (x == x.p.left) {
-                Node w = x.p.right;
-                if (w.color == RED) {
-                    w.color = BLACK;
-                    x.p.color = RED;
-                    leftRotate(x.p);
-                    w = x.p.right;
-                }
-                if (w.left.color == BLACK && w.right.color == BLACK) {
-                    w.color = RED;
-                    x = x.p;
-                } else {
-                    if (w.right.color == BLACK) {
-                        w.left.color = BLACK;
-                        w.color = RED;
-                        rightRotate(w);
-                        w = x.p.right;
-                    }
-                    w.color = x.p.color;
-                    x.p.color = BLACK;
-                    w.right.color = BLACK;
-                    leftRotate(x.p);
-                    x = root.left;
-                }
-            } else {
-                Node w = x.p.left;
-                if (w.color == RED) {
-                    w.color = BLACK;
-                    x.p.color = RED;
-                    rightRotate(x.p);
-                    w = x.p.left;
-                }
-                if (w.right.color == BLACK && w.left.color == BLACK) {
-                    w.color = RED;
-                    x = x.p;
-                } else {
-                    if (w.left.color == BLACK) {
-                        w.right.color = BLACK;
-                        w.color = RED;
-                        leftRotate(w);
-                        w = x.p.left;
-                    }
-                    w.color = x.p.color;
-                    x.p.color = BLACK;
-                    w.left.color = BLACK;
-                    rightRotate(x.p);
-                    x = root.left;
-                }
-            }
-        }
-        x.color = BLACK;
-    }
-
-    private void leftRotate(Node x) {
-        Node y = x.right;
-
-        x.right = y.left;
-        if (y.left != nil) {
-            y.left.p = x;
-        }
-        y.p = x.p;
-        if (x == x.p.left) {
-            x.p.left = y;
-        } else {
-            x.p.right = y;
-        }
-        y.left = x;
-        x.p = y;
-
-        if (y.p == root) {
-            root.max = x.max;
-        }
-        y.max = x.max;
-        computeMax(x);
-    }
-
-    private void rightRotate(Node x) {
-        Node y = x.left;
-
-        x.left = y.right;
-        if (y.right != nil) {
-            y.right.p = x;
-        }
-        y.p = x.p;
-        if (x == x.p.left) {
-            x.p.left = y;
-        } else {
-            x.p.right = y;
-        }
-        y.right = x;
-        x.p = y;
-
-        if (y.p == root) {
-            root.max = x.max;
-        }
-        y.max = x.max;
-        computeMax(x);
-    }
-
-    private void computeMax(Node x) {
-        if (x.left == nil && x.right == nil) {
-            x.max = x.i.getHigh();
-        } else if (x.left == nil) {
-            x.max = Math.max(x.i.getHigh(), x.right.max);
-        } else if (x.right == nil) {
-            x.max = Math.max(x.i.getHigh(), x.left.max);
-        } else {
-            x.max = Math.max(x.i.getHigh(), Math.max(x.left.max, x.right.max));
+        if (buffer.containsKey(interval)) {
+            return buffer.getInt(interval);
         }
+        return null;
     }
 
-    private Node succesor(Node x) {
-        Node y = x.right;
-        if (y != nil) {
-            while (y.left != nil) {
-                y = y.left;
-            }
-            return y;
-        }
-        y = x.p;
-        while (x == y.right) {
-            x = y;
-            y = y.p;
-        }
-        if (y == root) {
-            return nil;
-        }
-        return y;
+    @Override
+    public boolean containsKey(Object interval) {
+        int index = sorted.indexOf((Interval) interval);
+        return (index >= 0 && sorted.keys[index] != null) || buffer.containsKey(interval);
     }
 
     /**
@@ -383,28 +126,33 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
      *         empty.
      */
     public Interval minimum() {
-        if (root.left == nil) {
+        if (isEmpty()) {
             return null;
         }
-
-        return treeMinimum(root.left);
-    }
-
-    private Interval treeMinimum(Node x) {
-        // TODO: Better algorithm
-        while (x.left != nil) {
-            x = x.left;
+        SortedIntervals s = merge();
+        Interval min = s.first();
+        Interval minFinite = null;
+        if (EXCLUDE_INFINITE) {
+            minFinite = s.firstFinite();
+            if (minFinite != null && Double.isInfinite(minFinite.getLow())) {
+                minFinite = null;
+            }
         }
-        if (EXCLUDE_INFINITE && Double.isInfinite(x.i.getLow())) {
-            List<Interval> ints = getIntervals();
-            for (Interval i : ints) {
-                if (!Double.isInfinite(i.getLow())) {
-                    return i;
+        synchronized (this) {
+            for (Interval i : buffer.keySet()) {
+                if (min == null || COMPARATOR.compare(i, min) < 0) {
+                    min = i;
+                }
+                if (EXCLUDE_INFINITE && !Double
+                        .isInfinite(i.getLow()) && (minFinite == null || COMPARATOR.compare(i, minFinite) < 0)) {
+                    minFinite = i;
                 }
             }
-            return ints.get(0);
         }
-        return x.i;
+        if (minFinite != null && Double.isInfinite(min.getLow())) {
+            return minFinite;
+        }
+        return min;
     }
 
     /**
@@ -414,19 +162,22 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
      *         empty.
      */
     public Interval maximum() {
-        if (root.left == nil) {
+        if (isEmpty()) {
             return null;
         }
-        return treeMaximum(root.left).i;
-    }
-
-    private Node treeMaximum(Node x) {
-        if (x.right != nil && x.right.max == x.max) {
-            return treeMaximum(x.right);
-        } else if (x.left != nil && x.left.max == x.max) {
-            return treeMaximum(x.left);
+        SortedIntervals s = merge();
+        Interval max = null;
+        if (s.length > 0 && s.max[s.root()] != Double.NEGATIVE_INFINITY) {
+            max = s.keys[s.indexOfMax()];
         }
-        return x;
+        synchronized (this) {
+            for (Interval i : buffer.keySet()) {
+                if (max == null || i.getHigh() > max.getHigh()) {
+                    max = i;
+                }
+            }
+        }
+        return max;
     }
 
     /**
@@ -456,7 +207,7 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
         if (isEmpty()) {
             return Double.POSITIVE_INFINITY;
         }
-        double max = root.left.max;
+        double max = maximum().getHigh();
         if (Double.isInfinite(max)) {
             // TODO: Better alg
             max = Double.NEGATIVE_INFINITY;
@@ -477,19 +228,19 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     @Override
     public boolean isEmpty() {
-        return root.left == nil;
+        return size() == 0;
     }
 
     @Override
     public int size() {
-        return size;
+        return sorted.length - sorted.removed + buffer.size();
     }
 
     @Override
-    public void clear() {
-        size = 0;
-        root = nil;
-        nil.left = nil.right = nil.p = nil;
+    public synchronized void clear() {
+        sorted = new SortedIntervals(0);
+        buffer.clear();
+        buffer.trim();
     }
 
     /**
@@ -498,9 +249,8 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
      * @return all intervals
      */
     public List<Interval> getIntervals() {
-        List<Interval> list = new ArrayList<>();
-        inorderTreeWalk(root.left, list);
-        return list;
+        SearchResult result = search(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        return new ArrayList<>(Arrays.asList(result.keys).subList(0, result.size));
     }
 
     @Override
@@ -516,7 +266,7 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
      * @return entry set
      */
     public Set<Map.Entry<Interval, Integer>> entrySet(double point) {
-        return new EntryIterable(searchNodes(point));
+        return new EntryIterable(search(point, point));
     }
 
     /**
@@ -531,7 +281,7 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
             throw new NullPointerException("Interval cannot be null.");
         }
 
-        return new EntryIterable(searchNodes(interval));
+        return new EntryIterable(search(interval.getLow(), interval.getHigh()));
     }
 
     @Override
@@ -550,7 +300,7 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
             throw new NullPointerException("Interval cannot be null.");
         }
 
-        return new ValueIterable(searchNodes(interval));
+        return new ValueIterable(search(interval.getLow(), interval.getHigh()));
     }
 
     /**
@@ -560,95 +310,80 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
      * @return values
      */
     public Iterable<Integer> values(double point) {
-        return new ValueIterable(searchNodes(point));
-    }
-
-    private List<Node> searchNodes(Interval interval) {
-        List<Node> result = new ArrayList<>();
-        searchNodes(root.left, interval, result);
-        return result;
+        return new ValueIterable(search(point, point));
     }
 
-    private List<Node> searchNodes(double point) {
-        List<Node> result = new ArrayList<>();
-        searchNodes(root.left, point, result);
-        return result;
-    }
-
-    private void searchNodes(Node n, Interval interval, List<Node> result) {
-        // Don't search nodes that don't exist.
-        if (n == nil) {
-            return;
-        }
-
-        // Skip all nodes that have got their max value below the start of
-        // the given interval.
-        if (interval.getLow() > n.max) {
-            return;
-        }
-
-        // Search left children.
-        if (n.left != nil) {
-            searchNodes(n.left, interval, result);
-        }
-
-        // Check this node.
-        if (n.i.compareTo(interval) == 0) {
-            result.add(n);
-        }
-
-        // Skip all nodes to the right of nodes whose low value is past the end
-        // of the given interval.
-        if (interval.compareTo(n.i) < 0) {
-            return;
-        }
+    // Returns the entries overlapping [low, high], in order
+    private SearchResult search(double low, double high) {
+        SortedIntervals s = merge();
+        SearchResult result = new SearchResult();
+        s.search(0, s.length, low, high, result);
 
-        // Otherwise, search right children.
-        if (n.right != nil) {
-            searchNodes(n.right, interval, result);
+        List<Interval> added = null;
+        synchronized (this) {
+            for (Interval i : buffer.keySet()) {
+                if (i.getLow() <= high && i.getHigh() >= low) {
+                    if (added == null) {
+                        added = new ArrayList<>();
+                    }
+                    added.add(i);
+                }
+            }
+            if (added != null) {
+                added.sort(COMPARATOR);
+                result = result.merge(added, buffer);
+            }
         }
+        return result;
     }
 
-    private void searchNodes(Node n, double point, List<Node> result) {
-        // Don't search nodes that don't exist.
-        if (n == nil) {
-            return;
-        }
-
-        // Skip all nodes that have got their max value below the start of
-        // the given interval.
-        if (point > n.max) {
-            return;
-        }
-
-        // Search left children.
-        if (n.left != nil) {
-            searchNodes(n.left, point, result);
-        }
-
-        // Check this node.
-        if (n.i.compareTo(point) == 0) {
-            result.add(n);
-        }
-
-        // Skip all nodes to the right of nodes whose low value is past the end
-        // of the given interval.
-        if (point < n.i.getLow()) {
-            return;
-        }
-
-        // Otherwise, search right children.
-        if (n.right != nil) {
-            searchNodes(n.right, point, result);
+    // Merges the buffer into the sorted intervals when it gets too large
+    private synchronized SortedIntervals merge() {
+        SortedIntervals s = sorted;
+        int limit = Math.max(MIN_BUFFER_SIZE, (int) Math.sqrt(s.length));
+        if (buffer.size() <= limit && s.removed <= s.length >> 1) {
+            return s;
+        }
+
+        Interval[] added = new Interval[buffer.size()];
+        int[] addedValues = new int[added.length];
+        int n = 0;
+        for (Object2IntMap.Entry<Interval> entry : Object2IntMaps.fastIterable(buffer)) {
+            added[n] = entry.getKey();
+            addedValues[n++] = entry.getIntValue();
+        }
+        it.unimi.dsi.fastutil.Arrays.quickSort(0, n, (a, b) -> COMPARATOR.compare(added[a], added[b]), (a, b) -> {
+            Interval key = added[a];
+            added[a] = added[b];
+            added[b] = key;
+            int value = addedValues[a];
+            addedValues[a] = addedValues[b];
+            addedValues[b] = value;
+        });
+
+        SortedIntervals m = new SortedIntervals(s.length - s.removed + added.length);
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < m.length; k++) {
+            while (i < s.length && s.keys[i] == null) {
+                i++;
+            }
+            if (j == added.length || (i < s.length && compare(s.lows[i], s.highs[i], added[j].getLow(), added[j]
+                    .getHigh()) < 0)) {
+                m.fill(k, s.keys[i], s.values[i]);
+                i++;
+            } else {
+                m.fill(k, added[j], addedValues[j]);
+                j++;
+            }
         }
-    }
+        m.buildMax(0, m.length);
+        m.initFirst();
 
-    private void inorderTreeWalk(Node x, List<Interval> list) {
-        if (x != nil) {
-            inorderTreeWalk(x.left, list);
-            list.add(x.i);
-            inorderTreeWalk(x.right, list);
-        }
+        buffer.clear();
+        buffer.trim();
+        sorted = m;
+        return m;
     }
 
     /**
@@ -669,7 +404,7 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
     public boolean equals(Object obj) {
         if (obj != null && obj.getClass().equals(this.getClass())) {
             Interval2IntTreeMap other = (Interval2IntTreeMap) obj;
-            if (other.size != size) {
+            if (other.size() != size()) {
                 return false;
             }
 
@@ -711,7 +446,9 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     @Override
     public void putAll(Map<? extends Interval, ? extends Integer> m) {
-        throw new UnsupportedOperationException("Not supported.");
+        for (Map.Entry<? extends Interval, ? extends Integer> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
@@ -719,60 +456,255 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
         throw new UnsupportedOperationException("Not supported.");
     }
 
-    private static class Node {
+    private static final class SortedIntervals {
 
-        private final Interval i; // i.low is the key of this node
-        private final int v; // value
-        private double max; // the maximum value of any interval endpoint stored
-        // in the subtree rooted at this node
+        private final Interval[] keys; // the intervals, null once removed
+        private final double[] lows;
+        private final double[] highs;
+        private final int[] values;
+        private final double[] max; // the maximum high bound of the live
+        // intervals in the range rooted at each index
+        private final int length;
+        private int removed;
+        // Index of the first live interval and of the first live interval with a
+        // finite low bound, length if none
+        private int first;
+        private int firstFinite;
 
-        private Color color; // the color of this node
-        private Node left; // the left subtree of this node
-        private Node right; // the right subtree of this node
-        private Node p; // the parent node
+        SortedIntervals(int length) {
+            this.length = length;
+            keys = new Interval[length];
+            lows = new double[length];
+            highs = new double[length];
+            values = new int[length];
+            max = new double[length];
+        }
 
-        public Node() {
-            color = BLACK;
-            i = null;
-            v = 0;
+        // Returns the first live interval, or null
+        private Interval first() {
+            return first < length ? keys[first] : null;
         }
 
-        public Node(Interval key, int value) {
-            color = BLACK;
-            i = key;
-            v = value;
-            max = i.getHigh();
+        // Returns the first live interval with a finite low bound, or null
+        private Interval firstFinite() {
+            return firstFinite < length ? keys[firstFinite] : null;
         }
-    }
 
-    private enum Color {
-        RED, BLACK
+        // Sets the first indexes of a merged array, which has no removed intervals
+        private void initFirst() {
+            first = 0;
+            firstFinite = indexOfFinite();
+        }
+
+        // Returns the index of the first live interval at or after the index.
+        // The first indexes only move back when an interval is added back, so
+        // skipping removed intervals is amortized over their removals
+        private int next(int from) {
+            int i = from;
+            while (i < length && keys[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        // Returns the index of the first interval with a low bound above negative
+        // infinity, removed intervals keep their bounds so the order holds
+        private int indexOfFinite() {
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (lows[mid] == Double.NEGATIVE_INFINITY) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private void fill(int index, Interval key, int value) {
+            keys[index] = key;
+            lows[index] = key.getLow();
+            highs[index] = key.getHigh();
+            values[index] = value;
+        }
+
+        // Replaces the value, or adds back a removed interval
+        private Integer replace(int index, Interval key, int value) {
+            if (keys[index] != null) {
+                int oldValue = values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            keys[index] = key;
+            values[index] = value;
+            removed--;
+            updateMax(0, length, index);
+            if (index < first) {
+                first = index;
+            }
+            if (index < firstFinite && lows[index] != Double.NEGATIVE_INFINITY) {
+                firstFinite = index;
+            }
+            return null;
+        }
+
+        private int remove(int index) {
+            keys[index] = null;
+            removed++;
+            updateMax(0, length, index);
+            if (index == first) {
+                first = next(index + 1);
+            }
+            if (index == firstFinite) {
+                firstFinite = next(index + 1);
+            }
+            return values[index];
+        }
+
+        private int indexOf(Interval interval) {
+            double low = interval.getLow();
+            double high = interval.getHigh();
+            int lo = 0;
+            int hi = length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = compare(lows[mid], highs[mid], low, high);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int root() {
+            return length >>> 1;
+        }
+
+        private double high(int index) {
+            return keys[index] != null ? highs[index] : Double.NEGATIVE_INFINITY;
+        }
+
+        private double max(int lo, int hi) {
+            return lo < hi ? max[(lo + hi) >>> 1] : Double.NEGATIVE_INFINITY;
+        }
+
+        private double buildMax(int lo, int hi) {
+            if (lo >= hi) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            int mid = (lo + hi) >>> 1;
+            double m = Math.max(high(mid), Math.max(buildMax(lo, mid), buildMax(mid + 1, hi)));
+            max[mid] = m;
+            return m;
+        }
+
+        private double updateMax(int lo, int hi, int index) {
+            int mid = (lo + hi) >>> 1;
+            double left = index < mid ? updateMax(lo, mid, index) : max(lo, mid);
+            double right = index > mid ? updateMax(mid + 1, hi, index) : max(mid + 1, hi);
+            double m = Math.max(high(mid), Math.max(left, right));
+            max[mid] = m;
+            return m;
+        }
+
+        // Returns the index of a live interval with the highest high bound
+        private int indexOfMax() {
+            double m = max[root()];
+            int lo = 0;
+            int hi = length;
+            while (true) {
+                int mid = (lo + hi) >>> 1;
+                if (max(lo, mid) == m) {
+                    hi = mid;
+                } else if (high(mid) == m) {
+                    return mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+        }
+
+        private void search(int lo, int hi, double low, double high, SearchResult result) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                // Skip ranges ending before the query
+                if (max[mid] < low) {
+                    return;
+                }
+                search(lo, mid, low, high, result);
+                // Intervals on the right start after this one
+                if (lows[mid] > high) {
+                    return;
+                }
+                if (keys[mid] != null && highs[mid] >= low) {
+                    result.add(keys[mid], values[mid]);
+                }
+                lo = mid + 1;
+            }
+        }
     }
 
-    private static final Color RED = Color.RED;
-    private static final Color BLACK = Color.BLACK;
+    private static final class SearchResult {
+
+        private Interval[] keys = new Interval[8];
+        private int[] values = new int[8];
+        private int size;
+
+        private void add(Interval key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        // Returns a result with the sorted buffered intervals merged in
+        private SearchResult merge(List<Interval> added, Object2IntOpenHashMap<Interval> buffer) {
+            SearchResult result = new SearchResult();
+            int i = 0;
+            int j = 0;
+            while (i < size || j < added.size()) {
+                if (j == added.size() || (i < size && COMPARATOR.compare(keys[i], added.get(j)) < 0)) {
+                    result.add(keys[i], values[i]);
+                    i++;
+                } else {
+                    Interval key = added.get(j++);
+                    result.add(key, buffer.getInt(key));
+                }
+            }
+            return result;
+        }
+    }
 
     private static class EntryIterable implements Set<Map.Entry<Interval, Integer>> {
 
-        public final List<Node> nodes;
+        public final SearchResult result;
 
-        public EntryIterable(List<Node> nodes) {
-            this.nodes = nodes;
+        public EntryIterable(SearchResult result) {
+            this.result = result;
         }
 
         @Override
         public Iterator<Map.Entry<Interval, Integer>> iterator() {
-            return new EntryIterator(nodes.iterator());
+            return new EntryIterator(result);
         }
 
         @Override
         public int size() {
-            return nodes.size();
+            return result.size;
         }
 
         @Override
         public boolean isEmpty() {
-            return nodes.isEmpty();
+            return result.size == 0;
         }
 
         @Override
@@ -828,22 +760,26 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     private static class EntryIterator implements Iterator<Map.Entry<Interval, Integer>> {
 
-        private final Iterator<Node> nodes;
+        private final SearchResult result;
         private final Entry entry = new Entry();
+        private int index;
 
-        public EntryIterator(Iterator<Node> nodes) {
-            this.nodes = nodes;
+        public EntryIterator(SearchResult result) {
+            this.result = result;
         }
 
         @Override
         public boolean hasNext() {
-            return nodes.hasNext();
+            return index < result.size;
         }
 
         @Override
         public Map.Entry<Interval, Integer> next() {
-            Node n = nodes.next();
-            entry.set(n.i, n.v);
+            if (index >= result.size) {
+                throw new NoSuchElementException();
+            }
+            entry.set(result.keys[index], result.values[index]);
+            index++;
             return entry;
         }
 
@@ -910,25 +846,25 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     private static class ValueIterable implements Collection<Integer> {
 
-        public final List<Node> nodes;
+        public final SearchResult result;
 
-        public ValueIterable(List<Node> nodes) {
-            this.nodes = nodes;
+        public ValueIterable(SearchResult result) {
+            this.result = result;
         }
 
         @Override
         public Iterator<Integer> iterator() {
-            return new ValueIterator(nodes.iterator());
+            return new ValueIterator(result);
         }
 
         @Override
         public int size() {
-            return nodes.size();
+            return result.size;
         }
 
         @Override
         public boolean isEmpty() {
-            return nodes.isEmpty();
+            return result.size == 0;
         }
 
         @Override
@@ -984,21 +920,24 @@ public final class Interval2IntTreeMap implements Map<Interval, Integer> {
 
     private static class ValueIterator implements Iterator<Integer> {
 
-        private final Iterator<Node> nodes;
+        private final SearchResult result;
+        private int index;
 
-        public ValueIterator(Iterator<Node> nodes) {
-            this.nodes = nodes;
+        public ValueIterator(SearchResult result) {
+            this.result = result;
         }
 
         @Override
         public boolean hasNext() {
-            return nodes.hasNext();
+            return index < result.size;
         }
 
         @Override
         public Integer next() {
-            Node n = nodes.next();
-            return n.v;
+            if (index >= result.size) {
+                throw new NoSuchElementException();
+            }
+            return result.values[index++];
         }
 
     }
@@ -15,8 +15,8 @@
  */
 package org.gephi.graph.impl;
 
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
-import it.unimi.dsi.fastutil.objects.ObjectSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.ElementIterable;
@@ -101,22 +101,12 @@ public class IntervalIndexImpl<T extends Element> extends TimeIndexImpl<T, Inter
 
         lock();
         try {
-            ObjectSet<Element> elements = new ObjectOpenHashSet<>();
+            List<TimeIndexEntry> entries = new ArrayList<>();
             Interval2IntTreeMap sortedMap = (Interval2IntTreeMap) timestampIndexStore.timeSortedMap;
             if (!sortedMap.isEmpty()) {
-                for (Integer index : sortedMap.values(timestamp)) {
-                    if (index < timestamps.length) {
-                        TimeIndexEntry ts = timestamps[index];
-                        if (ts != null) {
-                            elements.addAll(ts.elementSet);
-                        }
-                    }
-                }
+                addEntries(sortedMap.values(timestamp), entries);
             }
-            if (!elements.isEmpty()) {
-                return new ElementSetWrapperIterable(elements);
-            }
-            return ElementIterable.EMPTY;
+            return get(entries);
         } finally {
             unlock();
         }
@@ -127,24 +117,30 @@ public class IntervalIndexImpl<T extends Element> extends TimeIndexImpl<T, Inter
 
         lock();
         try {
-            ObjectSet<Element> elements = new ObjectOpenHashSet<>();
-            Interval2IntTreeMap sortedMap = (Interval2IntTreeMap) timestampIndexStore.timeSortedMap;
-            if (!sortedMap.isEmpty()) {
-                for (Integer index : sortedMap.values(interval)) {
-                    if (index < timestamps.length) {
-                        TimeIndexEntry ts = timestamps[index];
-                        if (ts != null) {
-                            elements.addAll(ts.elementSet);
-                        }
-                    }
-                }
-            }
-            if (!elements.isEmpty()) {
-                return new ElementSetWrapperIterable(elements);
-            }
-            return ElementIterable.EMPTY;
+            List<TimeIndexEntry> entries = new ArrayList<>();
+            addEntries(interval, entries);
+            return get(entries);
         } finally {
             unlock();
         }
     }
+
+    @Override
+    protected void addEntries(Interval interval, List<TimeIndexEntry> entries) {
+        Interval2IntTreeMap sortedMap = (Interval2IntTreeMap) timestampIndexStore.timeSortedMap;
+        if (!sortedMap.isEmpty()) {
+            addEntries(sortedMap.values(interval), entries);
+        }
+    }
+
+    private void addEntries(Iterable<Integer> indexes, List<TimeIndexEntry> entries) {
+        for (Integer index : indexes) {
+            if (index < timestamps.length) {
+                TimeIndexEntry ts = timestamps[index];
+                if (ts != null) {
+                    entries.add(ts);
+                }
+            }
+        }
+    }
 }
@@ -23,7 +23,11 @@ import org.gephi.graph.api.types.IntervalSet;
 public class IntervalIndexStore<T extends Element> extends TimeIndexStore<T, Interval, IntervalSet, IntervalMap<?>> {
 
     public IntervalIndexStore(Class<T> type, TableLockImpl lock, boolean indexed) {
-        super(type, lock, indexed, new Interval2IntTreeMap());
+        this(null, type, lock, indexed);
+    }
+
+    public IntervalIndexStore(GraphStore graphStore, Class<T> type, TableLockImpl lock, boolean indexed) {
+        super(graphStore, type, lock, indexed, new Interval2IntTreeMap());
         mainIndex = indexed ? new IntervalIndexImpl(this, true) : null;
     }
 
@@ -39,6 +43,11 @@ public class IntervalIndexStore<T extends Element> extends TimeIndexStore<T, Int
         }
     }
 
+    @Override
+    protected boolean overlaps(Interval k, Interval interval) {
+        return k.compareTo(interval) == 0;
+    }
+
     @Override
     protected TimeIndexImpl createIndex(boolean main) {
         return new IntervalIndexImpl(this, main);
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import cern.colt.bitvector.BitVector;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.gephi.graph.impl.EdgeImpl.EdgePropertiesImpl;
+import org.gephi.graph.impl.NodeImpl.NodePropertiesImpl;
+import org.gephi.graph.impl.utils.MappedDataInput;
+
+/**
+ * Sectioned binary graph format, read through memory-mapped regions of the
+ * file.
+ * <p>
+ * The file starts with a header holding the offset of a section table written
+ * at the end. Each section (meta data, nodes, edges, edge data, one section per
+ * attribute column and views) is mapped independently. Nodes and edges are
+ * loaded when the file is read, with their property columns, so the topology is
+ * usable immediately. Dynamic columns are also loaded then, as their timestamps
+ * or intervals belong in the time index. Other attribute columns are
+ * materialized on first access to the column.
+ * <p>
+ * Store ids are renumbered in file order, which also removes the holes left by
+ * removed elements.
+ */
+public class MappedSerialization {
+
+    // Header
+    protected static final int MAGIC = 0x47534D46;
+    protected static final int FORMAT_VERSION = 1;
+    protected static final int HEADER_SIZE = 16;
+    // Section kinds
+    protected static final int META = 1;
+    protected static final int NODES = 2;
+    protected static final int EDGES = 3;
+    protected static final int EDGE_DATA = 4;
+    protected static final int NODE_COLUMN = 5;
+    protected static final int EDGE_COLUMN = 6;
+    protected static final int VIEWS = 7;
+    // Section table entry: kind, key, offset and length
+    protected static final int SECTION_ENTRY_SIZE = 24;
+    // Maximum size of a mapped region
+    protected static final int MAX_REGION_SIZE = 1 << 30;
+    // Size of an edge record
+    protected static final int EDGE_RECORD_SIZE = 13;
+
+    private final Serialization serialization;
+
+    public MappedSerialization() {
+        this.serialization = new Serialization();
+    }
+
+    public void write(Path path, GraphModelImpl model) throws IOException {
+        serialization.model = model;
+        GraphStore store = model.store;
+
+        try (FileChannel channel = FileChannel
+                .open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(HEADER_SIZE), 0);
+            channel.position(HEADER_SIZE);
+            SectionWriter writer = new SectionWriter(channel);
+
+            store.autoReadLock();
+            try {
+                NodeImpl[] nodes = store.nodeStore.toArray();
+                EdgeImpl[] edges = store.edgeStore.toArray();
+
+                // Meta
+                serialization.serialize(writer.out, Serialization.VERSION);
+                serialization.serialize(writer.out, model.configuration);
+                serialization.serializeGraphStoreHeader(writer.out, store);
+                writer.endSection(META, 0);
+
+                // Nodes
+                ColumnImpl[] nodeProperties = propertyColumns(store.nodeTable.store);
+                serialization.serialize(writer.out, nodes.length);
+                for (NodeImpl node : nodes) {
+                    serialization.serialize(writer.out, node.getId());
+                    for (ColumnImpl column : nodeProperties) {
+                        serialization.serialize(writer.out, node.getAttribute(column));
+                    }
+                    serialization.serialize(writer.out, node.properties);
+                }
+                writer.endSection(NODES, 0);
+
+                // Edges, as fixed-size records of source and target positions
+                int[] nodePositions = positions(nodes, store.nodeStore.maxStoreId());
+                writer.out.writeInt(edges.length);
+                for (EdgeImpl edge : edges) {
+                    writer.out.writeInt(nodePositions[edge.source.storeId]);
+                    writer.out.writeInt(nodePositions[edge.target.storeId]);
+                    writer.out.writeInt(edge.type);
+                    writer.out.writeBoolean(edge.isDirected());
+                }
+                writer.endSection(EDGES, 0);
+
+                ColumnImpl[] edgeProperties = propertyColumns(store.edgeTable.store);
+                for (EdgeImpl edge : edges) {
+                    serialization.serialize(writer.out, edge.getId());
+                    for (ColumnImpl column : edgeProperties) {
+                        serialization.serialize(writer.out, edge.getAttribute(column));
+                    }
+                    serialization.serialize(writer.out, edge.properties);
+                }
+                writer.endSection(EDGE_DATA, 0);
+
+                // Columns
+                writeColumns(writer, store.nodeTable.store, nodes, NODE_COLUMN);
+                writeColumns(writer, store.edgeTable.store, edges, EDGE_COLUMN);
+
+                // Views
+                int[] edgePositions = positions(edges, store.edgeStore.maxStoreId());
+                GraphViewStore viewStore = store.viewStore;
+                serialization.serialize(writer.out, viewStore.length);
+                for (int i = 0; i < viewStore.length; i++) {
+                    GraphViewImpl view = viewStore.views[i];
+                    serialization.serialize(writer.out, view != null);
+                    if (view != null) {
+                        serialization
+                                .serializeGraphView(writer.out, view, remap(view.nodeBitVector, nodePositions), remap(view.edgeBitVector, edgePositions));
+                    }
+                }
+                serialization.serialize(writer.out, viewStore.garbageQueue.toIntArray());
+                writer.endSection(VIEWS, 0);
+            } finally {
+                store.autoReadUnlock();
+            }
+
+            long tableOffset = writer.writeTable();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(tableOffset).flip();
+            channel.write(header, 0);
+        }
+    }
+
+    public GraphModelImpl read(Path path) throws IOException, ClassNotFoundException {
+        Long2ObjectOpenHashMap<ByteBuffer[]> sections = new Long2ObjectOpenHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a mapped graph file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported mapped graph file version: " + version);
+            }
+            long tableOffset = header.getLong();
+
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, channel.size() - tableOffset);
+            int count = table.getInt();
+            for (int i = 0; i < count; i++) {
+                int kind = table.getInt();
+                int key = table.getInt();
+                long offset = table.getLong();
+                long length = table.getLong();
+                sections.put(sectionKey(kind, key), map(channel, offset, length));
+            }
+        }
+
+        // Meta
+        MappedDataInput meta = new MappedDataInput(section(sections, META, 0));
+        serialization.readVersion = (Float) serialization.deserialize(meta);
+        ConfigurationImpl config = (ConfigurationImpl) serialization.deserialize(meta);
+        GraphModelImpl model = new GraphModelImpl(config.toConfiguration());
+        serialization.model = model;
+        serialization.deserializeGraphStoreHeader(meta);
+        GraphStore store = model.store;
+
+        // Nodes
+        MappedDataInput nodeInput = new MappedDataInput(section(sections, NODES, 0));
+        ColumnImpl[] nodeProperties = propertyColumns(store.nodeTable.store);
+        NodeImpl[] nodes = new NodeImpl[(Integer) serialization.deserialize(nodeInput)];
+        for (int i = 0; i < nodes.length; i++) {
+            NodeImpl node = (NodeImpl) store.factory.newNode(serialization.deserialize(nodeInput));
+            for (ColumnImpl column : nodeProperties) {
+                node.attributes.setAttribute(column, serialization.deserialize(nodeInput));
+            }
+            NodePropertiesImpl properties = (NodePropertiesImpl) serialization.deserialize(nodeInput);
+            if (node.properties != null) {
+                node.setNodeProperties(properties);
+            }
+            nodes[i] = node;
+        }
+        store.nodeStore.bulkAdd(nodes);
+
+        // Edges
+        ByteBuffer[] edgeRegions = section(sections, EDGES, 0);
+        MappedDataInput edgeRecords = new MappedDataInput(edgeRegions);
+        MappedDataInput edgeInput = new MappedDataInput(section(sections, EDGE_DATA, 0));
+        ColumnImpl[] edgeProperties = propertyColumns(store.edgeTable.store);
+        EdgeImpl[] edges = new EdgeImpl[edgeRecords.readInt()];
+        for (int i = 0; i < edges.length; i++) {
+            NodeImpl source = nodes[edgeRecords.readInt()];
+            NodeImpl target = nodes[edgeRecords.readInt()];
+            int type = edgeRecords.readInt();
+            boolean directed = edgeRecords.readBoolean();
+
+            EdgeImpl edge = (EdgeImpl) store.factory.newEdge(serialization
+                    .deserialize(edgeInput), source, target, type, GraphStoreConfiguration.DEFAULT_EDGE_WEIGHT, directed);
+            for (ColumnImpl column : edgeProperties) {
+                edge.attributes.setAttribute(column, serialization.deserialize(edgeInput));
+            }
+            EdgePropertiesImpl properties = (EdgePropertiesImpl) serialization.deserialize(edgeInput);
+            if (edge.properties != null) {
+                edge.setEdgeProperties(properties);
+            }
+            edges[i] = edge;
+        }
+        store.edgeStore.bulkAdd(edges);
+
+        // Columns, loaded on first access except dynamic ones
+        attachColumns(sections, store.nodeTable.store, nodes, NODE_COLUMN);
+        attachColumns(sections, store.edgeTable.store, edges, EDGE_COLUMN);
+
+        // Views
+        MappedDataInput viewInput = new MappedDataInput(section(sections, VIEWS, 0));
+        GraphViewStore viewStore = store.viewStore;
+        int length = (Integer) serialization.deserialize(viewInput);
+        viewStore.views = new GraphViewImpl[length];
+        for (int i = 0; i < length; i++) {
+            if ((Boolean) serialization.deserialize(viewInput)) {
+                viewStore.views[i] = serialization.deserializeGraphView(viewInput);
+            }
+        }
+        viewStore.length = length;
+        for (int garbage : (int[]) serialization.deserialize(viewInput)) {
+            viewStore.garbageQueue.add(garbage);
+        }
+        viewStore.refreshViewKinds();
+
+        return model;
+    }
+
+    private void writeColumns(SectionWriter writer, ColumnStore columnStore, ElementImpl[] elements, int kind) throws IOException {
+        for (int i = 0; i < columnStore.length; i++) {
+            ColumnImpl column = columnStore.columns[i];
+            if (column != null && !column.isProperty()) {
+                for (ElementImpl element : elements) {
+                    serialization.serialize(writer.out, element.getAttribute(column));
+                }
+                writer.endSection(kind, i);
+            }
+        }
+    }
+
+    private void attachColumns(Long2ObjectOpenHashMap<ByteBuffer[]> sections, ColumnStore columnStore, ElementImpl[] elements, int kind) {
+        for (int i = 0; i < columnStore.length; i++) {
+            ColumnImpl column = columnStore.columns[i];
+            ByteBuffer[] regions = sections.get(sectionKey(kind, i));
+            if (column != null && regions != null) {
+                ColumnLoader loader = new ColumnLoader(serialization, column, elements, regions);
+                column.loader = loader;
+                if (column.isDynamic()) {
+                    loader.load();
+                } else {
+                    columnStore.pendingColumns = true;
+                }
+            }
+        }
+    }
+
+    // Property columns, except the id
+    private static ColumnImpl[] propertyColumns(ColumnStore columnStore) {
+        ColumnImpl[] columns = new ColumnImpl[columnStore.length];
+        int count = 0;
+        for (int i = 0; i < columnStore.length; i++) {
+            ColumnImpl column = columnStore.columns[i];
+            if (column != null && column.isProperty() && i != GraphStoreConfiguration.ELEMENT_ID_INDEX) {
+                columns[count++] = column;
+            }
+        }
+        return Arrays.copyOf(columns, count);
+    }
+
+    // File position of each element, indexed by store id
+    private static int[] positions(ElementImpl[] elements, int maxStoreId) {
+        int[] positions = new int[maxStoreId];
+        for (int i = 0; i < elements.length; i++) {
+            positions[elements[i].getStoreId()] = i;
+        }
+        return positions;
+    }
+
+    private static BitVector remap(BitVector bitVector, int[] positions) {
+        BitVector remapped = new BitVector(bitVector.size());
+        for (int i = 0; i < positions.length && i < bitVector.size(); i++) {
+            if (bitVector.getQuick(i)) {
+                remapped.putQuick(positions[i], true);
+            }
+        }
+        return remapped;
+    }
+
+    private static ByteBuffer[] map(FileChannel channel, long offset, long length) throws IOException {
+        int count = (int) ((length + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE);
+        ByteBuffer[] regions = new ByteBuffer[Math.max(count, 1)];
+        for (int i = 0; i < regions.length; i++) {
+            long start = (long) i * MAX_REGION_SIZE;
+            long size = Math.min(MAX_REGION_SIZE, length - start);
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.max(size, 0));
+        }
+        return regions;
+    }
+
+    private static ByteBuffer[] section(Long2ObjectOpenHashMap<ByteBuffer[]> sections, int kind, int key) throws IOException {
+        ByteBuffer[] regions = sections.get(sectionKey(kind, key));
+        if (regions == null) {
+            throw new IOException("Missing section " + kind);
+        }
+        return regions;
+    }
+
+    private static long sectionKey(int kind, int key) {
+        return ((long) kind << 32) | (key & 0xFFFFFFFFL);
+    }
+
+    // Writes sections sequentially and records their offsets
+    private static final class SectionWriter {
+
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final DataOutputStream table;
+        private final ByteArrayOutputStream tableBytes;
+        private int count;
+        private long offset;
+
+        private SectionWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            this.tableBytes = new ByteArrayOutputStream();
+            this.table = new DataOutputStream(tableBytes);
+            this.offset = channel.position();
+        }
+
+        private void endSection(int kind, int key) throws IOException {
+            out.flush();
+            long end = channel.position();
+            table.writeInt(kind);
+            table.writeInt(key);
+            table.writeLong(offset);
+            table.writeLong(end - offset);
+            count++;
+            offset = end;
+        }
+
+        private long writeTable() throws IOException {
+            out.writeInt(count);
+            table.flush();
+            tableBytes.writeTo(out);
+            out.flush();
+            return offset;
+        }
+    }
+
+    /**
+     * Reads the values of a column from its mapped section, the first time the
+     * column is accessed.
+     */
+    protected static final class ColumnLoader {
+
+        private final Serialization serialization;
+        private final ColumnImpl column;
+        private final ElementImpl[] elements;
+        private final ByteBuffer[] regions;
+        private boolean loading;
+
+        protected ColumnLoader(Serialization serialization, ColumnImpl column, ElementImpl[] elements, ByteBuffer[] regions) {
+            this.serialization = serialization;
+            this.column = column;
+            this.elements = elements;
+            this.regions = regions;
+        }
+
+        protected synchronized void load() {
+            if (loading || column.loader != this) {
+                return;
+            }
+            loading = true;
+            try {
+                MappedDataInput input = new MappedDataInput(regions);
+                for (ElementImpl element : elements) {
+                    Object value;
+                    synchronized (serialization) {
+                        value = serialization.deserialize(input);
+                    }
+                    element.loadAttributeValue(column, value);
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            } finally {
+                column.loader = null;
+                loading = false;
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package org.gephi.graph.impl;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Supplier;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.NodeIterable;
 
@@ -29,6 +31,10 @@ public class NodeIterableWrapper extends ElementIterableWrapper<Node> implements
         super(iterator, lock);
     }
 
+    public NodeIterableWrapper(Iterator<Node> iterator, GraphLockImpl lock, Supplier<? extends Spliterator<Node>> spliterator) {
+        super(iterator, lock, spliterator);
+    }
+
     @Override
     public Node[] toArray() {
         return toArray(new Node[0]);
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.util.BitSet;
+import org.gephi.graph.api.StoreOrder;
+
+/**
+ * Computes the node orders used to renumber the store ids.
+ * <p>
+ * Orders are computed on store ids and returned as arrays of all the nodes, in
+ * the new order. Neighbors are followed in both directions and across all edge
+ * types.
+ *
+ * @see StoreOrder
+ */
+public final class NodeOrders {
+
+    // Label propagation rounds for the community order
+    protected static final int LABEL_PROPAGATION_ROUNDS = 5;
+
+    private NodeOrders() {
+        // Only static methods
+    }
+
+    protected static NodeImpl[] order(GraphStore graphStore, StoreOrder order) {
+        NodeImpl[] nodes = graphStore.nodeStore.toStoreIdArray();
+        EdgeStore edgeStore = graphStore.edgeStore;
+        int[] storeIds;
+        switch (order) {
+            case BFS:
+                storeIds = bfs(nodes, edgeStore);
+                break;
+            case DEGREE:
+                storeIds = degree(nodes, edgeStore);
+                break;
+            case COMMUNITY:
+                storeIds = community(nodes, edgeStore);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown order " + order);
+        }
+        NodeImpl[] res = new NodeImpl[storeIds.length];
+        for (int i = 0; i < storeIds.length; i++) {
+            res[i] = nodes[storeIds[i]];
+        }
+        return res;
+    }
+
+    // Returns the node store ids in breadth-first order, components are started
+    // from their lowest store id
+    protected static int[] bfs(NodeImpl[] nodes, EdgeStore edgeStore) {
+        int[] queue = new int[count(nodes)];
+        BitSet visited = new BitSet(nodes.length);
+        IntArrayList neighbors = new IntArrayList();
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] != null && !visited.get(i)) {
+                visited.set(i);
+                queue[tail++] = i;
+                while (head < tail) {
+                    neighbors(edgeStore, nodes[queue[head++]], neighbors);
+                    for (int k = 0; k < neighbors.size(); k++) {
+                        int neighbor = neighbors.getInt(k);
+                        if (!visited.get(neighbor)) {
+                            visited.set(neighbor);
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        return queue;
+    }
+
+    // Returns the node store ids sorted by decreasing degree
+    protected static int[] degree(NodeImpl[] nodes, EdgeStore edgeStore) {
+        final int[] degrees = new int[nodes.length];
+        for (EdgeImpl edge : edgeStore.toArray()) {
+            degrees[edge.source.storeId]++;
+            degrees[edge.target.storeId]++;
+        }
+        int[] storeIds = storeIds(nodes);
+        IntArrays.mergeSort(storeIds, (a, b) -> Integer.compare(degrees[b], degrees[a]));
+        return storeIds;
+    }
+
+    // Returns the node store ids grouped by community, in breadth-first order
+    // within and across communities
+    protected static int[] community(NodeImpl[] nodes, EdgeStore edgeStore) {
+        int[] bfs = bfs(nodes, edgeStore);
+        int[] labels = new int[nodes.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = i;
+        }
+
+        Int2IntOpenHashMap counts = new Int2IntOpenHashMap();
+        IntArrayList neighbors = new IntArrayList();
+        for (int round = 0; round < LABEL_PROPAGATION_ROUNDS; round++) {
+            boolean changed = false;
+            for (int storeId : bfs) {
+                neighbors(edgeStore, nodes[storeId], neighbors);
+                counts.clear();
+                int label = labels[storeId];
+                int max = 0;
+                for (int k = 0; k < neighbors.size(); k++) {
+                    int neighborLabel = labels[neighbors.getInt(k)];
+                    int count = counts.addTo(neighborLabel, 1) + 1;
+                    if (count > max || (count == max && neighborLabel < label)) {
+                        max = count;
+                        label = neighborLabel;
+                    }
+                }
+                if (label != labels[storeId]) {
+                    labels[storeId] = label;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+        }
+
+        // Communities are ranked by the first appearance of their label
+        final int[] ranks = new int[nodes.length];
+        int rank = 0;
+        for (int storeId : bfs) {
+            int label = labels[storeId];
+            if (ranks[label] == 0) {
+                ranks[label] = ++rank;
+            }
+        }
+        final int[] nodeRanks = new int[nodes.length];
+        for (int storeId : bfs) {
+            nodeRanks[storeId] = ranks[labels[storeId]];
+        }
+        IntArrays.mergeSort(bfs, (a, b) -> Integer.compare(nodeRanks[a], nodeRanks[b]));
+        return bfs;
+    }
+
+    // Fills the store ids of the node's successors then predecessors, over all
+    // types
+    private static void neighbors(EdgeStore edgeStore, NodeImpl node, IntArrayList neighbors) {
+        neighbors.clear();
+        for (EdgeImpl head : node.headOut) {
+            for (EdgeImpl edge = head; edge != null; edge = next(edgeStore, edge.nextOutEdge)) {
+                neighbors.add(edge.target.storeId);
+            }
+        }
+        for (EdgeImpl head : node.headIn) {
+            for (EdgeImpl edge = head; edge != null; edge = next(edgeStore, edge.nextInEdge)) {
+                neighbors.add(edge.source.storeId);
+            }
+        }
+    }
+
+    private static EdgeImpl next(EdgeStore edgeStore, int storeId) {
+        return storeId != EdgeStore.NULL_ID ? edgeStore.get(storeId) : null;
+    }
+
+    private static int count(NodeImpl[] nodes) {
+        int count = 0;
+        for (NodeImpl node : nodes) {
+            if (node != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] storeIds(NodeImpl[] nodes) {
+        int[] storeIds = new int[count(nodes)];
+        int index = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] != null) {
+                storeIds[index++] = i;
+            }
+        }
+        return storeIds;
+    }
+}
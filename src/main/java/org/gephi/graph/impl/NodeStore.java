@@ -16,15 +16,21 @@
 
 package org.gephi.graph.impl;
 
+import cern.colt.bitvector.BitVector;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.NodeIterable;
 
@@ -44,6 +50,8 @@ public class NodeStore implements Collection<Node>, NodeIterable {
     // Data
     protected int size;
     protected int garbageSize;
+    // Blocks with free slots, the lowest one is reused first
+    protected BitSet garbageBlocks;
     protected int blocksCount;
     protected int currentBlockIndex;
     protected NodeBlock blocks[];
@@ -71,6 +79,7 @@ public class NodeStore implements Collection<Node>, NodeIterable {
     private void initStore() {
         this.size = 0;
         this.garbageSize = 0;
+        this.garbageBlocks = new BitSet(GraphStoreConfiguration.NODESTORE_DEFAULT_BLOCKS);
         this.blocksCount = 1;
         this.currentBlockIndex = 0;
         this.blocks = new NodeBlock[GraphStoreConfiguration.NODESTORE_DEFAULT_BLOCKS];
@@ -125,7 +134,8 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         return blocks[id / GraphStoreConfiguration.NODESTORE_BLOCK_SIZE].get(id);
     }
 
-    // Only used for Graph.getNodeByStoreId
+    // Returns null for invalid ids, used for Graph.getNodeByStoreId and the column
+    // indexes
     public NodeImpl getForGetByStoreId(int id) {
         if (id < 0 || !isValidIndex(id)) {
             return null;
@@ -149,7 +159,9 @@ public class NodeStore implements Collection<Node>, NodeIterable {
 
         for (NodeStoreIterator itr = new NodeStoreIterator(); itr.hasNext();) {
             NodeImpl node = itr.next();
+            node.detachColumnarAttributes();
             node.setStoreId(NodeStore.NULL_ID);
+            journalRemoved(node);
         }
 
         if (this.spatialIndex != null) {
@@ -174,6 +186,31 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         return new NodeStoreIterator();
     }
 
+    // Iterates over the nodes whose bit is set, for views
+    public NodeStoreBitVectorIterator iterator(BitVector bitVector) {
+        return new NodeStoreBitVectorIterator(bitVector);
+    }
+
+    @Override
+    public Spliterator<Node> spliterator() {
+        return spliterator(null);
+    }
+
+    @Override
+    public Stream<Node> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // Returns a spliterator over the nodes, restricted to the view if not null
+    protected NodeStoreSpliterator spliterator(GraphViewImpl view) {
+        readLock();
+        try {
+            return new NodeStoreSpliterator(view, 0, maxStoreId());
+        } finally {
+            readUnlock();
+        }
+    }
+
     @Override
     public NodeImpl[] toArray() {
         readLock();
@@ -270,15 +307,14 @@ public class NodeStore implements Collection<Node>, NodeIterable {
             incrementVersion();
 
             if (garbageSize > 0) {
-                for (int i = 0; i < blocksCount; i++) {
-                    NodeBlock nodeBlock = blocks[i];
-                    if (nodeBlock.hasGarbage()) {
-                        nodeBlock.set(node);
-                        garbageSize--;
-                        dictionary.put(node.getId(), node.storeId);
-                        break;
-                    }
+                int i = garbageBlocks.nextSetBit(0);
+                NodeBlock nodeBlock = blocks[i];
+                nodeBlock.set(node);
+                if (!nodeBlock.hasGarbage()) {
+                    garbageBlocks.clear(i);
                 }
+                garbageSize--;
+                dictionary.put(node.getId(), node.storeId);
             } else {
                 ensureCapacity(1);
                 currentBlock.add(node);
@@ -294,6 +330,7 @@ public class NodeStore implements Collection<Node>, NodeIterable {
             }
 
             size++;
+            journalAdded(node);
 
             return true;
         } else if (isValidIndex(node.storeId) && get(node.storeId) == node) {
@@ -303,6 +340,70 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         }
     }
 
+    // Appends the nodes without reusing garbage slots and defers the view, version
+    // and index updates to a single pass at the end
+    protected int bulkAdd(final NodeImpl[] nodes) {
+        for (NodeImpl node : nodes) {
+            checkNonNullNodeObject(node);
+        }
+
+        ensureBlocksLength(nodes.length);
+        dictionary.ensureCapacity(size + nodes.length);
+
+        final NodeImpl[] added = new NodeImpl[nodes.length];
+        int count = 0;
+        try {
+            for (NodeImpl node : nodes) {
+                if (node.storeId != NodeStore.NULL_ID) {
+                    if (isValidIndex(node.storeId) && get(node.storeId) == node) {
+                        continue;
+                    }
+                    throw new IllegalArgumentException("The node already belongs to another store");
+                }
+                if (currentBlock.getCapacity() == 0) {
+                    ensureCapacity(1);
+                }
+                Object id = node.getId();
+                int previous = dictionary.put(id, currentBlock.offset + currentBlock.nodeLength);
+                if (previous != NULL_ID) {
+                    dictionary.put(id, previous);
+                    throw new IllegalArgumentException("The node id already exist");
+                }
+                currentBlock.add(node);
+                added[count++] = node;
+                size++;
+            }
+        } finally {
+            if (count > 0) {
+                incrementVersion();
+
+                if (viewStore != null) {
+                    viewStore.addNodes(added, count);
+                }
+                ElementImpl.indexAttributes(added, count);
+
+                if (spatialIndex != null) {
+                    for (int i = 0; i < count; i++) {
+                        spatialIndex.addNode(added[i]);
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    journalAdded(added[i]);
+                }
+            }
+        }
+        return count;
+    }
+
+    private void ensureBlocksLength(final int capacity) {
+        int blocksNeeded = blocksCount + capacity / GraphStoreConfiguration.NODESTORE_BLOCK_SIZE + 1;
+        if (blocksNeeded > blocks.length) {
+            NodeBlock[] newBlocks = new NodeBlock[blocksNeeded];
+            System.arraycopy(blocks, 0, newBlocks, 0, blocks.length);
+            blocks = newBlocks;
+        }
+    }
+
     @Override
     public boolean remove(final Object o) {
         checkNonNullNodeObject(o);
@@ -323,10 +424,12 @@ public class NodeStore implements Collection<Node>, NodeIterable {
             node.destroyAttributes();
 
             incrementVersion();
+            journalRemoved(node);
 
             int storeIndex = id / GraphStoreConfiguration.NODESTORE_BLOCK_SIZE;
             NodeBlock block = blocks[storeIndex];
             block.remove(node);
+            garbageBlocks.set(storeIndex);
             size--;
             garbageSize++;
             dictionary.remove(node.getId());
@@ -334,6 +437,7 @@ public class NodeStore implements Collection<Node>, NodeIterable {
 
             for (int i = storeIndex; i == (blocksCount - 1) && block.garbageLength == block.nodeLength && i >= 0;) {
                 if (i != 0) {
+                    garbageBlocks.clear(i);
                     blocks[i] = null;
                     blocksCount--;
                     garbageSize -= block.nodeLength;
@@ -342,6 +446,7 @@ public class NodeStore implements Collection<Node>, NodeIterable {
                     currentBlockIndex--;
                 } else {
                     currentBlock.clear();
+                    garbageBlocks.clear();
                     garbageSize = 0;
                     break;
                 }
@@ -524,6 +629,18 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         return 0;
     }
 
+    private void journalAdded(NodeImpl node) {
+        if (version != null) {
+            version.journal.added(node);
+        }
+    }
+
+    private void journalRemoved(NodeImpl node) {
+        if (version != null) {
+            version.journal.removed(node);
+        }
+    }
+
     protected boolean isValidIndex(int id) {
         if (id < 0 || id >= currentBlock.offset + currentBlock.nodeLength) {
             return false;
@@ -568,6 +685,70 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         return currentBlock.offset + currentBlock.nodeLength;
     }
 
+    // Copies the elements into an array indexed by store id, free ids are null
+    NodeImpl[] toStoreIdArray() {
+        NodeImpl[] array = new NodeImpl[maxStoreId()];
+        for (int i = 0; i < blocksCount; i++) {
+            NodeBlock block = blocks[i];
+            System.arraycopy(block.backingArray, 0, array, block.offset, block.nodeLength);
+        }
+        return array;
+    }
+
+    // Moves the nodes to the lowest store ids, in the same order, and releases the
+    // trailing blocks. Returns the new store id of each old store id, or null if
+    // there was no garbage
+    protected int[] compact() {
+        if (garbageSize == 0) {
+            return null;
+        }
+        return reorder(null);
+    }
+
+    // Moves the nodes to the lowest store ids, in the given order or in the same
+    // order if null, and releases the trailing blocks. The order must contain all
+    // the nodes once. Returns the new store id of each old store id
+    protected int[] reorder(NodeImpl[] order) {
+        int[] storeIdMap = new int[maxStoreId()];
+        Arrays.fill(storeIdMap, NULL_ID);
+        NodeImpl[] nodes = order != null ? order : toArray();
+        int oldSize = size;
+
+        initStore();
+        size = oldSize;
+        if (size > 0) {
+            ensureCapacity(size);
+        }
+        for (NodeImpl node : nodes) {
+            int oldStoreId = node.storeId;
+            if (currentBlock.getCapacity() == 0) {
+                currentBlock = blocks[++currentBlockIndex];
+            }
+            currentBlock.add(node);
+            dictionary.put(node.getId(), node.storeId);
+            storeIdMap[oldStoreId] = node.storeId;
+        }
+        return storeIdMap;
+    }
+
+    // Clears the bits of free store ids and of ids above the max store id
+    protected void clearFreeStoreIds(BitVector bitVector) {
+        int size = bitVector.size();
+        for (int i = 0; i < blocksCount; i++) {
+            NodeBlock block = blocks[i];
+            for (int j = 0; j < block.garbageLength; j++) {
+                int id = block.offset + block.garbageArray[j] - Short.MIN_VALUE;
+                if (id < size) {
+                    bitVector.putQuick(id, false);
+                }
+            }
+        }
+        int max = maxStoreId();
+        if (max < size) {
+            bitVector.replaceFromToWith(max, size - 1, false);
+        }
+    }
+
     protected static class NodeBlock {
 
         protected final int offset;
@@ -622,6 +803,41 @@ public class NodeStore implements Collection<Node>, NodeIterable {
         }
     }
 
+    protected final class NodeStoreSpliterator extends ElementStoreSpliterator<Node> {
+
+        private final GraphViewImpl view;
+
+        public NodeStoreSpliterator(GraphViewImpl view, int origin, int fence) {
+            super(NodeStore.this.lock, origin, fence);
+            this.view = view;
+        }
+
+        @Override
+        protected int maxStoreId() {
+            return NodeStore.this.maxStoreId();
+        }
+
+        @Override
+        protected NodeImpl get(int id) {
+            return blocks[id / GraphStoreConfiguration.NODESTORE_BLOCK_SIZE].get(id);
+        }
+
+        @Override
+        protected BitVector getBitVector() {
+            return view != null && view.nodeView ? view.nodeBitVector : null;
+        }
+
+        @Override
+        protected boolean accept(ElementImpl element) {
+            return true;
+        }
+
+        @Override
+        protected NodeStoreSpliterator create(int origin, int fence) {
+            return new NodeStoreSpliterator(view, origin, fence);
+        }
+    }
+
     protected final class NodeStoreIterator implements Iterator<Node> {
 
         protected int blockIndex;
@@ -675,4 +891,49 @@ public class NodeStore implements Collection<Node>, NodeIterable {
             NodeStore.this.remove(pointer);
         }
     }
+
+    // Walks the set bits word by word, so empty words are skipped and the cost
+    // depends on the number of set bits rather than the size of the store
+    protected final class NodeStoreBitVectorIterator implements Iterator<Node> {
+
+        protected final long[] words;
+        protected final int wordsLength;
+        protected final int maxStoreId;
+        protected int wordIndex;
+        protected long word;
+        protected NodeImpl pointer;
+
+        public NodeStoreBitVectorIterator(BitVector bitVector) {
+            readLock();
+            this.maxStoreId = maxStoreId();
+            this.words = bitVector.elements();
+            this.wordsLength = Math.min(words.length, (maxStoreId + 63) >>> 6);
+            this.word = wordsLength > 0 ? words[0] : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            pointer = null;
+            while (pointer == null) {
+                while (word == 0) {
+                    if (++wordIndex >= wordsLength) {
+                        readUnlock();
+                        return false;
+                    }
+                    word = words[wordIndex];
+                }
+                int id = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (id < maxStoreId) {
+                    pointer = blocks[id / GraphStoreConfiguration.NODESTORE_BLOCK_SIZE].get(id);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public NodeImpl next() {
+            return pointer;
+        }
+    }
 }
@@ -49,16 +49,19 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.gephi.graph.api.Configuration;
 import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Estimator;
@@ -98,7 +101,9 @@ import org.gephi.graph.impl.utils.LongPacker;
 // Greatly inspired from JDBM https://github.com/jankotek/JDBM3
 public class Serialization {
 
-    final static float VERSION = 0.5f;
+    final static float VERSION = 0.6f;
+    // Nodes or edges per chunk, from version 0.6
+    final static int CHUNK_SIZE = 4096;
     final static int NULL_ID = -1;
     final static int NULL = 0;
     final static int NORMAL = 1;
@@ -299,6 +304,22 @@ public class Serialization {
     }
 
     public void serializeGraphStore(DataOutput out, GraphStore store) throws IOException {
+        serializeGraphStoreHeader(out, store);
+
+        // Nodes + Edges, in length-prefixed chunks
+        NodeImpl[] nodes = store.nodeStore.toArray();
+        EdgeImpl[] edges = store.edgeStore.toArray();
+        serialize(out, nodes.length);
+        serialize(out, edges.length);
+        serializeChunks(out, nodes);
+        serializeChunks(out, edges);
+
+        // Views
+        serialize(out, store.viewStore);
+    }
+
+    // Writes everything but the elements and the views
+    protected void serializeGraphStoreHeader(DataOutput out, GraphStore store) throws IOException {
         // Configuration
         serializeGraphStoreConfiguration(out);
 
@@ -327,23 +348,35 @@ public class Serialization {
 
         // Time zone
         serialize(out, store.timeZone);
+    }
 
-        // Nodes + Edges
-        int nodesAndEdges = store.nodeStore.size() + store.edgeStore.size();
-        serialize(out, nodesAndEdges);
+    public GraphStore deserializeGraphStore(DataInput is) throws IOException, ClassNotFoundException {
+        deserializeGraphStoreHeader(is);
 
-        for (Node node : store.nodeStore) {
-            serialize(out, node);
-        }
-        for (Edge edge : store.edgeStore) {
-            serialize(out, edge);
+        // Nodes and edges
+        if (readVersion >= 0.6) {
+            int nodeCount = (Integer) deserialize(is);
+            int edgeCount = (Integer) deserialize(is);
+            for (Object node : deserializeChunks(is, nodeCount)) {
+                addNode((NodeRecord) node);
+            }
+            for (Object edge : deserializeChunks(is, edgeCount)) {
+                addEdge((EdgeRecord) edge);
+            }
+        } else {
+            int nodesAndEdges = (Integer) deserialize(is);
+            for (int i = 0; i < nodesAndEdges; i++) {
+                deserialize(is);
+            }
         }
 
-        // Views
-        serialize(out, store.viewStore);
+        // ViewStore
+        deserialize(is);
+
+        return model.store;
     }
 
-    public GraphStore deserializeGraphStore(DataInput is) throws IOException, ClassNotFoundException {
+    protected void deserializeGraphStoreHeader(DataInput is) throws IOException, ClassNotFoundException {
         if (!model.store.nodeStore.isEmpty()) { // TODO test other stores
             throw new IOException("The store is not empty");
         }
@@ -378,23 +411,12 @@ public class Serialization {
 
         // Time zone
         deserialize(is);
-
-        // Nodes and edges
-        int nodesAndEdges = (Integer) deserialize(is);
-        for (int i = 0; i < nodesAndEdges; i++) {
-            deserialize(is);
-        }
-
-        // ViewStore
-        deserialize(is);
-
-        return model.store;
     }
 
     private void serializeNode(DataOutput out, NodeImpl node) throws IOException {
         serialize(out, node.getId());
         serialize(out, node.storeId);
-        serialize(out, node.attributes.attributes);
+        serialize(out, node.getAttributes());
         serialize(out, node.properties);
     }
 
@@ -409,52 +431,71 @@ public class Serialization {
             serialize(out, GraphStoreConfiguration.DEFAULT_EDGE_WEIGHT);
         }
         serialize(out, edge.isDirected());
-        serialize(out, edge.attributes.attributes);
+        serialize(out, edge.getAttributes());
         serialize(out, edge.properties);
     }
 
     private NodeImpl deserializeNode(DataInput is) throws IOException, ClassNotFoundException {
-        Object id = deserialize(is);
-        int storeId = (Integer) deserialize(is);
-        Object[] attributes = (Object[]) deserialize(is);
-        NodePropertiesImpl properties = (NodePropertiesImpl) deserialize(is);
+        return addNode(readNode(is));
+    }
 
-        NodeImpl node = (NodeImpl) model.store.factory.newNode(id);
-        node.attributes.setBackingArray(attributes);
+    private EdgeImpl deserializeEdge(DataInput is) throws IOException, ClassNotFoundException {
+        return addEdge(readEdge(is));
+    }
+
+    // Decodes a node, without touching the store
+    private NodeRecord readNode(DataInput is) throws IOException, ClassNotFoundException {
+        NodeRecord record = new NodeRecord();
+        record.id = deserialize(is);
+        record.storeId = (Integer) deserialize(is);
+        record.attributes = (Object[]) deserialize(is);
+        record.properties = (NodePropertiesImpl) deserialize(is);
+        return record;
+    }
+
+    // Decodes an edge, without touching the store
+    private EdgeRecord readEdge(DataInput is) throws IOException, ClassNotFoundException {
+        EdgeRecord record = new EdgeRecord();
+        record.id = deserialize(is);
+        record.sourceId = (Integer) deserialize(is);
+        record.targetId = (Integer) deserialize(is);
+        record.type = (Integer) deserialize(is);
+        record.weight = (Double) deserialize(is);
+        record.directed = (Boolean) deserialize(is);
+        record.attributes = (Object[]) deserialize(is);
+        record.properties = (EdgePropertiesImpl) deserialize(is);
+        return record;
+    }
+
+    private NodeImpl addNode(NodeRecord record) {
+        NodeImpl node = (NodeImpl) model.store.factory.newNode(record.id);
+        node.attributes.setBackingArray(record.attributes);
         if (node.properties != null) {
-            node.setNodeProperties(properties);
+            node.setNodeProperties(record.properties);
         }
         model.store.nodeStore.add(node);
 
-        idMap.put(storeId, node.storeId);
+        idMap.put(record.storeId, node.storeId);
 
         return node;
     }
 
-    private EdgeImpl deserializeEdge(DataInput is) throws IOException, ClassNotFoundException {
-        Object id = deserialize(is);
-        int sourceId = (Integer) deserialize(is);
-        int targetId = (Integer) deserialize(is);
-        int type = (Integer) deserialize(is);
-        double weight = (Double) deserialize(is);
-        boolean directed = (Boolean) deserialize(is);
-        Object[] attributes = (Object[]) deserialize(is);
-        EdgePropertiesImpl properties = (EdgePropertiesImpl) deserialize(is);
-
-        int sourceNewId = idMap.get(sourceId);
-        int targetNewId = idMap.get(targetId);
-
-        if (sourceId == NULL_ID || targetId == NULL_ID) {
+    private EdgeImpl addEdge(EdgeRecord record) throws IOException {
+        int sourceNewId = idMap.get(record.sourceId);
+        int targetNewId = idMap.get(record.targetId);
+
+        if (record.sourceId == NULL_ID || record.targetId == NULL_ID) {
             throw new IOException("The edge source of target can't be found");
         }
 
         NodeImpl source = model.store.nodeStore.get(sourceNewId);
         NodeImpl target = model.store.nodeStore.get(targetNewId);
 
-        EdgeImpl edge = (EdgeImpl) model.store.factory.newEdge(id, source, target, type, weight, directed);
-        edge.attributes.setBackingArray(attributes);
+        EdgeImpl edge = (EdgeImpl) model.store.factory
+                .newEdge(record.id, source, target, record.type, record.weight, record.directed);
+        edge.attributes.setBackingArray(record.attributes);
         if (edge.properties != null) {
-            edge.setEdgeProperties(properties);
+            edge.setEdgeProperties(record.properties);
         }
 
         model.store.edgeStore.add(edge);
@@ -462,6 +503,56 @@ public class Serialization {
         return edge;
     }
 
+    private void serializeChunks(DataOutput out, ElementImpl[] elements) throws IOException {
+        DataInputOutput chunk = new DataInputOutput();
+        for (int i = 0; i < elements.length; i += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, elements.length - i);
+            chunk.reset();
+            for (int j = i; j < i + length; j++) {
+                serialize(chunk, elements[j]);
+            }
+            out.writeInt(length);
+            out.writeInt(chunk.getPos());
+            out.write(chunk.getBuf(), 0, chunk.getPos());
+        }
+    }
+
+    // Reads the chunks sequentially and decodes them in parallel, returns the
+    // node or edge records in order
+    private Object[] deserializeChunks(DataInput is, int count) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        IntArrayList offsets = new IntArrayList();
+        int read = 0;
+        while (read < count) {
+            offsets.add(read);
+            read += is.readInt();
+            byte[] chunk = new byte[is.readInt()];
+            is.readFully(chunk);
+            chunks.add(chunk);
+        }
+        offsets.add(count);
+
+        Object[] records = new Object[count];
+        try {
+            IntStream.range(0, chunks.size()).parallel().forEach(i -> {
+                DataInputOutput input = new DataInputOutput(chunks.get(i));
+                try {
+                    for (int j = offsets.getInt(i); j < offsets.getInt(i + 1); j++) {
+                        int head = input.readUnsignedByte();
+                        records[j] = head == NODE ? readNode(input) : readEdge(input);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new UncheckedIOException(new IOException(e));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return records;
+    }
+
     private void serializeEdgeTypeStore(final DataOutput out) throws IOException {
         EdgeTypeStore edgeTypeStore = model.store.edgeTypeStore;
         int length = edgeTypeStore.length;
@@ -636,18 +727,25 @@ public class Serialization {
         for (int i = 0; i < garbages.length; i++) {
             viewStore.garbageQueue.add(garbages[i]);
         }
+        viewStore.refreshViewKinds();
         return viewStore;
     }
 
     private void serializeGraphView(final DataOutput out, final GraphViewImpl view) throws IOException {
+        serializeGraphView(out, view, view.nodeBitVector, view.edgeBitVector);
+    }
+
+    // Writes the view with the given bit vectors, used when store ids are
+    // renumbered
+    protected void serializeGraphView(final DataOutput out, final GraphViewImpl view, final BitVector nodeBitVector, final BitVector edgeBitVector) throws IOException {
         serialize(out, view.nodeView);
         serialize(out, view.edgeView);
         serialize(out, view.storeId);
         serialize(out, view.nodeCount);
         serialize(out, view.edgeCount);
 
-        serialize(out, view.nodeBitVector);
-        serialize(out, view.edgeBitVector);
+        serialize(out, nodeBitVector);
+        serialize(out, edgeBitVector);
 
         serialize(out, view.typeCounts);
         serialize(out, view.mutualEdgeTypeCounts);
@@ -659,7 +757,7 @@ public class Serialization {
         serialize(out, view.interval);
     }
 
-    private GraphViewImpl deserializeGraphView(final DataInput is) throws IOException, ClassNotFoundException {
+    protected GraphViewImpl deserializeGraphView(final DataInput is) throws IOException, ClassNotFoundException {
         boolean nodeView = (Boolean) deserialize(is);
         boolean edgeView = (Boolean) deserialize(is);
         GraphViewImpl view = new GraphViewImpl(model.store, nodeView, edgeView);
@@ -2364,4 +2462,26 @@ public class Serialization {
             this.enableEdgeProperties = enableEdgeProperties;
         }
     }
-}
\ No newline at end of file
+
+    // Decoded node, before insertion in the store
+    private static class NodeRecord {
+
+        private Object id;
+        private int storeId;
+        private Object[] attributes;
+        private NodePropertiesImpl properties;
+    }
+
+    // Decoded edge, before insertion in the store
+    private static class EdgeRecord {
+
+        private Object id;
+        private int sourceId;
+        private int targetId;
+        private int type;
+        private double weight;
+        private boolean directed;
+        private Object[] attributes;
+        private EdgePropertiesImpl properties;
+    }
+}
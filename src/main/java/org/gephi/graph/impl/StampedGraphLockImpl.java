@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Graph lock supporting optimistic reads.
+ * <p>
+ * Read and write locks keep the reentrant semantics of {@link GraphLockImpl}.
+ * In addition, the outermost write lock also acquires the write lock of a
+ * {@link StampedLock} so readers can run without locking and validate
+ * afterwards that no write happened.
+ */
+public class StampedGraphLockImpl extends GraphLockImpl {
+
+    protected final StampedLock stampedLock;
+    // Stamp of the current write lock, only accessed by the writer
+    protected long writeStamp;
+
+    public StampedGraphLockImpl() {
+        super();
+        stampedLock = new StampedLock();
+    }
+
+    @Override
+    public void writeLock() {
+        super.writeLock();
+        if (readWriteLock.getWriteHoldCount() == 1) {
+            writeStamp = stampedLock.writeLock();
+        }
+    }
+
+    @Override
+    public void writeUnlock() {
+        if (readWriteLock.isWriteLockedByCurrentThread() && readWriteLock.getWriteHoldCount() == 1) {
+            stampedLock.unlockWrite(writeStamp);
+        }
+        super.writeUnlock();
+    }
+
+    /**
+     * Returns a stamp to validate later, or zero if currently write locked.
+     *
+     * @return stamp, or zero if write locked
+     */
+    public long tryOptimisticRead() {
+        return stampedLock.tryOptimisticRead();
+    }
+
+    /**
+     * Returns true if no write lock has been acquired since the stamp was obtained.
+     *
+     * @param stamp stamp returned by {@link #tryOptimisticRead()}
+     * @return true if the stamp is still valid
+     */
+    public boolean validate(long stamp) {
+        return stampedLock.validate(stamp);
+    }
+}
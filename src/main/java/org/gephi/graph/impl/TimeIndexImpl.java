@@ -15,16 +15,23 @@
  */
 package org.gephi.graph.impl;
 
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.ElementIterable;
+import org.gephi.graph.api.Interval;
 import org.gephi.graph.api.TimeIndex;
 import org.gephi.graph.api.types.TimeMap;
 import org.gephi.graph.api.types.TimeSet;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
 
 public abstract class TimeIndexImpl<T extends Element, K, S extends TimeSet<K>, M extends TimeMap<K, ?>> implements TimeIndex<T> {
 
@@ -61,7 +68,7 @@ public abstract class TimeIndexImpl<T extends Element, K, S extends TimeSet<K>,
             if (entry == null) {
                 entry = addTimestamp(timestampIndex);
             }
-            if (entry.add(element)) {
+            if (entry.add(timestampIndexStore.getStoreId(element), element)) {
                 elementCount++;
             }
         } finally {
@@ -73,7 +80,7 @@ public abstract class TimeIndexImpl<T extends Element, K, S extends TimeSet<K>,
         lock();
         try {
             TimeIndexEntry entry = timestamps[timestampIndex];
-            if (entry.remove(element)) {
+            if (entry.remove(timestampIndexStore.getStoreId(element), element)) {
                 elementCount--;
                 if (entry.isEmpty()) {
                     clearEntry(timestampIndex);
@@ -103,6 +110,59 @@ public abstract class TimeIndexImpl<T extends Element, K, S extends TimeSet<K>,
         timestamps[index] = null;
     }
 
+    // Adds the entries with a time overlapping the interval to the list, the
+    // interval can be infinite
+    protected abstract void addEntries(Interval interval, List<TimeIndexEntry> entries);
+
+    // Adds the elements with a time overlapping the interval to the collection,
+    // the interval can be infinite
+    protected void addElements(Interval interval, Collection<Element> elements) {
+        List<TimeIndexEntry> entries = new ArrayList<>();
+        addEntries(interval, entries);
+        if (!entries.isEmpty()) {
+            for (Element element : new TimeIndexEntryIterable(entries)) {
+                elements.add(element);
+            }
+        }
+    }
+
+    // Returns the store ids of the elements with a time overlapping the interval
+    protected ChunkedBitmap getStoreIds(Interval interval) {
+        List<TimeIndexEntry> entries = new ArrayList<>();
+        addEntries(interval, entries);
+        return union(entries);
+    }
+
+    // Moves the entries to the new store ids after the element store was compacted
+    protected void compact(int[] storeIdMap) {
+        lock();
+        try {
+            for (TimeIndexEntry entry : timestamps) {
+                if (entry != null) {
+                    entry.compact(storeIdMap);
+                }
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    protected ElementIterable get(List<TimeIndexEntry> entries) {
+        if (entries.isEmpty()) {
+            return ElementIterable.EMPTY;
+        }
+        return new TimeIndexEntryIterable(entries);
+    }
+
+    // Returns a copy of the store ids of the entries
+    private static ChunkedBitmap union(List<TimeIndexEntry> entries) {
+        ChunkedBitmap bitmap = new ChunkedBitmap();
+        for (TimeIndexEntry entry : entries) {
+            bitmap.addAll(entry.storeIds);
+        }
+        return bitmap;
+    }
+
     protected void checkDouble(double timestamp) {
         if (Double.isInfinite(timestamp) || Double.isNaN(timestamp)) {
             throw new IllegalArgumentException("Timestamp can' be NaN or infinity");
@@ -123,55 +183,131 @@ public abstract class TimeIndexImpl<T extends Element, K, S extends TimeSet<K>,
 
     protected static class TimeIndexEntry {
 
-        protected final ObjectSet<Element> elementSet;
+        // Store ids of the elements
+        protected ChunkedBitmap storeIds;
+        // Elements without store id, only when the index isn't attached to a graph
+        // store
+        protected ObjectSet<Element> elementSet;
 
         public TimeIndexEntry() {
-            elementSet = new ObjectOpenHashSet<>();
+            storeIds = new ChunkedBitmap();
         }
 
-        public boolean add(Element element) {
+        public boolean add(int storeId, Element element) {
+            if (storeId != TimeIndexStore.NULL_ID) {
+                return storeIds.add(storeId);
+            }
+            if (elementSet == null) {
+                elementSet = new ObjectOpenHashSet<>();
+            }
             return elementSet.add(element);
         }
 
-        public boolean remove(Element element) {
-            return elementSet.remove(element);
+        public boolean remove(int storeId, Element element) {
+            if (storeId != TimeIndexStore.NULL_ID) {
+                return storeIds.remove(storeId);
+            }
+            return elementSet != null && elementSet.remove(element);
         }
 
         public boolean isEmpty() {
-            return elementSet.isEmpty();
+            return storeIds.isEmpty() && (elementSet == null || elementSet.isEmpty());
+        }
+
+        protected void compact(int[] storeIdMap) {
+            ChunkedBitmap newStoreIds = new ChunkedBitmap();
+            for (IntIterator itr = storeIds.iterator(); itr.hasNext();) {
+                newStoreIds.add(storeIdMap[itr.nextInt()]);
+            }
+            storeIds = newStoreIds;
         }
     }
 
-    protected class ElementSetWrapperIterable implements ElementIterable {
+    // Iterates over the union of the entries, resolving the store ids as it goes.
+    // The store ids are copied so elements can be removed while iterating
+    protected class TimeIndexEntryIterable implements ElementIterable<Element> {
 
-        protected final Set<Element> set;
+        protected final ChunkedBitmap storeIds;
+        protected final Set<Element> elementSet;
 
-        public ElementSetWrapperIterable(Set<Element> set) {
-            this.set = set;
+        public TimeIndexEntryIterable(List<TimeIndexEntry> entries) {
+            storeIds = union(entries);
+            Set<Element> set = null;
+            for (TimeIndexEntry entry : entries) {
+                if (entry.elementSet != null && !entry.elementSet.isEmpty()) {
+                    if (set == null) {
+                        set = new ObjectOpenHashSet<>();
+                    }
+                    set.addAll(entry.elementSet);
+                }
+            }
+            elementSet = set;
         }
 
         @Override
         public Iterator<Element> iterator() {
-            return set.iterator();
+            return new TimeIndexEntryIterator();
         }
 
         @Override
         public Element[] toArray() {
-            return set.toArray(new Element[0]);
+            return toCollection().toArray(new Element[0]);
         }
 
         @Override
         public Collection<Element> toCollection() {
-            return set;
+            List<Element> list = new ArrayList<>();
+            for (Element element : this) {
+                list.add(element);
+            }
+            return list;
         }
 
         @Override
         public Set<Element> toSet() {
+            Set<Element> set = new ObjectOpenHashSet<>();
+            for (Element element : this) {
+                set.add(element);
+            }
             return set;
         }
 
         @Override
         public void doBreak() {
         }
+
+        @Override
+        public Stream<Element> parallelStream() {
+            return toCollection().parallelStream();
+        }
+
+        private final class TimeIndexEntryIterator implements Iterator<Element> {
+
+            private final IntIterator storeIdIterator = storeIds.iterator();
+            private final Iterator<Element> elementIterator = elementSet != null ? elementSet.iterator() : null;
+            private Element pointer;
+
+            @Override
+            public boolean hasNext() {
+                // Skips the elements removed since the store ids were copied
+                while (pointer == null && storeIdIterator.hasNext()) {
+                    pointer = timestampIndexStore.getElement(storeIdIterator.nextInt());
+                }
+                if (pointer == null && elementIterator != null && elementIterator.hasNext()) {
+                    pointer = elementIterator.next();
+                }
+                return pointer != null;
+            }
+
+            @Override
+            public Element next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Element element = pointer;
+                pointer = null;
+                return element;
+            }
+        }
     }
 }
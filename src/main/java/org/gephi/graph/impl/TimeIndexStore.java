@@ -18,6 +18,8 @@ package org.gephi.graph.impl;
 import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -26,14 +28,20 @@ import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Interval;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.TimeIndex;
 import org.gephi.graph.api.types.TimeMap;
 import org.gephi.graph.api.types.TimeSet;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
 import org.gephi.graph.impl.utils.MapDeepEquals;
 
 public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>, M extends TimeMap<K, ?>> {
 
+    // Const
+    protected final static int NULL_ID = -1;
+    // GraphStore (optional)
+    protected final GraphStore graphStore;
     // Lock
     protected final TableLockImpl lock;
     // Element
@@ -43,11 +51,14 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
     protected final IntSortedSet garbageQueue;
     protected int[] countMap;
     protected int length;
+    // Incremented when element times are added or removed
+    protected int version;
     // Index
     protected TimeIndexImpl mainIndex;
     protected final Map<GraphView, TimeIndexImpl> viewIndexes;
 
-    protected TimeIndexStore(Class<T> type, TableLockImpl lock, boolean indexed, Map<K, Integer> sortedMap) {
+    protected TimeIndexStore(GraphStore graphStore, Class<T> type, TableLockImpl lock, boolean indexed, Map<K, Integer> sortedMap) {
+        this.graphStore = graphStore;
         this.elementType = type;
         this.lock = lock;
 
@@ -65,6 +76,8 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
 
     protected abstract TimeIndexImpl createIndex(boolean main);
 
+    protected abstract boolean overlaps(K k, Interval interval);
+
     protected Integer add(K k) {
         checkK(k);
 
@@ -95,6 +108,7 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
         lock();
         try {
             int timeIndex = add(k);
+            version++;
 
             if (mainIndex != null) {
                 mainIndex.add(timeIndex, element);
@@ -153,6 +167,7 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
             if (timeIndex == null) {
                 return;
             }
+            version++;
 
             if (mainIndex != null) {
                 mainIndex.remove(timeIndex, element);
@@ -222,6 +237,17 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
         }
     }
 
+    public void index(ElementImpl[] elements, int length) {
+        lock();
+        try {
+            for (int i = 0; i < length; i++) {
+                index(elements[i]);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
     public void clear(Element element) {
         lock();
         try {
@@ -251,6 +277,7 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
             garbageQueue.clear();
             countMap = new int[0];
             length = 0;
+            version++;
 
             if (mainIndex != null) {
                 mainIndex.clear();
@@ -403,6 +430,77 @@ public abstract class TimeIndexStore<T extends Element, K, S extends TimeSet<K>,
         return mainIndex != null;
     }
 
+    // Returns the elements with a time overlapping one of the intervals
+    protected ObjectSet<Element> getElements(Interval... intervals) {
+        lock();
+        try {
+            ObjectSet<Element> elements = new ObjectOpenHashSet<>();
+            for (Interval interval : intervals) {
+                mainIndex.addElements(interval, elements);
+            }
+            return elements;
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns the store ids of the elements with a time overlapping the interval
+    protected ChunkedBitmap getStoreIds(Interval interval) {
+        lock();
+        try {
+            return mainIndex.getStoreIds(interval);
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns the store id the element is indexed with, or NULL_ID when the
+    // elements can't be found back from their store ids
+    protected int getStoreId(Element element) {
+        if (graphStore == null) {
+            // Used for testing only
+            return NULL_ID;
+        }
+        return element.getStoreId();
+    }
+
+    // Returns null if the element has been removed since
+    protected Element getElement(int storeId) {
+        if (elementType.equals(Node.class)) {
+            return graphStore.nodeStore.getForGetByStoreId(storeId);
+        }
+        return graphStore.edgeStore.getForGetByStoreId(storeId);
+    }
+
+    // Moves the indexes to the new store ids after the element store was
+    // compacted
+    protected void compact(int[] storeIdMap) {
+        lock();
+        try {
+            if (mainIndex != null) {
+                mainIndex.compact(storeIdMap);
+                for (TimeIndexImpl index : viewIndexes.values()) {
+                    index.compact(storeIdMap);
+                }
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // Returns true if one of the element's times overlaps the interval
+    protected boolean overlaps(Element element, Interval interval) {
+        S set = getTimeSet(element);
+        if (set != null) {
+            for (K k : set.toArray()) {
+                if (overlaps(k, interval)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private S getTimeSet(Element element) {
         Object[] attributes = element.getAttributes();
         if (GraphStoreConfiguration.ENABLE_ELEMENT_TIME_SET && GraphStoreConfiguration.ELEMENT_TIMESET_INDEX < attributes.length) {
@@ -38,11 +38,22 @@ public class TimeStore {
             timeRepresentation = store.configuration.getTimeRepresentation();
         }
         if (timeRepresentation.equals(TimeRepresentation.INTERVAL)) {
-            nodeIndexStore = new IntervalIndexStore<>(Node.class, lock, indexed);
-            edgeIndexStore = new IntervalIndexStore<>(Edge.class, lock, indexed);
+            nodeIndexStore = new IntervalIndexStore<>(store, Node.class, lock, indexed);
+            edgeIndexStore = new IntervalIndexStore<>(store, Edge.class, lock, indexed);
         } else {
-            nodeIndexStore = new TimestampIndexStore<>(Node.class, lock, indexed);
-            edgeIndexStore = new TimestampIndexStore<>(Edge.class, lock, indexed);
+            nodeIndexStore = new TimestampIndexStore<>(store, Node.class, lock, indexed);
+            edgeIndexStore = new TimestampIndexStore<>(store, Edge.class, lock, indexed);
+        }
+    }
+
+    // Moves the indexes to the new store ids, maps are null for the stores that
+    // didn't change
+    protected void compact(int[] nodeStoreIdMap, int[] edgeStoreIdMap) {
+        if (nodeStoreIdMap != null) {
+            nodeIndexStore.compact(nodeStoreIdMap);
+        }
+        if (edgeStoreIdMap != null) {
+            edgeIndexStore.compact(edgeStoreIdMap);
         }
     }
 
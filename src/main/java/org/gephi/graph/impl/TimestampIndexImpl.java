@@ -18,8 +18,8 @@ package org.gephi.graph.impl;
 import it.unimi.dsi.fastutil.doubles.Double2IntMap;
 import it.unimi.dsi.fastutil.doubles.Double2IntSortedMap;
 import it.unimi.dsi.fastutil.objects.ObjectBidirectionalIterator;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
-import it.unimi.dsi.fastutil.objects.ObjectSet;
+import java.util.ArrayList;
+import java.util.List;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.ElementIterable;
 import org.gephi.graph.api.Interval;
@@ -101,14 +101,15 @@ public class TimestampIndexImpl<T extends Element> extends TimeIndexImpl<T, Doub
 
         lock();
         try {
+            List<TimeIndexEntry> entries = new ArrayList<>(1);
             Integer index = timestampIndexStore.timeSortedMap.get(timestamp);
             if (index != null && index < timestamps.length) {
                 TimeIndexEntry ts = timestamps[index];
                 if (ts != null) {
-                    return new ElementSetWrapperIterable(new ObjectOpenHashSet<>(ts.elementSet));
+                    entries.add(ts);
                 }
             }
-            return ElementIterable.EMPTY;
+            return get(entries);
         } finally {
             unlock();
         }
@@ -121,30 +122,32 @@ public class TimestampIndexImpl<T extends Element> extends TimeIndexImpl<T, Doub
 
         lock();
         try {
-            ObjectSet<Element> elements = new ObjectOpenHashSet<>();
-            Double2IntSortedMap sortedMap = (Double2IntSortedMap) timestampIndexStore.timeSortedMap;
-            if (!sortedMap.isEmpty()) {
-                for (Double2IntMap.Entry entry : sortedMap.tailMap(interval.getLow()).double2IntEntrySet()) {
-                    double timestamp = entry.getDoubleKey();
-                    int index = entry.getIntValue();
-                    if (timestamp <= interval.getHigh()) {
-                        if (index < timestamps.length) {
-                            TimeIndexEntry ts = timestamps[index];
-                            if (ts != null) {
-                                elements.addAll(ts.elementSet);
-                            }
+            List<TimeIndexEntry> entries = new ArrayList<>();
+            addEntries(interval, entries);
+            return get(entries);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    protected void addEntries(Interval interval, List<TimeIndexEntry> entries) {
+        Double2IntSortedMap sortedMap = (Double2IntSortedMap) timestampIndexStore.timeSortedMap;
+        if (!sortedMap.isEmpty()) {
+            for (Double2IntMap.Entry entry : sortedMap.tailMap(interval.getLow()).double2IntEntrySet()) {
+                double timestamp = entry.getDoubleKey();
+                int index = entry.getIntValue();
+                if (timestamp <= interval.getHigh()) {
+                    if (index < timestamps.length) {
+                        TimeIndexEntry ts = timestamps[index];
+                        if (ts != null) {
+                            entries.add(ts);
                         }
-                    } else {
-                        break;
                     }
+                } else {
+                    break;
                 }
             }
-            if (!elements.isEmpty()) {
-                return new ElementSetWrapperIterable(elements);
-            }
-            return ElementIterable.EMPTY;
-        } finally {
-            unlock();
         }
     }
 }
@@ -17,13 +17,18 @@ package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.doubles.Double2IntRBTreeMap;
 import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Interval;
 import org.gephi.graph.api.types.TimestampMap;
 import org.gephi.graph.api.types.TimestampSet;
 
 public class TimestampIndexStore<T extends Element> extends TimeIndexStore<T, Double, TimestampSet, TimestampMap<?>> {
 
     public TimestampIndexStore(Class<T> type, TableLockImpl lock, boolean indexed) {
-        super(type, lock, indexed, new Double2IntRBTreeMap());
+        this(null, type, lock, indexed);
+    }
+
+    public TimestampIndexStore(GraphStore graphStore, Class<T> type, TableLockImpl lock, boolean indexed) {
+        super(graphStore, type, lock, indexed, new Double2IntRBTreeMap());
         mainIndex = indexed ? new TimestampIndexImpl(this, true) : null;
     }
 
@@ -39,6 +44,11 @@ public class TimestampIndexStore<T extends Element> extends TimeIndexStore<T, Do
         }
     }
 
+    @Override
+    protected boolean overlaps(Double k, Interval interval) {
+        return k >= interval.getLow() && k <= interval.getHigh();
+    }
+
     @Override
     protected TimeIndexImpl createIndex(boolean main) {
         return new TimestampIndexImpl(this, main);
@@ -18,7 +18,10 @@ package org.gephi.graph.impl;
 import java.util.Collection;
 import java.util.Set;
 
+import java.util.function.IntConsumer;
 import org.gephi.graph.api.*;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.NeighborCursor;
 
 public class UndirectedDecorator implements UndirectedGraph, UndirectedSubgraph {
 
@@ -163,7 +166,8 @@ public class UndirectedDecorator implements UndirectedGraph, UndirectedSubgraph
 
     @Override
     public EdgeIterable getEdges() {
-        return store.getEdgeIterableWrapper(store.edgeStore.iteratorUndirected());
+        return store.getEdgeIterableWrapper(store.edgeStore
+                .iteratorUndirected(), () -> store.edgeStore.spliterator(null, true));
     }
 
     @Override
@@ -191,6 +195,21 @@ public class UndirectedDecorator implements UndirectedGraph, UndirectedSubgraph
         return store.getEdgeIterableWrapper(store.edgeStore.edgeUndirectedIterator(node));
     }
 
+    @Override
+    public EdgeCursor getEdgeCursor() {
+        return store.edgeStore.edgeCursor(true, true, true, null);
+    }
+
+    @Override
+    public NeighborCursor getNeighborCursor() {
+        return store.edgeStore.neighborCursor(true, true, true, null);
+    }
+
+    @Override
+    public void forEachNeighbor(Node node, IntConsumer consumer) {
+        store.edgeStore.forEachNeighbor(node, true, null, consumer);
+    }
+
     @Override
     public EdgeIterable getEdges(Node node, int type) {
         return store.getEdgeIterableWrapper(store.edgeStore.edgeUndirectedIterator(node, type));
@@ -418,4 +437,19 @@ public class UndirectedDecorator implements UndirectedGraph, UndirectedSubgraph
     public SpatialIndex getSpatialIndex() {
         return store.getSpatialIndex();
     }
+
+    @Override
+    public CompressedSparseRow toCSR() {
+        return toCSR(false);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(boolean weights) {
+        return toCSR(CompressedSparseRowImpl.ANY_TYPE, weights);
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(int type, boolean weights) {
+        return new CompressedSparseRowImpl(store, this, store.version, true, type, weights);
+    }
 }
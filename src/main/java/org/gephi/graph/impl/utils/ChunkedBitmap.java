@@ -0,0 +1,705 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl.utils;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed bitmap of non-negative integers, typically element store ids.
+ * <p>
+ * Integers are grouped into chunks of 65536 by their high 16 bits. A chunk
+ * stores the low 16 bits of its integers in a sorted array while it holds at
+ * most 4096 of them, and as a plain bitmap beyond that, so a chunk never uses
+ * more than 8 KB. Intersections, unions and differences work chunk by chunk
+ * without expanding the sparse chunks.
+ */
+public class ChunkedBitmap {
+
+    // Maximum cardinality of an array chunk
+    protected static final int ARRAY_MAX_SIZE = 4096;
+    // Number of words in a bitmap chunk
+    protected static final int BITMAP_WORDS = 1024;
+    // Chunks, sorted by key
+    protected char[] keys;
+    protected Chunk[] chunks;
+    protected int size;
+
+    public ChunkedBitmap() {
+        this.keys = new char[4];
+        this.chunks = new Chunk[4];
+    }
+
+    protected ChunkedBitmap(int capacity) {
+        this.keys = new char[Math.max(capacity, 1)];
+        this.chunks = new Chunk[Math.max(capacity, 1)];
+    }
+
+    public boolean add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new ArrayChunk());
+        }
+        Chunk chunk = chunks[index];
+        boolean added = chunk.add((char) value);
+        if (added && chunk.cardinality > ARRAY_MAX_SIZE && chunk instanceof ArrayChunk) {
+            chunks[index] = ((ArrayChunk) chunk).toBitmapChunk();
+        }
+        return added;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Chunk chunk = chunks[index];
+        boolean removed = chunk.remove((char) value);
+        if (removed) {
+            if (chunk.cardinality == 0) {
+                removeChunk(index);
+            } else if (chunk.cardinality <= ARRAY_MAX_SIZE / 2 && chunk instanceof BitmapChunk) {
+                chunks[index] = ((BitmapChunk) chunk).toArrayChunk();
+            }
+        }
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && chunks[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(chunks, 0, size, null);
+        size = 0;
+    }
+
+    public IntIterator iterator() {
+        return new BitmapIterator();
+    }
+
+    /**
+     * Returns an iterator over the union of the bitmaps, in increasing order.
+     * <p>
+     * The union is computed lazily, one chunk at a time, so the bitmaps aren't
+     * copied. They shouldn't be modified while iterating.
+     *
+     * @param bitmaps the bitmaps
+     * @return an iterator over the integers present in any of the bitmaps
+     */
+    public static IntIterator unionIterator(ChunkedBitmap... bitmaps) {
+        if (bitmaps.length == 1) {
+            return bitmaps[0].iterator();
+        }
+        return new UnionIterator(bitmaps);
+    }
+
+    public int[] toArray() {
+        int[] array = new int[cardinality()];
+        int i = 0;
+        for (IntIterator itr = iterator(); itr.hasNext();) {
+            array[i++] = itr.nextInt();
+        }
+        return array;
+    }
+
+    /**
+     * Returns a new bitmap with the integers present in both bitmaps.
+     *
+     * @param other the other bitmap
+     * @return the intersection
+     */
+    public ChunkedBitmap and(ChunkedBitmap other) {
+        ChunkedBitmap result = new ChunkedBitmap(Math.min(size, other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendChunk(keys[i], chunks[i].and(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap with the integers present in either bitmap.
+     *
+     * @param other the other bitmap
+     * @return the union
+     */
+    public ChunkedBitmap or(ChunkedBitmap other) {
+        ChunkedBitmap result = new ChunkedBitmap(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendChunk(keys[i], chunks[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendChunk(other.keys[j], other.chunks[j].copy());
+                j++;
+            } else {
+                result.appendChunk(keys[i], chunks[i].or(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the integers of the other bitmap to this bitmap.
+     * <p>
+     * Unlike {@link #or(ChunkedBitmap)} this bitmap is updated in place, so
+     * accumulating many bitmaps doesn't copy the growing result each time.
+     *
+     * @param other the other bitmap, which isn't modified
+     */
+    public void addAll(ChunkedBitmap other) {
+        int i = 0;
+        for (int j = 0; j < other.size; j++) {
+            char key = other.keys[j];
+            while (i < size && keys[i] < key) {
+                i++;
+            }
+            if (i < size && keys[i] == key) {
+                chunks[i] = chunks[i].addAll(other.chunks[j]);
+            } else {
+                insertChunk(i, key, other.chunks[j].copy());
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Returns a new bitmap with the integers present in this bitmap but not in the
+     * other.
+     *
+     * @param other the other bitmap
+     * @return the difference
+     */
+    public ChunkedBitmap andNot(ChunkedBitmap other) {
+        ChunkedBitmap result = new ChunkedBitmap(size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendChunk(keys[i], chunks[i].andNot(other.chunks[j]));
+            } else {
+                result.appendChunk(keys[i], chunks[i].copy());
+            }
+        }
+        return result;
+    }
+
+    public ChunkedBitmap copy() {
+        ChunkedBitmap result = new ChunkedBitmap(size);
+        for (int i = 0; i < size; i++) {
+            result.appendChunk(keys[i], chunks[i].copy());
+        }
+        return result;
+    }
+
+    // Appends a chunk with a key greater than all others, skipping empty chunks
+    private void appendChunk(char key, Chunk chunk) {
+        if (chunk.cardinality > 0) {
+            insertChunk(size, key, chunk);
+        }
+    }
+
+    private void insertChunk(int index, char key, Chunk chunk) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        size++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(chunks, index + 1, chunks, index, size - index - 1);
+        chunks[--size] = null;
+    }
+
+    private int indexOf(char key) {
+        // Integers are usually added in increasing order
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("The value can't be negative");
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        for (IntIterator itr = iterator(); itr.hasNext();) {
+            hash = 31 * hash + itr.nextInt();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ChunkedBitmap)) {
+            return false;
+        }
+        return Arrays.equals(toArray(), ((ChunkedBitmap) obj).toArray());
+    }
+
+    protected abstract static class Chunk {
+
+        protected int cardinality;
+
+        abstract boolean add(char value);
+
+        abstract boolean remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Chunk copy();
+
+        abstract BitmapChunk toBitmap();
+
+        Chunk and(Chunk other) {
+            if (this instanceof ArrayChunk) {
+                return ((ArrayChunk) this).filter(other, true);
+            } else if (other instanceof ArrayChunk) {
+                return ((ArrayChunk) other).filter(this, true);
+            }
+            long[] words = ((BitmapChunk) this).words.clone();
+            long[] otherWords = ((BitmapChunk) other).words;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= otherWords[i];
+            }
+            BitmapChunk result = new BitmapChunk(words);
+            result.updateCardinality();
+            return result.compact();
+        }
+
+        Chunk or(Chunk other) {
+            if (this instanceof ArrayChunk && other instanceof ArrayChunk && cardinality + other.cardinality <= ARRAY_MAX_SIZE) {
+                return ((ArrayChunk) this).merge((ArrayChunk) other);
+            }
+            BitmapChunk result = toBitmap();
+            if (result == this) {
+                result = (BitmapChunk) copy();
+            }
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapChunk) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= otherWords[i];
+                }
+                result.updateCardinality();
+            }
+            return result.compact();
+        }
+
+        // Adds the other chunk's integers in place if this is a bitmap chunk,
+        // returns the chunk that replaces this one
+        Chunk addAll(Chunk other) {
+            if (this instanceof ArrayChunk) {
+                return or(other);
+            }
+            BitmapChunk bitmap = (BitmapChunk) this;
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    bitmap.add(array.values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapChunk) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    bitmap.words[i] |= otherWords[i];
+                }
+                bitmap.updateCardinality();
+            }
+            return bitmap;
+        }
+
+        Chunk andNot(Chunk other) {
+            if (this instanceof ArrayChunk) {
+                return ((ArrayChunk) this).filter(other, false);
+            }
+            BitmapChunk result = (BitmapChunk) copy();
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.remove(array.values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapChunk) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] &= ~otherWords[i];
+                }
+                result.updateCardinality();
+            }
+            return result.compact();
+        }
+    }
+
+    protected static final class ArrayChunk extends Chunk {
+
+        protected char[] values;
+
+        ArrayChunk() {
+            this.values = new char[4];
+        }
+
+        ArrayChunk(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean add(char value) {
+            int index;
+            if (cardinality > 0 && values[cardinality - 1] < value) {
+                index = -cardinality - 1;
+            } else {
+                index = Arrays.binarySearch(values, 0, cardinality, value);
+            }
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_MAX_SIZE + 1));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        boolean remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Chunk copy() {
+            return new ArrayChunk(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        BitmapChunk toBitmap() {
+            return toBitmapChunk();
+        }
+
+        BitmapChunk toBitmapChunk() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                char value = values[i];
+                words[value >>> 6] |= 1L << value;
+            }
+            BitmapChunk chunk = new BitmapChunk(words);
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+
+        // Keeps the values contained, or not contained, in the other chunk
+        ArrayChunk filter(Chunk other, boolean contained) {
+            char[] result = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == contained) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayChunk(result, count);
+        }
+
+        ArrayChunk merge(ArrayChunk other) {
+            char[] result = new char[Math.max(cardinality + other.cardinality, 1)];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > other.values[j]) {
+                    result[count++] = other.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayChunk(result, count);
+        }
+    }
+
+    protected static final class BitmapChunk extends Chunk {
+
+        protected final long[] words;
+
+        BitmapChunk(long[] words) {
+            this.words = words;
+        }
+
+        @Override
+        boolean add(char value) {
+            long word = words[value >>> 6];
+            long newWord = word | (1L << value);
+            if (word != newWord) {
+                words[value >>> 6] = newWord;
+                cardinality++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        boolean remove(char value) {
+            long word = words[value >>> 6];
+            long newWord = word & ~(1L << value);
+            if (word != newWord) {
+                words[value >>> 6] = newWord;
+                cardinality--;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Chunk copy() {
+            BitmapChunk chunk = new BitmapChunk(words.clone());
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+
+        @Override
+        BitmapChunk toBitmap() {
+            return this;
+        }
+
+        void updateCardinality() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            cardinality = count;
+        }
+
+        ArrayChunk toArrayChunk() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayChunk(values, count);
+        }
+
+        // Converts to an array chunk if sparse enough
+        Chunk compact() {
+            return cardinality <= ARRAY_MAX_SIZE ? toArrayChunk() : this;
+        }
+    }
+
+    private static final class UnionIterator implements IntIterator {
+
+        private final ChunkedBitmap[] bitmaps;
+        // Next chunk index in each bitmap
+        private final int[] positions;
+        // Union of the chunks with the current key
+        private final long[] words;
+        private int high;
+        private int position = BITMAP_WORDS;
+        private long word;
+
+        UnionIterator(ChunkedBitmap[] bitmaps) {
+            this.bitmaps = bitmaps;
+            this.positions = new int[bitmaps.length];
+            this.words = new long[BITMAP_WORDS];
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (word == 0) {
+                if (position < BITMAP_WORDS) {
+                    word = words[position++];
+                } else if (!nextChunk()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int value = high | (((position - 1) << 6) + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+            return value;
+        }
+
+        // Merges the chunks with the smallest key among the remaining ones
+        private boolean nextChunk() {
+            int key = Integer.MAX_VALUE;
+            for (int i = 0; i < bitmaps.length; i++) {
+                ChunkedBitmap bitmap = bitmaps[i];
+                if (positions[i] < bitmap.size) {
+                    key = Math.min(key, bitmap.keys[positions[i]]);
+                }
+            }
+            if (key == Integer.MAX_VALUE) {
+                return false;
+            }
+            Arrays.fill(words, 0L);
+            for (int i = 0; i < bitmaps.length; i++) {
+                ChunkedBitmap bitmap = bitmaps[i];
+                int index = positions[i];
+                if (index < bitmap.size && bitmap.keys[index] == key) {
+                    Chunk chunk = bitmap.chunks[index];
+                    if (chunk instanceof ArrayChunk) {
+                        ArrayChunk array = (ArrayChunk) chunk;
+                        for (int j = 0; j < array.cardinality; j++) {
+                            char value = array.values[j];
+                            words[value >>> 6] |= 1L << value;
+                        }
+                    } else {
+                        long[] chunkWords = ((BitmapChunk) chunk).words;
+                        for (int j = 0; j < BITMAP_WORDS; j++) {
+                            words[j] |= chunkWords[j];
+                        }
+                    }
+                    positions[i] = index + 1;
+                }
+            }
+            high = key << 16;
+            position = 0;
+            return true;
+        }
+    }
+
+    private final class BitmapIterator implements IntIterator {
+
+        private int chunkIndex;
+        private int position;
+        private long word;
+        private int next = -1;
+
+        @Override
+        public boolean hasNext() {
+            while (next == -1 && chunkIndex < size) {
+                Chunk chunk = chunks[chunkIndex];
+                int high = keys[chunkIndex] << 16;
+                if (chunk instanceof ArrayChunk) {
+                    ArrayChunk array = (ArrayChunk) chunk;
+                    if (position < array.cardinality) {
+                        next = high | array.values[position++];
+                        return true;
+                    }
+                } else {
+                    long[] words = ((BitmapChunk) chunk).words;
+                    while (word == 0 && position < BITMAP_WORDS) {
+                        word = words[position++];
+                    }
+                    if (word != 0) {
+                        next = high | (((position - 1) << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                        return true;
+                    }
+                }
+                chunkIndex++;
+                position = 0;
+                word = 0;
+            }
+            return next != -1;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int value = next;
+            next = -1;
+            return value;
+        }
+    }
+}
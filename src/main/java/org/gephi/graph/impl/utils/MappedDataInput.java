@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl.utils;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Data input reading from a sequence of byte buffers, typically memory-mapped
+ * regions of a file.
+ * <p>
+ * Values may span consecutive buffers, which allows regions larger than a
+ * single buffer to be read.
+ */
+public final class MappedDataInput implements DataInput {
+
+    private final ByteBuffer[] buffers;
+    private int index;
+
+    public MappedDataInput(ByteBuffer... buffers) {
+        this.buffers = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            this.buffers[i] = buffers[i].duplicate();
+        }
+    }
+
+    // Returns the current buffer if it has the given number of bytes remaining,
+    // null otherwise
+    private ByteBuffer buffer(int length) throws EOFException {
+        while (index < buffers.length && !buffers[index].hasRemaining()) {
+            index++;
+        }
+        if (index == buffers.length) {
+            throw new EOFException();
+        }
+        ByteBuffer buffer = buffers[index];
+        return buffer.remaining() >= length ? buffer : null;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer buffer = buffer(1);
+            int length = Math.min(len, buffer.remaining());
+            buffer.get(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        int skipped = 0;
+        while (skipped < n && index < buffers.length) {
+            ByteBuffer buffer = buffers[index];
+            int length = Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + length);
+            skipped += length;
+            if (!buffer.hasRemaining()) {
+                index++;
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return buffer(1).get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        ByteBuffer buffer = buffer(2);
+        if (buffer != null) {
+            return buffer.getShort();
+        }
+        return (short) ((readUnsignedByte() << 8) | readUnsignedByte());
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        ByteBuffer buffer = buffer(4);
+        if (buffer != null) {
+            return buffer.getInt();
+        }
+        return (readUnsignedShort() << 16) | readUnsignedShort();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        ByteBuffer buffer = buffer(8);
+        if (buffer != null) {
+            return buffer.getLong();
+        }
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
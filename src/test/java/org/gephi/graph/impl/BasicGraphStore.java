@@ -35,17 +35,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.gephi.graph.api.Column;
 import org.gephi.graph.api.ColumnIterable;
+import org.gephi.graph.api.CompressedSparseRow;
 import org.gephi.graph.api.DirectedGraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
 import org.gephi.graph.api.EdgeIterable;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.GraphLock;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.NodeIterable;
 import org.gephi.graph.api.SpatialIndex;
@@ -265,6 +270,43 @@ public class BasicGraphStore implements DirectedGraph {
         return new EdgeIterableWrapper(edgeStore.inOutIterator((BasicNode) node));
     }
 
+    @Override
+    public EdgeCursor getEdgeCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public NeighborCursor getNeighborCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public void forEachNeighbor(Node node, IntConsumer consumer) {
+        for (Node neighbor : getNeighbors(node)) {
+            consumer.accept(neighbor.getStoreId());
+        }
+    }
+
+    @Override
+    public EdgeCursor getOutEdgeCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public EdgeCursor getInEdgeCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public NeighborCursor getSuccessorCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public NeighborCursor getPredecessorCursor() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public EdgeIterable getEdges(Node node, int type) {
         return new EdgeIterableWrapper(edgeStore.inOutIterator((BasicNode) node, type));
@@ -1242,6 +1284,11 @@ public class BasicGraphStore implements DirectedGraph {
         public void doBreak() {
         }
 
+        @Override
+        public Stream<Node> parallelStream() {
+            return Collection.super.parallelStream();
+        }
+
         private static class BasicNodeIterator implements Iterator<Node> {
 
             private final Iterator<BasicNode> itr;
@@ -1665,6 +1712,11 @@ public class BasicGraphStore implements DirectedGraph {
         public void doBreak() {
             // Not used because no locking
         }
+
+        @Override
+        public Stream<Node> parallelStream() {
+            return toCollection().parallelStream();
+        }
     }
 
     protected class EdgeIterableWrapper implements EdgeIterable {
@@ -1711,10 +1763,30 @@ public class BasicGraphStore implements DirectedGraph {
         public void doBreak() {
             // Not used because no locking
         }
+
+        @Override
+        public Stream<Edge> parallelStream() {
+            return toCollection().parallelStream();
+        }
     }
 
     @Override
     public SpatialIndex getSpatialIndex() {
         return null;
     }
+
+    @Override
+    public CompressedSparseRow toCSR() {
+        return null;
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(boolean weights) {
+        return null;
+    }
+
+    @Override
+    public CompressedSparseRow toCSR(int type, boolean weights) {
+        return null;
+    }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import java.util.BitSet;
+import java.util.Random;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ChunkedBitmapTest {
+
+    @Test
+    public void testEmpty() {
+        ChunkedBitmap bitmap = new ChunkedBitmap();
+        Assert.assertTrue(bitmap.isEmpty());
+        Assert.assertEquals(bitmap.cardinality(), 0);
+        Assert.assertFalse(bitmap.contains(0));
+        Assert.assertFalse(bitmap.iterator().hasNext());
+        Assert.assertFalse(bitmap.remove(0));
+    }
+
+    @Test
+    public void testAddRemove() {
+        ChunkedBitmap bitmap = new ChunkedBitmap();
+        Assert.assertTrue(bitmap.add(5));
+        Assert.assertFalse(bitmap.add(5));
+        Assert.assertTrue(bitmap.add(70000));
+        Assert.assertTrue(bitmap.add(0));
+        Assert.assertEquals(bitmap.cardinality(), 3);
+        Assert.assertTrue(bitmap.contains(70000));
+        Assert.assertFalse(bitmap.contains(4));
+        Assert.assertEquals(bitmap.toArray(), new int[] { 0, 5, 70000 });
+
+        Assert.assertTrue(bitmap.remove(70000));
+        Assert.assertFalse(bitmap.remove(70000));
+        Assert.assertEquals(bitmap.toArray(), new int[] { 0, 5 });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddNegative() {
+        new ChunkedBitmap().add(-1);
+    }
+
+    @Test
+    public void testDenseChunk() {
+        ChunkedBitmap bitmap = new ChunkedBitmap();
+        for (int i = 0; i < 10000; i++) {
+            bitmap.add(i * 2);
+        }
+        Assert.assertEquals(bitmap.cardinality(), 10000);
+        Assert.assertTrue(bitmap.contains(19998));
+        Assert.assertFalse(bitmap.contains(19999));
+
+        for (int i = 0; i < 9000; i++) {
+            bitmap.remove(i * 2);
+        }
+        Assert.assertEquals(bitmap.cardinality(), 1000);
+        Assert.assertEquals(bitmap.toArray()[0], 18000);
+    }
+
+    @Test
+    public void testIterator() {
+        ChunkedBitmap bitmap = new ChunkedBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(300000);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        IntIterator itr = bitmap.iterator();
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            Assert.assertTrue(itr.hasNext());
+            Assert.assertEquals(itr.nextInt(), i);
+        }
+        Assert.assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void testOperations() {
+        Random random = new Random(123);
+        // Mix sparse and dense chunks
+        int[] bounds = { 1000, 100000, 400000 };
+        for (int bound : bounds) {
+            ChunkedBitmap a = new ChunkedBitmap();
+            ChunkedBitmap b = new ChunkedBitmap();
+            BitSet setA = new BitSet();
+            BitSet setB = new BitSet();
+            for (int i = 0; i < 30000; i++) {
+                int va = random.nextInt(bound);
+                int vb = random.nextInt(bound / 2 + 1);
+                a.add(va);
+                setA.set(va);
+                b.add(vb);
+                setB.set(vb);
+            }
+
+            BitSet and = (BitSet) setA.clone();
+            and.and(setB);
+            BitSet or = (BitSet) setA.clone();
+            or.or(setB);
+            BitSet andNot = (BitSet) setA.clone();
+            andNot.andNot(setB);
+
+            Assert.assertEquals(a.and(b).toArray(), and.stream().toArray());
+            Assert.assertEquals(a.or(b).toArray(), or.stream().toArray());
+            Assert.assertEquals(a.andNot(b).toArray(), andNot.stream().toArray());
+            Assert.assertEquals(a.and(b).cardinality(), and.cardinality());
+            Assert.assertEquals(a.or(b).cardinality(), or.cardinality());
+            Assert.assertEquals(a.andNot(b).cardinality(), andNot.cardinality());
+        }
+    }
+
+    @Test
+    public void testUnionIterator() {
+        Random random = new Random(7);
+        // Mix sparse and dense chunks, and bitmaps with disjoint chunks
+        int[] bounds = { 1000, 100000, 400000 };
+        ChunkedBitmap[] bitmaps = new ChunkedBitmap[bounds.length + 1];
+        BitSet expected = new BitSet();
+        for (int i = 0; i < bounds.length; i++) {
+            bitmaps[i] = new ChunkedBitmap();
+            for (int j = 0; j < 20000; j++) {
+                int value = random.nextInt(bounds[i]);
+                bitmaps[i].add(value);
+                expected.set(value);
+            }
+        }
+        bitmaps[bounds.length] = new ChunkedBitmap();
+
+        IntIterator itr = ChunkedBitmap.unionIterator(bitmaps);
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            Assert.assertTrue(itr.hasNext());
+            Assert.assertEquals(itr.nextInt(), i);
+        }
+        Assert.assertFalse(itr.hasNext());
+        Assert.assertEquals(bitmaps[0].or(bitmaps[1]).or(bitmaps[2]).cardinality(), expected.cardinality());
+    }
+
+    @Test
+    public void testAddAll() {
+        Random random = new Random(11);
+        // Mix sparse and dense chunks, the result turns array chunks into bitmaps
+        int[] bounds = { 1000, 100000, 400000, 5000 };
+        ChunkedBitmap result = new ChunkedBitmap();
+        BitSet expected = new BitSet();
+        for (int bound : bounds) {
+            ChunkedBitmap bitmap = new ChunkedBitmap();
+            for (int j = 0; j < 20000; j++) {
+                int value = random.nextInt(bound);
+                bitmap.add(value);
+                expected.set(value);
+            }
+            ChunkedBitmap copy = bitmap.copy();
+            result.addAll(bitmap);
+            Assert.assertEquals(bitmap, copy);
+        }
+        Assert.assertEquals(result.toArray(), expected.stream().toArray());
+        Assert.assertEquals(result.cardinality(), expected.cardinality());
+
+        // Chunks added to the result aren't shared with the operand
+        ChunkedBitmap other = new ChunkedBitmap();
+        other.add(1 << 20);
+        result.addAll(other);
+        result.add((1 << 20) + 1);
+        Assert.assertEquals(other.cardinality(), 1);
+    }
+
+    @Test
+    public void testUnionIteratorEmpty() {
+        Assert.assertFalse(ChunkedBitmap.unionIterator().hasNext());
+        Assert.assertFalse(ChunkedBitmap.unionIterator(new ChunkedBitmap(), new ChunkedBitmap()).hasNext());
+    }
+
+    @Test
+    public void testOperationsDontModifyOperands() {
+        ChunkedBitmap a = new ChunkedBitmap();
+        ChunkedBitmap b = new ChunkedBitmap();
+        for (int i = 0; i < 5000; i++) {
+            a.add(i);
+            b.add(i + 2500);
+        }
+        a.or(b);
+        a.and(b);
+        a.andNot(b);
+        Assert.assertEquals(a.cardinality(), 5000);
+        Assert.assertEquals(b.cardinality(), 5000);
+    }
+
+    @Test
+    public void testCopyEquals() {
+        ChunkedBitmap a = new ChunkedBitmap();
+        a.add(1);
+        a.add(100000);
+        ChunkedBitmap copy = a.copy();
+        Assert.assertEquals(copy, a);
+        Assert.assertEquals(copy.hashCode(), a.hashCode());
+        copy.add(2);
+        Assert.assertNotEquals(copy, a);
+        Assert.assertFalse(a.contains(2));
+    }
+}
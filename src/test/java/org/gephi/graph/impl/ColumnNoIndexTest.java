@@ -176,6 +176,26 @@ public class ColumnNoIndexTest {
         Assert.assertEquals(ageIndex.getMaxValue(), 12);
     }
 
+    @Test
+    public void testRange() {
+        Node n1 = addNodeWithAttribute(graphStore, ageIndex.getColumn(), "1", 12);
+        addNodeWithAttribute(graphStore, ageIndex.getColumn(), "2", null);
+        Node n3 = addNodeWithAttribute(graphStore, ageIndex.getColumn(), "3", 6);
+        Node n4 = addNodeWithAttribute(graphStore, ageIndex.getColumn(), "4", 9);
+
+        Assert.assertEquals(ageIndex.getRange(6, 12, true), Arrays.asList(n3, n4, n1));
+        Assert.assertEquals(ageIndex.getRange(6, 12, false), Collections.singletonList(n4));
+        Assert.assertEquals(ageIndex.getRange(null, 9, true), Arrays.asList(n3, n4));
+        Assert.assertEquals(ageIndex.countRange(7, null, true), 2);
+        Assert.assertEquals(ageIndex.topK(2, true), Arrays.asList(n1, n4));
+        Assert.assertEquals(ageIndex.getSorted(false), Arrays.asList(n3, n4, n1));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testRangeNotSortable() {
+        fooIndex.getRange("a", "b", true);
+    }
+
     @Test(expectedExceptions = UnsupportedOperationException.class)
     public void testGetMaxValueNotSortable() {
         fooIndex.getMaxValue();
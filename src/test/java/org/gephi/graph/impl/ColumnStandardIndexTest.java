@@ -23,6 +23,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,7 @@ import java.util.Set;
 import org.gephi.graph.api.Column;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.Origin;
+import org.gephi.graph.impl.utils.ChunkedBitmap;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -191,6 +193,90 @@ public class ColumnStandardIndexTest {
         index.getMaxValue(index.columnStore.getColumn("foo"));
     }
 
+    @Test
+    public void testGetRange() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        NodeImpl[] nodes = generateNodesWithUniqueAttributes(index, true);
+        putAll(nodes, index);
+        Column ageCol = index.columnStore.getColumn("age");
+
+        Assert.assertEquals(getIterable(index.getRange(ageCol, 20, 40, true)), filterAge(nodes, ageCol, 20, 40, true));
+        Assert.assertEquals(getIterable(index
+                .getRange(ageCol, 20, 40, false)), filterAge(nodes, ageCol, 20, 40, false));
+        Assert.assertEquals(getIterable(index
+                .getRange(ageCol, null, 10, true)), filterAge(nodes, ageCol, null, 10, true));
+        Assert.assertEquals(getIterable(index
+                .getRange(ageCol, 90, null, false)), filterAge(nodes, ageCol, 90, null, false));
+        Assert.assertEquals(getIterable(index.getRange(ageCol, 40, 20, true)).length, 0);
+        Assert.assertEquals(getIterable(index.getRange(ageCol, 20, 20, false)).length, 0);
+    }
+
+    @Test
+    public void testCountRange() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        NodeImpl[] nodes = generateNodesWithUniqueAttributes(index, true);
+        putAll(nodes, index);
+        Column ageCol = index.columnStore.getColumn("age");
+
+        Assert.assertEquals(index.countRange(ageCol, 20, 40, true), filterAge(nodes, ageCol, 20, 40, true).length);
+        Assert.assertEquals(index.countRange(ageCol, 20, 40, false), filterAge(nodes, ageCol, 20, 40, false).length);
+        Assert.assertEquals(index
+                .countRange(ageCol, null, null, true), filterAge(nodes, ageCol, null, null, true).length);
+    }
+
+    @Test
+    public void testRangeBigInteger() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        NodeImpl[] nodes = generateNodesWithUniqueAttributes(index, false);
+        putAll(nodes, index);
+        Column bigIntCol = index.columnStore.getColumn("big_int");
+
+        Assert.assertEquals(index.countRange(bigIntCol, BigInteger.valueOf(10), BigInteger.valueOf(19), true), 10);
+    }
+
+    @Test
+    public void testTopK() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        NodeImpl[] nodes = generateNodesWithUniqueAttributes(index, true);
+        putAll(nodes, index);
+        Column ageCol = index.columnStore.getColumn("age");
+
+        Node[] sorted = filterAge(nodes, ageCol, null, null, true);
+        Assert.assertEquals(getIterable(index.topK(ageCol, 5, false)), Arrays.copyOf(sorted, 5));
+        Node[] top = getIterable(index.topK(ageCol, 5, true));
+        for (int i = 0; i < top.length; i++) {
+            Assert.assertSame(top[i], sorted[sorted.length - 1 - i]);
+        }
+        Assert.assertEquals(getIterable(index.topK(ageCol, 0, true)).length, 0);
+        Assert.assertEquals(getIterable(index.topK(ageCol, 1000, true)).length, sorted.length);
+    }
+
+    @Test
+    public void testGetSorted() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        NodeImpl[] nodes = generateNodesWithUniqueAttributes(index, true);
+        putAll(nodes, index);
+        Column ageCol = index.columnStore.getColumn("age");
+
+        Node[] sorted = filterAge(nodes, ageCol, null, null, true);
+        Assert.assertEquals(getIterable(index.getSorted(ageCol, false)), sorted);
+        List<Node> reversed = Arrays.asList(getIterable(index.getSorted(ageCol, true)));
+        Collections.reverse(reversed);
+        Assert.assertEquals(reversed.toArray(), sorted);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTopKNegative() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        index.topK(index.columnStore.getColumn("age"), -1, true);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testRangeNoNumber() {
+        IndexImpl<Node> index = generateEmptyIndex();
+        index.getRange(index.columnStore.getColumn("foo"), "a", "b", true);
+    }
+
     @Test
     public void testValues() {
         IndexImpl<Node> index = generateEmptyIndex();
@@ -588,6 +674,50 @@ public class ColumnStandardIndexTest {
         Assert.assertTrue(index.getColumnIndex(column).getVersion() > version);
     }
 
+    @Test
+    public void testStoreIdBitmaps() {
+        GraphStore graphStore = new GraphStore();
+        Column col = graphStore.nodeTable.addColumn("flag", Boolean.class);
+        Column ageCol = graphStore.nodeTable.addColumn("age", Integer.class);
+        Node[] nodes = new Node[10000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphStore.factory.newNode(String.valueOf(i));
+            nodes[i].setAttribute(col, i % 3 == 0);
+            nodes[i].setAttribute(ageCol, i % 100);
+            graphStore.addNode(nodes[i]);
+        }
+        ColumnStandardIndexImpl<Boolean, Node> index = (ColumnStandardIndexImpl<Boolean, Node>) graphStore.nodeTable.store.indexStore.mainIndex
+                .getIndex((ColumnImpl) col);
+        ColumnStandardIndexImpl<Integer, Node> ageIndex = (ColumnStandardIndexImpl<Integer, Node>) graphStore.nodeTable.store.indexStore.mainIndex
+                .getIndex((ColumnImpl) ageCol);
+
+        ColumnStandardIndexImpl.ValueSet<Boolean, Node> valueSet = index.getValueSet(true);
+        Assert.assertEquals(valueSet.bitmap.cardinality(), 3334);
+        Assert.assertEquals(valueSet.size(), 3334);
+        Assert.assertTrue(valueSet.contains(nodes[0]));
+        Assert.assertFalse(valueSet.contains(nodes[1]));
+
+        ChunkedBitmap result = index.getBitmap(true).and(ageIndex.getRangeBitmap(10, 19, true));
+        Set<Node> expected = new ObjectOpenHashSet<>();
+        for (int i = 0; i < nodes.length; i++) {
+            if (i % 3 == 0 && i % 100 >= 10 && i % 100 < 20) {
+                expected.add(nodes[i]);
+            }
+        }
+        Set<Node> actual = new ObjectOpenHashSet<>();
+        index.getElements(result).forEach(actual::add);
+        Assert.assertEquals(actual, expected);
+
+        ChunkedBitmap notFlagged = ageIndex.getBitmap(0).andNot(index.getBitmap(true));
+        Assert.assertEquals(notFlagged.cardinality(), 66);
+
+        graphStore.removeNode(nodes[0]);
+        Assert.assertEquals(index.count(true), 3333);
+        nodes[3].setAttribute(col, false);
+        Assert.assertEquals(index.count(true), 3332);
+        Assert.assertEquals(index.count(false), 6667);
+    }
+
     // UTILITIES
     private NodeImpl[] generateNodesWithUniqueAttributes(IndexImpl<Node> index, boolean withNulls) {
         int count = 100;
@@ -639,6 +769,19 @@ public class ColumnStandardIndexTest {
         return columnStore;
     }
 
+    // Nodes are generated with increasing ages so filtering keeps them sorted
+    private Node[] filterAge(NodeImpl[] nodes, Column ageCol, Integer from, Integer to, boolean inclusive) {
+        List<Node> list = new ArrayList<>();
+        for (NodeImpl n : nodes) {
+            Integer age = (Integer) n.getAttribute(ageCol);
+            if (age != null && (from == null || age > from || (inclusive && age
+                    .equals(from))) && (to == null || age < to || (inclusive && age.equals(to)))) {
+                list.add(n);
+            }
+        }
+        return list.toArray(new Node[0]);
+    }
+
     private Node[] getIterable(Iterable<Node> itr) {
         List<Node> list = new ArrayList<>();
         for (Node n : itr) {
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Configuration;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ColumnarAttributeStoreTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        Assert.assertNull(graphModel.store.nodeTable.store.columnarStore);
+        Assert.assertNull(graphModel.store.edgeTable.store.columnarStore);
+    }
+
+    @Test
+    public void testSupportedTypes() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Column f = graphModel.getNodeTable().addColumn("f", Float.class);
+        Column i = graphModel.getNodeTable().addColumn("i", Integer.class);
+        Column l = graphModel.getNodeTable().addColumn("l", Long.class);
+        Column b = graphModel.getNodeTable().addColumn("b", Boolean.class);
+        Column s = graphModel.getNodeTable().addColumn("s", String.class);
+
+        ColumnarAttributeStore columnarStore = graphModel.store.nodeTable.store.columnarStore;
+        Assert.assertTrue(columnarStore.getArray(d) instanceof ColumnarAttributeStore.DoubleColumnArray);
+        Assert.assertTrue(columnarStore.getArray(f) instanceof ColumnarAttributeStore.FloatColumnArray);
+        Assert.assertTrue(columnarStore.getArray(i) instanceof ColumnarAttributeStore.IntColumnArray);
+        Assert.assertTrue(columnarStore.getArray(l) instanceof ColumnarAttributeStore.LongColumnArray);
+        Assert.assertTrue(columnarStore.getArray(b) instanceof ColumnarAttributeStore.BooleanColumnArray);
+        Assert.assertNull(columnarStore.getArray(s));
+        Assert.assertNull(columnarStore.getArray(graphModel.getNodeTable().getColumn("id")));
+    }
+
+    @Test
+    public void testSetGetAttribute() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Column b = graphModel.getNodeTable().addColumn("b", Boolean.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        Node n2 = graphModel.factory().newNode("2");
+        graphModel.store.addNode(n1);
+        graphModel.store.addNode(n2);
+
+        n1.setAttribute(d, 1.5);
+        n2.setAttribute(d, 2.5);
+        n1.setAttribute(b, true);
+        n2.setAttribute(b, false);
+
+        Assert.assertEquals(n1.getAttribute(d), 1.5);
+        Assert.assertEquals(n2.getAttribute(d), 2.5);
+        Assert.assertEquals(n1.getAttribute(b), Boolean.TRUE);
+        Assert.assertEquals(n2.getAttribute(b), Boolean.FALSE);
+        Assert.assertNull(((NodeImpl) n1).attributes.getAttribute(d));
+
+        ColumnarAttributeStore.DoubleColumnArray array = (ColumnarAttributeStore.DoubleColumnArray) graphModel.store.nodeTable.store.columnarStore
+                .getArray(d);
+        Assert.assertEquals(array.getDouble(n2.getStoreId()), 2.5);
+    }
+
+    @Test
+    public void testNullValue() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column i = graphModel.getNodeTable().addColumn("i", Integer.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        Assert.assertNull(n1.getAttribute(i));
+
+        n1.setAttribute(i, 0);
+        Assert.assertEquals(n1.getAttribute(i), 0);
+
+        n1.setAttribute(i, null);
+        Assert.assertNull(n1.getAttribute(i));
+    }
+
+    @Test
+    public void testRemoveAttribute() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column l = graphModel.getNodeTable().addColumn("l", "l", Long.class, 7L);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        n1.setAttribute(l, 42L);
+
+        Assert.assertEquals(n1.removeAttribute(l), 42L);
+        Assert.assertEquals(n1.getAttribute(l), 7L);
+    }
+
+    @Test
+    public void testAddRemoveElement() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column f = graphModel.getNodeTable().addColumn("f", Float.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        n1.setAttribute(f, 1f);
+        graphModel.store.addNode(n1);
+
+        Assert.assertEquals(n1.getAttribute(f), 1f);
+        Assert.assertNull(((NodeImpl) n1).attributes.getAttribute(f));
+
+        n1.setAttribute(f, 2f);
+        graphModel.store.removeNode(n1);
+        Assert.assertEquals(n1.getAttribute(f), 2f);
+        Assert.assertEquals(((NodeImpl) n1).attributes.getAttribute(f), 2f);
+
+        Node n2 = graphModel.factory().newNode("2");
+        graphModel.store.addNode(n2);
+        Assert.assertEquals(n2.getStoreId(), 0);
+        Assert.assertNull(n2.getAttribute(f));
+    }
+
+    @Test
+    public void testClear() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        n1.setAttribute(d, 3.0);
+
+        graphModel.store.clear();
+        Assert.assertEquals(n1.getAttribute(d), 3.0);
+    }
+
+    @Test
+    public void testAddColumnDefaultValue() {
+        GraphModelImpl graphModel = createGraphModel();
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+
+        Column i = graphModel.getNodeTable().addColumn("i", "i", Integer.class, 5);
+        Assert.assertEquals(n1.getAttribute(i), 5);
+        Assert.assertNull(((NodeImpl) n1).attributes.getAttribute(i));
+    }
+
+    @Test
+    public void testRemoveColumn() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        n1.setAttribute(d, 1.0);
+
+        graphModel.getNodeTable().removeColumn(d);
+        Column s = graphModel.getNodeTable().addColumn("s", String.class);
+        Assert.assertNull(n1.getAttribute(s));
+
+        Column d2 = graphModel.getNodeTable().addColumn("d2", Double.class);
+        Assert.assertNull(n1.getAttribute(d2));
+    }
+
+    @Test
+    public void testGetAttributes() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Column s = graphModel.getNodeTable().addColumn("s", String.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        n1.setAttribute(d, 1.0);
+        n1.setAttribute(s, "foo");
+
+        Object[] attributes = n1.getAttributes();
+        Assert.assertEquals(attributes[d.getIndex()], 1.0);
+        Assert.assertEquals(attributes[s.getIndex()], "foo");
+        Assert.assertEquals(attributes[0], "1");
+    }
+
+    @Test
+    public void testIndex() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column i = graphModel.getNodeTable().addColumn("i", Integer.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        Node n2 = graphModel.factory().newNode("2");
+        n1.setAttribute(i, 1);
+        n2.setAttribute(i, 1);
+        graphModel.store.addNode(n1);
+        graphModel.store.addNode(n2);
+
+        Assert.assertEquals(graphModel.getNodeIndex().count(i, 1), 2);
+
+        n2.setAttribute(i, 2);
+        Assert.assertEquals(graphModel.getNodeIndex().count(i, 1), 1);
+        Assert.assertEquals(graphModel.getNodeIndex().count(i, 2), 1);
+
+        graphModel.store.removeNode(n1);
+        Assert.assertEquals(graphModel.getNodeIndex().count(i, 1), 0);
+    }
+
+    @Test
+    public void testEdgeAttributes() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getEdgeTable().addColumn("d", Double.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        Node n2 = graphModel.factory().newNode("2");
+        graphModel.store.addNode(n1);
+        graphModel.store.addNode(n2);
+        Edge e = graphModel.factory().newEdge(n1, n2);
+        graphModel.store.addEdge(e);
+
+        e.setAttribute(d, 4.0);
+        e.setWeight(2.0);
+        Assert.assertEquals(e.getAttribute(d), 4.0);
+        Assert.assertEquals(e.getWeight(), 2.0);
+    }
+
+    @Test
+    public void testBulkLoad() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column i = graphModel.getNodeTable().addColumn("i", Integer.class);
+
+        Node[] nodes = new Node[100];
+        for (int j = 0; j < nodes.length; j++) {
+            nodes[j] = graphModel.factory().newNode(String.valueOf(j));
+            nodes[j].setAttribute(i, j);
+        }
+        graphModel.bulkLoader().addNodes(nodes);
+
+        for (int j = 0; j < nodes.length; j++) {
+            Assert.assertEquals(nodes[j].getAttribute(i), j);
+            Assert.assertNull(((NodeImpl) nodes[j]).attributes.getAttribute(i));
+        }
+        Assert.assertEquals(graphModel.getNodeIndex().count(i, 42), 1);
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Column b = graphModel.getNodeTable().addColumn("b", Boolean.class);
+
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.store.addNode(n1);
+        n1.setAttribute(d, 1.0);
+        n1.setAttribute(b, true);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GraphModel.Serialization.write(new DataOutputStream(bos), graphModel);
+        GraphModel read = GraphModel.Serialization
+                .read(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+
+        Node n = read.getGraph().getNode("1");
+        Assert.assertEquals(n.getAttribute("d"), 1.0);
+        Assert.assertEquals(n.getAttribute("b"), Boolean.TRUE);
+    }
+
+    @Test
+    public void testCompact() {
+        GraphModelImpl graphModel = createGraphModel();
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Column b = graphModel.getNodeTable().addColumn("b", Boolean.class);
+
+        Node[] nodes = new Node[100];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphModel.factory().newNode(String.valueOf(i));
+            graphModel.store.addNode(nodes[i]);
+            nodes[i].setAttribute(d, (double) i);
+            if (i % 4 != 0) {
+                nodes[i].setAttribute(b, i % 2 == 0);
+            }
+        }
+        for (int i = 0; i < nodes.length; i += 3) {
+            graphModel.store.removeNode(nodes[i]);
+        }
+
+        Assert.assertTrue(graphModel.compact());
+        for (int i = 0; i < nodes.length; i++) {
+            if (i % 3 != 0) {
+                Assert.assertEquals(nodes[i].getAttribute(d), (double) i);
+                Assert.assertEquals(nodes[i].getAttribute(b), i % 4 != 0 ? i % 2 == 0 : null);
+            }
+        }
+        Node n = graphModel.factory().newNode("new");
+        graphModel.store.addNode(n);
+        Assert.assertNull(n.getAttribute(d));
+        Assert.assertNull(n.getAttribute(b));
+    }
+
+    @Test
+    public void testColumnArrayGrow() {
+        ColumnarAttributeStore.BooleanColumnArray array = new ColumnarAttributeStore.BooleanColumnArray(
+                ColumnarAttributeStore.DEFAULT_CAPACITY);
+        array.set(100, true);
+        array.set(101, false);
+
+        Assert.assertEquals(array.get(100), Boolean.TRUE);
+        Assert.assertEquals(array.get(101), Boolean.FALSE);
+        Assert.assertNull(array.get(99));
+        Assert.assertNull(array.get(1000));
+        Assert.assertEquals(array.set(100, null), Boolean.TRUE);
+        Assert.assertTrue(array.isNull(100));
+    }
+
+    @Test
+    public void testColumnArrayReadWhileGrowing() throws Exception {
+        ColumnarAttributeStore.DoubleColumnArray array = new ColumnarAttributeStore.DoubleColumnArray(1);
+        final int count = 100000;
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                array.set(i, (double) i);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            for (int i = count - 1; i >= 0; i -= 97) {
+                Object value = array.get(i);
+                if (value != null) {
+                    Assert.assertEquals(value, (double) i);
+                }
+            }
+        }
+        writer.join();
+        Assert.assertEquals(array.get(count - 1), (double) (count - 1));
+    }
+
+    private GraphModelImpl createGraphModel() {
+        return new GraphModelImpl(Configuration.builder().enableColumnarAttributes(true).build());
+    }
+}
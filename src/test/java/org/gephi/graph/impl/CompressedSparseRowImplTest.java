@@ -0,0 +1,204 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.gephi.graph.api.CompressedSparseRow;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Subgraph;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CompressedSparseRowImplTest {
+
+    @Test
+    public void testEmpty() {
+        GraphStore graphStore = GraphGenerator.generateEmptyGraphStore();
+        CompressedSparseRow csr = graphStore.toCSR();
+        Assert.assertEquals(csr.getRowCount(), 0);
+        Assert.assertEquals(csr.getEntryCount(), 0);
+        Assert.assertEquals(csr.getOffsets(), new int[] { 0 });
+        Assert.assertNull(csr.getWeights());
+    }
+
+    @Test
+    public void testDirected() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        CompressedSparseRow csr = graphStore.toCSR();
+        Assert.assertEquals(csr.getRowCount(), graphStore.nodeStore.maxStoreId());
+        Assert.assertEquals(csr.getEntryCount(), graphStore.getEdgeCount());
+        assertRows(csr, graphStore, false);
+    }
+
+    @Test
+    public void testMixed() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        assertRows(graphStore.toCSR(), graphStore, false);
+    }
+
+    @Test
+    public void testUndirected() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        Graph undirected = graphStore.undirectedDecorator;
+        assertRows(undirected.toCSR(), undirected, true);
+    }
+
+    @Test
+    public void testSelfLoop() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStoreWithSelfLoop();
+        assertRows(graphStore.toCSR(), graphStore, false);
+        assertRows(graphStore.undirectedDecorator.toCSR(), graphStore.undirectedDecorator, true);
+    }
+
+    @Test
+    public void testType() {
+        GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
+        for (int type : graphStore.edgeTypeStore.getIdsAsInts()) {
+            CompressedSparseRow csr = graphStore.toCSR(type, false);
+            Assert.assertEquals(csr.getEntryCount(), graphStore.getEdgeCount(type));
+            assertRows(csr, graphStore, false, type);
+        }
+    }
+
+    @Test
+    public void testView() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        GraphView view = graphStore.viewStore.createView();
+        Subgraph subgraph = graphStore.viewStore.getGraph(view);
+        List<Node> nodes = new ArrayList<>(graphStore.getNodes().toCollection());
+        for (int i = 0; i < nodes.size(); i += 2) {
+            subgraph.addNode(nodes.get(i));
+        }
+        for (Edge edge : graphStore.getEdges().toArray()) {
+            if (subgraph.contains(edge.getSource()) && subgraph.contains(edge.getTarget())) {
+                subgraph.addEdge(edge);
+            }
+        }
+        CompressedSparseRow csr = subgraph.toCSR();
+        Assert.assertEquals(csr.getRowCount(), graphStore.nodeStore.maxStoreId());
+        Assert.assertEquals(csr.getEntryCount(), subgraph.getEdgeCount());
+        assertRows(csr, subgraph, false);
+    }
+
+    @Test
+    public void testWeights() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
+        Edge edge = graphStore.getEdges().toArray()[0];
+        edge.setWeight(4.5);
+        CompressedSparseRow csr = graphStore.toCSR(true);
+        int source = edge.getSource().getStoreId();
+        Assert.assertEquals(csr.getTargets()[csr.getOffsets()[source]], edge.getTarget().getStoreId());
+        Assert.assertEquals(csr.getWeights()[csr.getOffsets()[source]], 4.5);
+    }
+
+    @Test
+    public void testUndirectedWeights() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
+        Edge edge = graphStore.getEdges().toArray()[0];
+        edge.setWeight(2.0);
+        CompressedSparseRow csr = graphStore.undirectedDecorator.toCSR(true);
+        int target = edge.getTarget().getStoreId();
+        Assert.assertEquals(csr.getTargets()[csr.getOffsets()[target]], edge.getSource().getStoreId());
+        Assert.assertEquals(csr.getWeights()[csr.getOffsets()[target]], 2.0);
+    }
+
+    @Test
+    public void testRefresh() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        CompressedSparseRow csr = graphStore.toCSR();
+        int[] offsets = csr.getOffsets();
+        Assert.assertFalse(csr.refresh());
+        Assert.assertSame(csr.getOffsets(), offsets);
+
+        Edge edge = graphStore.getEdges().toArray()[0];
+        graphStore.removeEdge(edge);
+        Assert.assertTrue(csr.refresh());
+        Assert.assertSame(csr.getOffsets(), offsets);
+        Assert.assertEquals(csr.getEntryCount(), graphStore.getEdgeCount());
+        assertRows(csr, graphStore, false);
+        Assert.assertFalse(csr.refresh());
+    }
+
+    @Test
+    public void testRefreshView() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        GraphView view = graphStore.viewStore.createView();
+        Subgraph subgraph = graphStore.viewStore.getGraph(view);
+        CompressedSparseRow csr = subgraph.toCSR();
+        Assert.assertEquals(csr.getEntryCount(), 0);
+
+        subgraph.fill();
+        Assert.assertTrue(csr.refresh());
+        Assert.assertEquals(csr.getEntryCount(), graphStore.getEdgeCount());
+        assertRows(csr, subgraph, false);
+    }
+
+    @Test
+    public void testSnapshot() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        CompressedSparseRow expected = graphStore.toCSR(true);
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        graphStore.clearEdges();
+
+        CompressedSparseRow csr = snapshot.toCSR(true);
+        Assert.assertEquals(csr.getOffsets(), expected.getOffsets());
+        Assert.assertFalse(csr.refresh());
+        for (int i = 0; i < csr.getRowCount(); i++) {
+            Assert.assertEquals(row(csr, i), row(expected, i));
+        }
+    }
+
+    private static void assertRows(CompressedSparseRow csr, Graph graph, boolean undirected) {
+        assertRows(csr, graph, undirected, CompressedSparseRowImpl.ANY_TYPE);
+    }
+
+    private static void assertRows(CompressedSparseRow csr, Graph graph, boolean undirected, int type) {
+        List<List<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < csr.getRowCount(); i++) {
+            expected.add(new ArrayList<>());
+        }
+        for (Edge edge : graph.getEdges()) {
+            if (type != CompressedSparseRowImpl.ANY_TYPE && edge.getType() != type) {
+                continue;
+            }
+            int source = edge.getSource().getStoreId();
+            int target = edge.getTarget().getStoreId();
+            expected.get(source).add(target);
+            if ((undirected || !edge.isDirected()) && source != target) {
+                expected.get(target).add(source);
+            }
+        }
+        for (int i = 0; i < csr.getRowCount(); i++) {
+            List<Integer> list = expected.get(i);
+            Collections.sort(list);
+            Assert.assertEquals(row(csr, i), list);
+        }
+    }
+
+    private static List<Integer> row(CompressedSparseRow csr, int row) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = csr.getOffsets()[row]; i < csr.getOffsets()[row + 1]; i++) {
+            list.add(csr.getTargets()[i]);
+        }
+        Collections.sort(list);
+        return list;
+    }
+}
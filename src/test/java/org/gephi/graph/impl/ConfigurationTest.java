@@ -290,6 +290,8 @@ public class ConfigurationTest {
         Configuration c = Configuration.builder().build();
         Assert.assertNotNull(c.toString());
         Assert.assertTrue(c.toString().contains(c.getTimeRepresentation().name()));
+        Assert.assertTrue(Configuration.builder().enableOptimisticReads(true).build().toString()
+                .contains("enableOptimisticReads:true"));
     }
 
     @Test
@@ -0,0 +1,263 @@
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.gephi.graph.api.ColumnIndex;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Subgraph;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DegreeIndexTest {
+
+    @Test
+    public void testEmpty() {
+        GraphStore store = GraphGenerator.generateEmptyGraphStore();
+        DegreeIndexImpl index = new DegreeIndexImpl(store, DegreeIndexImpl.DegreeType.DEGREE);
+        Assert.assertEquals(index.countElements(), 0);
+        Assert.assertEquals(index.countValues(), 0);
+        Assert.assertEquals(index.count(0), 0);
+        Assert.assertFalse(index.get(0).iterator().hasNext());
+        Assert.assertTrue(index.isSortable());
+        Assert.assertSame(index.getColumn(), store.getModel().defaultColumns().degree());
+        Assert.assertNull(index.getMinValue());
+        Assert.assertNull(index.getMaxValue());
+        Assert.assertTrue(index.values().isEmpty());
+    }
+
+    @Test
+    public void testOneNode() {
+        GraphStore store = new GraphStore();
+        Node node = store.factory.newNode();
+        store.addNode(node);
+        DegreeIndexImpl index = new DegreeIndexImpl(store, DegreeIndexImpl.DegreeType.DEGREE);
+        Assert.assertEquals(index.countElements(), 1);
+        Assert.assertEquals(index.countValues(), 1);
+        Assert.assertEquals(index.count(0), 1);
+        Assert.assertEquals(index.getMinValue().intValue(), 0);
+        Assert.assertEquals(index.getMaxValue().intValue(), 0);
+    }
+
+    @Test
+    public void testSmallGraph() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        Node node = graph.getModel().factory().newNode();
+        graph.addNode(node);
+
+        DegreeIndexImpl index = new DegreeIndexImpl(graph, DegreeIndexImpl.DegreeType.DEGREE);
+        Assert.assertEquals(index.countElements(), 3);
+        Assert.assertEquals(index.countValues(), 2);
+        Assert.assertEquals(index.count(1), 2);
+        Assert.assertEquals(index.getMinValue().intValue(), 0);
+        Assert.assertEquals(index.getMaxValue().intValue(), 1);
+    }
+
+    @Test
+    public void testValues() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+
+        DegreeIndexImpl index = new DegreeIndexImpl(graph, DegreeIndexImpl.DegreeType.DEGREE);
+        Assert.assertEquals(index.values(), Collections.singletonList(1));
+    }
+
+    @Test
+    public void testGetIterator() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+
+        DegreeIndexImpl index = new DegreeIndexImpl(graph, DegreeIndexImpl.DegreeType.DEGREE);
+        Set<Node> nodes = new HashSet<>();
+        index.get(1).forEach(nodes::add);
+        Assert.assertEquals(nodes, new HashSet<>(Arrays.asList(graph.getNode("1"), graph.getNode("2"))));
+    }
+
+    @Test
+    public void testInDegree() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        Edge edge = graph.getEdge("0");
+
+        DegreeIndexImpl index = new DegreeIndexImpl(graph, DegreeIndexImpl.DegreeType.IN_DEGREE);
+        index.get(1).iterator().forEachRemaining(n -> Assert.assertSame(n, edge.getTarget()));
+        index.get(0).iterator().forEachRemaining(n -> Assert.assertSame(n, edge.getSource()));
+    }
+
+    @Test
+    public void testOutDegree() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        Edge edge = graph.getEdge("0");
+
+        DegreeIndexImpl index = new DegreeIndexImpl(graph, DegreeIndexImpl.DegreeType.OUT_DEGREE);
+        index.get(0).iterator().forEachRemaining(n -> Assert.assertSame(n, edge.getTarget()));
+        index.get(1).iterator().forEachRemaining(n -> Assert.assertSame(n, edge.getSource()));
+    }
+
+    @Test
+    public void testVersion() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        int version = index.getVersion();
+        graph.removeNode(graph.getNode("1"));
+        Assert.assertNotEquals(index.getVersion(), version);
+    }
+
+    @Test
+    public void testRegisteredIndex() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+
+        Assert.assertTrue(getIndex(graph) instanceof DegreeIndexImpl);
+        Assert.assertSame(getIndex(graph), getIndex(graph));
+    }
+
+    @Test
+    public void testAddEdge() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.count(1), 2);
+
+        Node node = graph.getModel().factory().newNode("3");
+        graph.addNode(node);
+        Assert.assertEquals(index.count(0), 1);
+
+        graph.addEdge(graph.getModel().factory().newEdge("e1", graph.getNode("1"), node, 0, 1.0, true));
+        Assert.assertEquals(index.count(0), 0);
+        Assert.assertEquals(index.count(1), 2);
+        Assert.assertEquals(index.count(2), 1);
+        Assert.assertEquals(index.getMaxValue().intValue(), 2);
+        Assert.assertEquals(index.countElements(), 3);
+    }
+
+    @Test
+    public void testRemoveEdge() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.count(1), 2);
+
+        graph.removeEdge(graph.getEdge("0"));
+        Assert.assertEquals(index.count(1), 0);
+        Assert.assertEquals(index.count(0), 2);
+        Assert.assertEquals(index.getMaxValue().intValue(), 0);
+    }
+
+    @Test
+    public void testRemoveNode() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.countElements(), 2);
+
+        graph.removeNode(graph.getNode("1"));
+        Assert.assertEquals(index.countElements(), 1);
+        Assert.assertEquals(index.count(0), 1);
+        Assert.assertEquals(index.count(1), 0);
+    }
+
+    @Test
+    public void testSelfLoop() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.count(1), 2);
+
+        Node node = graph.getNode("1");
+        graph.addEdge(graph.getModel().factory().newEdge("e1", node, node, 0, 1.0, true));
+        Assert.assertEquals(index.count(graph.getDegree(node)), 1);
+    }
+
+    @Test
+    public void testClearEdges() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.count(1), 2);
+
+        graph.clearEdges();
+        Assert.assertEquals(index.count(1), 0);
+        Assert.assertEquals(index.count(0), 2);
+    }
+
+    @Test
+    public void testClear() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+        Assert.assertEquals(index.count(1), 2);
+
+        graph.clear();
+        Assert.assertEquals(index.countElements(), 0);
+        Assert.assertNull(index.getMaxValue());
+    }
+
+    @Test
+    public void testBulkLoad() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        ColumnIndex<Integer, Node> index = getIndex(graphModel.getGraph());
+        Assert.assertEquals(index.countElements(), 0);
+
+        Node[] nodes = new Node[10];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphModel.factory().newNode(String.valueOf(i));
+        }
+        graphModel.bulkLoader().addNodes(nodes);
+        Edge[] edges = new Edge[nodes.length - 1];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = graphModel.factory().newEdge(nodes[0], nodes[i + 1]);
+        }
+        graphModel.bulkLoader().addEdges(edges);
+
+        Assert.assertEquals(index.count(1), nodes.length - 1);
+        Assert.assertEquals(index.getMaxValue().intValue(), nodes.length - 1);
+    }
+
+    @Test
+    public void testView() {
+        GraphModelImpl graphModel = GraphGenerator.generateTinyGraphStore().graphModel;
+        GraphView view = graphModel.createView();
+        Subgraph subgraph = graphModel.getGraph(view);
+        subgraph.fill();
+        ColumnIndex<Integer, Node> index = getIndex(subgraph);
+        Assert.assertEquals(index.count(1), 2);
+
+        subgraph.removeEdge(graphModel.getGraph().getEdge("0"));
+        Assert.assertEquals(index.count(0), 2);
+        Assert.assertEquals(getIndex(graphModel.getGraph()).count(1), 2);
+
+        subgraph.removeNode(graphModel.getGraph().getNode("1"));
+        Assert.assertEquals(index.countElements(), 1);
+
+        subgraph.fill();
+        Assert.assertEquals(index.count(1), 2);
+    }
+
+    @Test
+    public void testViewNotIndexed() {
+        GraphModelImpl graphModel = GraphGenerator.generateTinyGraphStore().graphModel;
+        GraphView view = graphModel.createView(true, false);
+        Subgraph subgraph = graphModel.getGraph(view);
+        ColumnIndex<Integer, Node> index = getIndex(subgraph);
+        Assert.assertEquals(index.countElements(), 0);
+
+        subgraph.addNode(graphModel.getGraph().getNode("1"));
+        subgraph.addNode(graphModel.getGraph().getNode("2"));
+        Assert.assertEquals(index.count(1), 2);
+    }
+
+    @Test
+    public void testTopK() {
+        Graph graph = GraphGenerator.generateTinyGraphStore();
+        Node node = graph.getModel().factory().newNode("3");
+        graph.addNode(node);
+        graph.addEdge(graph.getModel().factory().newEdge("e1", graph.getNode("1"), node, 0, 1.0, true));
+        ColumnIndex<Integer, Node> index = getIndex(graph);
+
+        Assert.assertEquals(index.topK(1, true), Collections.singletonList(graph.getNode("1")));
+        Assert.assertEquals(index.countRange(1, null, true), 3);
+        Assert.assertEquals(index.countRange(1, 2, false), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ColumnIndex<Integer, Node> getIndex(Graph graph) {
+        GraphModelImpl graphModel = (GraphModelImpl) graph.getModel();
+        return graphModel.getNodeIndex(graph.getView()).getColumnIndex(graphModel.defaultColumns().degree());
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gephi.graph.impl;
 
+import cern.colt.bitvector.BitVector;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -35,6 +36,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.gephi.graph.api.Configuration;
 import org.gephi.graph.api.Edge;
 import org.testng.Assert;
@@ -513,6 +516,70 @@ public class EdgeStoreTest {
         Assert.assertEquals(edgeStore.blocksCount, blockCount - 1);
     }
 
+    @Test
+    public void testBitVectorIterator() {
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl[] elements = GraphGenerator.generateLargeEdgeList();
+        edgeStore.addAll(Arrays.asList(elements));
+        edgeStore.remove(elements[130]);
+
+        BitVector bitVector = new BitVector(elements.length + 1000);
+        int[] ids = { 0, 63, 64, 130, 131, GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE, elements.length - 1 };
+        for (int id : ids) {
+            bitVector.set(id);
+        }
+        // Bits of free and out of range store ids are ignored
+        bitVector.set(elements.length + 10);
+
+        List<Edge> result = new ArrayList<>();
+        Iterator<Edge> itr = edgeStore.iterator(bitVector);
+        while (itr.hasNext()) {
+            result.add(itr.next());
+        }
+        Assert.assertEquals(result, Arrays
+                .asList(elements[0], elements[63], elements[64], elements[131], elements[GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE], elements[elements.length - 1]));
+        Assert.assertFalse(edgeStore.iterator(new BitVector(0)).hasNext());
+        Assert.assertFalse(edgeStore.iterator(new BitVector(elements.length)).hasNext());
+    }
+
+    @Test
+    public void testGarbageBlocks() {
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl[] edges = GraphGenerator.generateLargeEdgeList();
+        edgeStore.addAll(Arrays.asList(edges));
+
+        EdgeImpl first = edges[1];
+        EdgeImpl third = edges[GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE * 2 + 1];
+        edgeStore.remove(third);
+        edgeStore.remove(first);
+        Assert.assertEquals(edgeStore.garbageBlocks.cardinality(), 2);
+
+        // The lowest block is reused first
+        edgeStore.add(first);
+        Assert.assertEquals(first.storeId, 1);
+        Assert.assertEquals(edgeStore.garbageBlocks.nextSetBit(0), 2);
+        edgeStore.add(third);
+        Assert.assertEquals(third.storeId, GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE * 2 + 1);
+        Assert.assertTrue(edgeStore.garbageBlocks.isEmpty());
+        Assert.assertEquals(edgeStore.garbageSize, 0);
+    }
+
+    @Test
+    public void testGarbageBlocksTrimmed() {
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl[] edges = GraphGenerator.generateLargeEdgeList();
+        edgeStore.addAll(Arrays.asList(edges));
+        for (int i = edges.length - 1; i >= GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE; i--) {
+            edgeStore.remove(edges[i]);
+        }
+
+        Assert.assertEquals(edgeStore.blocksCount, 1);
+        Assert.assertTrue(edgeStore.garbageBlocks.isEmpty());
+
+        edgeStore.removeAll(Arrays.asList(edgeStore.toArray()));
+        Assert.assertTrue(edgeStore.garbageBlocks.isEmpty());
+    }
+
     @Test
     public void testBlockCountsEmpty() {
         EdgeStore edgeStore = new EdgeStore();
@@ -1342,6 +1409,37 @@ public class EdgeStoreTest {
         Assert.assertEquals(edgeStore.size(0), 2);
     }
 
+    @Test
+    public void testRemoveMutualParallel() {
+        NodeStore nodeStore = GraphGenerator.generateNodeStore(2);
+        NodeImpl n1 = nodeStore.get(0);
+        NodeImpl n2 = nodeStore.get(1);
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl e1 = new EdgeImpl("1", n1, n2, 0, 0.0, true);
+        EdgeImpl e2 = new EdgeImpl("2", n1, n2, 0, 0.0, true);
+        EdgeImpl e3 = new EdgeImpl("3", n2, n1, 0, 0.0, true);
+        edgeStore.add(e1);
+        edgeStore.add(e2);
+        edgeStore.add(e3);
+
+        // The unpaired edge doesn't break the pair
+        Assert.assertTrue(edgeStore.remove(e2));
+        Assert.assertTrue(e1.isMutual());
+        Assert.assertTrue(e3.isMutual());
+        Assert.assertEquals(n1.getUndirectedDegree(), 1);
+        Assert.assertEquals(edgeStore.mutualEdgesSize, 1);
+
+        // The parallel edge is paired in place of the removed one
+        edgeStore.add(e2);
+        Assert.assertFalse(e2.isMutual());
+        Assert.assertTrue(edgeStore.remove(e1));
+        Assert.assertTrue(e2.isMutual());
+        Assert.assertTrue(e3.isMutual());
+        Assert.assertEquals(n1.getUndirectedDegree(), 1);
+        Assert.assertEquals(n2.getUndirectedDegree(), 1);
+        Assert.assertEquals(edgeStore.mutualEdgesSize, 1);
+    }
+
     @Test
     public void testRemoveMutualEdge() {
         EdgeImpl[] edges = GraphGenerator.generateMutualEdges(1);
@@ -2113,4 +2211,51 @@ public class EdgeStoreTest {
         }
         return list;
     }
+
+    @Test
+    public void testParallelStream() {
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl[] edges = GraphGenerator.generateEdgeList(5000);
+        edgeStore.addAll(Arrays.asList(edges));
+        for (int i = 0; i < edges.length; i += 3) {
+            edgeStore.remove(edges[i]);
+        }
+
+        Set<Edge> expected = new HashSet<>(edgeStore.toCollection());
+        Set<Edge> result = edgeStore.parallelStream().collect(Collectors.toSet());
+        Assert.assertEquals(result, expected);
+        Assert.assertEquals(edgeStore.parallelStream().count(), edgeStore.size());
+    }
+
+    @Test(timeOut = 30000)
+    public void testParallelStreamWithReadLockAndQueuedWriter() throws InterruptedException {
+        GraphStore graphStore = GraphGenerator.generateLargeGraphStore();
+        GraphLockImpl lock = graphStore.lock;
+        lock.readLock();
+        Thread writer = new Thread(() -> {
+            lock.writeLock();
+            lock.writeUnlock();
+        });
+        writer.setDaemon(true);
+        try {
+            writer.start();
+            while (!lock.readWriteLock.hasQueuedThread(writer)) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(graphStore.edgeStore.parallelStream().count(), graphStore.edgeStore.size());
+        } finally {
+            lock.readUnlock();
+        }
+        writer.join();
+    }
+
+    @Test
+    public void testParallelStreamUndirected() {
+        EdgeStore edgeStore = new EdgeStore();
+        EdgeImpl[] edges = GraphGenerator.generateMutualEdges(0);
+        edgeStore.addAll(Arrays.asList(edges));
+
+        Assert.assertEquals(StreamSupport.stream(edgeStore.spliterator(null, true), true).count(), 1);
+        Assert.assertEquals(StreamSupport.stream(edgeStore.spliterator(null, false), true).count(), 2);
+    }
 }
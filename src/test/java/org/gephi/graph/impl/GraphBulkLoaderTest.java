@@ -0,0 +1,283 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.Arrays;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Configuration;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GraphBulkLoaderTest {
+
+    @Test
+    public void testAddNodes() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        NodeImpl[] nodes = GraphGenerator.generateLargeNodeList(store);
+
+        Assert.assertEquals(graphModel.bulkLoader().addNodes(nodes), nodes.length);
+        Assert.assertEquals(store.getNodeCount(), nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            Assert.assertEquals(nodes[i].getStoreId(), i);
+            Assert.assertSame(store.getNode(nodes[i].getId()), nodes[i]);
+        }
+    }
+
+    @Test
+    public void testAddNodesStream() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        NodeImpl[] nodes = GraphGenerator.generateSmallNodeList(graphModel.store);
+
+        Assert.assertEquals(graphModel.bulkLoader().addNodes(Arrays.stream(nodes)), nodes.length);
+        Assert.assertEquals(graphModel.store.getNodeCount(), nodes.length);
+    }
+
+    @Test
+    public void testAddNodesTwice() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        NodeImpl[] nodes = GraphGenerator.generateSmallNodeList(graphModel.store);
+
+        graphModel.bulkLoader().addNodes(nodes);
+        Assert.assertEquals(graphModel.bulkLoader().addNodes(nodes), 0);
+        Assert.assertEquals(graphModel.store.getNodeCount(), nodes.length);
+    }
+
+    @Test
+    public void testAddNodesAfterRemove() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        NodeImpl[] nodes = GraphGenerator.generateSmallNodeList(store);
+        store.addAllNodes(Arrays.asList(nodes));
+        store.removeNode(nodes[0]);
+
+        NodeImpl node = (NodeImpl) store.factory.newNode("foo");
+        Assert.assertEquals(graphModel.bulkLoader().addNodes(new Node[] { node }), 1);
+        Assert.assertSame(store.getNode("foo"), node);
+        Assert.assertEquals(store.getNodeCount(), nodes.length);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddNodesDuplicateId() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        Node n1 = store.factory.newNode("1");
+        Node n2 = store.factory.newNode("1");
+
+        graphModel.bulkLoader().addNodes(new Node[] { n1, n2 });
+    }
+
+    @Test
+    public void testAddNodesDuplicateIdPartial() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        Node n1 = store.factory.newNode("1");
+        Node n2 = store.factory.newNode("1");
+
+        try {
+            graphModel.bulkLoader().addNodes(new Node[] { n1, n2 });
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        Assert.assertEquals(store.getNodeCount(), 1);
+        Assert.assertSame(store.getNode("1"), n1);
+        Assert.assertEquals(n2.getStoreId(), NodeStore.NULL_ID);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddNodesOtherGraph() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        Node node = new GraphModelImpl().factory().newNode();
+
+        graphModel.bulkLoader().addNodes(new Node[] { node });
+    }
+
+    @Test
+    public void testAddEdges() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        graphModel.bulkLoader().addNodes(GraphGenerator.generateNodeList(1000, store));
+        EdgeImpl[] edges = GraphGenerator.generateEdgeList(store.nodeStore, 20000, 0, true, true, false);
+
+        Assert.assertEquals(graphModel.bulkLoader().addEdges(edges), edges.length);
+        Assert.assertEquals(store.getEdgeCount(), edges.length);
+        for (EdgeImpl edge : edges) {
+            Assert.assertSame(store.getEdge(edge.getId()), edge);
+            Assert.assertSame(store.getEdge(edge.getSource(), edge.getTarget()), edge);
+        }
+    }
+
+    @Test
+    public void testAddEdgesSameAsAddAll() {
+        GraphStore expected = new GraphModelImpl().store;
+        expected.addAllNodes(Arrays.asList(GraphGenerator.generateNodeList(1000, expected)));
+        EdgeImpl[] expectedEdges = GraphGenerator.generateMixedEdgeList(expected.nodeStore, 20000, 0, true);
+        expected.addAllEdges(Arrays.asList(expectedEdges));
+
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        graphModel.bulkLoader().addNodes(GraphGenerator.generateNodeList(1000, store));
+        graphModel.bulkLoader().addEdges(copyEdges(expectedEdges, store));
+
+        Assert.assertTrue(store.edgeStore.deepEquals(expected.edgeStore));
+        Assert.assertEquals(store.edgeStore.undirectedSize, expected.edgeStore.undirectedSize);
+        Assert.assertEquals(store.edgeStore.mutualEdgesSize, expected.edgeStore.mutualEdgesSize);
+        Assert.assertEquals(store.undirectedDecorator.getEdgeCount(), expected.undirectedDecorator.getEdgeCount());
+        for (Node expectedNode : expected.getNodes()) {
+            Node node = store.getNode(expectedNode.getId());
+            Assert.assertEquals(store.getDegree(node), expected.getDegree(expectedNode));
+            Assert.assertEquals(store.getUndirectedDegree(node), expected.getUndirectedDegree(expectedNode));
+            Assert.assertEquals(store.getInDegree(node), expected.getInDegree(expectedNode));
+            Assert.assertEquals(store.getOutDegree(node), expected.getOutDegree(expectedNode));
+            Assert.assertEquals(((NodeImpl) node).mutualDegree, ((NodeImpl) expectedNode).mutualDegree);
+            Assert.assertEquals(store.getNeighbors(node).toCollection().size(), expected.getNeighbors(expectedNode)
+                    .toCollection().size());
+        }
+    }
+
+    @Test
+    public void testAddEdgesMultiType() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        graphModel.bulkLoader().addNodes(GraphGenerator.generateNodeList(100, store));
+        EdgeImpl[] edges = GraphGenerator.generateMultiTypeEdgeList(store.nodeStore, 1000, 3, true, false);
+
+        Assert.assertEquals(graphModel.bulkLoader().addEdges(edges), edges.length);
+        Assert.assertEquals(graphModel.getEdgeTypeCount(), 3);
+        for (int type = 0; type < 3; type++) {
+            int count = 0;
+            for (EdgeImpl edge : edges) {
+                if (edge.type == type) {
+                    count++;
+                }
+            }
+            Assert.assertEquals(store.edgeStore.size(type), count);
+        }
+    }
+
+    @Test
+    public void testAddEdgesParallel() {
+        GraphModelImpl graphModel = new GraphModelImpl(
+                Configuration.builder().enableParallelEdgesSameType(false).build());
+        GraphStore store = graphModel.store;
+        Node n1 = store.factory.newNode("1");
+        Node n2 = store.factory.newNode("2");
+        graphModel.bulkLoader().addNodes(new Node[] { n1, n2 });
+        Edge e1 = store.factory.newEdge("1", n1, n2, 0, 1.0, true);
+        Edge e2 = store.factory.newEdge("2", n1, n2, 0, 1.0, true);
+
+        Assert.assertEquals(graphModel.bulkLoader().addEdges(new Edge[] { e1, e2 }), 1);
+        Assert.assertEquals(store.getEdgeCount(), 1);
+        Assert.assertEquals(e2.getStoreId(), EdgeStore.NULL_ID);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddEdgesDuplicateId() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        Node n1 = store.factory.newNode("1");
+        Node n2 = store.factory.newNode("2");
+        graphModel.bulkLoader().addNodes(new Node[] { n1, n2 });
+        Edge e1 = store.factory.newEdge("1", n1, n2, 0, 1.0, true);
+        Edge e2 = store.factory.newEdge("1", n2, n1, 0, 1.0, true);
+
+        graphModel.bulkLoader().addEdges(new Edge[] { e1, e2 });
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testAddEdgesNodesNotInStore() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        Node n1 = store.factory.newNode("1");
+        Node n2 = store.factory.newNode("2");
+
+        graphModel.bulkLoader().addEdges(new Edge[] { store.factory.newEdge(n1, n2) });
+    }
+
+    @Test
+    public void testVersion() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        int nodeVersion = store.version.nodeVersion;
+        int edgeVersion = store.version.edgeVersion;
+
+        graphModel.bulkLoader().addNodes(GraphGenerator.generateNodeList(100, store));
+        Assert.assertEquals(store.version.nodeVersion, nodeVersion + 1);
+
+        graphModel.bulkLoader().addEdges(GraphGenerator.generateEdgeList(store.nodeStore, 200, 0, true, true, false));
+        Assert.assertEquals(store.version.edgeVersion, edgeVersion + 1);
+    }
+
+    @Test
+    public void testIndex() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        Column column = store.nodeTable.addColumn("foo", Integer.class);
+        NodeImpl[] nodes = GraphGenerator.generateNodeList(100, store);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setAttribute(column, i % 2);
+        }
+
+        graphModel.bulkLoader().addNodes(nodes);
+        Assert.assertEquals(graphModel.getNodeIndex().count(column, 0), 50);
+        Assert.assertEquals(graphModel.getNodeIndex().count(column, 1), 50);
+    }
+
+    @Test
+    public void testNodeView() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        graphModel.bulkLoader().addNodes(GraphGenerator.generateNodeList(100, store));
+
+        GraphView view = graphModel.createView(true, false);
+        graphModel.getGraph(view).fill();
+
+        EdgeImpl[] edges = GraphGenerator.generateEdgeList(store.nodeStore, 200, 0, true, true, false);
+        graphModel.bulkLoader().addEdges(edges);
+        Assert.assertEquals(graphModel.getGraph(view).getEdgeCount(), edges.length);
+        for (EdgeImpl edge : edges) {
+            Assert.assertTrue(graphModel.getGraph(view).contains(edge));
+        }
+    }
+
+    @Test
+    public void testView() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        GraphView view = graphModel.createView();
+
+        NodeImpl[] nodes = GraphGenerator.generateLargeNodeList(store);
+        graphModel.bulkLoader().addNodes(nodes);
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 0);
+
+        graphModel.getGraph(view).addNode(nodes[nodes.length - 1]);
+        Assert.assertTrue(graphModel.getGraph(view).contains(nodes[nodes.length - 1]));
+    }
+
+    private EdgeImpl[] copyEdges(EdgeImpl[] edges, GraphStore store) {
+        EdgeImpl[] res = new EdgeImpl[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            EdgeImpl edge = edges[i];
+            res[i] = new EdgeImpl(edge.getId(), store, store.getNode(edge.getSource().getId()),
+                    store.getNode(edge.getTarget().getId()), edge.type, edge.getWeight(), edge.isDirected());
+        }
+        return res;
+    }
+}
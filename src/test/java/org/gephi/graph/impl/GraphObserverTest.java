@@ -438,4 +438,277 @@ public class GraphObserverTest {
         Assert.assertEquals(edgeVersion, Integer.MIN_VALUE + 1);
         Assert.assertEquals(graphObserver.edgeVersion, Integer.MIN_VALUE);
     }
+
+    @Test
+    public void testDiffAddRemoveNode() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphObserverImpl graphObserver = store.createGraphObserver(store, true);
+        graphObserver.hasGraphChanged();
+
+        Node node = store.factory.newNode("r1");
+        store.addNode(node);
+        store.removeNode(node);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertSame(diff.getAddedNodes(), NodeIterable.EMPTY);
+        Assert.assertSame(diff.getRemovedNodes(), NodeIterable.EMPTY);
+    }
+
+    @Test
+    public void testDiffMultipleObservers() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphObserverImpl graphObserver1 = store.createGraphObserver(store, true);
+        GraphObserverImpl graphObserver2 = store.createGraphObserver(store, true);
+
+        Node[] addedNodes = new Node[GraphChangeJournal.DEFAULT_CAPACITY * 2];
+        for (int i = 0; i < addedNodes.length; i++) {
+            addedNodes[i] = store.factory.newNode("r" + i);
+            store.addNode(addedNodes[i]);
+            if (i == GraphChangeJournal.DEFAULT_CAPACITY / 2) {
+                graphObserver1.hasGraphChanged();
+                graphObserver1.getDiff();
+            }
+        }
+
+        graphObserver1.hasGraphChanged();
+        Node[] nodes1 = graphObserver1.getDiff().getAddedNodes().toArray();
+        Assert.assertTrue(Arrays.deepEquals(nodes1, Arrays
+                .copyOfRange(addedNodes, GraphChangeJournal.DEFAULT_CAPACITY / 2 + 1, addedNodes.length)));
+
+        graphObserver2.hasGraphChanged();
+        Node[] nodes2 = graphObserver2.getDiff().getAddedNodes().toArray();
+        Assert.assertTrue(Arrays.deepEquals(nodes2, addedNodes));
+    }
+
+    @Test
+    public void testDiffJournalTrimmed() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphObserverImpl graphObserver = store.createGraphObserver(store, true);
+
+        for (int i = 0; i < GraphChangeJournal.DEFAULT_CAPACITY * 4; i++) {
+            store.addNode(store.factory.newNode("r" + i));
+            graphObserver.hasGraphChanged();
+            graphObserver.getDiff();
+        }
+        Assert.assertEquals(store.version.journal.elements.length, GraphChangeJournal.DEFAULT_CAPACITY);
+
+        graphObserver.destroy();
+        Assert.assertEquals(store.version.journal.size, 0);
+        store.addNode(store.factory.newNode("foo"));
+        Assert.assertEquals(store.version.journal.size, 0);
+    }
+
+    @Test
+    public void testDiffJournalOverflow() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphObserverImpl graphObserver = store.createGraphObserver(store, true);
+        GraphObserverImpl pollingObserver = store.createGraphObserver(store, true);
+
+        Node removed = store.getNodes().toArray()[0];
+        Edge[] removedEdges = store.getEdges(removed).toArray();
+        store.removeNode(removed);
+        Node[] addedNodes = new Node[GraphChangeJournal.DEFAULT_CAPACITY];
+        for (int i = 0; i < GraphChangeJournal.DEFAULT_CAPACITY * 100; i++) {
+            Node node = store.factory.newNode("r" + i);
+            store.addNode(node);
+            if (i % 100 == 0) {
+                addedNodes[i / 100] = node;
+            } else {
+                store.removeNode(node);
+            }
+            pollingObserver.hasGraphChanged();
+            pollingObserver.getDiff();
+        }
+        int maxSize = store.getNodeCount() + store.getEdgeCount();
+        Assert.assertTrue(store.version.journal.elements.length <= maxSize + (maxSize >> 1));
+        Assert.assertNotNull(graphObserver.journalOverflow);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedNodes().toArray(), addedNodes));
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedNodes().toArray(), new Node[] { removed }));
+        Assert.assertEquals(diff.getRemovedEdges().toCollection().size(), removedEdges.length);
+        Assert.assertTrue(diff.getRemovedEdges().toCollection().containsAll(Arrays.asList(removedEdges)));
+        Assert.assertSame(diff.getAddedEdges(), EdgeIterable.EMPTY);
+        Assert.assertNull(graphObserver.journalOverflow);
+
+        store.removeNode(addedNodes[0]);
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        Assert.assertTrue(Arrays
+                .deepEquals(graphObserver.getDiff().getRemovedNodes().toArray(), new Node[] { addedNodes[0] }));
+    }
+
+    @Test
+    public void testDiffViewAddedNodes() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphViewStore viewStore = store.viewStore;
+        GraphViewImpl view = viewStore.createView();
+        GraphObserverImpl graphObserver = viewStore.createGraphObserver(viewStore.getGraph(view), true);
+
+        Edge edge = store.getEdges().toArray()[0];
+        view.addNode(edge.getSource());
+        view.addNode(edge.getTarget());
+        view.addEdge(edge);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays
+                .deepEquals(diff.getAddedNodes().toArray(), new Node[] { edge.getSource(), edge.getTarget() }));
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedEdges().toArray(), new Edge[] { edge }));
+    }
+
+    @Test
+    public void testDiffViewNot() {
+        GraphStore store = GraphGenerator.generateSmallGraphStore();
+        GraphViewStore viewStore = store.viewStore;
+        GraphViewImpl view = viewStore.createView();
+        GraphObserverImpl graphObserver = viewStore.createGraphObserver(viewStore.getGraph(view), true);
+
+        Node node = store.getNodes().toArray()[0];
+        view.addNode(node);
+        graphObserver.hasGraphChanged();
+        graphObserver.getDiff();
+
+        view.not();
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedNodes().toArray(), new Node[] { node }));
+        Assert.assertEquals(diff.getAddedNodes().toArray().length, store.getNodeCount() - 1);
+        Assert.assertEquals(diff.getAddedEdges().toArray().length, view.getEdgeCount());
+        Assert.assertSame(diff.getRemovedEdges(), EdgeIterable.EMPTY);
+    }
+
+    @Test
+    public void testDiffUndirectedAddMutualEdge() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        store.removeEdge(edges[1]);
+        GraphObserverImpl graphObserver = store.createGraphObserver(store.undirectedDecorator, true);
+
+        store.addEdge(edges[1]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedEdges().toArray(), new Edge[] { edges[1] }));
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[0] }));
+    }
+
+    @Test
+    public void testDiffUndirectedRemoveMutualEdge() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphObserverImpl graphObserver = store.createGraphObserver(store.undirectedDecorator, true);
+
+        store.removeEdge(edges[1]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedEdges().toArray(), new Edge[] { edges[0] }));
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[1] }));
+    }
+
+    @Test
+    public void testDiffUndirectedRemoveHiddenMutualEdge() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphObserverImpl graphObserver = store.createGraphObserver(store.undirectedDecorator, true);
+
+        store.removeEdge(edges[0]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertSame(diff.getAddedEdges(), EdgeIterable.EMPTY);
+        Assert.assertSame(diff.getRemovedEdges(), EdgeIterable.EMPTY);
+    }
+
+    @Test
+    public void testDiffUndirectedRemoveMutualEdges() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphObserverImpl graphObserver = store.createGraphObserver(store.undirectedDecorator, true);
+
+        store.removeEdge(edges[1]);
+        store.removeEdge(edges[0]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertSame(diff.getAddedEdges(), EdgeIterable.EMPTY);
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[1] }));
+    }
+
+    @Test
+    public void testDiffUndirectedMatchesGraph() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphObserverImpl graphObserver = store.createGraphObserver(store.undirectedDecorator, true);
+        Edge[] before = store.undirectedDecorator.getEdges().toArray();
+
+        store.removeEdge(edges[1]);
+        store.addEdge(edges[1]);
+        store.removeEdge(edges[0]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertSame(diff.getAddedEdges(), EdgeIterable.EMPTY);
+        Assert.assertSame(diff.getRemovedEdges(), EdgeIterable.EMPTY);
+        Assert.assertTrue(Arrays.deepEquals(store.undirectedDecorator.getEdges().toArray(), before));
+    }
+
+    @Test
+    public void testDiffViewUndirectedRemoveMutualEdge() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphViewStore viewStore = store.viewStore;
+        GraphViewImpl view = viewStore.createView();
+        view.fill();
+        GraphObserverImpl graphObserver = viewStore.createGraphObserver(viewStore.getUndirectedGraph(view), true);
+
+        view.removeEdge(edges[1]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedEdges().toArray(), new Edge[] { edges[0] }));
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[1] }));
+
+        view.addEdge(edges[1]);
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        diff = graphObserver.getDiff();
+        Assert.assertTrue(Arrays.deepEquals(diff.getAddedEdges().toArray(), new Edge[] { edges[1] }));
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[0] }));
+    }
+
+    @Test
+    public void testDiffViewUndirectedClearEdges() {
+        GraphStore store = new GraphStore();
+        Edge[] edges = addMutualEdges(store);
+        GraphViewStore viewStore = store.viewStore;
+        GraphViewImpl view = viewStore.createView();
+        view.fill();
+        GraphObserverImpl graphObserver = viewStore.createGraphObserver(viewStore.getUndirectedGraph(view), true);
+
+        view.clearEdges();
+
+        Assert.assertTrue(graphObserver.hasGraphChanged());
+        GraphDiff diff = graphObserver.getDiff();
+        Assert.assertSame(diff.getAddedEdges(), EdgeIterable.EMPTY);
+        Assert.assertTrue(Arrays.deepEquals(diff.getRemovedEdges().toArray(), new Edge[] { edges[1] }));
+    }
+
+    // Adds two nodes and a mutual pair of edges, the undirected graph returns the
+    // second edge
+    private static Edge[] addMutualEdges(GraphStore store) {
+        Node n1 = store.factory.newNode("n1");
+        Node n2 = store.factory.newNode("n2");
+        store.addNode(n1);
+        store.addNode(n2);
+        Edge e1 = store.factory.newEdge("e1", n1, n2, 0, 1.0, true);
+        Edge e2 = store.factory.newEdge("e2", n2, n1, 0, 1.0, true);
+        store.addEdge(e1);
+        store.addEdge(e2);
+        Assert.assertTrue(Arrays.deepEquals(store.undirectedDecorator.getEdges().toArray(), new Edge[] { e2 }));
+        return new Edge[] { e1, e2 };
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Configuration;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Origin;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GraphQueryTest {
+
+    @Test
+    public void testEmptyQuery() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        GraphView view = graphModel.query().execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 10);
+        Assert.assertEquals(graph.getEdgeCount(), 9);
+    }
+
+    @Test
+    public void testEqualIndexed() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column group = graphModel.getNodeTable().getColumn("group");
+        GraphView view = graphModel.query().equal(group, "even").execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 5);
+        for (Node n : graph.getNodes().toArray()) {
+            Assert.assertEquals(n.getAttribute(group), "even");
+        }
+        Assert.assertEquals(graph.getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testRangeIndexed() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column value = graphModel.getNodeTable().getColumn("value");
+        GraphView view = graphModel.query().range(value, 2, 5, true).execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 4);
+        Assert.assertEquals(graph.getEdgeCount(), 3);
+
+        view = graphModel.query().range(value, 2, 5, false).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 2);
+    }
+
+    @Test
+    public void testRangeOtherBoundType() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column value = graphModel.getNodeTable().getColumn("value");
+        GraphView view = graphModel.query().range(value, 1.5, 4.5, true).execute();
+
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 3);
+    }
+
+    @Test
+    public void testRangeOpenBounds() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column value = graphModel.getNodeTable().getColumn("value");
+
+        GraphView view = graphModel.query().range(value, null, 3, true).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 4);
+
+        view = graphModel.query().range(value, 7, null, true).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 3);
+    }
+
+    @Test
+    public void testScanNotIndexed() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column score = graphModel.getNodeTable().getColumn("score");
+        Column group = graphModel.getNodeTable().getColumn("group");
+        GraphView view = graphModel.query().equal(group, "odd").range(score, 0.25, 0.75, true).execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 3);
+        Assert.assertTrue(graph.contains(graph.getNode("3")));
+        Assert.assertTrue(graph.contains(graph.getNode("5")));
+        Assert.assertTrue(graph.contains(graph.getNode("7")));
+    }
+
+    @Test
+    public void testScanColumnar() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl(
+                Configuration.builder().enableColumnarAttributes(true).build()));
+        Column score = graphModel.getNodeTable().getColumn("score");
+        Column flag = graphModel.getNodeTable().getColumn("flag");
+
+        GraphView view = graphModel.query().range(score, 0.25, 0.75, true).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 5);
+
+        view = graphModel.query().equal(flag, true).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 4);
+
+        view = graphModel.query().equal(flag, false).range(score, 0.25, 0.75, true).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 3);
+    }
+
+    @Test
+    public void testColumnarMatchesScan() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        GraphModelImpl columnarModel = createGraphModel(new GraphModelImpl(
+                Configuration.builder().enableColumnarAttributes(true).build()));
+        for (GraphModelImpl model : new GraphModelImpl[] { graphModel, columnarModel }) {
+            model.getGraph().getNode("4").setAttribute("score", null);
+        }
+
+        Column score = graphModel.getNodeTable().getColumn("score");
+        Column columnarScore = columnarModel.getNodeTable().getColumn("score");
+        Graph graph = graphModel.getGraph(graphModel.query().range(score, null, 0.5, false).execute());
+        Graph columnarGraph = columnarModel
+                .getGraph(columnarModel.query().range(columnarScore, null, 0.5, false).execute());
+        Assert.assertEquals(columnarGraph.getNodeCount(), graph.getNodeCount());
+        for (Node n : graph.getNodes().toArray()) {
+            Assert.assertTrue(columnarGraph.contains(columnarGraph.getNode(n.getId())));
+        }
+    }
+
+    @Test
+    public void testDegree() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        GraphView view = graphModel.query().degree(2, 2).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 8);
+
+        view = graphModel.query().inDegree(0, 0).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 1);
+
+        view = graphModel.query().outDegree(0, 0).execute();
+        Assert.assertEquals(graphModel.getGraph(view).getNodeCount(), 1);
+    }
+
+    @Test
+    public void testEdgePredicates() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column cost = graphModel.getEdgeTable().getColumn("cost");
+        GraphView view = graphModel.query().range(cost, 5.0, null, true).execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 10);
+        Assert.assertEquals(graph.getEdgeCount(), 5);
+
+        view = graphModel.query().edgeType("odd").execute();
+        graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getEdgeCount(), 4);
+        for (Edge e : graph.getEdges().toArray()) {
+            Assert.assertEquals(e.getTypeLabel(), "odd");
+        }
+
+        view = graphModel.query().edgeType("unknown").execute();
+        Assert.assertEquals(graphModel.getGraph(view).getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testNodeAndEdgePredicates() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column value = graphModel.getNodeTable().getColumn("value");
+        GraphView view = graphModel.query().range(value, 0, 5, true).edgeType("odd").execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 6);
+        for (Edge e : graph.getEdges().toArray()) {
+            Assert.assertTrue(graph.contains(e.getSource()));
+            Assert.assertTrue(graph.contains(e.getTarget()));
+        }
+        Assert.assertEquals(graph.getEdgeCount(), 2);
+    }
+
+    @Test
+    public void testTime() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        for (int i = 0; i < 10; i++) {
+            graphModel.getGraph().getNode(String.valueOf(i)).addTimestamp(i);
+        }
+        for (Edge e : graphModel.getGraph().getEdges().toArray()) {
+            e.addTimestamp(1.0);
+        }
+        GraphView view = graphModel.query().time(new Interval(0.0, 2.0)).execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 3);
+        Assert.assertEquals(graph.getEdgeCount(), 2);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testTimeIndexDisabled() {
+        GraphModelImpl graphModel = new GraphModelImpl(Configuration.builder().enableIndexTime(false).build());
+        graphModel.query().time(new Interval(0.0, 1.0));
+    }
+
+    @Test
+    public void testNoMatch() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column group = graphModel.getNodeTable().getColumn("group");
+        Column score = graphModel.getNodeTable().getColumn("score");
+        GraphView view = graphModel.query().equal(group, "none").range(score, 0.0, 1.0, true).execute();
+
+        Graph graph = graphModel.getGraph(view);
+        Assert.assertEquals(graph.getNodeCount(), 0);
+        Assert.assertEquals(graph.getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testViewFollowsNewEdges() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        Column group = graphModel.getNodeTable().getColumn("group");
+        GraphView view = graphModel.query().equal(group, "even").execute();
+
+        Graph graph = graphModel.getGraph();
+        Edge edge = graphModel.factory().newEdge("e", graph.getNode("0"), graph.getNode("2"), 0, 1.0, true);
+        graph.addEdge(edge);
+        Assert.assertTrue(graphModel.getGraph(view).contains(edge));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRangeNotNumber() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        graphModel.query().range(graphModel.getNodeTable().getColumn("group"), 0, 1, true);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testColumnOtherModel() {
+        GraphModelImpl graphModel = createGraphModel(new GraphModelImpl());
+        GraphModelImpl otherModel = createGraphModel(new GraphModelImpl());
+        graphModel.query().equal(otherModel.getNodeTable().getColumn("group"), "even");
+    }
+
+    // Path 0 -> 1 -> ... -> 9, edge i -> i + 1 has type "odd" if i is odd
+    private GraphModelImpl createGraphModel(GraphModelImpl graphModel) {
+        graphModel.getNodeTable().addColumn("group", String.class);
+        graphModel.getNodeTable().addColumn("value", Integer.class);
+        graphModel.getNodeTable().addColumn("score", "score", Double.class, Origin.DATA, null, false);
+        graphModel.getNodeTable().addColumn("flag", "flag", Boolean.class, Origin.DATA, null, false);
+        graphModel.getEdgeTable().addColumn("cost", Double.class);
+
+        Graph graph = graphModel.getGraph();
+        int oddType = graphModel.addEdgeType("odd");
+        for (int i = 0; i < 10; i++) {
+            Node n = graphModel.factory().newNode(String.valueOf(i));
+            n.setAttribute("group", i % 2 == 0 ? "even" : "odd");
+            n.setAttribute("value", i);
+            n.setAttribute("score", i / 10.0);
+            n.setAttribute("flag", i % 3 == 0);
+            graph.addNode(n);
+            if (i > 0) {
+                Edge e = graphModel.factory()
+                        .newEdge(graph.getNode(String.valueOf(i - 1)), n, (i - 1) % 2 == 1 ? oddType : 0, i, true);
+                e.setAttribute("cost", (double) i);
+                graph.addEdge(e);
+            }
+        }
+        return graphModel;
+    }
+}
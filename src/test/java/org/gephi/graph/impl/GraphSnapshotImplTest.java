@@ -0,0 +1,273 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.EdgeIterable;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.ElementIterable;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.NeighborCursor;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.NodeIterable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GraphSnapshotImplTest {
+
+    @Test
+    public void testEmpty() {
+        GraphStore graphStore = GraphGenerator.generateEmptyGraphStore();
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        Assert.assertEquals(snapshot.getNodeCount(), 0);
+        Assert.assertEquals(snapshot.getEdgeCount(), 0);
+        Assert.assertFalse(snapshot.getNodes().iterator().hasNext());
+        Assert.assertFalse(snapshot.getEdges().iterator().hasNext());
+        Assert.assertTrue(snapshot.isDirected());
+    }
+
+    @Test
+    public void testSmallGraph() {
+        assertSameGraph(GraphGenerator.generateSmallGraphStore());
+    }
+
+    @Test
+    public void testSmallMixedGraph() {
+        assertSameGraph(GraphGenerator.generateSmallMixedGraphStore());
+    }
+
+    @Test
+    public void testSmallMultiTypeGraph() {
+        assertSameGraph(GraphGenerator.generateSmallMultiTypeGraphStore());
+    }
+
+    @Test
+    public void testSelfLoop() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStoreWithSelfLoop();
+        assertSameGraph(graphStore);
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        Assert.assertEquals(snapshot.getSelfLoops().toCollection(), graphStore.getSelfLoops().toCollection());
+    }
+
+    @Test
+    public void testMutualEdge() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStoreWithMutualEdge();
+        assertSameGraph(graphStore);
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        for (Edge edge : graphStore.getEdges()) {
+            Assert.assertSame(snapshot.getMutualEdge(edge), graphStore.getMutualEdge(edge));
+        }
+    }
+
+    @Test
+    public void testGetById() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        for (Node node : graphStore.getNodes()) {
+            Assert.assertSame(snapshot.getNode(node.getId()), node);
+            Assert.assertSame(snapshot.getNodeByStoreId(node.getStoreId()), node);
+            Assert.assertTrue(snapshot.hasNode(node.getId()));
+        }
+        for (Edge edge : graphStore.getEdges()) {
+            Assert.assertSame(snapshot.getEdge(edge.getId()), edge);
+            Assert.assertSame(snapshot.getEdgeByStoreId(edge.getStoreId()), edge);
+        }
+        Assert.assertNull(snapshot.getNode("foo"));
+        Assert.assertNull(snapshot.getEdge("foo"));
+        Assert.assertNull(snapshot.getNodeByStoreId(-1));
+        Assert.assertNull(snapshot.getEdgeByStoreId(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testUnchangedAfterWrite() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        List<Node> nodes = new ArrayList<>(graphStore.getNodes().toCollection());
+        List<Edge> edges = new ArrayList<>(graphStore.getEdges().toCollection());
+        NodeImpl node = (NodeImpl) nodes.get(0);
+        int degree = graphStore.getDegree(node);
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+
+        graphStore.removeNode(node);
+        NodeImpl newNode = new NodeImpl("new", graphStore);
+        graphStore.addNode(newNode);
+        Assert.assertEquals(newNode.getStoreId(), 0);
+
+        Assert.assertEquals(snapshot.getNodeCount(), nodes.size());
+        Assert.assertEquals(snapshot.getEdgeCount(), edges.size());
+        Assert.assertTrue(snapshot.contains(node));
+        Assert.assertFalse(snapshot.contains(newNode));
+        Assert.assertEquals(snapshot.getDegree(node), degree);
+        Assert.assertSame(snapshot.getNode(node.getId()), node);
+        Assert.assertNull(snapshot.getNode("new"));
+        for (Edge edge : edges) {
+            Assert.assertTrue(snapshot.contains(edge));
+        }
+        Assert.assertEquals(snapshot.getNodes().toCollection().size(), nodes.size());
+        Assert.assertEquals(snapshot.getEdges().toCollection().size(), edges.size());
+    }
+
+    @Test
+    public void testReadWhileWriting() throws Exception {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        int edgeCount = graphStore.getEdgeCount();
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+
+        Thread writer = new Thread(() -> {
+            for (Edge edge : graphStore.getEdges().toArray()) {
+                graphStore.removeEdge(edge);
+            }
+        });
+        writer.start();
+        int count = 0;
+        for (Node node : snapshot.getNodes()) {
+            count += snapshot.getOutEdges(node).toCollection().size();
+        }
+        writer.join();
+        Assert.assertEquals(count, edgeCount);
+        Assert.assertEquals(graphStore.getEdgeCount(), 0);
+        Assert.assertEquals(snapshot.getEdgeCount(), edgeCount);
+    }
+
+    @Test
+    public void testVersion() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        Graph snapshot = new GraphSnapshotImpl(graphStore);
+        Assert.assertEquals(snapshot.getVersion(), graphStore.getVersion());
+    }
+
+    @Test
+    public void testFromModel() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        Node node = graphModel.factory().newNode("1");
+        graphModel.getStore().addNode(node);
+        Graph snapshot = graphModel.snapshot();
+        Assert.assertSame(snapshot.getModel(), graphModel);
+        Assert.assertTrue(snapshot.contains(node));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testAddNode() {
+        GraphStore graphStore = GraphGenerator.generateEmptyGraphStore();
+        new GraphSnapshotImpl(graphStore).addNode(new NodeImpl("1", graphStore));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testClear() {
+        new GraphSnapshotImpl(GraphGenerator.generateSmallGraphStore()).clear();
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testWriteLock() {
+        new GraphSnapshotImpl(GraphGenerator.generateSmallGraphStore()).writeLock();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDegreeUnknownNode() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        new GraphSnapshotImpl(graphStore).getDegree(new NodeImpl("foo", graphStore));
+    }
+
+    private static void assertSameGraph(GraphStore graphStore) {
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        Assert.assertEquals(snapshot.getNodeCount(), graphStore.getNodeCount());
+        Assert.assertEquals(snapshot.getEdgeCount(), graphStore.getEdgeCount());
+        Assert.assertEquals(snapshot.isDirected(), graphStore.isDirected());
+        Assert.assertEquals(snapshot.isUndirected(), graphStore.isUndirected());
+        Assert.assertEquals(snapshot.isMixed(), graphStore.isMixed());
+        Assert.assertEquals(ids(snapshot.getNodes()), ids(graphStore.getNodes()));
+        Assert.assertEquals(ids(snapshot.getEdges()), ids(graphStore.getEdges()));
+
+        int[] types = graphStore.edgeTypeStore.getIdsAsInts();
+        for (int type : types) {
+            Assert.assertEquals(snapshot.getEdgeCount(type), graphStore.getEdgeCount(type));
+            Assert.assertEquals(ids(snapshot.getEdges(type)), ids(graphStore.getEdges(type)));
+        }
+
+        for (Node node : graphStore.getNodes()) {
+            Assert.assertTrue(snapshot.contains(node));
+            Assert.assertEquals(snapshot.getDegree(node), graphStore.getDegree(node));
+            Assert.assertEquals(snapshot.getInDegree(node), graphStore.getInDegree(node));
+            Assert.assertEquals(snapshot.getOutDegree(node), graphStore.getOutDegree(node));
+            Assert.assertEquals(ids(snapshot.getEdges(node)), ids(graphStore.getEdges(node)));
+            Assert.assertEquals(ids(snapshot.getInEdges(node)), ids(graphStore.getInEdges(node)));
+            Assert.assertEquals(ids(snapshot.getOutEdges(node)), ids(graphStore.getOutEdges(node)));
+            Assert.assertEquals(ids(snapshot.getNeighbors(node)), ids(graphStore.getNeighbors(node)));
+            Assert.assertEquals(ids(snapshot.getSuccessors(node)), ids(graphStore.getSuccessors(node)));
+            Assert.assertEquals(ids(snapshot.getPredecessors(node)), ids(graphStore.getPredecessors(node)));
+            for (int type : types) {
+                Assert.assertEquals(ids(snapshot.getEdges(node, type)), ids(graphStore.getEdges(node, type)));
+                Assert.assertEquals(ids(snapshot.getNeighbors(node, type)), ids(graphStore.getNeighbors(node, type)));
+            }
+        }
+
+        for (Edge edge : graphStore.getEdges()) {
+            Assert.assertTrue(snapshot.contains(edge));
+            Assert.assertTrue(snapshot.isAdjacent(edge.getSource(), edge.getTarget()));
+            Assert.assertTrue(snapshot.isAdjacent(edge.getSource(), edge.getTarget(), edge.getType()));
+            Assert.assertNotNull(snapshot.getEdge(edge.getSource(), edge.getTarget(), edge.getType()));
+            Assert.assertTrue(ids(snapshot.getEdges(edge.getSource(), edge.getTarget())).contains(edge.getStoreId()));
+        }
+    }
+
+    private static List<Integer> ids(ElementIterable<? extends Element> iterable) {
+        List<Integer> ids = new ArrayList<>();
+        for (Element element : iterable) {
+            ids.add(element instanceof Node ? ((Node) element).getStoreId() : ((Edge) element).getStoreId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void testCursors() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        GraphSnapshotImpl snapshot = new GraphSnapshotImpl(graphStore);
+        EdgeCursor edgeCursor = snapshot.getEdgeCursor();
+        NeighborCursor neighborCursor = snapshot.getNeighborCursor();
+        for (Node node : snapshot.getNodes().toArray()) {
+            assertEdgeCursor(edgeCursor, node, snapshot.getEdges(node));
+            assertEdgeCursor(snapshot.getOutEdgeCursor(), node, snapshot.getOutEdges(node));
+            assertEdgeCursor(snapshot.getInEdgeCursor(), node, snapshot.getInEdges(node));
+            assertNeighborCursor(neighborCursor, node, snapshot.getNeighbors(node));
+            assertNeighborCursor(snapshot.getSuccessorCursor(), node, snapshot.getSuccessors(node));
+            assertNeighborCursor(snapshot.getPredecessorCursor(), node, snapshot.getPredecessors(node));
+        }
+    }
+
+    private static void assertEdgeCursor(EdgeCursor cursor, Node node, EdgeIterable expected) {
+        cursor.reset(node);
+        for (Edge edge : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), edge.getStoreId());
+            Assert.assertSame(cursor.edge(), edge);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.edge());
+    }
+
+    private static void assertNeighborCursor(NeighborCursor cursor, Node node, NodeIterable expected) {
+        cursor.reset(node);
+        for (Node neighbor : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), neighbor.getStoreId());
+            Assert.assertSame(cursor.node(), neighbor);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.node());
+    }
+}
@@ -16,12 +16,14 @@
 package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import java.awt.Color;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -32,11 +34,15 @@ import org.gephi.graph.api.ColumnIterable;
 import org.gephi.graph.api.Configuration;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
 import org.gephi.graph.api.EdgeIterable;
 import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Index;
 import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.NodeIterable;
+import org.gephi.graph.api.StoreOrder;
 import org.gephi.graph.api.Table;
 import org.gephi.graph.api.TextProperties;
 import org.gephi.graph.spi.LayoutData;
@@ -900,6 +906,21 @@ public class GraphStoreTest {
         Assert.assertEquals(graphStore.getEdgeCount(), 0);
     }
 
+    @Test
+    public void testClearAllEdgesResetsDegrees() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
+        Node n1 = graphStore.getNode("1");
+        Node n2 = graphStore.getNode("2");
+        graphStore.clearEdges();
+        Assert.assertEquals(graphStore.getDegree(n1), 0);
+        Assert.assertEquals(graphStore.getDegree(n2), 0);
+
+        Edge edge = graphStore.factory.newEdge(n2, n1);
+        graphStore.addEdge(edge);
+        Assert.assertEquals(graphStore.getEdges(n1).toArray(), new Edge[] { edge });
+        Assert.assertEquals(graphStore.getInDegree(n1), 1);
+    }
+
     @Test
     public void testClearEdgesByType() {
         GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
@@ -1193,4 +1214,333 @@ public class GraphStoreTest {
         }
         Assert.assertEquals(s2.size(), 0);
     }
+
+    @Test
+    public void testCursors() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        EdgeCursor edgeCursor = graphStore.getEdgeCursor();
+        EdgeCursor outCursor = graphStore.getOutEdgeCursor();
+        EdgeCursor inCursor = graphStore.getInEdgeCursor();
+        NeighborCursor neighborCursor = graphStore.getNeighborCursor();
+        NeighborCursor successorCursor = graphStore.getSuccessorCursor();
+        NeighborCursor predecessorCursor = graphStore.getPredecessorCursor();
+        for (Node node : graphStore.getNodes().toArray()) {
+            assertEdgeCursor(edgeCursor, node, graphStore.getEdges(node));
+            assertEdgeCursor(outCursor, node, graphStore.getOutEdges(node));
+            assertEdgeCursor(inCursor, node, graphStore.getInEdges(node));
+            assertNeighborCursor(neighborCursor, node, graphStore.getNeighbors(node));
+            assertNeighborCursor(successorCursor, node, graphStore.getSuccessors(node));
+            assertNeighborCursor(predecessorCursor, node, graphStore.getPredecessors(node));
+        }
+    }
+
+    @Test
+    public void testCursorsSelfLoopAndMutual() {
+        for (GraphStore graphStore : new GraphStore[] { GraphGenerator
+                .generateTinyGraphStoreWithSelfLoop(), GraphGenerator.generateTinyGraphStoreWithMutualEdge() }) {
+            EdgeCursor edgeCursor = graphStore.getEdgeCursor();
+            NeighborCursor neighborCursor = graphStore.getNeighborCursor();
+            for (Node node : graphStore.getNodes().toArray()) {
+                assertEdgeCursor(edgeCursor, node, graphStore.getEdges(node));
+                assertNeighborCursor(neighborCursor, node, graphStore.getNeighbors(node));
+            }
+        }
+    }
+
+    @Test
+    public void testForEachNeighbor() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        for (Node node : graphStore.getNodes().toArray()) {
+            IntArrayList ids = new IntArrayList();
+            graphStore.forEachNeighbor(node, ids::add);
+            IntArrayList expected = new IntArrayList();
+            for (Node neighbor : graphStore.getNeighbors(node)) {
+                expected.add(neighbor.getStoreId());
+            }
+            Assert.assertEquals(ids, expected);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCursorInvalidNode() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
+        Node node = graphStore.getNode("1");
+        graphStore.removeNode(node);
+        graphStore.getEdgeCursor().reset(node);
+    }
+
+    private static void assertEdgeCursor(EdgeCursor cursor, Node node, EdgeIterable expected) {
+        cursor.reset(node);
+        for (Edge edge : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), edge.getStoreId());
+            Assert.assertSame(cursor.edge(), edge);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.edge());
+    }
+
+    private static void assertNeighborCursor(NeighborCursor cursor, Node node, NodeIterable expected) {
+        cursor.reset(node);
+        for (Node neighbor : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), neighbor.getStoreId());
+            Assert.assertSame(cursor.node(), neighbor);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.node());
+    }
+
+    @Test
+    public void testCompactWithoutGarbage() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        int version = graphStore.version.nodeVersion;
+        Assert.assertFalse(graphStore.compact());
+        Assert.assertEquals(graphStore.version.nodeVersion, version);
+    }
+
+    @Test
+    public void testCompact() {
+        GraphStore graphStore = generateCompactGraph();
+        Node[] nodes = graphStore.getNodes().toArray();
+        Edge[] edges = graphStore.getEdges().toArray();
+        Set<String> neighbors = new HashSet<>();
+        for (Edge edge : edges) {
+            neighbors.add(edge.getSource().getId() + "-" + edge.getTarget().getId());
+        }
+        int nodeBlocks = graphStore.nodeStore.blocksCount;
+        int edgeBlocks = graphStore.edgeStore.blocksCount;
+
+        Assert.assertTrue(graphStore.compact());
+        Assert.assertFalse(graphStore.compact());
+
+        Assert.assertEquals(graphStore.getNodes().toArray(), nodes);
+        Assert.assertEquals(graphStore.getEdges().toArray(), edges);
+        Assert.assertEquals(graphStore.nodeStore.maxStoreId(), nodes.length);
+        Assert.assertEquals(graphStore.edgeStore.maxStoreId(), edges.length);
+        Assert.assertTrue(graphStore.nodeStore.blocksCount < nodeBlocks);
+        Assert.assertTrue(graphStore.edgeStore.blocksCount < edgeBlocks);
+        for (int i = 0; i < nodes.length; i++) {
+            Assert.assertEquals(nodes[i].getStoreId(), i);
+            Assert.assertSame(graphStore.getNode(nodes[i].getId()), nodes[i]);
+        }
+        for (int i = 0; i < edges.length; i++) {
+            Edge edge = edges[i];
+            Assert.assertEquals(edge.getStoreId(), i);
+            Assert.assertSame(graphStore.getEdge(edge.getId()), edge);
+            Assert.assertSame(graphStore.getEdge(edge.getSource(), edge.getTarget(), edge.getType()), edge);
+        }
+        for (Node node : nodes) {
+            for (Edge edge : graphStore.getEdges(node)) {
+                Assert.assertTrue(edge.getSource() == node || edge.getTarget() == node);
+                Assert.assertTrue(neighbors.contains(edge.getSource().getId() + "-" + edge.getTarget().getId()));
+            }
+            Assert.assertEquals(graphStore.getOutDegree(node) + graphStore.getInDegree(node), graphStore
+                    .getDegree(node));
+        }
+
+        // Store is still usable
+        Node node = graphStore.factory.newNode("new");
+        graphStore.addNode(node);
+        Assert.assertEquals(node.getStoreId(), nodes.length);
+        Edge edge = graphStore.factory.newEdge(node, nodes[0]);
+        graphStore.addEdge(edge);
+        Assert.assertEquals(edge.getStoreId(), edges.length);
+        graphStore.removeNode(nodes[0]);
+        Assert.assertFalse(graphStore.contains(edge));
+    }
+
+    @Test
+    public void testCompactView() {
+        GraphStore graphStore = generateCompactGraph();
+        GraphViewImpl view = graphStore.viewStore.createView();
+        DirectedSubgraph subgraph = graphStore.viewStore.getDirectedGraph(view);
+        Node[] nodes = graphStore.getNodes().toArray();
+        Edge[] edges = graphStore.getEdges().toArray();
+        for (int i = 0; i < edges.length; i += 3) {
+            subgraph.addNode(edges[i].getSource());
+            subgraph.addNode(edges[i].getTarget());
+            subgraph.addEdge(edges[i]);
+        }
+        Node[] viewNodes = subgraph.getNodes().toArray();
+        Edge[] viewEdges = subgraph.getEdges().toArray();
+        Assert.assertTrue(viewEdges.length > 0);
+
+        Assert.assertTrue(graphStore.compact());
+
+        Assert.assertEquals(subgraph.getNodes().toArray(), viewNodes);
+        Assert.assertEquals(subgraph.getEdges().toArray(), viewEdges);
+        Assert.assertEquals(subgraph.getNodeCount(), viewNodes.length);
+        Assert.assertEquals(subgraph.getEdgeCount(), viewEdges.length);
+        Assert.assertEquals(view.nodeBitVector.size(), nodes.length);
+        Assert.assertEquals(view.edgeBitVector.size(), edges.length);
+    }
+
+    @Test
+    public void testCompactIndex() {
+        GraphStore graphStore = generateCompactGraph();
+        Column column = graphStore.nodeTable.addColumn("foo", Integer.class);
+        Node[] nodes = graphStore.getNodes().toArray();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setAttribute(column, i % 7);
+        }
+        Index<Node> index = graphStore.graphModel.getNodeIndex();
+        Set<Node> expected = new HashSet<>();
+        for (Node node : index.get(column, 3)) {
+            expected.add(node);
+        }
+        int count = index.count(column, 3);
+        Assert.assertTrue(count > 0);
+
+        Assert.assertTrue(graphStore.compact());
+
+        Assert.assertEquals(index.count(column, 3), count);
+        Set<Node> actual = new HashSet<>();
+        for (Node node : index.get(column, 3)) {
+            actual.add(node);
+        }
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testReorder() {
+        for (StoreOrder order : StoreOrder.values()) {
+            GraphStore graphStore = generateCompactGraph();
+            Column column = graphStore.nodeTable.addColumn("foo", Integer.class);
+            GraphViewImpl view = graphStore.viewStore.createView();
+            DirectedSubgraph subgraph = graphStore.viewStore.getDirectedGraph(view);
+            Node[] nodes = graphStore.getNodes().toArray();
+            Map<Node, Set<Edge>> adjacency = new HashMap<>();
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i].setAttribute(column, i);
+                adjacency.put(nodes[i], new HashSet<>(graphStore.getEdges(nodes[i]).toCollection()));
+            }
+            Edge[] edges = graphStore.getEdges().toArray();
+            for (int i = 0; i < edges.length; i += 3) {
+                subgraph.addNode(edges[i].getSource());
+                subgraph.addNode(edges[i].getTarget());
+                subgraph.addEdge(edges[i]);
+            }
+            Set<Edge> viewEdges = new HashSet<>(subgraph.getEdges().toCollection());
+            int edgeVersion = graphStore.version.edgeVersion;
+
+            graphStore.reorder(order);
+
+            Assert.assertNotEquals(graphStore.version.edgeVersion, edgeVersion);
+            Assert.assertEquals(graphStore.nodeStore.maxStoreId(), nodes.length);
+            Assert.assertEquals(graphStore.edgeStore.maxStoreId(), edges.length);
+            Assert.assertEquals(new HashSet<>(graphStore.getNodes().toCollection()), new HashSet<>(
+                    Arrays.asList(nodes)));
+            for (int i = 0; i < nodes.length; i++) {
+                Assert.assertSame(graphStore.getNode(nodes[i].getId()), nodes[i]);
+                Assert.assertEquals(nodes[i].getAttribute(column), i);
+                Assert.assertEquals(new HashSet<>(graphStore.getEdges(nodes[i]).toCollection()), adjacency
+                        .get(nodes[i]));
+            }
+            for (Edge edge : edges) {
+                Assert.assertSame(graphStore.getEdge(edge.getId()), edge);
+                Assert.assertSame(graphStore.getEdge(edge.getSource(), edge.getTarget(), edge.getType()), edge);
+            }
+            Assert.assertEquals(new HashSet<>(subgraph.getEdges().toCollection()), viewEdges);
+
+            // Edges are grouped by source, in the new node order
+            Edge[] reordered = graphStore.getEdges().toArray();
+            for (int i = 0; i < reordered.length; i++) {
+                Assert.assertEquals(reordered[i].getStoreId(), i);
+                if (i > 0) {
+                    Assert.assertTrue(reordered[i - 1].getSource().getStoreId() <= reordered[i].getSource()
+                            .getStoreId());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReorderDegree() {
+        GraphStore graphStore = generateCompactGraph();
+        graphStore.reorder(StoreOrder.DEGREE);
+
+        Node[] nodes = graphStore.getNodes().toArray();
+        for (int i = 1; i < nodes.length; i++) {
+            Assert.assertTrue(graphStore.getDegree(nodes[i - 1]) >= graphStore.getDegree(nodes[i]));
+        }
+    }
+
+    @Test
+    public void testReorderBfs() {
+        GraphStore graphStore = new GraphModelImpl().store;
+        Node[] nodes = new Node[6];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphStore.factory.newNode(String.valueOf(i));
+            graphStore.addNode(nodes[i]);
+        }
+        // Path 0-5-2-4 and 1-3, with an incoming edge
+        graphStore.addEdge(graphStore.factory.newEdge(nodes[0], nodes[5]));
+        graphStore.addEdge(graphStore.factory.newEdge(nodes[2], nodes[5]));
+        graphStore.addEdge(graphStore.factory.newEdge(nodes[2], nodes[4]));
+        graphStore.addEdge(graphStore.factory.newEdge(nodes[1], nodes[3]));
+
+        graphStore.reorder(StoreOrder.BFS);
+        Assert.assertEquals(graphStore.getNodes()
+                .toArray(), new Node[] { nodes[0], nodes[5], nodes[2], nodes[4], nodes[1], nodes[3] });
+    }
+
+    @Test
+    public void testReorderCommunity() {
+        GraphStore graphStore = new GraphModelImpl().store;
+        Node[] nodes = new Node[8];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphStore.factory.newNode(String.valueOf(i));
+            graphStore.addNode(nodes[i]);
+        }
+        // Two cliques of even and odd nodes, joined by a single edge
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = i + 2; j < nodes.length; j += 2) {
+                graphStore.addEdge(graphStore.factory.newEdge(nodes[i], nodes[j], 0, false));
+            }
+        }
+        graphStore.addEdge(graphStore.factory.newEdge(nodes[6], nodes[7], 0, false));
+
+        graphStore.reorder(StoreOrder.COMMUNITY);
+        Node[] reordered = graphStore.getNodes().toArray();
+        for (int i = 0; i < reordered.length; i++) {
+            Assert.assertEquals(Integer.parseInt((String) reordered[i].getId()) % 2, i < 4 ? 0 : 1);
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testReorderNull() {
+        GraphStore graphStore = new GraphModelImpl().store;
+        graphStore.reorder(null);
+    }
+
+    // Removes most of the nodes and edges, leaving garbage in all blocks
+    private static GraphStore generateCompactGraph() {
+        GraphStore graphStore = new GraphModelImpl().store;
+        int nodeCount = GraphStoreConfiguration.NODESTORE_BLOCK_SIZE * 3;
+        Node[] nodes = new Node[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = graphStore.factory.newNode(String.valueOf(i));
+        }
+        graphStore.addAllNodes(Arrays.asList(nodes));
+        // Edges only between nodes that are kept
+        int keptCount = nodeCount / 3;
+        Edge[] edges = new Edge[GraphStoreConfiguration.EDGESTORE_BLOCK_SIZE * 3];
+        for (int i = 0; i < edges.length; i++) {
+            int source = i % keptCount;
+            int target = (source * 7 + i / keptCount + 1) % keptCount;
+            edges[i] = graphStore.factory.newEdge(nodes[source * 3], nodes[target * 3], i % 2, true);
+        }
+        for (Edge edge : edges) {
+            graphStore.addEdge(edge);
+        }
+        for (int i = 0; i < nodeCount - 1; i++) {
+            if (i % 3 != 0) {
+                graphStore.removeNode(nodes[i]);
+            }
+        }
+        Edge[] remaining = graphStore.getEdges().toArray();
+        for (int i = 0; i < remaining.length; i += 2) {
+            graphStore.removeEdge(remaining[i]);
+        }
+        return graphStore;
+    }
 }
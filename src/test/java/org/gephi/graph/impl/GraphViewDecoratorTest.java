@@ -17,15 +17,25 @@ package org.gephi.graph.impl;
 
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
+import org.gephi.graph.api.EdgeIterable;
 import org.gephi.graph.api.Element;
 import org.gephi.graph.api.ElementIterable;
+import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
+import org.gephi.graph.api.NodeIterable;
 import org.gephi.graph.api.UndirectedSubgraph;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -551,6 +561,38 @@ public class GraphViewDecoratorTest {
         }
     }
 
+    @Test
+    public void testSparseViewIterators() {
+        GraphStore graphStore = new GraphModelImpl().store;
+        graphStore.addAllNodes(Arrays.asList(GraphGenerator.generateNodeList(5000, graphStore)));
+        graphStore.addAllEdges(Arrays
+                .asList(GraphGenerator.generateEdgeList(graphStore.nodeStore, 50000, 0, true, true, false)));
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        DirectedSubgraph graph = store.getDirectedGraph(view);
+
+        List<Node> nodes = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        for (Edge edge : graphStore.getEdges().toArray()) {
+            if (edge.getStoreId() % 997 == 0 && !edge.isSelfLoop()) {
+                graph.addNode(edge.getSource());
+                graph.addNode(edge.getTarget());
+                graph.addEdge(edge);
+                edges.add(edge);
+            }
+        }
+        for (Node node : graphStore.getNodes()) {
+            if (graph.contains(node)) {
+                nodes.add(node);
+            }
+        }
+
+        Assert.assertEquals(graph.getNodes().toCollection(), nodes);
+        Assert.assertEquals(graph.getEdges().toCollection(), edges);
+        UndirectedSubgraph undirectedGraph = store.getUndirectedGraph(view);
+        Assert.assertEquals(undirectedGraph.getEdges().toCollection().size(), undirectedGraph.getEdgeCount());
+    }
+
     @Test
     public void testDirectedDegree() {
         GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
@@ -584,6 +626,137 @@ public class GraphViewDecoratorTest {
         }
     }
 
+    @Test
+    public void testDegreeAfterChanges() {
+        GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        addSomeElements(graphStore, view);
+        assertDegrees(view);
+
+        DirectedSubgraph graph = store.getDirectedGraph(view);
+        Edge[] edges = graph.getEdges().toArray();
+        for (int i = 0; i < edges.length; i += 3) {
+            graph.removeEdge(edges[i]);
+        }
+        assertDegrees(view);
+
+        for (Edge e : graphStore.getEdges().toArray()) {
+            if (graph.contains(e.getSource()) && graph.contains(e.getTarget())) {
+                graph.addEdge(e);
+            }
+        }
+        assertDegrees(view);
+
+        Node[] nodes = graph.getNodes().toArray();
+        graph.removeNode(nodes[0]);
+        graphStore.removeNode(nodes[1]);
+        graphStore.removeEdge(graph.getEdges().toArray()[0]);
+        assertDegrees(view);
+
+        for (Edge e : graph.getEdges().toArray()) {
+            if (e.isDirected() && graph.getMutualEdge(e) != null) {
+                e.setType(e.getType() == 0 ? 1 : 0);
+                break;
+            }
+        }
+        assertDegrees(view);
+
+        graph.clearEdges(nodes[2]);
+        assertDegrees(view);
+
+        view.not();
+        assertDegrees(view);
+    }
+
+    @Test
+    public void testUndirectedParallelMutualEdges() {
+        GraphStore graphStore = new GraphStore();
+        NodeImpl n1 = new NodeImpl("1");
+        NodeImpl n2 = new NodeImpl("2");
+        graphStore.addNode(n1);
+        graphStore.addNode(n2);
+        EdgeImpl e1 = new EdgeImpl("e1", n1, n2, 0, 1.0, true);
+        EdgeImpl e2 = new EdgeImpl("e2", n1, n2, 0, 1.0, true);
+        EdgeImpl e3 = new EdgeImpl("e3", n2, n1, 0, 1.0, true);
+        EdgeImpl e4 = new EdgeImpl("e4", n2, n1, 0, 1.0, true);
+        graphStore.addEdge(e3);
+        graphStore.addEdge(e1);
+        graphStore.addEdge(e4);
+        graphStore.addEdge(e2);
+        // e4 pairs with e2 but isn't the first edge from n2 to n1
+        graphStore.removeEdge(e1);
+        Assert.assertTrue(e2.isMutual() && e4.isMutual());
+        Assert.assertFalse(e3.isMutual());
+
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        view.addNode(n1);
+        view.addNode(n2);
+        view.addEdge(e2);
+        view.addEdge(e4);
+        assertUndirectedCounts(view);
+
+        view.addEdge(e3);
+        assertUndirectedCounts(view);
+
+        view.removeEdge(e3);
+        view.not();
+        view.not();
+        assertUndirectedCounts(view);
+
+        view.removeEdge(e4);
+        assertUndirectedCounts(view);
+    }
+
+    @Test
+    public void testRandomMutualCounts() {
+        for (int seed = 0; seed < 300; seed++) {
+            Random random = new Random(seed);
+            GraphStore graphStore = new GraphStore();
+            NodeImpl[] nodes = new NodeImpl[4];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new NodeImpl(String.valueOf(i));
+                graphStore.addNode(nodes[i]);
+            }
+            GraphViewStore store = graphStore.viewStore;
+            GraphViewImpl[] views = new GraphViewImpl[] { store.createView(), store.createView() };
+            for (GraphViewImpl view : views) {
+                for (NodeImpl node : nodes) {
+                    view.addNode(node);
+                }
+            }
+            List<EdgeImpl> edges = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                int op = random.nextInt(5);
+                if (op == 0 || edges.isEmpty()) {
+                    // Self loops are left out, undirected degrees count them twice
+                    int source = random.nextInt(nodes.length);
+                    int target = (source + 1 + random.nextInt(nodes.length - 1)) % nodes.length;
+                    EdgeImpl edge = new EdgeImpl("e" + i, nodes[source], nodes[target], random.nextInt(2), 1.0, true);
+                    graphStore.addEdge(edge);
+                    edges.add(edge);
+                } else if (op == 1) {
+                    graphStore.removeEdge(edges.remove(random.nextInt(edges.size())));
+                } else if (op == 2) {
+                    EdgeImpl edge = edges.get(random.nextInt(edges.size()));
+                    graphStore.edgeStore.setEdgeType(edge, 1 - edge.type);
+                } else {
+                    GraphViewImpl view = views[random.nextInt(views.length)];
+                    EdgeImpl edge = edges.get(random.nextInt(edges.size()));
+                    if (view.containsEdge(edge)) {
+                        view.removeEdge(edge);
+                    } else {
+                        view.addEdge(edge);
+                    }
+                }
+                for (GraphViewImpl view : views) {
+                    assertMutualCounts(view);
+                }
+            }
+        }
+    }
+
     @Test
     public void testGetEdge() {
         GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
@@ -788,6 +961,7 @@ public class GraphViewDecoratorTest {
 
         Edge edge = graphStore.factory.newEdge("edge", n1, n1, EdgeTypeStore.NULL_LABEL, 1.0, true);
         graphStore.addEdge(edge);
+        graph.addEdge(edge);
         Assert.assertTrue(graph.isIncident(edge, graph.getEdge("0")));
     }
 
@@ -902,6 +1076,50 @@ public class GraphViewDecoratorTest {
         return s1.equals(s2);
     }
 
+    private void assertMutualCounts(GraphViewImpl view) {
+        int[] typeCounts = new int[view.mutualEdgeTypeCounts.length];
+        int count = 0;
+        for (Edge edge : view.getDirectedGraph().getEdges()) {
+            if (view.isUndirectedToIgnore((EdgeImpl) edge)) {
+                typeCounts[edge.getType()]++;
+                count++;
+            }
+        }
+        Assert.assertEquals(view.mutualEdgesCount, count);
+        Assert.assertEquals(view.mutualEdgeTypeCounts, typeCounts);
+
+        UndirectedSubgraph graph = view.getUndirectedGraph();
+        Assert.assertEquals(graph.getEdgeCount(), graph.getEdges().toCollection().size());
+        for (int type = 0; type < typeCounts.length; type++) {
+            Assert.assertEquals(graph.getEdgeCount(type), graph.getEdges(type).toCollection().size());
+        }
+        for (Node n : graph.getNodes()) {
+            Assert.assertEquals(graph.getDegree(n), graph.getEdges(n).toCollection().size());
+        }
+    }
+
+    private void assertUndirectedCounts(GraphViewImpl view) {
+        UndirectedSubgraph graph = view.getUndirectedGraph();
+        Assert.assertEquals(graph.getEdgeCount(), graph.getEdges().toCollection().size());
+        Assert.assertEquals(graph.getEdgeCount(0), graph.getEdges().toCollection().size());
+        for (Node n : graph.getNodes()) {
+            Assert.assertEquals(graph.getDegree(n), graph.getEdges(n).toCollection().size());
+        }
+    }
+
+    private void assertDegrees(GraphViewImpl view) {
+        DirectedSubgraph graph = view.getDirectedGraph();
+        UndirectedSubgraph undirectedGraph = view.getUndirectedGraph();
+        GraphStore copyGraphStore = convertToStore(view);
+        for (Node n : graph.getNodes()) {
+            Node m = copyGraphStore.getNode(n.getId());
+            Assert.assertEquals(graph.getDegree(n), copyGraphStore.getDegree(m));
+            Assert.assertEquals(graph.getInDegree(n), copyGraphStore.getInDegree(m));
+            Assert.assertEquals(graph.getOutDegree(n), copyGraphStore.getOutDegree(m));
+            Assert.assertEquals(undirectedGraph.getDegree(n), copyGraphStore.undirectedDecorator.getDegree(m));
+        }
+    }
+
     private GraphStore convertToStore(GraphViewImpl view) {
         GraphStore store = new GraphStore();
         DirectedSubgraph graph = view.getDirectedGraph();
@@ -934,4 +1152,95 @@ public class GraphViewDecoratorTest {
             }
         }
     }
+
+    @Test
+    public void testParallelStream() {
+        GraphStore graphStore = GraphGenerator.generateLargeGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        DirectedSubgraph graph = store.getDirectedGraph(view);
+        Node[] nodes = graphStore.getNodes().toArray();
+        for (int i = 0; i < nodes.length; i += 2) {
+            graph.addNode(nodes[i]);
+        }
+
+        Set<Node> expectedNodes = new HashSet<>(graph.getNodes().toCollection());
+        Set<Edge> expectedEdges = new HashSet<>(graph.getEdges().toCollection());
+        Assert.assertEquals(graph.getNodes().parallelStream().collect(Collectors.toSet()), expectedNodes);
+        Assert.assertEquals(graph.getEdges().parallelStream().collect(Collectors.toSet()), expectedEdges);
+
+        UndirectedSubgraph undirectedGraph = store.getUndirectedGraph(view);
+        Assert.assertEquals(undirectedGraph.getEdges().parallelStream().count(), undirectedGraph.getEdgeCount());
+    }
+
+    @Test
+    public void testParallelStreamReleasesLock() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.getGraph().addNode(n1);
+        GraphView view = graphModel.createView();
+        graphModel.getGraph(view).addNode(n1);
+
+        Assert.assertEquals(graphModel.getGraph(view).getNodes().parallelStream().count(), 1);
+        Assert.assertEquals(graphModel.getGraph(view).getNeighbors(n1).parallelStream().count(), 0);
+        Assert.assertEquals(graphModel.getUndirectedGraph().getEdges().parallelStream().count(), 0);
+        graphModel.getGraph().addNode(graphModel.factory().newNode("2"));
+        Assert.assertEquals(graphModel.getGraph().getNodeCount(), 2);
+    }
+
+    @Test
+    public void testCursors() {
+        GraphStore graphStore = GraphGenerator.generateSmallMixedGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        DirectedSubgraph graph = store.getDirectedGraph(view);
+        UndirectedSubgraph undirectedGraph = store.getUndirectedGraph(view);
+        graph.fill();
+        int i = 0;
+        for (Edge edge : graphStore.getEdges().toArray()) {
+            if (i++ % 3 == 0) {
+                graph.removeEdge(edge);
+            }
+        }
+        graph.removeNode(graphStore.getNodes().toArray()[0]);
+
+        for (Node node : graph.getNodes().toArray()) {
+            assertEdgeCursor(graph.getEdgeCursor(), node, graph.getEdges(node));
+            assertEdgeCursor(graph.getOutEdgeCursor(), node, graph.getOutEdges(node));
+            assertEdgeCursor(graph.getInEdgeCursor(), node, graph.getInEdges(node));
+            assertNeighborCursor(graph.getNeighborCursor(), node, graph.getNeighbors(node));
+            assertNeighborCursor(graph.getSuccessorCursor(), node, graph.getSuccessors(node));
+            assertNeighborCursor(graph.getPredecessorCursor(), node, graph.getPredecessors(node));
+            assertEdgeCursor(undirectedGraph.getEdgeCursor(), node, undirectedGraph.getEdges(node));
+            assertNeighborCursor(undirectedGraph.getNeighborCursor(), node, undirectedGraph.getNeighbors(node));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCursorNodeNotInView() {
+        GraphStore graphStore = GraphGenerator.generateTinyGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        store.getDirectedGraph(view).getEdgeCursor().reset(graphStore.getNode("1"));
+    }
+
+    private static void assertEdgeCursor(EdgeCursor cursor, Node node, EdgeIterable expected) {
+        cursor.reset(node);
+        for (Edge edge : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), edge.getStoreId());
+            Assert.assertSame(cursor.edge(), edge);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.edge());
+    }
+
+    private static void assertNeighborCursor(NeighborCursor cursor, Node node, NodeIterable expected) {
+        cursor.reset(node);
+        for (Node neighbor : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), neighbor.getStoreId());
+            Assert.assertSame(cursor.node(), neighbor);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.node());
+    }
 }
@@ -507,4 +507,119 @@ public class GraphViewImplTest {
         Assert.assertEquals(view.getUndirectedEdgeCount(0), 0);
         Assert.assertEquals(view.getUndirectedEdgeCount(1), 1);
     }
+
+    @Test
+    public void testViewIntersectionCounts() {
+        GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView(true, false);
+        GraphViewImpl view2 = store.createView(true, false);
+        GraphViewImpl expected = store.createView(true, false);
+
+        for (Node n : graphStore.getNodes().toArray()) {
+            int id = n.getStoreId();
+            boolean in1 = id % 2 == 0 || id % 3 == 0;
+            boolean in2 = id % 3 == 0 || id % 5 == 0;
+            if (in1) {
+                view.addNode(n);
+            }
+            if (in2) {
+                view2.addNode(n);
+            }
+            if (in1 && in2) {
+                expected.addNode(n);
+            }
+        }
+
+        view.intersection(view2);
+        assertSameView(graphStore, view, expected);
+    }
+
+    @Test
+    public void testViewUnionCounts() {
+        GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView(true, false);
+        GraphViewImpl view2 = store.createView(true, false);
+        GraphViewImpl expected = store.createView(true, false);
+
+        for (Node n : graphStore.getNodes().toArray()) {
+            int id = n.getStoreId();
+            boolean in1 = id % 2 == 0;
+            boolean in2 = id % 3 == 0;
+            if (in1) {
+                view.addNode(n);
+            }
+            if (in2) {
+                view2.addNode(n);
+            }
+            if (in1 || in2) {
+                expected.addNode(n);
+            }
+        }
+
+        view.union(view2);
+        assertSameView(graphStore, view, expected);
+    }
+
+    @Test
+    public void testViewNotCounts() {
+        GraphStore graphStore = GraphGenerator.generateSmallMultiTypeGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+        GraphViewImpl expected = store.createView();
+
+        for (Node n : graphStore.getNodes()) {
+            if (n.getStoreId() % 3 == 0) {
+                view.addNode(n);
+            } else {
+                expected.addNode(n);
+            }
+        }
+        for (Edge e : graphStore.getEdges()) {
+            if (view.containsNode((NodeImpl) e.getSource()) && view
+                    .containsNode((NodeImpl) e.getTarget()) && e.getStoreId() % 2 == 0) {
+                view.addEdge(e);
+            } else if (expected.containsNode((NodeImpl) e.getSource()) && expected
+                    .containsNode((NodeImpl) e.getTarget())) {
+                expected.addEdge(e);
+            }
+        }
+
+        view.not();
+        assertSameView(graphStore, view, expected);
+    }
+
+    @Test
+    public void testViewNotWithRemovedNode() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView();
+
+        graphStore.removeNode(graphStore.getNode("0"));
+        view.not();
+
+        Assert.assertEquals(view.getNodeCount(), graphStore.getNodeCount());
+        Assert.assertEquals(view.getEdgeCount(), graphStore.getEdgeCount());
+
+        Node node = graphStore.factory.newNode("0");
+        graphStore.addNode(node);
+        Assert.assertFalse(view.containsNode((NodeImpl) node));
+    }
+
+    private void assertSameView(GraphStore graphStore, GraphViewImpl view, GraphViewImpl expected) {
+        for (Node n : graphStore.getNodes()) {
+            Assert.assertEquals(view.containsNode((NodeImpl) n), expected.containsNode((NodeImpl) n));
+        }
+        for (Edge e : graphStore.getEdges()) {
+            Assert.assertEquals(view.containsEdge((EdgeImpl) e), expected.containsEdge((EdgeImpl) e));
+        }
+        Assert.assertEquals(view.getNodeCount(), expected.getNodeCount());
+        Assert.assertEquals(view.getEdgeCount(), expected.getEdgeCount());
+        Assert.assertEquals(view.getUndirectedEdgeCount(), expected.getUndirectedEdgeCount());
+        for (int type = 0; type < graphStore.edgeTypeStore.length; type++) {
+            Assert.assertEquals(view.getEdgeCount(type), expected.getEdgeCount(type));
+            Assert.assertEquals(view.getUndirectedEdgeCount(type), expected.getUndirectedEdgeCount(type));
+        }
+    }
 }
@@ -15,13 +15,21 @@
  */
 package org.gephi.graph.impl;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
 import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.Configuration;
 import org.gephi.graph.api.DirectedSubgraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.GraphDiff;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Node;
 import org.gephi.graph.api.Subgraph;
+import org.gephi.graph.api.TimeRepresentation;
 import org.gephi.graph.api.UndirectedSubgraph;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -417,4 +425,259 @@ public class GraphViewStoreTest {
         Assert.assertTrue(graphStore.addEdge(e));
         Assert.assertTrue(graphStore.removeEdge(e));
     }
+
+    @Test
+    public void testAddElementsDoesNotGrowViews() {
+        GraphStore graphStore = new GraphStore();
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl view = store.createView();
+        int nodeSize = view.nodeBitVector.size();
+        int edgeSize = view.edgeBitVector.size();
+
+        for (NodeImpl n : GraphGenerator.generateNodeList(1000, graphStore)) {
+            graphStore.addNode(n);
+        }
+        graphStore.addAllEdges(Arrays
+                .asList(GraphGenerator.generateEdgeList(graphStore.nodeStore, 10000, 0, true, true, false)));
+
+        Assert.assertEquals(view.nodeBitVector.size(), nodeSize);
+        Assert.assertEquals(view.edgeBitVector.size(), edgeSize);
+        Assert.assertEquals(view.getNodeCount(), 0);
+        Assert.assertEquals(view.getEdgeCount(), 0);
+
+        NodeImpl node = graphStore.nodeStore.get(graphStore.nodeStore.maxStoreId() - 1);
+        view.addNode(node);
+        Assert.assertTrue(view.containsNode(node));
+    }
+
+    @Test
+    public void testNodeOnlyViewWithStoreEdges() {
+        GraphStore graphStore = new GraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView(true, false);
+
+        Node n1 = graphStore.factory.newNode("1");
+        Node n2 = graphStore.factory.newNode("2");
+        graphStore.addNode(n1);
+        graphStore.addNode(n2);
+        view.addNode(n1);
+        view.addNode(n2);
+
+        Edge e = graphStore.factory.newEdge(n1, n2, 0, 1.0, true);
+        graphStore.addEdge(e);
+        Assert.assertTrue(view.containsEdge((EdgeImpl) e));
+        Assert.assertEquals(view.getEdgeCount(), 1);
+
+        Assert.assertTrue(graphStore.removeEdge(e));
+        Assert.assertEquals(view.getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testEdgeOnlyViewWithStoreNodes() {
+        GraphStore graphStore = new GraphStore();
+        GraphViewStore store = graphStore.viewStore;
+        GraphViewImpl view = store.createView(false, true);
+
+        Node n1 = graphStore.factory.newNode("1");
+        Node n2 = graphStore.factory.newNode("2");
+        graphStore.addNode(n1);
+        graphStore.addNode(n2);
+        Edge e = graphStore.factory.newEdge(n1, n2, 0, 1.0, true);
+        graphStore.addEdge(e);
+        view.addEdge(e);
+        Assert.assertEquals(view.getEdgeCount(), 1);
+
+        Assert.assertTrue(graphStore.removeNode(n1));
+        Assert.assertEquals(view.getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testManyViews() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl[] views = new GraphViewImpl[200];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = store.createView();
+        }
+        Node n1 = graphStore.factory.newNode("foo");
+        Node n2 = graphStore.factory.newNode("bar");
+        graphStore.addNode(n1);
+        graphStore.addNode(n2);
+        Edge e = graphStore.factory.newEdge("foobar", n1, n2, 0, 1.0, true);
+        graphStore.addEdge(e);
+
+        GraphViewImpl view = views[views.length / 2];
+        view.addNode(n1);
+        view.addNode(n2);
+        view.addEdge(e);
+
+        Assert.assertTrue(graphStore.removeNode(n1));
+        for (GraphViewImpl v : views) {
+            Assert.assertEquals(v.getNodeCount(), v == view ? 1 : 0);
+            Assert.assertEquals(v.getEdgeCount(), 0);
+        }
+    }
+
+    @Test
+    public void testTimeWindowView() {
+        GraphStore graphStore = generateTimeGraph(Configuration.builder().build());
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl view = store.createTimeWindowView(new Interval(0, 10));
+        assertTimeWindow(graphStore, view);
+        for (int i = 1; i < 100; i += 3) {
+            store.setTimeInterval(view, new Interval(i, i + 10));
+            assertTimeWindow(graphStore, view);
+        }
+        store.setTimeInterval(view, new Interval(20, 25));
+        assertTimeWindow(graphStore, view);
+        store.setTimeInterval(view, new Interval(10, 90));
+        assertTimeWindow(graphStore, view);
+        store.setTimeInterval(view, null);
+        assertTimeWindow(graphStore, view);
+        Assert.assertTrue(view.getEdgeCount() > 0);
+    }
+
+    @Test
+    public void testTimeWindowViewIntervals() {
+        GraphStore graphStore = generateTimeGraph(Configuration.builder()
+                .timeRepresentation(TimeRepresentation.INTERVAL).build());
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl view = store.createTimeWindowView(new Interval(0, 10));
+        assertTimeWindow(graphStore, view);
+        for (int i = 1; i < 100; i += 3) {
+            store.setTimeInterval(view, new Interval(i, i + 10));
+            assertTimeWindow(graphStore, view);
+        }
+        store.setTimeInterval(view, new Interval(50, 50));
+        assertTimeWindow(graphStore, view);
+    }
+
+    @Test
+    public void testTimeWindowViewDiff() {
+        GraphStore graphStore = generateTimeGraph(Configuration.builder().build());
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl view = store.createTimeWindowView(new Interval(0, 10));
+        GraphObserverImpl observer = store.createGraphObserver(view.getDirectedGraph(), true);
+        Set<Node> nodes = new HashSet<>(view.getDirectedGraph().getNodes().toCollection());
+        Set<Edge> edges = new HashSet<>(view.getDirectedGraph().getEdges().toCollection());
+
+        store.setTimeInterval(view, new Interval(5, 15));
+        Set<Node> newNodes = new HashSet<>(view.getDirectedGraph().getNodes().toCollection());
+        Set<Edge> newEdges = new HashSet<>(view.getDirectedGraph().getEdges().toCollection());
+
+        Assert.assertTrue(observer.hasGraphChanged());
+        GraphDiff diff = observer.getDiff();
+        Assert.assertEquals(new HashSet<>(diff.getAddedNodes().toCollection()), difference(newNodes, nodes));
+        Assert.assertEquals(new HashSet<>(diff.getRemovedNodes().toCollection()), difference(nodes, newNodes));
+        Assert.assertEquals(new HashSet<>(diff.getAddedEdges().toCollection()), difference(newEdges, edges));
+        Assert.assertEquals(new HashSet<>(diff.getRemovedEdges().toCollection()), difference(edges, newEdges));
+    }
+
+    @Test
+    public void testTimeWindowViewGraphChanges() {
+        GraphStore graphStore = generateTimeGraph(Configuration.builder().build());
+        GraphViewStore store = graphStore.viewStore;
+
+        GraphViewImpl view = store.createTimeWindowView(new Interval(0, 10));
+        Node node = graphStore.factory.newNode("new");
+        node.addTimestamp(8.0);
+        graphStore.addNode(node);
+        Node removed = view.getDirectedGraph().getNodes().toArray()[0];
+        graphStore.removeNode(removed);
+
+        store.setTimeInterval(view, new Interval(1, 11));
+        Assert.assertTrue(view.containsNode((NodeImpl) node));
+        assertTimeWindow(graphStore, view);
+
+        node.removeTimestamp(8.0);
+        store.setTimeInterval(view, new Interval(2, 12));
+        Assert.assertFalse(view.containsNode((NodeImpl) node));
+        assertTimeWindow(graphStore, view);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testTimeWindowViewWithoutTimeIndex() {
+        GraphStore graphStore = new GraphModelImpl(Configuration.builder().enableIndexTime(false).build()).store;
+        graphStore.viewStore.createTimeWindowView(new Interval(0, 10));
+    }
+
+    private static GraphStore generateTimeGraph(Configuration configuration) {
+        GraphStore graphStore = new GraphModelImpl(configuration).store;
+        boolean intervals = configuration.getTimeRepresentation().equals(TimeRepresentation.INTERVAL);
+        Random random = new Random(42);
+        Node[] nodes = new Node[200];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphStore.factory.newNode(String.valueOf(i));
+            int time = random.nextInt(100);
+            addTime(nodes[i], time, intervals);
+            addTime(nodes[i], (time + 50) % 100, intervals);
+            graphStore.addNode(nodes[i]);
+        }
+        for (int i = 0; i < 2000; i++) {
+            Node source = nodes[random.nextInt(nodes.length)];
+            Node target = nodes[random.nextInt(nodes.length)];
+            if (graphStore.getEdge(source, target) == null) {
+                Edge edge = graphStore.factory.newEdge(source, target, 0, 1.0, true);
+                addTime(edge, random.nextInt(100), intervals);
+                graphStore.addEdge(edge);
+            }
+        }
+        return graphStore;
+    }
+
+    private static void addTime(Element element, int time, boolean intervals) {
+        if (intervals) {
+            element.addInterval(new Interval(time, time + 4));
+        } else {
+            element.addTimestamp(time);
+        }
+    }
+
+    private static boolean isInWindow(Element element, Interval window, boolean intervals) {
+        if (intervals) {
+            for (Interval interval : element.getIntervals()) {
+                if (interval.compareTo(window) == 0) {
+                    return true;
+                }
+            }
+        } else {
+            for (double timestamp : element.getTimestamps()) {
+                if (timestamp >= window.getLow() && timestamp <= window.getHigh()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void assertTimeWindow(GraphStore graphStore, GraphViewImpl view) {
+        boolean intervals = graphStore.configuration.getTimeRepresentation().equals(TimeRepresentation.INTERVAL);
+        Interval window = view.getTimeInterval();
+        int nodeCount = 0;
+        for (Node node : graphStore.getNodes()) {
+            boolean expected = isInWindow(node, window, intervals);
+            Assert.assertEquals(view.containsNode((NodeImpl) node), expected);
+            nodeCount += expected ? 1 : 0;
+        }
+        int edgeCount = 0;
+        for (Edge edge : graphStore.getEdges()) {
+            boolean expected = isInWindow(edge, window, intervals) && isInWindow(edge
+                    .getSource(), window, intervals) && isInWindow(edge.getTarget(), window, intervals);
+            Assert.assertEquals(view.containsEdge((EdgeImpl) edge), expected);
+            edgeCount += expected ? 1 : 0;
+        }
+        Assert.assertEquals(view.getNodeCount(), nodeCount);
+        Assert.assertEquals(view.getEdgeCount(), edgeCount);
+    }
+
+    private static <T> Set<T> difference(Set<T> set, Set<T> other) {
+        Set<T> res = new HashSet<>(set);
+        res.removeAll(other);
+        return res;
+    }
 }
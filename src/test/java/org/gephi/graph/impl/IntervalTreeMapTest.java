@@ -15,9 +15,14 @@
  */
 package org.gephi.graph.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
@@ -203,6 +208,70 @@ public class IntervalTreeMapTest {
         Assert.assertSame(m.maximum(), i1);
     }
 
+    @Test
+    public void testMinimumMerged() {
+        Random random = new Random(42l);
+        Interval2IntTreeMap m = new Interval2IntTreeMap();
+        List<Interval> intervals = new ArrayList<>();
+        // Enough intervals to merge the buffer several times
+        for (int i = 0; i < 2000; i++) {
+            double low = random.nextInt(10) == 0 ? Double.NEGATIVE_INFINITY : random.nextInt(10000);
+            Interval interval = new Interval(low,
+                    Double.isInfinite(low) ? random.nextInt(10000) : low + random.nextInt(100));
+            if (m.put(interval, i) == null) {
+                intervals.add(interval);
+            }
+        }
+        Collections.shuffle(intervals, random);
+        for (Interval interval : intervals) {
+            m.remove(interval);
+            if (!m.isEmpty()) {
+                Interval expected = null;
+                for (Interval i : m.getIntervals()) {
+                    if (!Double.isInfinite(i.getLow())) {
+                        expected = i;
+                        break;
+                    }
+                }
+                Assert.assertSame(m.minimum(), expected != null ? expected : m.getIntervals().get(0));
+            }
+        }
+        Assert.assertNull(m.minimum());
+    }
+
+    @Test
+    public void testMinimumRemovedHead() {
+        Interval2IntTreeMap m = new Interval2IntTreeMap();
+        Interval infinite = new Interval(Double.NEGATIVE_INFINITY, 1.0);
+        m.put(infinite, 0);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Interval interval = new Interval(i, i + 1.0);
+            m.put(interval, i);
+            intervals.add(interval);
+        }
+        Assert.assertSame(m.minimum(), intervals.get(0));
+        // Remove from the head, less than half so the intervals aren't merged
+        for (int i = 0; i < 400; i++) {
+            m.remove(intervals.get(i));
+            Assert.assertSame(m.minimum(), intervals.get(i + 1));
+        }
+        m.put(intervals.get(200), 200);
+        Assert.assertSame(m.minimum(), intervals.get(200));
+        m.put(intervals.get(100), 100);
+        Assert.assertSame(m.minimum(), intervals.get(100));
+        m.remove(intervals.get(100));
+        Assert.assertSame(m.minimum(), intervals.get(200));
+        m.remove(intervals.get(200));
+        Assert.assertSame(m.minimum(), intervals.get(400));
+        for (int i = 400; i < 1000; i++) {
+            m.remove(intervals.get(i));
+        }
+        Assert.assertSame(m.minimum(), infinite);
+        m.remove(infinite);
+        Assert.assertNull(m.minimum());
+    }
+
     @Test
     public void testRandomTest() {
         Random random = new Random(303l);
@@ -255,6 +324,82 @@ public class IntervalTreeMapTest {
         }
     }
 
+    @Test
+    public void testRandomQueries() {
+        Random random = new Random(42);
+        Map<Interval, Integer> expected = new HashMap<>();
+        Interval2IntTreeMap map = new Interval2IntTreeMap();
+        for (int round = 0; round < 50; round++) {
+            // Add and remove enough intervals to go through merges
+            for (int i = 0; i < 200; i++) {
+                int start = random.nextInt(1000);
+                Interval interval = new Interval(start, start + random.nextInt(50));
+                if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                    Interval removed = expected.keySet().iterator().next();
+                    Assert.assertEquals(map.remove(removed), expected.remove(removed));
+                } else {
+                    Assert.assertEquals(map.put(interval, i), expected.put(interval, i));
+                }
+            }
+            Assert.assertEquals(map.size(), expected.size());
+
+            for (int i = 0; i < 10; i++) {
+                double low = random.nextInt(1100) - 50;
+                Interval query = new Interval(low, low + random.nextInt(20));
+                List<Interval> overlapping = new ArrayList<>();
+                for (Interval interval : expected.keySet()) {
+                    if (interval.compareTo(query) == 0) {
+                        overlapping.add(interval);
+                    }
+                }
+                overlapping.sort(Comparator.comparingDouble(Interval::getLow).thenComparingDouble(Interval::getHigh));
+
+                List<Interval> result = new ArrayList<>();
+                for (Map.Entry<Interval, Integer> entry : map.entrySet(query)) {
+                    Assert.assertEquals(entry.getValue(), expected.get(entry.getKey()));
+                    result.add(entry.getKey());
+                }
+                Assert.assertEquals(result, overlapping);
+
+                int count = 0;
+                for (Integer value : map.values(low)) {
+                    count++;
+                }
+                int expectedCount = 0;
+                for (Interval interval : expected.keySet()) {
+                    if (interval.compareTo(low) == 0) {
+                        expectedCount++;
+                    }
+                }
+                Assert.assertEquals(count, expectedCount);
+            }
+
+            double max = Double.NEGATIVE_INFINITY;
+            for (Interval interval : expected.keySet()) {
+                max = Math.max(max, interval.getHigh());
+            }
+            Assert.assertEquals(map.getHigh(), max);
+            Assert.assertEquals(map.maximum().getHigh(), max);
+        }
+    }
+
+    @Test
+    public void testPutAll() {
+        Map<Interval, Integer> intervals = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            intervals.put(new Interval(i, i + 10), i);
+        }
+        Interval2IntTreeMap m = new Interval2IntTreeMap();
+        m.putAll(intervals);
+        Assert.assertEquals(m.size(), 1000);
+        Assert.assertEquals(m.values(new Interval(100.0, 100.0)).size(), 11);
+        Assert.assertEquals(m.remove(new Interval(100.0, 110.0)).intValue(), 100);
+        Assert.assertEquals(m.values(new Interval(100.0, 100.0)).size(), 10);
+        Assert.assertNull(m.put(new Interval(100.0, 110.0), 7));
+        Assert.assertEquals(m.get(new Interval(100.0, 110.0)).intValue(), 7);
+        Assert.assertEquals(m.getIntervals().size(), 1000);
+    }
+
     @Test
     public void testGetIntervals() {
         Interval2IntTreeMap m = new Interval2IntTreeMap();
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Configuration;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Subgraph;
+import org.gephi.graph.api.types.TimestampIntegerMap;
+import org.gephi.graph.impl.utils.MappedDataInput;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MappedSerializationTest {
+
+    @Test
+    public void testEmpty() throws IOException {
+        GraphModelImpl read = roundTrip(new GraphModelImpl());
+        Assert.assertEquals(read.getGraph().getNodeCount(), 0);
+        Assert.assertEquals(read.getGraph().getEdgeCount(), 0);
+    }
+
+    @Test
+    public void testTopology() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Assert.assertEquals(read.getGraph().getNodeCount(), 3);
+        Assert.assertEquals(read.getGraph().getEdgeCount(), 3);
+
+        Node n1 = read.getGraph().getNode("1");
+        Node n2 = read.getGraph().getNode("2");
+        Node n3 = read.getGraph().getNode("3");
+        Edge e1 = read.getGraph().getEdge("e1");
+        Assert.assertSame(e1.getSource(), n1);
+        Assert.assertSame(e1.getTarget(), n2);
+        Assert.assertEquals(e1.getWeight(), 2.0);
+        Assert.assertTrue(e1.isDirected());
+        Assert.assertFalse(read.getGraph().getEdge("e2").isDirected());
+        Assert.assertEquals(read.getGraph().getEdge("e3").getType(), 1);
+        Assert.assertTrue(read.getDirectedGraph().isAdjacent(n1, n2));
+        Assert.assertEquals(read.getGraph().getDegree(n3), 2);
+        Assert.assertEquals(n1.getLabel(), "foo");
+        Assert.assertEquals(n1.x(), 1f);
+    }
+
+    @Test
+    public void testLazyColumn() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+
+        GraphModelImpl read = roundTrip(graphModel);
+        ColumnImpl age = (ColumnImpl) read.getNodeTable().getColumn("age");
+        Assert.assertNotNull(age.loader);
+        Assert.assertTrue(read.store.nodeTable.store.pendingColumns);
+
+        Assert.assertEquals(read.getGraph().getNode("1").getAttribute(age), 10);
+        Assert.assertNull(age.loader);
+        Assert.assertEquals(read.getGraph().getNode("2").getAttribute(age), 20);
+        Assert.assertNull(read.getGraph().getNode("3").getAttribute(age));
+
+        ColumnImpl rank = (ColumnImpl) read.getEdgeTable().getColumn("rank");
+        Assert.assertNotNull(rank.loader);
+        Assert.assertEquals(read.getGraph().getEdge("e2").getAttribute(rank), "b");
+    }
+
+    @Test
+    public void testLazyColumnGetAttributes() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Node n1 = read.getGraph().getNode("1");
+        Object[] attributes = n1.getAttributes();
+        Assert.assertEquals(attributes[read.getNodeTable().getColumn("age").getIndex()], 10);
+        Assert.assertFalse(read.store.nodeTable.store.pendingColumns);
+    }
+
+    @Test
+    public void testLazyColumnSetAttribute() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Node n2 = read.getGraph().getNode("2");
+        n2.setAttribute("age", 5);
+        Assert.assertEquals(n2.getAttribute("age"), 5);
+        Assert.assertEquals(read.getGraph().getNode("1").getAttribute("age"), 10);
+    }
+
+    @Test
+    public void testLazyColumnIndex() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Column age = read.getNodeTable().getColumn("age");
+        Assert.assertEquals(read.getNodeIndex().count(age, 10), 1);
+        Assert.assertEquals(read.getNodeIndex().count(age, 20), 1);
+    }
+
+    @Test
+    public void testRemovedElements() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+        Node n4 = graphModel.factory().newNode("4");
+        graphModel.getGraph().addNode(n4);
+        graphModel.getGraph().removeNode(graphModel.getGraph().getNode("1"));
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Assert.assertEquals(read.getGraph().getNodeCount(), 3);
+        Assert.assertEquals(read.getGraph().getEdgeCount(), 1);
+        Assert.assertEquals(read.getGraph().getNode("2").getAttribute("age"), 20);
+        Assert.assertNotNull(read.getGraph().getNode("4"));
+        Assert.assertEquals(read.getGraph().getEdge("e2").getAttribute("rank"), "b");
+    }
+
+    @Test
+    public void testView() throws IOException {
+        GraphModelImpl graphModel = createGraphModel();
+        graphModel.getGraph().removeNode(graphModel.getGraph().getNode("1"));
+        GraphView view = graphModel.createView();
+        Subgraph subgraph = graphModel.getGraph(view);
+        subgraph.addNode(graphModel.getGraph().getNode("2"));
+        subgraph.addNode(graphModel.getGraph().getNode("3"));
+        subgraph.addEdge(graphModel.getGraph().getEdge("e2"));
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Assert.assertEquals(read.store.viewStore.size(), 1);
+        GraphView readView = read.store.viewStore.views[0];
+        Subgraph readSubgraph = read.getGraph(readView);
+        Assert.assertEquals(readSubgraph.getNodeCount(), 2);
+        Assert.assertEquals(readSubgraph.getEdgeCount(), 1);
+        Assert.assertTrue(readSubgraph.contains(read.getGraph().getNode("2")));
+        Assert.assertTrue(readSubgraph.contains(read.getGraph().getNode("3")));
+        Assert.assertTrue(readSubgraph.contains(read.getGraph().getEdge("e2")));
+    }
+
+    @Test
+    public void testColumnarAttributes() throws IOException {
+        GraphModelImpl graphModel = new GraphModelImpl(Configuration.builder().enableColumnarAttributes(true).build());
+        Column d = graphModel.getNodeTable().addColumn("d", Double.class);
+        Node n1 = graphModel.factory().newNode("1");
+        graphModel.getGraph().addNode(n1);
+        n1.setAttribute(d, 1.5);
+
+        GraphModelImpl read = roundTrip(graphModel);
+        Assert.assertEquals(read.getGraph().getNode("1").getAttribute("d"), 1.5);
+    }
+
+    @Test
+    public void testRewrite() throws IOException {
+        GraphModelImpl read = roundTrip(roundTrip(createGraphModel()));
+        Assert.assertEquals(read.getGraph().getNode("1").getAttribute("age"), 10);
+        Assert.assertEquals(read.getGraph().getEdge("e2").getAttribute("rank"), "b");
+    }
+
+    @Test
+    public void testRemoveLazyColumn() throws IOException {
+        GraphModelImpl read = roundTrip(createGraphModel());
+        ColumnImpl age = (ColumnImpl) read.getNodeTable().getColumn("age");
+        read.getNodeTable().removeColumn(age);
+        Assert.assertNull(age.loader);
+        Assert.assertNotNull(read.getGraph().getNode("1").getAttributes());
+    }
+
+    @Test
+    public void testDynamicColumnTimeIndex() throws IOException {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        Column weight = graphModel.getNodeTable().addColumn("w", TimestampIntegerMap.class);
+        Node n1 = graphModel.factory().newNode("1");
+        Node n2 = graphModel.factory().newNode("2");
+        graphModel.getGraph().addNode(n1);
+        graphModel.getGraph().addNode(n2);
+        n1.setAttribute(weight, 1, 2.0);
+        n1.setAttribute(weight, 2, 5.0);
+        n2.setAttribute(weight, 3, 8.0);
+
+        GraphModelImpl mapped = roundTrip(graphModel);
+        Assert.assertNull(((ColumnImpl) mapped.getNodeTable().getColumn("w")).loader);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphModel.Serialization.write(new DataOutputStream(bytes), graphModel);
+        GraphModelImpl stream = (GraphModelImpl) GraphModel.Serialization
+                .read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(mapped.getTimeBounds(), stream.getTimeBounds());
+        Assert.assertEquals(mapped.getNodeTimeIndex().getMinTimestamp(), 2.0);
+        Assert.assertEquals(mapped.getNodeTimeIndex().getMaxTimestamp(), 8.0);
+        Assert.assertEquals(mapped.getNodeTimeIndex().getMinTimestamp(), stream.getNodeTimeIndex().getMinTimestamp());
+        Assert.assertEquals(mapped.getNodeTimeIndex().getMaxTimestamp(), stream.getNodeTimeIndex().getMaxTimestamp());
+        Assert.assertEquals(mapped.getNodeTimeIndex().get(5.0).toArray().length, stream.getNodeTimeIndex().get(5.0)
+                .toArray().length);
+        TimestampIndexStore mappedIndexStore = (TimestampIndexStore) mapped.store.timeStore.nodeIndexStore;
+        TimestampIndexStore streamIndexStore = (TimestampIndexStore) stream.store.timeStore.nodeIndexStore;
+        Assert.assertEquals(mappedIndexStore.countMap, streamIndexStore.countMap);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidFile() throws IOException {
+        Path file = Files.createTempFile("graphstore", ".bin");
+        try {
+            Files.write(file, new byte[32]);
+            GraphModel.Serialization.readMapped(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedDataInputSpanningBuffers() throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(3);
+        ByteBuffer second = ByteBuffer.allocate(13);
+        ByteBuffer all = ByteBuffer.allocate(16);
+        all.putInt(42).putLong(-7L).putInt(Float.floatToIntBits(1.5f)).flip();
+        all.get(first.array());
+        all.get(second.array());
+
+        MappedDataInput input = new MappedDataInput(first, second);
+        Assert.assertEquals(input.readInt(), 42);
+        Assert.assertEquals(input.readLong(), -7L);
+        Assert.assertEquals(input.readFloat(), 1.5f);
+    }
+
+    private GraphModelImpl createGraphModel() {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        graphModel.getNodeTable().addColumn("age", Integer.class);
+        graphModel.getEdgeTable().addColumn("rank", String.class);
+        graphModel.addEdgeType("other");
+
+        Node n1 = graphModel.factory().newNode("1");
+        Node n2 = graphModel.factory().newNode("2");
+        Node n3 = graphModel.factory().newNode("3");
+        n1.setLabel("foo");
+        n1.setX(1f);
+        n1.setAttribute("age", 10);
+        n2.setAttribute("age", 20);
+        graphModel.getGraph().addNode(n1);
+        graphModel.getGraph().addNode(n2);
+        graphModel.getGraph().addNode(n3);
+
+        Edge e1 = graphModel.factory().newEdge("e1", n1, n2, 0, 2.0, true);
+        Edge e2 = graphModel.factory().newEdge("e2", n2, n3, 0, 1.0, false);
+        Edge e3 = graphModel.factory().newEdge("e3", n1, n3, 1, 1.0, true);
+        e1.setAttribute("rank", "a");
+        e2.setAttribute("rank", "b");
+        graphModel.getGraph().addEdge(e1);
+        graphModel.getGraph().addEdge(e2);
+        graphModel.getGraph().addEdge(e3);
+        return graphModel;
+    }
+
+    private GraphModelImpl roundTrip(GraphModelImpl graphModel) throws IOException {
+        Path file = Files.createTempFile("graphstore", ".bin");
+        try {
+            GraphModel.Serialization.writeMapped(file, graphModel);
+            return (GraphModelImpl) GraphModel.Serialization.readMapped(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -15,15 +15,19 @@
  */
 package org.gephi.graph.impl;
 
+import cern.colt.bitvector.BitVector;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import org.gephi.graph.api.Node;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -464,6 +468,70 @@ public class NodeStoreTest {
         Assert.assertEquals(nodeStore.blocksCount, blockCount - 1);
     }
 
+    @Test
+    public void testBitVectorIterator() {
+        NodeStore nodeStore = new NodeStore();
+        NodeImpl[] elements = GraphGenerator.generateLargeNodeList();
+        nodeStore.addAll(Arrays.asList(elements));
+        nodeStore.remove(elements[130]);
+
+        BitVector bitVector = new BitVector(elements.length + 1000);
+        int[] ids = { 0, 63, 64, 130, 131, GraphStoreConfiguration.NODESTORE_BLOCK_SIZE, elements.length - 1 };
+        for (int id : ids) {
+            bitVector.set(id);
+        }
+        // Bits of free and out of range store ids are ignored
+        bitVector.set(elements.length + 10);
+
+        List<Node> result = new ArrayList<>();
+        Iterator<Node> itr = nodeStore.iterator(bitVector);
+        while (itr.hasNext()) {
+            result.add(itr.next());
+        }
+        Assert.assertEquals(result, Arrays
+                .asList(elements[0], elements[63], elements[64], elements[131], elements[GraphStoreConfiguration.NODESTORE_BLOCK_SIZE], elements[elements.length - 1]));
+        Assert.assertFalse(nodeStore.iterator(new BitVector(0)).hasNext());
+        Assert.assertFalse(nodeStore.iterator(new BitVector(elements.length)).hasNext());
+    }
+
+    @Test
+    public void testGarbageBlocks() {
+        NodeStore nodeStore = new NodeStore();
+        NodeImpl[] nodes = GraphGenerator.generateLargeNodeList();
+        nodeStore.addAll(Arrays.asList(nodes));
+
+        NodeImpl first = nodes[1];
+        NodeImpl third = nodes[GraphStoreConfiguration.NODESTORE_BLOCK_SIZE * 2 + 1];
+        nodeStore.remove(third);
+        nodeStore.remove(first);
+        Assert.assertEquals(nodeStore.garbageBlocks.cardinality(), 2);
+
+        // The lowest block is reused first
+        nodeStore.add(first);
+        Assert.assertEquals(first.storeId, 1);
+        Assert.assertEquals(nodeStore.garbageBlocks.nextSetBit(0), 2);
+        nodeStore.add(third);
+        Assert.assertEquals(third.storeId, GraphStoreConfiguration.NODESTORE_BLOCK_SIZE * 2 + 1);
+        Assert.assertTrue(nodeStore.garbageBlocks.isEmpty());
+        Assert.assertEquals(nodeStore.garbageSize, 0);
+    }
+
+    @Test
+    public void testGarbageBlocksTrimmed() {
+        NodeStore nodeStore = new NodeStore();
+        NodeImpl[] nodes = GraphGenerator.generateLargeNodeList();
+        nodeStore.addAll(Arrays.asList(nodes));
+        for (int i = nodes.length - 1; i >= GraphStoreConfiguration.NODESTORE_BLOCK_SIZE; i--) {
+            nodeStore.remove(nodes[i]);
+        }
+
+        Assert.assertEquals(nodeStore.blocksCount, 1);
+        Assert.assertTrue(nodeStore.garbageBlocks.isEmpty());
+
+        nodeStore.removeAll(Arrays.asList(nodeStore.toArray()));
+        Assert.assertTrue(nodeStore.garbageBlocks.isEmpty());
+    }
+
     @Test
     public void testBlockCountsEmpty() {
         NodeStore nodeStore = new NodeStore();
@@ -530,6 +598,54 @@ public class NodeStoreTest {
         }
     }
 
+    @Test
+    public void testParallelStream() {
+        NodeStore nodeStore = GraphGenerator.generateNodeStore(10000);
+        List<NodeImpl> removedNodes = removeSomeNodes(nodeStore);
+
+        Set<Node> expected = new HashSet<>(nodeStore.toCollection());
+        Set<Node> result = nodeStore.parallelStream().collect(Collectors.toSet());
+        Assert.assertEquals(result, expected);
+        Assert.assertEquals(nodeStore.parallelStream().count(), nodeStore.size());
+        for (NodeImpl n : removedNodes) {
+            Assert.assertFalse(result.contains(n));
+        }
+    }
+
+    @Test
+    public void testParallelStreamEmpty() {
+        NodeStore nodeStore = new NodeStore();
+        Assert.assertEquals(nodeStore.parallelStream().count(), 0);
+    }
+
+    @Test
+    public void testSpliteratorSplit() {
+        NodeStore nodeStore = GraphGenerator.generateNodeStore(10000);
+        Spliterator<Node> spliterator = nodeStore.spliterator();
+        Spliterator<Node> prefix = spliterator.trySplit();
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(prefix.estimateSize() % 64, 0);
+
+        Set<Node> nodes = new HashSet<>();
+        prefix.forEachRemaining(n -> Assert.assertTrue(nodes.add(n)));
+        spliterator.forEachRemaining(n -> Assert.assertTrue(nodes.add(n)));
+        Assert.assertEquals(nodes.size(), nodeStore.size());
+    }
+
+    @Test
+    public void testSpliteratorTryAdvance() {
+        NodeStore nodeStore = GraphGenerator.generateNodeStore(10);
+        nodeStore.remove(nodeStore.get(0));
+        Spliterator<Node> spliterator = nodeStore.spliterator();
+
+        int count = 0;
+        while (spliterator.tryAdvance(n -> Assert.assertNotNull(n))) {
+            count++;
+        }
+        Assert.assertEquals(count, 9);
+        Assert.assertFalse(spliterator.tryAdvance(n -> Assert.fail()));
+    }
+
     private List<NodeImpl> removeSomeNodes(NodeStore store) {
         return removeSomeNodes(store, 0.3f);
     }
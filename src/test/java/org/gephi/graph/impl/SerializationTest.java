@@ -675,6 +675,64 @@ public class SerializationTest {
         Assert.assertTrue(graphAttributes.deepEquals(l));
     }
 
+    @Test
+    public void testChunkedElements() throws IOException, ClassNotFoundException {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        ColumnImpl col = (ColumnImpl) graphModel.getNodeTable().addColumn("foo", String.class);
+        GraphStore store = graphModel.store;
+        NodeImpl[] nodes = GraphGenerator.generateNodeList(Serialization.CHUNK_SIZE * 2 + 10, store);
+        store.addAllNodes(Arrays.asList(nodes));
+        for (NodeImpl n : nodes) {
+            n.setAttribute(col, "value" + n.getId());
+        }
+        store.addAllEdges(Arrays.asList(GraphGenerator.generateEdgeList(store.nodeStore, 9000, 0, true, true, false)));
+        store.removeNode(nodes[5]);
+
+        DataInputOutput dio = new DataInputOutput();
+        new Serialization().serializeGraphModel(dio, graphModel);
+        GraphModelImpl read = new Serialization().deserializeGraphModel(new DataInputOutput(dio.toByteArray()));
+
+        Assert.assertEquals(read.store.getNodeCount(), store.getNodeCount());
+        Assert.assertEquals(read.store.getEdgeCount(), store.getEdgeCount());
+        Assert.assertNull(read.store.getNode(nodes[5].getId()));
+        for (EdgeImpl e : store.edgeStore.toArray()) {
+            EdgeImpl readEdge = read.store.getEdge(e.getId());
+            Assert.assertEquals(readEdge.getSource().getId(), e.getSource().getId());
+            Assert.assertEquals(readEdge.getTarget().getId(), e.getTarget().getId());
+        }
+        NodeImpl last = nodes[nodes.length - 1];
+        Assert.assertEquals(read.store.getNode(last.getId()).getAttribute("foo"), "value" + last.getId());
+    }
+
+    @Test
+    public void testReadSequentialElements() throws IOException, ClassNotFoundException {
+        GraphModelImpl graphModel = new GraphModelImpl();
+        GraphStore store = graphModel.store;
+        NodeImpl[] nodes = GraphGenerator.generateSmallNodeList();
+        store.addAllNodes(Arrays.asList(nodes));
+        EdgeImpl edge = new EdgeImpl("0", store, nodes[0], nodes[1], 0, 1.0, true);
+        store.addEdge(edge);
+
+        // Format written before version 0.6
+        Serialization ser = new Serialization(graphModel);
+        DataInputOutput dio = new DataInputOutput();
+        ser.serialize(dio, 0.5f);
+        ser.serialize(dio, graphModel.configuration);
+        dio.write(Serialization.GRAPH_STORE);
+        ser.serializeGraphStoreHeader(dio, store);
+        ser.serialize(dio, nodes.length + 1);
+        for (NodeImpl n : nodes) {
+            ser.serialize(dio, n);
+        }
+        ser.serialize(dio, edge);
+        ser.serialize(dio, store.viewStore);
+
+        GraphModelImpl read = new Serialization().deserializeGraphModel(new DataInputOutput(dio.toByteArray()));
+        Assert.assertEquals(read.store.getNodeCount(), nodes.length);
+        Assert.assertEquals(read.store.getEdgeCount(), 1);
+        Assert.assertEquals(read.store.getEdge("0").getSource().getId(), nodes[0].getId());
+    }
+
     @Test
     public void testTimeFormat() throws IOException, ClassNotFoundException {
         GraphModelImpl graphModel = new GraphModelImpl();
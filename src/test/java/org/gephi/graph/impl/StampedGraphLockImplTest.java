@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012-2013 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.graph.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.gephi.graph.api.Configuration;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StampedGraphLockImplTest {
+
+    @Test
+    public void testValidate() {
+        StampedGraphLockImpl lock = new StampedGraphLockImpl();
+        long stamp = lock.tryOptimisticRead();
+        Assert.assertNotEquals(stamp, 0L);
+        Assert.assertTrue(lock.validate(stamp));
+        lock.writeLock();
+        lock.writeUnlock();
+        Assert.assertFalse(lock.validate(stamp));
+        Assert.assertTrue(lock.validate(lock.tryOptimisticRead()));
+    }
+
+    @Test
+    public void testOptimisticReadDuringWrite() {
+        StampedGraphLockImpl lock = new StampedGraphLockImpl();
+        lock.writeLock();
+        Assert.assertEquals(lock.tryOptimisticRead(), 0L);
+        lock.writeUnlock();
+        Assert.assertNotEquals(lock.tryOptimisticRead(), 0L);
+    }
+
+    @Test
+    public void testReentrantWriteLock() {
+        StampedGraphLockImpl lock = new StampedGraphLockImpl();
+        lock.writeLock();
+        lock.writeLock();
+        lock.readLock();
+        Assert.assertEquals(lock.getWriteHoldCount(), 2);
+        lock.readUnlock();
+        lock.writeUnlock();
+        Assert.assertEquals(lock.tryOptimisticRead(), 0L);
+        lock.writeUnlock();
+        Assert.assertEquals(lock.getWriteHoldCount(), 0);
+        Assert.assertNotEquals(lock.tryOptimisticRead(), 0L);
+    }
+
+    @Test(expectedExceptions = IllegalMonitorStateException.class)
+    public void testWriteLockAfterReadLock() {
+        StampedGraphLockImpl lock = new StampedGraphLockImpl();
+        lock.readLock();
+        lock.writeLock();
+    }
+
+    @Test(expectedExceptions = IllegalMonitorStateException.class)
+    public void testWriteUnlockWithoutLock() {
+        StampedGraphLockImpl lock = new StampedGraphLockImpl();
+        lock.writeUnlock();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        GraphStore graphStore = new GraphStore();
+        Assert.assertFalse(graphStore.lock instanceof StampedGraphLockImpl);
+        Assert.assertNull(graphStore.optimisticLock);
+    }
+
+    @Test
+    public void testDisabledWithoutAutoLocking() {
+        GraphStore graphStore = createGraphStore(false);
+        Assert.assertTrue(graphStore.lock instanceof StampedGraphLockImpl);
+        Assert.assertNull(graphStore.optimisticLock);
+    }
+
+    @Test
+    public void testPointQueries() {
+        GraphStore graphStore = createGraphStore(true);
+        Node n1 = graphStore.factory.newNode("1");
+        Node n2 = graphStore.factory.newNode("2");
+        graphStore.addNode(n1);
+        graphStore.addNode(n2);
+        Edge e = graphStore.factory.newEdge("e", n1, n2, 0, 1.0, true);
+        graphStore.addEdge(e);
+
+        Assert.assertSame(graphStore.getNode("1"), n1);
+        Assert.assertSame(graphStore.getNodeByStoreId(n2.getStoreId()), n2);
+        Assert.assertSame(graphStore.getEdge("e"), e);
+        Assert.assertSame(graphStore.getEdgeByStoreId(e.getStoreId()), e);
+        Assert.assertSame(graphStore.getEdge(n1, n2), e);
+        Assert.assertSame(graphStore.getEdge(n1, n2, 0), e);
+        Assert.assertNull(graphStore.getEdge(n2, n1));
+        Assert.assertTrue(graphStore.contains(n1));
+        Assert.assertTrue(graphStore.contains(e));
+        Assert.assertTrue(graphStore.isAdjacent(n1, n2));
+        Assert.assertTrue(graphStore.isDirected());
+        Assert.assertEquals(graphStore.getEdgeCount(0), 1);
+        Assert.assertEquals(graphStore.getEdgeCount(5), 0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testPointQueryException() {
+        GraphStore graphStore = createGraphStore(true);
+        graphStore.contains((Node) null);
+    }
+
+    @Test
+    public void testPointQueryUnderWriteLock() {
+        GraphStore graphStore = createGraphStore(true);
+        Node n1 = graphStore.factory.newNode("1");
+        graphStore.writeLock();
+        try {
+            graphStore.addNode(n1);
+            Assert.assertSame(graphStore.getNode("1"), n1);
+        } finally {
+            graphStore.writeUnlock();
+        }
+    }
+
+    @Test
+    public void testPointQueryWaitsForWriter() throws Exception {
+        final GraphStore graphStore = createGraphStore(true);
+        final Node n1 = graphStore.factory.newNode("1");
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<Node> result = new AtomicReference<>();
+
+        graphStore.writeLock();
+        Thread reader = new Thread(() -> {
+            started.countDown();
+            result.set(graphStore.getNode("1"));
+        });
+        try {
+            reader.start();
+            started.await();
+            graphStore.addNode(n1);
+        } finally {
+            graphStore.writeUnlock();
+        }
+        reader.join();
+        Assert.assertSame(result.get(), n1);
+    }
+
+    private GraphStore createGraphStore(boolean autoLocking) {
+        Configuration config = Configuration.builder().enableOptimisticReads(true).enableAutoLocking(autoLocking)
+                .build();
+        return new GraphStore(null, new ConfigurationImpl(config));
+    }
+}
@@ -18,7 +18,10 @@ package org.gephi.graph.impl;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.Interval;
 import org.gephi.graph.api.Node;
@@ -169,6 +172,91 @@ public class TimestampIndexImplTest {
         Assert.assertFalse(store.mainIndex.hasElements());
     }
 
+    @Test
+    public void testGetElementsWithStore() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        NodeImpl[] nodes = graphStore.getNodes().toCollection().toArray(new NodeImpl[0]);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].addTimestamp(i % 3);
+        }
+        TimestampIndexStore store = (TimestampIndexStore) graphStore.timeStore.nodeIndexStore;
+
+        Set<Node> expected = new HashSet<>();
+        for (int i = 0; i < nodes.length; i++) {
+            if (i % 3 >= 1) {
+                expected.add(nodes[i]);
+            }
+        }
+        Assert.assertEquals(store.mainIndex.get(new Interval(1.0, 2.0)).toSet(), expected);
+        Assert.assertEquals(store.mainIndex.get(new Interval(1.0, 2.0)).toArray().length, expected.size());
+        Assert.assertEquals(store.mainIndex.get(0.0).toCollection().size(), (nodes.length + 2) / 3);
+        Assert.assertEquals(store.getStoreIds(new Interval(1.0, 2.0)).cardinality(), expected.size());
+
+        graphStore.removeNode(nodes[1]);
+        expected.remove(nodes[1]);
+        Assert.assertEquals(store.mainIndex.get(new Interval(1.0, 2.0)).toSet(), expected);
+    }
+
+    @Test
+    public void testGetElementsAfterCompact() {
+        GraphStore graphStore = GraphGenerator.generateSmallGraphStore();
+        NodeImpl[] nodes = graphStore.getNodes().toCollection().toArray(new NodeImpl[0]);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].addTimestamp(i % 3);
+        }
+        for (int i = 0; i < nodes.length; i += 2) {
+            graphStore.removeNode(nodes[i]);
+        }
+        Assert.assertTrue(graphStore.compact());
+
+        TimestampIndexStore store = (TimestampIndexStore) graphStore.timeStore.nodeIndexStore;
+        Set<Node> expected = new HashSet<>();
+        for (int i = 1; i < nodes.length; i += 2) {
+            if (i % 3 == 1) {
+                expected.add(nodes[i]);
+            }
+        }
+        Assert.assertEquals(store.mainIndex.get(1.0).toSet(), expected);
+        for (Object element : store.mainIndex.get(new Interval(0.0, 2.0))) {
+            Assert.assertTrue(graphStore.contains((Node) element));
+        }
+    }
+
+    @Test
+    public void testRemoveWhileIterating() {
+        GraphStore graphStore = GraphGenerator.generateEmptyGraphStore();
+        for (int i = 0; i < 10; i++) {
+            NodeImpl node = new NodeImpl(String.valueOf(i), graphStore);
+            graphStore.addNode(node);
+            node.addTimestamp(1.0);
+        }
+
+        int count = 0;
+        for (Object element : ((TimestampIndexStore) graphStore.timeStore.nodeIndexStore).mainIndex
+                .get(new Interval(0.0, 2.0))) {
+            graphStore.removeNode((Node) element);
+            count++;
+        }
+        Assert.assertEquals(count, 10);
+        Assert.assertEquals(graphStore.getNodeCount(), 0);
+    }
+
+    @Test
+    public void testSkipRemovedWhileIterating() {
+        GraphStore graphStore = GraphGenerator.generateEmptyGraphStore();
+        NodeImpl[] nodes = new NodeImpl[10];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new NodeImpl(String.valueOf(i), graphStore);
+            graphStore.addNode(nodes[i]);
+            nodes[i].addTimestamp(1.0);
+        }
+
+        Iterator<?> itr = ((TimestampIndexStore) graphStore.timeStore.nodeIndexStore).mainIndex.get(1.0).iterator();
+        Assert.assertSame(itr.next(), nodes[0]);
+        graphStore.removeNode(nodes[1]);
+        Assert.assertSame(itr.next(), nodes[2]);
+    }
+
     // UTILITY
     private <T> Object[] getArrayFromIterable(Iterable<T> iterable) {
         List<T> list = new ArrayList<>();
@@ -22,8 +22,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeCursor;
 import org.gephi.graph.api.EdgeIterable;
+import org.gephi.graph.api.NeighborCursor;
 import org.gephi.graph.api.Node;
+import org.gephi.graph.api.NodeIterable;
 import org.gephi.graph.api.UndirectedGraph;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -211,4 +214,36 @@ public class UndirectedDecoratorTest {
         }
         Assert.assertEquals(edgeSet.size(), 0);
     }
+
+    @Test
+    public void testCursors() {
+        GraphStore store = GraphGenerator.generateSmallMixedGraphStore();
+        UndirectedGraph graph = store.undirectedDecorator;
+        EdgeCursor edgeCursor = graph.getEdgeCursor();
+        NeighborCursor neighborCursor = graph.getNeighborCursor();
+        for (Node node : graph.getNodes().toArray()) {
+            assertEdgeCursor(edgeCursor, node, graph.getEdges(node));
+            assertNeighborCursor(neighborCursor, node, graph.getNeighbors(node));
+        }
+    }
+
+    private static void assertEdgeCursor(EdgeCursor cursor, Node node, EdgeIterable expected) {
+        cursor.reset(node);
+        for (Edge edge : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), edge.getStoreId());
+            Assert.assertSame(cursor.edge(), edge);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.edge());
+    }
+
+    private static void assertNeighborCursor(NeighborCursor cursor, Node node, NodeIterable expected) {
+        cursor.reset(node);
+        for (Node neighbor : expected) {
+            Assert.assertEquals(cursor.nextStoreId(), neighbor.getStoreId());
+            Assert.assertSame(cursor.node(), neighbor);
+        }
+        Assert.assertEquals(cursor.nextStoreId(), -1);
+        Assert.assertNull(cursor.node());
+    }
 }